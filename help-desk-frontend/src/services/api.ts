@@ -18,6 +18,42 @@ api.interceptors.request.use(
   }
 )
 
+let refreshing: Promise<string> | null = null
+
+/**
+ * Renova o access token com o refresh token e devolve o novo access token.
+ * Chamadas simultâneas (interceptor e stream de eventos) compartilham a mesma
+ * renovação: o refresh token é trocado a cada uso e não pode ser enviado duas vezes.
+ * Sem refresh token, ou se a renovação falhar, encerra a sessão.
+ */
+export function refreshAccessToken(): Promise<string> {
+  if (!refreshing) {
+    refreshing = (async () => {
+      const refreshToken = sessionStorage.getItem('refreshToken')
+      if (!refreshToken) {
+        throw new Error('Sem refresh token')
+      }
+      const response = await axios.post('http://localhost:8080/api/auth/refresh', {
+        refreshToken
+      })
+      const { accessToken, refreshToken: newRefreshToken } = response.data
+      sessionStorage.setItem('token', accessToken)
+      sessionStorage.setItem('refreshToken', newRefreshToken)
+      return accessToken as string
+    })()
+      .catch((refreshError) => {
+        // Falha no refresh, fazer logout
+        sessionStorage.clear()
+        window.location.href = '/login'
+        throw refreshError
+      })
+      .finally(() => {
+        refreshing = null
+      })
+  }
+  return refreshing
+}
+
 // Interceptor de RESPONSE: Trata erros 401 (token expirado) e 429 (rate limit)
 api.interceptors.response.use(
   (response) => response,
@@ -29,25 +65,7 @@ api.interceptors.response.use(
       originalRequest._retry = true
 
       try {
-        const refreshToken = sessionStorage.getItem('refreshToken')
-
-        if (!refreshToken) {
-          // Sem refresh token, redirecionar para login
-          sessionStorage.clear()
-          window.location.href = '/login'
-          return Promise.reject(error)
-        }
-
-        // Tentar renovar tokens
-        const response = await axios.post('http://localhost:8080/api/auth/refresh', {
-          refreshToken
-        })
-
-        const { accessToken, refreshToken: newRefreshToken } = response.data
-
-        // Salvar novos tokens
-        sessionStorage.setItem('token', accessToken)
-        sessionStorage.setItem('refreshToken', newRefreshToken)
+        const accessToken = await refreshAccessToken()
 
         // Atualizar header da requisição original
         originalRequest.headers.Authorization = `Bearer ${accessToken}`
@@ -55,9 +73,6 @@ api.interceptors.response.use(
         // Retentar requisição original
         return api(originalRequest)
       } catch (refreshError) {
-        // Falha no refresh, fazer logout
-        sessionStorage.clear()
-        window.location.href = '/login'
         return Promise.reject(refreshError)
       }
     }
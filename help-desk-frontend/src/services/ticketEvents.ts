@@ -0,0 +1,150 @@
+import api, { refreshAccessToken } from '@/services/api'
+
+// Eventos do stream /api/tickets/events; 'resync' pede para recarregar a lista
+export type TicketEventType =
+  | 'ticket.created'
+  | 'ticket.assigned'
+  | 'ticket.closed'
+  | 'ticket.reopened'
+  | 'ticket.commented'
+  | 'resync'
+
+export interface TicketEventData {
+  ticketId: number
+  solicitanteId: number
+  tecnicoId: number | null
+  message: string
+  tecnico?: string
+  solucao?: string
+}
+
+type TicketEventHandler = (type: TicketEventType, data: TicketEventData) => void
+
+// Renova antes de reconectar se o token vence nos próximos 60 s
+const MARGEM_EXPIRACAO_MS = 60_000
+
+class NaoAutorizado extends Error {}
+
+/**
+ * Instante (ms) em que o JWT expira, ou null se o token não tiver 'exp' legível.
+ */
+function expiraEm(token: string): number | null {
+  try {
+    const payload = token.split('.')[1].replace(/-/g, '+').replace(/_/g, '/')
+    const exp = JSON.parse(atob(payload)).exp
+    return typeof exp === 'number' ? exp * 1000 : null
+  } catch {
+    return null
+  }
+}
+
+/**
+ * Token válido para (re)conectar: o da sessão ou, se já venceu ou está para
+ * vencer, um novo obtido pelo mesmo refresh do interceptor de api.ts.
+ */
+async function tokenAtual(): Promise<string | null> {
+  const token = sessionStorage.getItem('token')
+  if (!token) return null
+  const exp = expiraEm(token)
+  if (exp !== null && exp - Date.now() < MARGEM_EXPIRACAO_MS) {
+    return refreshAccessToken()
+  }
+  return token
+}
+
+/**
+ * Conecta ao stream SSE de chamados e reconecta sozinho, mandando Last-Event-ID
+ * para receber só o que foi perdido. Usa fetch em vez de EventSource porque o
+ * EventSource não envia o header Authorization.
+ *
+ * O token é conferido antes de cada conexão e renovado se estiver vencendo. Um
+ * 401 mesmo assim provoca uma renovação e uma nova tentativa; um segundo 401
+ * seguido (ou falha na renovação, que encerra a sessão) para as reconexões.
+ *
+ * Retorna a função que encerra a conexão.
+ */
+export function connectTicketEvents(onEvent: TicketEventHandler): () => void {
+  const controller = new AbortController()
+  let lastEventId: string | null = null
+  let retryMs = 3000
+
+  const dispatch = (block: string) => {
+    let id: string | null = null
+    let type = 'message'
+    const data: string[] = []
+    for (const line of block.split('\n')) {
+      if (line.startsWith(':')) continue // comentário (keep-alive)
+      const separator = line.indexOf(':')
+      const field = separator < 0 ? line : line.slice(0, separator)
+      const value = separator < 0 ? '' : line.slice(separator + 1).replace(/^ /, '')
+      if (field === 'id') id = value
+      else if (field === 'event') type = value
+      else if (field === 'data') data.push(value)
+      else if (field === 'retry' && /^\d+$/.test(value)) retryMs = Number(value)
+    }
+    if (id) lastEventId = id
+    if (data.length === 0) return
+    try {
+      onEvent(type as TicketEventType, JSON.parse(data.join('\n')))
+    } catch (error) {
+      console.error('Evento de chamado inválido:', error)
+    }
+  }
+
+  const run = async () => {
+    let renovouAposRecusa = false
+    while (!controller.signal.aborted) {
+      try {
+        const headers: Record<string, string> = { Accept: 'text/event-stream' }
+        const token = await tokenAtual()
+        if (token) headers.Authorization = `Bearer ${token}`
+        if (lastEventId) headers['Last-Event-ID'] = lastEventId
+
+        const response = await fetch(`${api.defaults.baseURL}/api/tickets/events`, {
+          headers,
+          signal: controller.signal,
+        })
+        if (response.status === 401) {
+          throw new NaoAutorizado('Stream de eventos respondeu 401')
+        }
+        if (!response.ok || !response.body) {
+          throw new Error(`Stream de eventos respondeu ${response.status}`)
+        }
+        renovouAposRecusa = false
+
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader()
+        let buffer = ''
+        for (;;) {
+          const { value, done } = await reader.read()
+          if (done) break
+          buffer += value.replace(/\r\n?/g, '\n')
+          let end: number
+          while ((end = buffer.indexOf('\n\n')) >= 0) {
+            dispatch(buffer.slice(0, end))
+            buffer = buffer.slice(end + 2)
+          }
+        }
+      } catch (error) {
+        if (controller.signal.aborted) return
+        if (error instanceof NaoAutorizado) {
+          if (renovouAposRecusa) {
+            console.warn('Stream de eventos recusou o token renovado; reconexão interrompida')
+            return
+          }
+          renovouAposRecusa = true
+          try {
+            await refreshAccessToken()
+          } catch {
+            return // sessão encerrada pelo refresh
+          }
+          continue
+        }
+        console.warn('Stream de eventos interrompido, reconectando:', error)
+      }
+      await new Promise((resolve) => setTimeout(resolve, retryMs))
+    }
+  }
+
+  run()
+  return () => controller.abort()
+}
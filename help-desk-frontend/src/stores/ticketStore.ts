@@ -13,6 +13,7 @@ import type {
   Anexo,
 } from '@/types/index'
 import api from '@/services/api'
+import { connectTicketEvents, type TicketEventData, type TicketEventType } from '@/services/ticketEvents'
 import { jwtDecode } from 'jwt-decode'
 
 // Re-exportar Ticket para uso em outros componentes
@@ -188,6 +189,81 @@ export const useTicketStore = defineStore('tickets', () => {
       token.value = ''
     }
   }
+  // ============================================
+  // EVENTOS EM TEMPO REAL (SSE)
+  // ============================================
+
+  // Com o stream aberto, os painéis não precisam recarregar a lista nem as estatísticas
+  let disconnectTicketEvents: (() => void) | null = null
+  let statsRefreshTimer: ReturnType<typeof setTimeout> | null = null
+
+  function startTicketEvents() {
+    if (disconnectTicketEvents || !token.value) return
+    disconnectTicketEvents = connectTicketEvents((type, data) => {
+      applyTicketEvent(type, data).catch((error) => console.error('Falha ao aplicar evento:', error))
+    })
+  }
+
+  function stopTicketEvents() {
+    disconnectTicketEvents?.()
+    disconnectTicketEvents = null
+    if (statsRefreshTimer) clearTimeout(statsRefreshTimer)
+    statsRefreshTimer = null
+  }
+
+  // Várias transições seguidas geram uma única consulta às estatísticas
+  function scheduleStatsRefresh() {
+    if (!dashboardStats.value || statsRefreshTimer) return
+    statsRefreshTimer = setTimeout(() => {
+      statsRefreshTimer = null
+      fetchDashboardStats()
+    }, 2000)
+  }
+
+  async function applyTicketEvent(type: TicketEventType, data: TicketEventData) {
+    if (type === 'resync') {
+      await fetchTickets()
+      scheduleStatsRefresh()
+      return
+    }
+    const ticket = tickets.value.find((t) => t.id === data.ticketId)
+    switch (type) {
+      case 'ticket.created':
+        if (!ticket) {
+          const response = await api.get(`/api/tickets/${data.ticketId}`)
+          tickets.value.unshift(mapTicketFromApi(response.data))
+        }
+        break
+      case 'ticket.assigned':
+        if (ticket) {
+          ticket.status = 'Em Andamento'
+          ticket.assignedTo = data.tecnico ?? ticket.assignedTo
+        }
+        break
+      case 'ticket.closed':
+        if (ticket) {
+          ticket.status = 'Resolvido'
+          ticket.solution = data.solucao ?? ticket.solution
+          ticket.closedAt = new Date().toISOString()
+        }
+        break
+      case 'ticket.reopened':
+        if (ticket) {
+          ticket.status = 'Aberto'
+          ticket.isReopened = true
+          ticket.closedAt = null
+          ticket.solution = null
+        }
+        break
+    }
+    if (activeTicket.value?.id === data.ticketId) {
+      await fetchTicketById(data.ticketId)
+    }
+    if (type !== 'ticket.commented') {
+      scheduleStatsRefresh()
+    }
+  }
+
   async function login(credentials: { email: string; senha: string }) {
     const response = await api.post('/api/auth/login', credentials)
     // Backend retorna TokenPairDTO com accessToken e refreshToken
@@ -220,6 +296,8 @@ export const useTicketStore = defineStore('tickets', () => {
       }
     }
 
+    stopTicketEvents()
+
     // Limpar estado
     currentUser.value = { name: '', email: '', role: null }
     token.value = ''
@@ -466,6 +544,8 @@ export const useTicketStore = defineStore('tickets', () => {
     reopenTicket,
     fetchAnalysts,
     fetchDashboardStats,
+    startTicketEvents,
+    stopTicketEvents,
     assignTicket,
     createCategory,
     createPriority,
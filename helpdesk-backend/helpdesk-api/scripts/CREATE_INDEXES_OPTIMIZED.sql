@@ -58,6 +58,12 @@ ON chamados(id_solicitante);
 CREATE INDEX IF NOT EXISTS idx_chamados_tecnico
 ON chamados(id_tecnico_atribuido);
 
+-- Prazo de SLA: chamados ativos ordenados pelo vencimento
+-- Impacto: "SLA violado" vira range scan apenas sobre os vencidos
+CREATE INDEX IF NOT EXISTS idx_chamados_sla_deadline_ativos
+ON chamados(sla_deadline)
+WHERE status IN ('Aberto', 'Em Andamento');
+
 -- Data Abertura: Relatórios e contagens por ano (20+ queries/min)
 -- Impacto: Relatórios mensais/anuais 50x mais rápidos
 CREATE INDEX IF NOT EXISTS idx_chamados_data_abertura
@@ -92,6 +98,16 @@ ON chamados(id_tecnico_atribuido, status);
 CREATE INDEX IF NOT EXISTS idx_chamados_solicitante_status
 ON chamados(id_solicitante, status);
 
+-- Listagem por cursor: GET /api/tickets/cursor (keyset em data_abertura, id)
+-- Impacto: cada página é um range scan a partir do cursor, sem OFFSET
+-- Query: SELECT * WHERE data_abertura <= ? AND (data_abertura < ? OR id < ?) ORDER BY data_abertura DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_chamados_keyset
+ON chamados(data_abertura DESC, id DESC);
+
+-- Listagem por cursor do usuário comum (apenas os próprios chamados)
+CREATE INDEX IF NOT EXISTS idx_chamados_solicitante_keyset
+ON chamados(id_solicitante, data_abertura DESC, id DESC);
+
 
 -- =====================================================
 -- FASE 3: ÍNDICES PARCIAIS (OTIMIZAÇÃO AVANÇADA)
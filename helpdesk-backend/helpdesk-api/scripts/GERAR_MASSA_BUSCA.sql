@@ -0,0 +1,91 @@
+-- =====================================================
+-- MASSA DE DADOS PARA A BUSCA TEXTUAL
+-- Help Desk Backend - PostgreSQL
+-- =====================================================
+--
+-- Gera :total chamados (padrão 1.000.000) com descrição, solução e três
+-- comentários em português, e indexa todos em chamados_busca, para medir
+-- GET /api/tickets/search com o k6-tests/search-test.js.
+--
+-- Use só em banco de teste: os chamados ficam com número BUSCA-<n> e são
+-- atribuídos aos técnicos já cadastrados (perfil technician). Rode com a
+-- API parada ou depois da subida (a migração V9 precisa ter criado o índice);
+-- o resumo diário só inclui os chamados novos na próxima reconstrução
+-- (rollup.reconcile.cron ou reiniciar com a tabela vazia).
+--
+-- COMO USAR:
+--   psql -U postgres -d helpdesk -v total=1000000 -f scripts/GERAR_MASSA_BUSCA.sql
+--
+-- Leva alguns minutos; o to_tsvector de 1M documentos é a parte mais lenta.
+
+\if :{?total}
+\else
+  \set total 1000000
+\endif
+
+BEGIN;
+
+CREATE TEMP TABLE vocab_massa AS
+SELECT ARRAY['Impressora', 'Notebook', 'Monitor', 'Teclado', 'Mouse', 'Roteador', 'Switch', 'Servidor',
+             'Telefone IP', 'Scanner', 'Nobreak', 'Projetor', 'Webcam', 'Headset', 'Leitor de código de barras'] AS equipamentos,
+       ARRAY['não liga', 'está travando', 'sem conexão com a rede', 'lento para abrir', 'com tela azul',
+             'não imprime', 'fazendo barulho', 'reiniciando sozinho', 'sem acesso ao sistema', 'com erro de driver',
+             'perdeu a configuração', 'não reconhece o dispositivo'] AS sintomas,
+       ARRAY['do financeiro', 'da recepção', 'do almoxarifado', 'do RH', 'da diretoria', 'do laboratório',
+             'da sala de reuniões', 'do faturamento', 'do suporte', 'da expedição'] AS setores,
+       ARRAY['Troca do cabo de rede', 'Reinstalação do driver', 'Atualização do firmware', 'Limpeza do cabeçote',
+             'Substituição da fonte', 'Reset das configurações de fábrica', 'Liberação de acesso no firewall',
+             'Troca do toner', 'Formatação e reinstalação do sistema', 'Ajuste das permissões do usuário'] AS solucoes,
+       ARRAY['Usuário informou que o problema começou após a atualização.', 'Aguardando peça do fornecedor.',
+             'Testado em outra estação, o erro se repete.', 'Senha do usuário expirada, redefinida.',
+             'VPN desconectando a cada poucos minutos.', 'Equipamento em garantia, aberto chamado com o fabricante.',
+             'Problema intermitente, monitorando.', 'Usuário confirmou que voltou a funcionar.',
+             'Encaminhado para a equipe de infraestrutura.', 'Backup do e-mail concluído antes da formatação.'] AS comentarios,
+       (SELECT array_agg(id ORDER BY id) FROM usuarios) AS solicitantes,
+       (SELECT array_agg(id ORDER BY id) FROM usuarios WHERE perfil = 'technician') AS tecnicos;
+
+-- ~5 anos de chamados; 5% abertos sem técnico, 10% em andamento, o resto resolvido
+INSERT INTO chamados (numero_chamado, descricao, categoria, prioridade, status, data_abertura, data_fechamento,
+                      sla_deadline, solucao, foi_reaberto, versao, id_solicitante, id_tecnico_atribuido)
+SELECT 'BUSCA-' || g,
+       v.equipamentos[g % 15 + 1] || ' ' || v.setores[g % 10 + 1] || ' ' || v.sintomas[(g / 15) % 12 + 1] ||
+           '. Patrimônio ' || (100000 + g % 90000) || ', ramal ' || (2000 + g % 800) || '.',
+       (ARRAY['Hardware', 'Software', 'Rede', 'Acesso', 'Telefonia', 'Impressão'])[g % 6 + 1],
+       (ARRAY['Baixa', 'Média', 'Alta', 'Crítica'])[g % 4 + 1],
+       CASE WHEN g % 20 = 0 THEN 'Aberto' WHEN g % 20 < 3 THEN 'Em Andamento' ELSE 'Resolvido' END,
+       now() - (g * INTERVAL '150 seconds'),
+       CASE WHEN g % 20 >= 3 THEN now() - (g * INTERVAL '150 seconds') + INTERVAL '5 hours' END,
+       now() - (g * INTERVAL '150 seconds') + INTERVAL '72 hours',
+       CASE WHEN g % 20 >= 3 THEN v.solucoes[(g / 7) % 10 + 1] || ' ' || v.setores[(g / 3) % 10 + 1] || '.' END,
+       g % 50 = 0, 0,
+       v.solicitantes[g % cardinality(v.solicitantes) + 1],
+       CASE WHEN g % 20 <> 0 THEN v.tecnicos[g % GREATEST(cardinality(v.tecnicos), 1) + 1] END
+FROM generate_series(1, :total) g, vocab_massa v;
+
+INSERT INTO historico_chamados (id_chamado, id_autor, comentario, data_ocorrencia)
+SELECT c.id, c.id_tecnico_atribuido, v.comentarios[(c.id * 7 + n * 3) % 10 + 1], c.data_abertura + n * INTERVAL '1 hour'
+FROM chamados c, generate_series(1, 3) n, vocab_massa v
+WHERE c.numero_chamado LIKE 'BUSCA-%';
+
+-- Mesmo documento de TicketSearchRepository.DOCUMENTO
+INSERT INTO chamados_busca (id_chamado, documento, atualizado_em)
+SELECT c.id,
+       setweight(to_tsvector('portuguese', c.numero_chamado || ' ' || c.descricao), 'A') ||
+       setweight(to_tsvector('portuguese', COALESCE(c.solucao, '')), 'B') ||
+       setweight(to_tsvector('portuguese', COALESCE((SELECT string_agg(h.comentario, ' ')
+           FROM historico_chamados h WHERE h.id_chamado = c.id), '')), 'C'),
+       now()
+FROM chamados c
+WHERE c.numero_chamado LIKE 'BUSCA-%'
+ON CONFLICT (id_chamado) DO NOTHING;
+
+COMMIT;
+
+ANALYZE chamados;
+ANALYZE historico_chamados;
+ANALYZE chamados_busca;
+
+-- Conferência
+SELECT (SELECT count(*) FROM chamados) AS chamados,
+       (SELECT count(*) FROM chamados_busca) AS indexados,
+       pg_size_pretty(pg_relation_size('idx_chamados_busca_documento')) AS indice_gin;
@@ -0,0 +1,24 @@
+-- =====================================================
+-- MIGRAÇÃO DE ANEXOS PARA O FILE STORAGE
+-- Help Desk Backend - PostgreSQL
+-- =====================================================
+--
+-- Novos anexos são gravados no FileStorageService e a linha em
+-- anexos_chamados guarda apenas metadados e a chave de armazenamento.
+-- O ddl-auto=update cria as colunas novas, mas não remove o NOT NULL
+-- da coluna dados; execute este script antes de subir a nova versão.
+--
+-- Os anexos legados (Base64 em dados) são movidos em lotes pelo
+-- AnexoStorageMigrationService (file.storage.migration.*).
+--
+-- COMO USAR:
+--   psql -U postgres -d helpdesk -f scripts/MIGRATE_ANEXOS_STORAGE.sql
+
+ALTER TABLE anexos_chamados ADD COLUMN IF NOT EXISTS chave_armazenamento VARCHAR(512);
+ALTER TABLE anexos_chamados ADD COLUMN IF NOT EXISTS tamanho BIGINT;
+ALTER TABLE anexos_chamados ALTER COLUMN dados DROP NOT NULL;
+
+-- Acompanhar o progresso da migração
+-- SELECT COUNT(*) FILTER (WHERE chave_armazenamento IS NULL AND dados IS NOT NULL) AS pendentes,
+--        COUNT(*) FILTER (WHERE chave_armazenamento IS NOT NULL)                  AS migrados
+-- FROM anexos_chamados;
@@ -0,0 +1,108 @@
+package br.com.brisabr.helpdesk_api.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eventos de auditoria gravados por segundo: o caminho anterior (uma transação e
+ * um INSERT com retorno da chave IDENTITY por evento, como o {@code save} do
+ * repositório) contra a fila com gravação em lotes do {@link AuditLogWriter}.
+ *
+ * Roda sobre um H2 em memória, sem ida e volta pela rede; no PostgreSQL a
+ * diferença a favor dos lotes é maior.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AuditPipelineBenchmark {
+
+    private static final int EVENTOS = 1_000;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private AuditLogWriter writer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE audit_logs (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "user_id BIGINT, action VARCHAR(100) NOT NULL, details TEXT, ip_address VARCHAR(45), "
+                + "user_agent VARCHAR(500), timestamp TIMESTAMP NOT NULL, status VARCHAR(20))");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+        writer = new AuditLogWriter(jdbcTemplate, transactionTemplate, new SimpleMeterRegistry(), 16_384, 200, 5);
+        writer.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void limpar() {
+        writer.flush(60_000);
+        jdbcTemplate.execute("TRUNCATE TABLE audit_logs");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        writer.shutdown();
+        database.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTOS)
+    public void transacaoPorEvento() {
+        for (int i = 0; i < EVENTOS; i++) {
+            AuditEvent evento = evento(i);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(AuditLogWriter.INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                ps.setObject(1, evento.userId(), Types.BIGINT);
+                ps.setString(2, evento.action());
+                ps.setString(3, evento.details());
+                ps.setString(4, evento.ipAddress());
+                ps.setString(5, evento.userAgent());
+                ps.setObject(6, evento.timestamp());
+                ps.setString(7, evento.status());
+                return ps;
+            }, new GeneratedKeyHolder()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTOS)
+    public boolean filaEmLotes() {
+        for (int i = 0; i < EVENTOS; i++) {
+            writer.enqueue(evento(i));
+        }
+        // Sustentado: a invocação só termina quando tudo foi gravado
+        return writer.flush(60_000);
+    }
+
+    private static AuditEvent evento(int i) {
+        return new AuditEvent((long) i % 50, "LOGIN_FAILURE", "Email: usuario" + i + "@brisa.com.br - Motivo: Credenciais inválidas",
+                "10.0.0." + (i % 250), "Mozilla/5.0 (Windows NT 10.0; Win64; x64)", LocalDateTime.now(), "FAILURE");
+    }
+}
@@ -0,0 +1,230 @@
+package br.com.brisabr.helpdesk_api.dispatch;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Um dia sintético de 50 mil chamados reproduzido no {@link DispatchEngine}, por estratégia.
+ *
+ * O score é o número de chamados distribuídos por milissegundo (chegadas,
+ * confirmações e liberações incluídas). A qualidade da distribuição sai como
+ * métricas secundárias ({@link Qualidade}), no relatório e no JSON do JMH: o dia
+ * é determinístico, então justiça e espera só mudam com a estratégia.
+ *
+ * O dia tem pico no horário comercial, seis categorias com volumes diferentes
+ * e 150 técnicos (dois terços em equipes de duas categorias, o resto generalista).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DispatchSimulationBenchmark {
+
+    private static final int CHAMADOS = 50_000;
+    private static final int TECNICOS = 150;
+    private static final int CAPACIDADE = 5;
+    private static final long MINUTO = 60_000L;
+    private static final String[] CATEGORIAS = {"Rede", "Hardware", "Software", "Acesso", "Email", "Impressora"};
+    private static final String[] PRIORIDADES = {"Crítica", "Alta", "Média", "Baixa"};
+
+    @Param({"least-loaded", "round-robin", "skill-weighted"})
+    public String strategy;
+
+    private DispatchStrategy estrategia;
+    private ChamadoNaFila[] chamados;
+    private long[] duracao;
+    private List<Set<String>> equipes;
+    private List<Map<String, Integer>> experiencias;
+
+    /**
+     * Métricas secundárias do último dia simulado de cada iteração.
+     *
+     * O JMH soma os contadores EVENTS de todas as iterações medidas de todos os
+     * forks; cada iteração grava a sua fração ({@link #registrar}), de modo que o
+     * resultado final é a média entre as iterações.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Qualidade {
+        /** Índice de Jain das atribuições por técnico, de 0 a 1 (1 = todos com o mesmo número). */
+        public double justicaJain;
+        /** Espera média na fila, em minutos simulados. */
+        public double esperaMediaMin;
+        /** Maior espera na fila, em minutos simulados. */
+        public double esperaMaximaMin;
+        /** Tempo médio de uma decisão do engine (chegada ou liberação), em microssegundos. */
+        public double decisaoMediaUs;
+        /** Decisão mais lenta do dia, em microssegundos. */
+        public double decisaoMaximaUs;
+
+        private double fracao;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkParams params) {
+            fracao = 1.0 / (params.getMeasurement().getCount() * Math.max(params.getForks(), 1));
+        }
+
+        void registrar(double justica, double esperaMedia, double esperaMaxima, double decisaoMedia, double decisaoMaxima) {
+            justicaJain = justica * fracao;
+            esperaMediaMin = esperaMedia * fracao;
+            esperaMaximaMin = esperaMaxima * fracao;
+            decisaoMediaUs = decisaoMedia * fracao;
+            decisaoMaximaUs = decisaoMaxima * fracao;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        estrategia = DispatchStrategy.porNome(strategy);
+        Random random = new Random(42);
+
+        chamados = new ChamadoNaFila[CHAMADOS];
+        duracao = new long[CHAMADOS];
+        long[] chegadas = new long[CHAMADOS];
+        for (int i = 0; i < CHAMADOS; i++) {
+            // 80% entre 8h e 18h, o resto espalhado pelo dia
+            long minuto = random.nextInt(10) < 8 ? 480 + random.nextInt(600) : random.nextInt(1440);
+            chegadas[i] = minuto * MINUTO + random.nextInt((int) MINUTO);
+        }
+        Arrays.sort(chegadas);
+        for (int i = 0; i < CHAMADOS; i++) {
+            // Volume decrescente por categoria: Rede ~ 1/3, Impressora ~ 1/20
+            String categoria = CATEGORIAS[Math.min((int) (-Math.log(1 - random.nextDouble()) * 1.8), CATEGORIAS.length - 1)];
+            // 5% crítica, 25% alta, 50% média, 20% baixa
+            int sorteio = random.nextInt(100);
+            int peso = ChamadoNaFila.pesoDe(PRIORIDADES[sorteio < 5 ? 0 : sorteio < 30 ? 1 : sorteio < 80 ? 2 : 3]);
+            long prazo = chegadas[i] + switch (peso) {
+                case 0 -> 120 * MINUTO;
+                case 1 -> 480 * MINUTO;
+                case 3 -> 2880 * MINUTO;
+                default -> 1440 * MINUTO;
+            };
+            chamados[i] = new ChamadoNaFila(i + 1, categoria, peso, prazo, chegadas[i]);
+            // Atendimento exponencial com média de 10 minutos: no pico a demanda passa da capacidade
+            duracao[i] = (long) (-Math.log(1 - random.nextDouble()) * 10 * MINUTO);
+        }
+
+        equipes = new ArrayList<>();
+        experiencias = new ArrayList<>();
+        for (int t = 0; t < TECNICOS; t++) {
+            int equipe = t % 3;
+            equipes.add(t < TECNICOS * 2 / 3
+                    ? Set.of(CATEGORIAS[equipe * 2], CATEGORIAS[equipe * 2 + 1])
+                    : Set.of());
+            experiencias.add(Map.of(CATEGORIAS[random.nextInt(CATEGORIAS.length)], random.nextInt(200)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHAMADOS)
+    public DispatchEngine diaSimulado(Qualidade qualidade) {
+        DispatchEngine engine = new DispatchEngine(estrategia, CAPACIDADE);
+        int[] atribuicoesPorTecnico = new int[TECNICOS + 1];
+        long[] atribuidoEm = new long[CHAMADOS + 1];
+        // Fechamentos futuros: [instante, ticketId, tecnicoId]
+        PriorityQueue<long[]> fechamentos = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        Simulacao simulacao = new Simulacao(engine, atribuicoesPorTecnico, atribuidoEm, fechamentos);
+
+        for (int t = 0; t < TECNICOS; t++) {
+            engine.registrarTecnico(t + 1, equipes.get(t), 0, experiencias.get(t));
+        }
+        for (ChamadoNaFila chamado : chamados) {
+            simulacao.avancar(chamado.chegada());
+            long inicio = System.nanoTime();
+            Optional<Atribuicao> atribuicao = engine.novoChamado(chamado);
+            simulacao.medir(inicio);
+            atribuicao.ifPresent(a -> simulacao.aplicar(a, chamado.chegada()));
+        }
+        simulacao.avancar(Long.MAX_VALUE);
+
+        long esperaTotal = 0;
+        long esperaMax = 0;
+        for (ChamadoNaFila chamado : chamados) {
+            long espera = atribuidoEm[(int) chamado.ticketId()] - chamado.chegada();
+            esperaTotal += espera;
+            esperaMax = Math.max(esperaMax, espera);
+        }
+        double soma = 0;
+        double somaQuadrados = 0;
+        for (int t = 1; t <= TECNICOS; t++) {
+            soma += atribuicoesPorTecnico[t];
+            somaQuadrados += (double) atribuicoesPorTecnico[t] * atribuicoesPorTecnico[t];
+        }
+        qualidade.registrar(soma * soma / (TECNICOS * somaQuadrados),
+                (double) esperaTotal / CHAMADOS / MINUTO,
+                (double) esperaMax / MINUTO,
+                simulacao.decisaoNanos / 1_000.0 / simulacao.decisoes,
+                simulacao.decisaoMaximaNanos / 1_000.0);
+        return engine;
+    }
+
+    /**
+     * Confirma cada decisão como o evento de atribuição faria e agenda o fechamento.
+     * Mede também as chamadas de decisão do engine (o nanoTime em volta de cada
+     * uma entra no score, igual para todas as estratégias).
+     */
+    private final class Simulacao {
+        private final DispatchEngine engine;
+        private final int[] atribuicoesPorTecnico;
+        private final long[] atribuidoEm;
+        private final PriorityQueue<long[]> fechamentos;
+        private long decisoes;
+        private long decisaoNanos;
+        private long decisaoMaximaNanos;
+
+        Simulacao(DispatchEngine engine, int[] atribuicoesPorTecnico, long[] atribuidoEm, PriorityQueue<long[]> fechamentos) {
+            this.engine = engine;
+            this.atribuicoesPorTecnico = atribuicoesPorTecnico;
+            this.atribuidoEm = atribuidoEm;
+            this.fechamentos = fechamentos;
+        }
+
+        void aplicar(Atribuicao atribuicao, long agora) {
+            long ticketId = atribuicao.chamado().ticketId();
+            engine.atribuido(ticketId, atribuicao.tecnicoId());
+            atribuicoesPorTecnico[(int) atribuicao.tecnicoId()]++;
+            atribuidoEm[(int) ticketId] = agora;
+            fechamentos.add(new long[]{agora + duracao[(int) ticketId - 1], ticketId, atribuicao.tecnicoId()});
+        }
+
+        void avancar(long ate) {
+            long[] proximo;
+            while ((proximo = fechamentos.peek()) != null && proximo[0] <= ate) {
+                fechamentos.poll();
+                String categoria = chamados[(int) proximo[1] - 1].categoria();
+                long inicio = System.nanoTime();
+                List<Atribuicao> atribuicoes = engine.finalizado(proximo[1], proximo[2], categoria);
+                medir(inicio);
+                for (Atribuicao atribuicao : atribuicoes) {
+                    aplicar(atribuicao, proximo[0]);
+                }
+            }
+        }
+
+        void medir(long inicio) {
+            long nanos = System.nanoTime() - inicio;
+            decisoes++;
+            decisaoNanos += nanos;
+            decisaoMaximaNanos = Math.max(decisaoMaximaNanos, nanos);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.brisabr.helpdesk_api.ratelimit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RateLimiter#isAllowed} com 32 threads disputando as mesmas janelas.
+ *
+ * {@code contaQuente}: todas as threads tentam a mesma conta a partir do mesmo
+ * IP, o pior caso de contenção no anel. {@code contasEspalhadas}: tentativas
+ * distribuídas entre 1000 contas e 64 IPs, com limites altos para que toda
+ * chamada passe pelo incremento das janelas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(32)
+public class RateLimiterBenchmark {
+
+    private RateLimiter rateLimiter;
+    private RateLimiter rateLimiterAlto;
+    private MockHttpServletRequest[] requisicoes;
+    private String[] emails;
+
+    @Setup
+    public void setUp() {
+        ClientIpResolver resolver = new ClientIpResolver(List.of());
+        rateLimiter = new RateLimiter(new LocalBucketStore(), resolver, 60, 5, 20, 3600);
+        rateLimiterAlto = new RateLimiter(new LocalBucketStore(), resolver, 60, 1_000_000, 1_000_000, 3600);
+
+        requisicoes = new MockHttpServletRequest[64];
+        for (int i = 0; i < requisicoes.length; i++) {
+            requisicoes[i] = new MockHttpServletRequest("POST", "/auth/login");
+            requisicoes[i].setRemoteAddr("10.0." + (i / 256) + "." + (i % 256));
+        }
+        emails = new String[1000];
+        for (int i = 0; i < emails.length; i++) {
+            emails[i] = "usuario" + i + "@empresa.com";
+        }
+    }
+
+    @Benchmark
+    public boolean contaQuente() {
+        return rateLimiter.isAllowed(requisicoes[0], emails[0]);
+    }
+
+    @Benchmark
+    public boolean contasEspalhadas() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return rateLimiterAlto.isAllowed(requisicoes[random.nextInt(requisicoes.length)],
+                emails[random.nextInt(emails.length)]);
+    }
+}
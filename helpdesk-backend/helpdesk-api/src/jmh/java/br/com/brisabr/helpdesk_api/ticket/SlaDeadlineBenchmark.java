@@ -0,0 +1,32 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prazo de SLA por prioridade; calculado para cada chamado sem prazo gravado
+ * nas listagens e ao alimentar o índice de violações.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SlaDeadlineBenchmark {
+
+    @Param({"Crítica", "Alta", "Média", "Baixa"})
+    public String prioridade;
+
+    private final LocalDateTime abertura = LocalDateTime.of(2025, 3, 10, 8, 0);
+
+    @Benchmark
+    public LocalDateTime calcular() {
+        return Ticket.calculateSlaDeadline(abertura, prioridade);
+    }
+}
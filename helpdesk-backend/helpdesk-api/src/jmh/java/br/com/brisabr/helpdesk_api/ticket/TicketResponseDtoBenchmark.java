@@ -0,0 +1,70 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import br.com.brisabr.helpdesk_api.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão de um chamado completo (histórico e anexos) para a resposta da API,
+ * feita em cada GET /api/tickets/{id} e após cada alteração.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TicketResponseDtoBenchmark {
+
+    @Param({"0", "10", "50"})
+    public int historicos;
+
+    private Ticket ticket;
+
+    @Setup
+    public void setUp() {
+        User solicitante = new User("Solicitante", "solicitante@bench.test", "x", "user", null);
+        User tecnico = new User("Técnico", "tecnico@bench.test", "x", "technician", null);
+        LocalDateTime abertura = LocalDateTime.of(2025, 3, 10, 8, 0);
+
+        ticket = new Ticket();
+        ticket.setId(42L);
+        ticket.setNumeroChamado("2025-42");
+        ticket.setDescricao("Impressora do 2º andar não imprime");
+        ticket.setCategoria("Hardware (HD, memória, etc.)");
+        ticket.setPrioridade("Alta");
+        ticket.setStatus("Em Andamento");
+        ticket.setDataAbertura(abertura);
+        ticket.setSlaDeadline(Ticket.calculateSlaDeadline(abertura, "Alta"));
+        ticket.setSolicitante(solicitante);
+        ticket.setAtribuido(tecnico);
+
+        for (int i = 0; i < historicos; i++) {
+            HistoricoChamado historico = new HistoricoChamado();
+            historico.setTicket(ticket);
+            historico.setAutor(i % 2 == 0 ? tecnico : solicitante);
+            historico.setComentario("Atualização " + i);
+            historico.setDataOcorrencia(abertura.plusMinutes(i * 15L));
+            ticket.getHistorico().add(historico);
+        }
+        for (long i = 1; i <= 2; i++) {
+            AnexoChamado anexo = new AnexoChamado();
+            anexo.setId(i);
+            anexo.setNomeArquivo("evidencia" + i + ".png");
+            anexo.setTipoArquivo("image/png");
+            anexo.setTicket(ticket);
+            ticket.getAnexos().add(anexo);
+        }
+    }
+
+    @Benchmark
+    public TicketResponseDTO construir() {
+        return new TicketResponseDTO(ticket);
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão de status em texto para o enum. Os valores gravados no banco são os
+ * nomes de exibição ("Em Andamento"), que não batem com o nome do enum.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TicketStatusBenchmark {
+
+    @Param({"EM_ANDAMENTO", "Aberto", "Em Andamento", "Resolvido"})
+    public String status;
+
+    @Benchmark
+    public TicketStatus fromString() {
+        return TicketStatus.fromString(status);
+    }
+}
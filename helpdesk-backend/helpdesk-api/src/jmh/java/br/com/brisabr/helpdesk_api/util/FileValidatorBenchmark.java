@@ -0,0 +1,53 @@
+package br.com.brisabr.helpdesk_api.util;
+
+import br.com.brisabr.helpdesk_api.antivirus.AntivirusScanner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação de um upload PNG (nome, tamanho, tipo, magic number e SHA-256 numa
+ * leitura única do conteúdo), sem antivírus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileValidatorBenchmark {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A};
+
+    @Param({"4096", "1048576"})
+    public int tamanho;
+
+    private FileValidator fileValidator;
+    private MockMultipartFile arquivo;
+
+    @Setup
+    public void setUp() {
+        AntivirusScanner desligado = new AntivirusScanner(false, "sync", "localhost", 3310, 5, 30_000, 65_536, 20_000);
+        fileValidator = new FileValidator(desligado, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(fileValidator, "maxFileSize", 10L * 1024 * 1024);
+        ReflectionTestUtils.setField(fileValidator, "maxFiles", 5);
+
+        byte[] conteudo = new byte[tamanho];
+        System.arraycopy(PNG_HEADER, 0, conteudo, 0, PNG_HEADER.length);
+        arquivo = new MockMultipartFile("arquivos", "captura de tela.png", "image/png", conteudo);
+    }
+
+    @Benchmark
+    public MockMultipartFile validateFile() throws IOException {
+        fileValidator.validateFile(arquivo);
+        return arquivo;
+    }
+}
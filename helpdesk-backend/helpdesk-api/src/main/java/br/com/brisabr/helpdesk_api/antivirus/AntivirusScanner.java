@@ -0,0 +1,138 @@
+package br.com.brisabr.helpdesk_api.antivirus;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Scan antivírus via clamd, com sessões persistentes e arquivos em paralelo.
+ *
+ * Os arquivos de um mesmo upload são escaneados ao mesmo tempo (até o limite
+ * de sessões do pool), cada um numa virtual thread: o trabalho é só I/O de
+ * socket. O lote inteiro tem um prazo único; ao estourar, os scans ainda em
+ * andamento são interrompidos, o que fecha as sessões deles.
+ *
+ * Dois modos ({@code file.upload.antivirus.mode}):
+ * <ul>
+ *   <li>{@code sync} - o upload só é aceito depois do scan (FileValidator)</li>
+ *   <li>{@code quarantine} - o chamado é criado na hora e o anexo fica bloqueado
+ *       para download até o scan em segundo plano liberar</li>
+ * </ul>
+ */
+@Component
+public class AntivirusScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AntivirusScanner.class);
+
+    private final boolean enabled;
+    private final boolean quarantine;
+    private final long timeoutMillis;
+    private final ClamdSessionPool pool;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("clamav-", 0).factory());
+
+    public AntivirusScanner(
+            @Value("${file.upload.antivirus.enabled:false}") boolean enabled,
+            @Value("${file.upload.antivirus.mode:sync}") String mode,
+            @Value("${file.upload.antivirus.clamav.host:localhost}") String host,
+            @Value("${file.upload.antivirus.clamav.port:3310}") int port,
+            @Value("${file.upload.antivirus.clamav.max-sessions:5}") int maxSessions,
+            @Value("${file.upload.antivirus.clamav.timeout-ms:30000}") int timeoutMillis,
+            @Value("${file.upload.antivirus.clamav.chunk-size:65536}") int chunkSize,
+            @Value("${file.upload.antivirus.clamav.session-idle-ms:20000}") long sessionIdleMillis) {
+        this.enabled = enabled;
+        this.quarantine = switch (mode) {
+            case "sync" -> false;
+            case "quarantine" -> true;
+            default -> throw new IllegalArgumentException(
+                    "file.upload.antivirus.mode inválido: " + mode + " (use sync ou quarantine)");
+        };
+        this.timeoutMillis = timeoutMillis;
+        this.pool = new ClamdSessionPool(host, port, maxSessions, timeoutMillis, chunkSize, sessionIdleMillis);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Scan no momento do upload: antivírus ligado e fora do modo quarentena.
+     */
+    public boolean isSyncMode() {
+        return enabled && !quarantine;
+    }
+
+    public boolean isQuarantineMode() {
+        return enabled && quarantine;
+    }
+
+    /**
+     * Escaneia os arquivos em paralelo, dentro de um prazo único para o lote.
+     *
+     * @return um resultado por arquivo, na mesma ordem
+     * @throws ConnectException se o clamd não estiver acessível
+     * @throws IOException em erro de comunicação ou se o prazo estourar
+     */
+    public List<ScanResult> scanAll(List<? extends InputStreamSource> arquivos) throws IOException {
+        List<Future<ScanResult>> futures = new ArrayList<>(arquivos.size());
+        for (InputStreamSource arquivo : arquivos) {
+            futures.add(executor.submit(() -> pool.scan(arquivo)));
+        }
+
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<ScanResult> resultados = new ArrayList<>(futures.size());
+        try {
+            for (Future<ScanResult> future : futures) {
+                resultados.add(future.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return resultados;
+        } catch (TimeoutException e) {
+            throw new IOException("Scan antivírus não terminou em " + timeoutMillis + "ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Scan antivírus interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Erro no scan antivírus", e.getCause());
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /**
+     * Abre um scan que recebe o conteúdo aos poucos, para ler o upload uma única
+     * vez e gravar no storage ao mesmo tempo.
+     *
+     * @throws ConnectException se o clamd não estiver acessível
+     */
+    public ScanEmAndamento abrirStream() throws IOException {
+        return pool.abrirStream();
+    }
+
+    public ScanResult scan(InputStreamSource arquivo) throws IOException {
+        return scanAll(List.of(arquivo)).get(0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        pool.close();
+        logger.debug("Sessões do clamd encerradas");
+    }
+}
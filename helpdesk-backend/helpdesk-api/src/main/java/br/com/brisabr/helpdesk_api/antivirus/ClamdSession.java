@@ -0,0 +1,198 @@
+package br.com.brisabr.helpdesk_api.antivirus;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Conexão persistente com o clamd em modo sessão ({@code zIDSESSION}).
+ *
+ * Dentro da sessão cada {@code zINSTREAM} é respondido com o número sequencial
+ * do comando ({@code "3: stream: OK"}), o que permite conferir que a resposta
+ * lida é a do arquivo enviado. O conteúdo vai em chunks de {@code chunkSize}
+ * bytes, com o prefixo de tamanho no mesmo buffer para sair num único write.
+ *
+ * Não é thread-safe: cada sessão é usada por um scan por vez ({@link ClamdSessionPool}).
+ */
+final class ClamdSession implements Closeable {
+
+    private static final byte[] ID_SESSION = "zIDSESSION\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INSTREAM = "zINSTREAM\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = "zEND\0".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_RESPOSTA = 1024;
+
+    private final SocketChannel channel;
+    private final InputStream respostas;
+    private final ByteBuffer buffer;
+    private int proximoComando = 1;
+    private int comandoAtual;
+    private long ultimoUso = System.nanoTime();
+
+    private ClamdSession(SocketChannel channel, int chunkSize) throws IOException {
+        this.channel = channel;
+        // O InputStream do socket adaptado respeita o SO_TIMEOUT, o read direto do channel não
+        this.respostas = new BufferedInputStream(channel.socket().getInputStream(), 256);
+        this.buffer = ByteBuffer.allocateDirect(chunkSize + Integer.BYTES);
+    }
+
+    static ClamdSession abrir(InetSocketAddress endereco, int timeoutMillis, int chunkSize) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.socket().connect(endereco, timeoutMillis);
+            channel.socket().setSoTimeout(timeoutMillis);
+            ClamdSession sessao = new ClamdSession(channel, chunkSize);
+            sessao.escrever(ID_SESSION);
+            return sessao;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    ScanResult scan(InputStream conteudo) throws IOException {
+        iniciarStream();
+        ReadableByteChannel origem = Channels.newChannel(conteudo);
+        while (origem.read(buffer) >= 0) {
+            if (!buffer.hasRemaining()) {
+                enviarChunk();
+            }
+        }
+        return concluirStream();
+    }
+
+    /**
+     * Abre um {@code zINSTREAM}; o conteúdo chega depois por {@link #enviar} e o
+     * resultado sai em {@link #concluirStream}. Usado quando o arquivo é lido
+     * por outro consumidor (o storage) e o scan vai "de carona".
+     */
+    void iniciarStream() throws IOException {
+        comandoAtual = proximoComando++;
+        escrever(INSTREAM);
+        buffer.clear();
+        buffer.position(Integer.BYTES);
+    }
+
+    void enviar(byte[] dados, int offset, int tamanho) throws IOException {
+        while (tamanho > 0) {
+            int n = Math.min(tamanho, buffer.remaining());
+            buffer.put(dados, offset, n);
+            offset += n;
+            tamanho -= n;
+            if (!buffer.hasRemaining()) {
+                enviarChunk();
+            }
+        }
+    }
+
+    ScanResult concluirStream() throws IOException {
+        enviarChunk();
+        // Chunk de tamanho zero encerra o stream
+        buffer.clear();
+        buffer.putInt(0);
+        buffer.flip();
+        escreverTudo();
+
+        ultimoUso = System.nanoTime();
+        return interpretar(comandoAtual, lerResposta());
+    }
+
+    long nanosOcioso() {
+        return System.nanoTime() - ultimoUso;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (channel.isOpen()) {
+                escrever(END);
+            }
+        } catch (IOException ignored) {
+            // a sessão já está sendo descartada
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // nada a fazer
+            }
+        }
+    }
+
+    private void escrever(byte[] comando) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(comando);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Envia o que estiver no buffer como um chunk, com o tamanho (4 bytes,
+     * big-endian) no início do próprio buffer, e prepara o próximo.
+     */
+    private void enviarChunk() throws IOException {
+        int tamanho = buffer.position() - Integer.BYTES;
+        if (tamanho > 0) {
+            buffer.putInt(0, tamanho);
+            buffer.flip();
+            escreverTudo();
+        }
+        buffer.clear();
+        buffer.position(Integer.BYTES);
+    }
+
+    private void escreverTudo() throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private String lerResposta() throws IOException {
+        ByteArrayOutputStream resposta = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = respostas.read()) > 0) {
+            if (resposta.size() == MAX_RESPOSTA) {
+                throw new IOException("Resposta do clamd excede " + MAX_RESPOSTA + " bytes");
+            }
+            resposta.write(b);
+        }
+        if (b < 0) {
+            throw new IOException("clamd encerrou a sessão sem responder");
+        }
+        return resposta.toString(StandardCharsets.US_ASCII).trim();
+    }
+
+    /**
+     * Formato: {@code "<n>: stream: OK"}, {@code "<n>: stream: <assinatura> FOUND"}
+     * ou {@code "<n>: <mensagem> ERROR"}.
+     */
+    static ScanResult interpretar(int comando, String resposta) throws IOException {
+        String prefixo = comando + ": ";
+        if (!resposta.startsWith(prefixo)) {
+            throw new IOException("Resposta do clamd fora de ordem (esperado comando " + comando + "): " + resposta);
+        }
+        String corpo = resposta.substring(prefixo.length());
+        if (corpo.endsWith(" ERROR")) {
+            throw new IOException("clamd recusou o arquivo: " + corpo);
+        }
+        if (corpo.endsWith(" FOUND")) {
+            String assinatura = corpo.substring(0, corpo.length() - " FOUND".length());
+            if (assinatura.startsWith("stream: ")) {
+                assinatura = assinatura.substring("stream: ".length());
+            }
+            return ScanResult.ameaca(assinatura);
+        }
+        if (corpo.endsWith("OK")) {
+            return ScanResult.aprovado();
+        }
+        throw new IOException("Resposta inesperada do clamd: " + resposta);
+    }
+}
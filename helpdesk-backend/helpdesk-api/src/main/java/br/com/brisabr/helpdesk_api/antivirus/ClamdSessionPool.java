@@ -0,0 +1,155 @@
+package br.com.brisabr.helpdesk_api.antivirus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool de sessões persistentes com o clamd.
+ *
+ * No máximo {@code maxSessoes} scans simultâneos; quem passar disso espera por
+ * uma vaga até o timeout. Sessões ociosas por mais de {@code ociosidadeMaxima}
+ * são descartadas antes do uso, já que o clamd encerra sessões paradas
+ * (IdleTimeout, 30 s por padrão). Se uma sessão reaproveitada falhar, o scan é
+ * repetido uma vez numa sessão nova.
+ */
+class ClamdSessionPool implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClamdSessionPool.class);
+
+    private final String host;
+    private final int port;
+    private final int timeoutMillis;
+    private final int chunkSize;
+    private final long ociosidadeMaximaNanos;
+    private final Semaphore vagas;
+    // LIFO: a sessão devolvida por último é a com menos chance de ter expirado
+    private final BlockingDeque<ClamdSession> ociosas = new LinkedBlockingDeque<>();
+    private volatile boolean fechado;
+
+    ClamdSessionPool(String host, int port, int maxSessoes, int timeoutMillis, int chunkSize, long ociosidadeMaximaMillis) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMillis = timeoutMillis;
+        this.chunkSize = chunkSize;
+        this.ociosidadeMaximaNanos = TimeUnit.MILLISECONDS.toNanos(ociosidadeMaximaMillis);
+        this.vagas = new Semaphore(maxSessoes, true);
+    }
+
+    ScanResult scan(InputStreamSource conteudo) throws IOException {
+        reservarVaga();
+        try {
+            ClamdSession sessao = ociosaValida();
+            if (sessao != null) {
+                try {
+                    return scanEDevolver(sessao, conteudo);
+                } catch (IOException e) {
+                    // Timeout é clamd lento, não sessão expirada: repetir só dobraria a espera
+                    if (e instanceof SocketTimeoutException || Thread.currentThread().isInterrupted()) {
+                        throw e;
+                    }
+                    logger.debug("Sessão reaproveitada do clamd falhou ({}); repetindo numa sessão nova", e.getMessage());
+                }
+            }
+            return scanEDevolver(ClamdSession.abrir(new InetSocketAddress(host, port), timeoutMillis, chunkSize), conteudo);
+        } finally {
+            vagas.release();
+        }
+    }
+
+    /**
+     * Reserva uma sessão para um scan alimentado aos poucos pelo chamador.
+     * Sem repetição automática: o conteúdo já enviado não pode ser reenviado.
+     */
+    ScanEmAndamento abrirStream() throws IOException {
+        reservarVaga();
+        ClamdSession sessao = null;
+        try {
+            sessao = ociosaValida();
+            if (sessao == null) {
+                sessao = ClamdSession.abrir(new InetSocketAddress(host, port), timeoutMillis, chunkSize);
+            }
+            sessao.iniciarStream();
+            return new ScanEmAndamento(this, sessao);
+        } catch (IOException | RuntimeException e) {
+            if (sessao != null) {
+                sessao.close();
+            }
+            vagas.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Fim de um {@link ScanEmAndamento}: a sessão volta ao pool se o scan terminou bem.
+     */
+    void devolver(ClamdSession sessao, boolean reutilizavel) {
+        if (reutilizavel && !fechado) {
+            ociosas.offerFirst(sessao);
+        } else {
+            sessao.close();
+        }
+        vagas.release();
+    }
+
+    int sessoesOciosas() {
+        return ociosas.size();
+    }
+
+    @Override
+    public void close() {
+        fechado = true;
+        ClamdSession sessao;
+        while ((sessao = ociosas.pollFirst()) != null) {
+            sessao.close();
+        }
+    }
+
+    private void reservarVaga() throws IOException {
+        try {
+            if (!vagas.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Nenhuma sessão do clamd livre em " + timeoutMillis + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido aguardando sessão do clamd", e);
+        }
+    }
+
+    private ScanResult scanEDevolver(ClamdSession sessao, InputStreamSource conteudo) throws IOException {
+        ScanResult resultado;
+        try (InputStream in = conteudo.getInputStream()) {
+            resultado = sessao.scan(in);
+        } catch (IOException | RuntimeException e) {
+            sessao.close();
+            throw e;
+        }
+        if (fechado) {
+            sessao.close();
+        } else {
+            ociosas.offerFirst(sessao);
+        }
+        return resultado;
+    }
+
+    private ClamdSession ociosaValida() {
+        ClamdSession sessao;
+        while ((sessao = ociosas.pollFirst()) != null) {
+            if (sessao.nanosOcioso() < ociosidadeMaximaNanos) {
+                return sessao;
+            }
+            sessao.close();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.brisabr.helpdesk_api.antivirus;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Scan de um arquivo que chega aos poucos, enquanto outro consumidor lê o mesmo
+ * stream (ex.: a gravação no storage). Ocupa uma sessão do pool até
+ * {@link #concluir()} ou {@link #close()}.
+ */
+public final class ScanEmAndamento implements Closeable {
+
+    private final ClamdSessionPool pool;
+    private final ClamdSession sessao;
+    private boolean encerrado;
+
+    ScanEmAndamento(ClamdSessionPool pool, ClamdSession sessao) {
+        this.pool = pool;
+        this.sessao = sessao;
+    }
+
+    public void enviar(byte[] dados, int offset, int tamanho) throws IOException {
+        try {
+            sessao.enviar(dados, offset, tamanho);
+        } catch (IOException | RuntimeException e) {
+            encerrar(false);
+            throw e;
+        }
+    }
+
+    public ScanResult concluir() throws IOException {
+        try {
+            ScanResult resultado = sessao.concluirStream();
+            encerrar(true);
+            return resultado;
+        } catch (IOException | RuntimeException e) {
+            encerrar(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Abandona o scan sem resultado; a sessão é descartada, já que o clamd ainda espera o fim do stream.
+     */
+    @Override
+    public void close() {
+        encerrar(false);
+    }
+
+    private void encerrar(boolean reutilizavel) {
+        if (!encerrado) {
+            encerrado = true;
+            pool.devolver(sessao, reutilizavel);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.brisabr.helpdesk_api.antivirus;
+
+/**
+ * Resultado do scan de um arquivo no clamd.
+ *
+ * @param limpo     {@code true} se o clamd respondeu OK
+ * @param assinatura nome da ameaça encontrada, quando {@code limpo} é {@code false}
+ */
+public record ScanResult(boolean limpo, String assinatura) {
+
+    private static final ScanResult LIMPO = new ScanResult(true, null);
+
+    public static ScanResult aprovado() {
+        return LIMPO;
+    }
+
+    public static ScanResult ameaca(String assinatura) {
+        return new ScanResult(false, assinatura);
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.brisabr.helpdesk_api.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de auditoria montado na thread que originou a ação, com os dados da
+ * requisição HTTP já extraídos; é o que fica na fila do {@link AuditLogWriter}.
+ *
+ * @param userId usuário que realizou a ação ({@code null} quando anônimo)
+ */
+public record AuditEvent(
+        Long userId,
+        String action,
+        String details,
+        String ipAddress,
+        String userAgent,
+        LocalDateTime timestamp,
+        String status) {
+}
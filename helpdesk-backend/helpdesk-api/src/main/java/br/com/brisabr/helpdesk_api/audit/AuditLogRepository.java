@@ -1,11 +1,17 @@
 package br.com.brisabr.helpdesk_api.audit;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
@@ -18,4 +24,48 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     List<AuditLog> findByTimestampBetween(LocalDateTime from, LocalDateTime to);
     
     List<AuditLog> findByIpAddressOrderByTimestampDesc(String ipAddress);
+
+    // Páginas por cursor (timestamp DESC, id DESC) dentro de um período. O período
+    // limita as partições mensais lidas; o cursor é o (timestamp, id) da última
+    // linha da página anterior. Primeira página: timestamp = fim do período e
+    // id = Long.MAX_VALUE.
+
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp >= :from " +
+           "AND a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findPageByTimestampBetween(@Param("from") LocalDateTime from,
+                                              @Param("timestamp") LocalDateTime timestamp,
+                                              @Param("id") Long id,
+                                              Limit limit);
+
+    @Query("SELECT a FROM AuditLog a WHERE a.user.id = :userId AND a.timestamp >= :from " +
+           "AND a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findPageByUserId(@Param("userId") Long userId,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("timestamp") LocalDateTime timestamp,
+                                    @Param("id") Long id,
+                                    Limit limit);
+
+    @Query("SELECT a FROM AuditLog a WHERE a.ipAddress = :ipAddress AND a.timestamp >= :from " +
+           "AND a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLog> findPageByIpAddress(@Param("ipAddress") String ipAddress,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("timestamp") LocalDateTime timestamp,
+                                       @Param("id") Long id,
+                                       Limit limit);
+
+    /**
+     * Percorre o período inteiro em ordem cronológica com um cursor do banco,
+     * buscando 500 linhas por vez. Deve ser consumido dentro de uma transação
+     * e fechado (try-with-resources).
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp >= :from AND a.timestamp < :to " +
+           "ORDER BY a.timestamp, a.id")
+    Stream<AuditLog> streamByTimestampBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
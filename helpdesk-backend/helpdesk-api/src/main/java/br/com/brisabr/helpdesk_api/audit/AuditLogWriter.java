@@ -0,0 +1,242 @@
+package br.com.brisabr.helpdesk_api.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Grava os eventos de auditoria em segundo plano, em lotes.
+ *
+ * Os eventos entram numa fila circular limitada ({@link ArrayBlockingQueue}) e
+ * uma única thread os retira em lotes de até {@code audit.writer.batch-size},
+ * gravados com um {@code INSERT} em batch JDBC numa só transação. O batch do
+ * Hibernate não serve aqui: com ids {@code IDENTITY} ele grava linha a linha.
+ *
+ * Com a fila cheia, quem registra o evento espera até
+ * {@code audit.writer.offer-timeout-ms}; passado esse tempo o evento é descartado
+ * e contado em {@code helpdesk.audit.events.dropped}. A thread começa em
+ * {@link #start} e, no desligamento, a fila é esvaziada antes de o pool de
+ * conexões fechar.
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    static final String INSERT_SQL = "INSERT INTO audit_logs "
+            + "(user_id, action, details, ip_address, user_agent, timestamp, status) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final long ESPERA_POLL_MILLIS = 100;
+    private static final long ESPERA_DESLIGAMENTO_MILLIS = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<AuditEvent> fila;
+    private final int batchSize;
+    private final long offerTimeoutNanos;
+    private Thread escritor;
+    private final AtomicLong enfileirados = new AtomicLong();
+    private final AtomicLong processados = new AtomicLong();
+    private volatile boolean ativo = true;
+
+    private final Counter gravados;
+    private final Counter descartados;
+    private final Counter falhas;
+    private final DistributionSummary tamanhoLote;
+
+    public AuditLogWriter(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${audit.writer.capacity:8192}") int capacidade,
+            @Value("${audit.writer.batch-size:200}") int batchSize,
+            @Value("${audit.writer.offer-timeout-ms:5}") long offerTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.batchSize = batchSize;
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+
+        this.gravados = Counter.builder("helpdesk.audit.events.written")
+                .description("Eventos de auditoria gravados no banco")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("helpdesk.audit.events.dropped")
+                .description("Eventos de auditoria descartados com a fila cheia")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("helpdesk.audit.events.failed")
+                .description("Eventos de auditoria perdidos por erro ao gravar")
+                .register(meterRegistry);
+        this.tamanhoLote = DistributionSummary.builder("helpdesk.audit.batch.size")
+                .description("Eventos de auditoria por INSERT em batch")
+                .register(meterRegistry);
+        Gauge.builder("helpdesk.audit.queue.size", fila, BlockingQueue::size)
+                .description("Eventos de auditoria aguardando gravação")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inicia a thread de gravação, com o bean já construído (ela lê os campos
+     * finais e a fila).
+     */
+    @PostConstruct
+    public void start() {
+        escritor = new Thread(this::executar, "audit-writer");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Enfileira um evento para gravação.
+     *
+     * @return {@code false} se o evento foi descartado (fila cheia ou aplicação desligando)
+     */
+    public boolean enqueue(AuditEvent evento) {
+        boolean aceito = false;
+        if (ativo) {
+            try {
+                aceito = fila.offer(evento, offerTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (aceito) {
+            enfileirados.incrementAndGet();
+            return true;
+        }
+        descartados.increment();
+        long total = (long) descartados.count();
+        if (total == 1 || total % 1000 == 0) {
+            logger.warn("Fila de auditoria cheia: {} evento(s) descartado(s) até agora (último: {})", total, evento.action());
+        }
+        return false;
+    }
+
+    /**
+     * Espera até que os eventos enfileirados antes da chamada tenham sido processados.
+     *
+     * @return {@code false} se o prazo venceu antes
+     */
+    public boolean flush(long timeoutMillis) {
+        long alvo = enfileirados.get();
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (processados.get() < alvo) {
+            if (System.nanoTime() - prazo >= 0 || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    /**
+     * Para de aceitar eventos e grava o que ainda estiver na fila.
+     */
+    @PreDestroy
+    public void shutdown() {
+        ativo = false;
+        if (escritor == null) {
+            drenar();
+            return;
+        }
+        try {
+            escritor.join(ESPERA_DESLIGAMENTO_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (escritor.isAlive()) {
+            logger.warn("Gravação da auditoria não terminou no desligamento; {} evento(s) pendente(s)", fila.size());
+            return;
+        }
+        // Eventos que entraram enquanto a thread encerrava
+        drenar();
+    }
+
+    private void executar() {
+        List<AuditEvent> lote = new ArrayList<>(batchSize);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                AuditEvent primeiro = fila.poll(ESPERA_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                fila.drainTo(lote, batchSize - 1);
+                gravar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.error("Erro inesperado na gravação da auditoria: {}", e.getMessage(), e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void drenar() {
+        List<AuditEvent> lote = new ArrayList<>(batchSize);
+        while (fila.drainTo(lote, batchSize) > 0) {
+            gravar(lote);
+            lote.clear();
+        }
+    }
+
+    private void gravar(List<AuditEvent> lote) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, lote, lote.size(), AuditLogWriter::preencher));
+            gravados.increment(lote.size());
+            tamanhoLote.record(lote.size());
+            logger.debug("Auditoria: {} evento(s) gravado(s)", lote.size());
+        } catch (DataAccessException e) {
+            logger.warn("Lote de auditoria com {} evento(s) falhou, gravando um a um: {}", lote.size(), e.getMessage());
+            for (AuditEvent evento : lote) {
+                gravarSozinho(evento);
+            }
+        } finally {
+            processados.addAndGet(lote.size());
+        }
+    }
+
+    private void gravarSozinho(AuditEvent evento) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, ps -> preencher(ps, evento));
+            gravados.increment();
+        } catch (DataAccessException e) {
+            falhas.increment();
+            logger.error("Erro ao registrar auditoria {} - {}: {}", evento.action(), evento.status(), e.getMessage());
+        }
+    }
+
+    private static void preencher(PreparedStatement ps, AuditEvent evento) throws SQLException {
+        ps.setObject(1, evento.userId(), Types.BIGINT);
+        ps.setString(2, evento.action());
+        ps.setString(3, evento.details());
+        ps.setString(4, evento.ipAddress());
+        ps.setString(5, evento.userAgent());
+        ps.setObject(6, evento.timestamp());
+        ps.setString(7, evento.status());
+    }
+}
@@ -0,0 +1,193 @@
+package br.com.brisabr.helpdesk_api.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mantém as partições mensais de {@code audit_logs} (migração V6).
+ *
+ * Uma vez por dia cria as partições do mês atual e dos próximos
+ * {@code audit.partitions.months-ahead} meses e remove as que ficaram
+ * inteiramente fora da retenção ({@code audit.retention.months}). Remover uma
+ * partição é um {@code DROP TABLE}: instantâneo e sem o inchaço de um DELETE.
+ *
+ * Linhas que caíram na partição {@code audit_logs_default} antes de o mês ter a
+ * sua partição são movidas para ela na criação. Em bancos sem particionamento
+ * (H2 dos testes, migração ainda não aplicada) o job não faz nada.
+ */
+@Service
+public class AuditPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditPartitionService.class);
+
+    static final String PREFIXO = "audit_logs_p";
+    private static final String PARTICAO_DEFAULT = "audit_logs_default";
+    private static final Pattern NOME_PARTICAO = Pattern.compile(PREFIXO + "(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter SUFIXO = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    // Mais de uma instância da API rodando o job ao mesmo tempo: só uma mexe nas partições
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext('audit_logs_particoes'))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${audit.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.partitions.months-ahead:3}")
+    private int mesesAFrente;
+
+    @Value("${audit.retention.months:12}")
+    private int mesesRetencao;
+
+    public AuditPartitionService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Garante as partições logo na subida, sem esperar o primeiro horário do cron.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        manterParticoes();
+    }
+
+    @Scheduled(cron = "${audit.partitions.cron:0 15 3 * * *}")
+    public void manterParticoes() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!tabelaParticionada()) {
+                logger.debug("audit_logs não é particionada; manutenção de partições ignorada");
+                return;
+            }
+            Boolean executou = transactionTemplate.execute(status -> {
+                if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class))) {
+                    return false;
+                }
+                YearMonth atual = YearMonth.now();
+                Set<String> existentes = Set.copyOf(listarParticoes());
+                for (YearMonth mes : mesesParaCriar(atual, mesesAFrente)) {
+                    if (!existentes.contains(nomeParticao(mes))) {
+                        criarParticao(mes);
+                    }
+                }
+                if (mesesRetencao > 0) {
+                    aplicarRetencao(existentes, atual.minusMonths(mesesRetencao));
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(executou)) {
+                logger.debug("Partições de auditoria sendo mantidas por outra instância");
+            }
+        } catch (DataAccessException e) {
+            logger.error("Falha na manutenção das partições de auditoria: {}", e.getMessage());
+        }
+    }
+
+    private boolean tabelaParticionada() {
+        try {
+            String relkind = jdbcTemplate.queryForObject(
+                    "SELECT CAST(relkind AS text) FROM pg_class WHERE oid = to_regclass('audit_logs')", String.class);
+            return "p".equals(relkind);
+        } catch (DataAccessException e) {
+            // Banco sem catálogo do PostgreSQL ou tabela ainda não criada
+            return false;
+        }
+    }
+
+    private List<String> listarParticoes() {
+        return jdbcTemplate.queryForList(
+                "SELECT CAST(c.relname AS text) FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass('audit_logs')", String.class);
+    }
+
+    /**
+     * Cria a tabela do mês fora da hierarquia, move para ela as linhas do mês
+     * que estavam na partição default e só então a anexa: criar a partição
+     * direto falharia se a default já tivesse linhas desse intervalo.
+     */
+    private void criarParticao(YearMonth mes) {
+        String nome = nomeParticao(mes);
+        LocalDate inicio = mes.atDay(1);
+        LocalDate fim = mes.plusMonths(1).atDay(1);
+
+        jdbcTemplate.execute("CREATE TABLE " + nome + " (LIKE audit_logs INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int movidas = jdbcTemplate.update(
+                "WITH movidas AS (DELETE FROM " + PARTICAO_DEFAULT + " WHERE timestamp >= ? AND timestamp < ? RETURNING *) " +
+                "INSERT INTO " + nome + " SELECT * FROM movidas",
+                inicio.atStartOfDay(), fim.atStartOfDay());
+        jdbcTemplate.execute("ALTER TABLE audit_logs ATTACH PARTITION " + nome +
+                " FOR VALUES FROM ('" + inicio + "') TO ('" + fim + "')");
+
+        if (movidas > 0) {
+            logger.warn("Partição de auditoria {} criada com {} linha(s) vindas de {}", nome, movidas, PARTICAO_DEFAULT);
+        } else {
+            logger.info("Partição de auditoria {} criada", nome);
+        }
+    }
+
+    private void aplicarRetencao(Collection<String> existentes, YearMonth corte) {
+        for (String particao : particoesExpiradas(existentes, corte)) {
+            jdbcTemplate.execute("ALTER TABLE audit_logs DETACH PARTITION " + particao);
+            jdbcTemplate.execute("DROP TABLE " + particao);
+            logger.info("Partição de auditoria {} removida (retenção de {} meses)", particao, mesesRetencao);
+        }
+        int antigas = jdbcTemplate.update("DELETE FROM " + PARTICAO_DEFAULT + " WHERE timestamp < ?",
+                corte.atDay(1).atStartOfDay());
+        if (antigas > 0) {
+            logger.info("{} linha(s) de auditoria fora da retenção removidas de {}", antigas, PARTICAO_DEFAULT);
+        }
+    }
+
+    static String nomeParticao(YearMonth mes) {
+        return PREFIXO + mes.format(SUFIXO);
+    }
+
+    static List<YearMonth> mesesParaCriar(YearMonth atual, int mesesAFrente) {
+        List<YearMonth> meses = new ArrayList<>(mesesAFrente + 1);
+        for (int i = 0; i <= mesesAFrente; i++) {
+            meses.add(atual.plusMonths(i));
+        }
+        return meses;
+    }
+
+    /**
+     * Partições mensais cujo mês inteiro é anterior a {@code corte}. Tabelas com
+     * outros nomes (a default, por exemplo) nunca entram.
+     */
+    static List<String> particoesExpiradas(Collection<String> particoes, YearMonth corte) {
+        List<String> expiradas = new ArrayList<>();
+        for (String particao : particoes) {
+            Matcher matcher = NOME_PARTICAO.matcher(particao);
+            if (matcher.matches()) {
+                YearMonth mes = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                if (mes.isBefore(corte)) {
+                    expiradas.add(particao);
+                }
+            }
+        }
+        expiradas.sort(null);
+        return expiradas;
+    }
+}
@@ -1,61 +1,65 @@
 package br.com.brisabr.helpdesk_api.audit;
 
+import br.com.brisabr.helpdesk_api.ratelimit.ClientIpResolver;
 import br.com.brisabr.helpdesk_api.user.User;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.time.LocalDateTime;
+
 /**
  * Serviço para registrar eventos de auditoria.
  * Registra ações sensíveis como login, logout, criação/exclusão de usuários, etc.
+ *
+ * O evento é montado na thread da requisição (IP e User-Agent só existem nela)
+ * e gravado em segundo plano, em lotes, pelo {@link AuditLogWriter}. O IP é o
+ * mesmo que o rate limiting usa ({@link ClientIpResolver}): cabeçalhos de proxy
+ * só valem vindos de um proxy confiável.
  */
 @Service
 public class AuditService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuditService.class);
 
-    private final AuditLogRepository auditLogRepository;
+    private static final int MAX_IP = 45;
+    private static final int MAX_USER_AGENT = 500;
+
+    private final AuditLogWriter auditLogWriter;
+    private final ClientIpResolver clientIpResolver;
 
-    public AuditService(AuditLogRepository auditLogRepository) {
-        this.auditLogRepository = auditLogRepository;
+    public AuditService(AuditLogWriter auditLogWriter, ClientIpResolver clientIpResolver) {
+        this.auditLogWriter = auditLogWriter;
+        this.clientIpResolver = clientIpResolver;
     }
 
     /**
-     * Registra um evento de auditoria (assíncrono para não bloquear).
+     * Registra um evento de auditoria (a gravação é assíncrona para não bloquear).
      *
      * @param user Usuário que realizou a ação (pode ser null)
      * @param action Tipo de ação (LOGIN, LOGOUT, CREATE_USER, etc.)
      * @param details Detalhes adicionais
      * @param status Status (SUCCESS, FAILURE)
      */
-    @Async
-    @Transactional
     public void logAudit(User user, String action, String details, String status) {
-        try {
-            AuditLog auditLog = new AuditLog();
-            auditLog.setUser(user);
-            auditLog.setAction(action);
-            auditLog.setDetails(details);
-            auditLog.setStatus(status);
-
-            // Capturar informações da requisição HTTP
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                auditLog.setIpAddress(getClientIp(request));
-                auditLog.setUserAgent(request.getHeader("User-Agent"));
-            }
-
-            auditLogRepository.save(auditLog);
-
-            logger.info("Auditoria registrada: {} - {} - {}", action, status, user != null ? user.getEmail() : "N/A");
-        } catch (Exception e) {
-            logger.error("Erro ao registrar auditoria: {}", e.getMessage(), e);
+        String ipAddress = null;
+        String userAgent = null;
+
+        // Capturar informações da requisição HTTP
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            HttpServletRequest request = attributes.getRequest();
+            ipAddress = truncate(clientIpResolver.resolve(request), MAX_IP);
+            userAgent = truncate(request.getHeader("User-Agent"), MAX_USER_AGENT);
+        }
+
+        AuditEvent event = new AuditEvent(user != null ? user.getId() : null, action, details,
+                ipAddress, userAgent, LocalDateTime.now(), status);
+        if (auditLogWriter.enqueue(event)) {
+            logger.debug("Auditoria registrada: {} - {} - {}", action, status, user != null ? user.getEmail() : "N/A");
         }
     }
 
@@ -108,20 +112,7 @@ public class AuditService {
         logAudit(user, "ACCESS_DENIED", "Tentativa de acesso negado: " + resource, "FAILURE");
     }
 
-    /**
-     * Extrai IP real do cliente (considera proxies).
-     */
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-
-        return request.getRemoteAddr();
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
     }
 }
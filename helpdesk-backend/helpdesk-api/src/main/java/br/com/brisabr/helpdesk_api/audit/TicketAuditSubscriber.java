@@ -0,0 +1,45 @@
+package br.com.brisabr.helpdesk_api.audit;
+
+import br.com.brisabr.helpdesk_api.events.NotificationEvent;
+import br.com.brisabr.helpdesk_api.events.TicketEventEnvelope;
+import br.com.brisabr.helpdesk_api.events.TicketEventSubscriber;
+import br.com.brisabr.helpdesk_api.user.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Registra as transições de chamado na auditoria ({@code TICKET_CREATED},
+ * {@code TICKET_ASSIGNED}, ...).
+ *
+ * Grava direto na transação da entrega, e não pelo {@link AuditLogWriter}: a
+ * fila do writer descarta eventos quando cheia, e aqui a marca de entrega só
+ * pode existir se o registro também existir.
+ */
+@Component
+public class TicketAuditSubscriber implements TicketEventSubscriber {
+
+    private final AuditLogRepository auditLogRepository;
+    private final UserRepository userRepository;
+
+    public TicketAuditSubscriber(AuditLogRepository auditLogRepository, UserRepository userRepository) {
+        this.auditLogRepository = auditLogRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public String nome() {
+        return "auditoria";
+    }
+
+    @Override
+    public void onEvent(TicketEventEnvelope envelope) {
+        NotificationEvent evento = envelope.evento();
+        AuditLog log = new AuditLog();
+        log.setUser(envelope.autorId() != null ? userRepository.getReferenceById(envelope.autorId()) : null);
+        log.setAction(evento.type().replace('.', '_').toUpperCase(Locale.ROOT));
+        log.setDetails("Chamado " + evento.ticketId() + ": " + evento.message() + " [evento " + envelope.chave() + "]");
+        log.setStatus("SUCCESS");
+        auditLogRepository.save(log);
+    }
+}
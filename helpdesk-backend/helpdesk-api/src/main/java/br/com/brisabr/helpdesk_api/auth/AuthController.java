@@ -9,6 +9,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -32,6 +33,7 @@ public class AuthController {
     private final RateLimiter rateLimiter;
     private final AuditService auditService;
     private final UserService userService;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
     public AuthController(
             AuthenticationManager authenticationManager,
@@ -39,28 +41,31 @@ public class AuthController {
             RefreshTokenService refreshTokenService,
             RateLimiter rateLimiter,
             AuditService auditService,
-            UserService userService) {
+            UserService userService,
+            AuthenticatedUserCache authenticatedUserCache) {
         this.authenticationManager = authenticationManager;
         this.tokenService = tokenService;
         this.refreshTokenService = refreshTokenService;
         this.rateLimiter = rateLimiter;
         this.auditService = auditService;
         this.userService = userService;
+        this.authenticatedUserCache = authenticatedUserCache;
     }
 
     /**
      * Login com geração de access token + refresh token
-     * Rate limited: 5 tentativas por minuto
+     * Rate limited por conta e por IP (janela deslizante, ver {@link RateLimiter})
      */
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody @Valid LoginRequestDTO data, HttpServletRequest request){
         // Verificar rate limit
-        if (!rateLimiter.isAllowed(request)) {
-            int remaining = rateLimiter.getRemainingAttempts(request);
+        RateLimiter.Decision limite = rateLimiter.check(request, data.getEmail());
+        if (!limite.allowed()) {
             logger.warn("Rate limit excedido para login do email: {}", data.getEmail());
             auditService.logLoginFailure(data.getEmail(), "Rate limit excedido");
             return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-                    .body("Muitas tentativas de login. Tente novamente em 1 minuto. Tentativas restantes: " + remaining);
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(limite.retryAfterSeconds()))
+                    .body("Muitas tentativas de login. Tente novamente em " + limite.retryAfterSeconds() + " segundos.");
         }
 
         try {
@@ -69,7 +74,7 @@ public class AuthController {
             User user = (User) auth.getPrincipal();
 
             // Login bem-sucedido - resetar contador
-            rateLimiter.resetAttempts(request);
+            rateLimiter.resetAttempts(data.getEmail());
 
             // Gerar access token (JWT)
             var accessToken = tokenService.generateToken(user);
@@ -133,6 +138,7 @@ public class AuthController {
     @PostMapping("/logout-all")
     public ResponseEntity<String> logoutAll(@AuthenticationPrincipal User user) {
         refreshTokenService.revokeAllUserTokens(user);
+        authenticatedUserCache.invalidate(user.getId());
         auditService.logLogout(user);
         logger.info("Logout de todos os dispositivos: {}", user.getEmail());
         return ResponseEntity.ok("Logout realizado em todos os dispositivos");
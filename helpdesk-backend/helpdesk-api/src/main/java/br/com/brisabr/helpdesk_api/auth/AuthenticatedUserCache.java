@@ -0,0 +1,90 @@
+package br.com.brisabr.helpdesk_api.auth;
+
+import br.com.brisabr.helpdesk_api.user.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Cache do usuário autenticado, indexado pelo id do usuário (claim {@code uid} do JWT).
+ *
+ * Evita uma consulta em {@code usuarios} a cada requisição autenticada.
+ * O TTL curto limita o tempo em que alterações feitas fora da aplicação
+ * ficam invisíveis; alterações feitas pela aplicação (perfil, senha, email,
+ * remoção) e o logout-all invalidam a entrada explicitamente. Pelo id, a
+ * troca de email invalida a mesma entrada que os tokens antigos usam, e o
+ * token só vale se o subject ainda for o email atual do usuário.
+ *
+ * Métricas expostas em {@code cache.*{cache="authenticatedUsers"}}.
+ */
+@Component
+public class AuthenticatedUserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthenticatedUserCache.class);
+
+    private final UserRepository userRepository;
+    private final Cache<Long, UserDetails> cache;
+
+    public AuthenticatedUserCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.user-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${security.user-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authenticatedUsers");
+    }
+
+    /**
+     * Retorna o usuário do token, consultando o banco apenas em caso de miss.
+     *
+     * @return o usuário, ou {@code null} se não existir (ausências não são cacheadas)
+     *         ou se o email mudou depois da emissão do token
+     */
+    public UserDetails get(TokenService.Subject subject) {
+        if (subject == null || subject.email() == null || subject.email().isEmpty()) {
+            return null;
+        }
+        if (subject.userId() == null) {
+            // Token emitido antes de o id ir no token (expira em até 2 horas): sem cache
+            return userRepository.findByEmail(subject.email());
+        }
+        UserDetails user = cache.get(subject.userId(), id -> userRepository.findById(id).orElse(null));
+        return user != null && subject.email().equals(user.getUsername()) ? user : null;
+    }
+
+    /**
+     * Remove o usuário do cache imediatamente e, se houver transação ativa,
+     * novamente após o commit, para que uma leitura concorrente não recoloque
+     * no cache o estado anterior à alteração.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+        logger.debug("Usuário {} removido do cache de autenticação", userId);
+    }
+}
@@ -5,6 +5,8 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.JWTVerifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -14,17 +16,38 @@ import java.time.ZoneOffset;
 
 @Service
 public class TokenService {
-    @Value("${api.security.token.secret}")
-    private String secret;
+
+    private static final String ISSUER = "helpdesk-api";
+    static final String USER_ID_CLAIM = "uid";
+
+    // Algorithm e JWTVerifier são thread-safe; criados uma única vez e reutilizados
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+
+    /**
+     * Usuário identificado por um token válido.
+     *
+     * @param userId id do usuário; {@code null} em tokens emitidos antes de o id ir no token
+     * @param email subject do token
+     */
+    public record Subject(Long userId, String email) {
+    }
+
+    public TokenService(@Value("${api.security.token.secret}") String secret) {
+        this.algorithm = Algorithm.HMAC256(secret);
+        this.verifier = JWT.require(algorithm)
+                .withIssuer(ISSUER)
+                .build();
+    }
 
     public String generateToken(User user){
         try{
-            Algorithm algorithm = Algorithm.HMAC256(secret);
             String token = JWT.create()
-                    .withIssuer("helpdesk-api")
+                    .withIssuer(ISSUER)
                     .withSubject(user.getEmail())
                     .withExpiresAt(genExpirationDate())
                     
+                    .withClaim(USER_ID_CLAIM, user.getId())
                     .withClaim("name", user.getNome())
                     .withClaim("role", user.getPerfil())
                     .sign(algorithm);
@@ -35,19 +58,25 @@ public class TokenService {
     }
 
     public String validateToken(String token){
+        Subject subject = validate(token);
+        return subject != null ? subject.email() : "";
+    }
+
+    /**
+     * Valida o token e devolve o usuário que ele identifica.
+     *
+     * @return o usuário do token, ou {@code null} se o token for inválido ou expirado
+     */
+    public Subject validate(String token) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    .withIssuer("helpdesk-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            DecodedJWT jwt = verifier.verify(token);
+            return new Subject(jwt.getClaim(USER_ID_CLAIM).asLong(), jwt.getSubject());
         } catch (JWTVerificationException exception){
-            return "";
+            return null;
         }
     }
 
     private Instant genExpirationDate(){
         return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package br.com.brisabr.helpdesk_api.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+/**
+ * Ordem entre Hibernate e Flyway.
+ *
+ * As tabelas continuam sendo criadas pelo Hibernate ({@code ddl-auto=update});
+ * as migrações em {@code db/migration} só acrescentam índices sobre elas. Por
+ * padrão o Spring Boot roda o Flyway antes do EntityManagerFactory, quando as
+ * tabelas ainda não existem num banco novo. Aqui a migração automática vira
+ * no-op e é executada logo depois que o Hibernate termina.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.flyway.enabled", matchIfMissing = true)
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy adiarMigracaoParaDepoisDoHibernate() {
+        return flyway -> { };
+    }
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public InitializingBean migracaoAposHibernate(Flyway flyway) {
+        return flyway::migrate;
+    }
+}
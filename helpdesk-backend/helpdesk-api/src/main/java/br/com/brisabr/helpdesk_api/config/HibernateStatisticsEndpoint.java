@@ -34,6 +34,8 @@ public class HibernateStatisticsEndpoint {
         // Query statistics
         Map<String, Object> queryStats = new HashMap<>();
         queryStats.put("executionCount", statistics.getQueryExecutionCount());
+        // Total de statements JDBC preparados (inclui carregamento por id, não só HQL)
+        queryStats.put("prepareStatementCount", statistics.getPrepareStatementCount());
         queryStats.put("cacheHitCount", statistics.getQueryCacheHitCount());
         queryStats.put("cacheMissCount", statistics.getQueryCacheMissCount());
         queryStats.put("cachePutCount", statistics.getQueryCachePutCount());
@@ -9,6 +9,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import javax.sql.DataSource;
+import java.sql.SQLException;
 
 /**
  * Configuração avançada do HikariCP com monitoramento de métricas.
@@ -30,7 +31,8 @@ public class HikariCPConfig {
     @Bean
     public MeterRegistryCustomizer<MeterRegistry> hikariMetrics(DataSource dataSource) {
         return registry -> {
-            if (dataSource instanceof HikariDataSource hikariDataSource) {
+            HikariDataSource hikariDataSource = unwrapHikari(dataSource);
+            if (hikariDataSource != null) {
                 hikariDataSource.setMetricRegistry(registry);
 
                 log.info("✅ HikariCP metrics registered");
@@ -54,9 +56,21 @@ public class HikariCPConfig {
         return new HikariConfigValidator(dataSource);
     }
 
+    /**
+     * O DataSource pode vir embrulhado (ex.: JdbcAdmissionLimiter no modo virtual threads)
+     */
+    static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
     public static class HikariConfigValidator {
         public HikariConfigValidator(DataSource dataSource) {
-            if (dataSource instanceof HikariDataSource hikariDataSource) {
+            HikariDataSource hikariDataSource = unwrapHikari(dataSource);
+            if (hikariDataSource != null) {
                 validateConfiguration(hikariDataSource);
             }
         }
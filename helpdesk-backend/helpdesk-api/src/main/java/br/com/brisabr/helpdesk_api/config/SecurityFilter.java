@@ -1,7 +1,7 @@
 package br.com.brisabr.helpdesk_api.config;
 
+import br.com.brisabr.helpdesk_api.auth.AuthenticatedUserCache;
 import br.com.brisabr.helpdesk_api.auth.TokenService;
-import br.com.brisabr.helpdesk_api.user.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,11 +23,11 @@ public class SecurityFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(SecurityFilter.class);
 
     private final TokenService tokenService;
-    private final UserRepository userRepository;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
-    public SecurityFilter(TokenService tokenService, UserRepository userRepository) {
+    public SecurityFilter(TokenService tokenService, AuthenticatedUserCache authenticatedUserCache) {
         this.tokenService = tokenService;
-        this.userRepository = userRepository;
+        this.authenticatedUserCache = authenticatedUserCache;
     }
 
     @Override
@@ -48,8 +48,7 @@ public class SecurityFilter extends OncePerRequestFilter {
 
         var token = this.recoverToken(request);
         if (token != null) {
-            var email = tokenService.validateToken(token);
-            UserDetails user = userRepository.findByEmail(email);
+            UserDetails user = authenticatedUserCache.get(tokenService.validate(token));
 
             if (user != null) {
                 var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
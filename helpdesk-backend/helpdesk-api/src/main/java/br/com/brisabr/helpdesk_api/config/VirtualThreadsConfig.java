@@ -0,0 +1,72 @@
+package br.com.brisabr.helpdesk_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Modo virtual threads ({@code spring.threads.virtual.enabled=true}).
+ *
+ * O Spring Boot já troca o executor do Tomcat, o executor do {@code @Async}
+ * e o scheduler do {@code @Scheduled} por virtual threads; aqui fica só o que
+ * o Boot não faz: limitar o acesso ao pool JDBC ({@link JdbcAdmissionLimiter})
+ * com o mesmo número de conexões e o mesmo timeout do Hikari.
+ *
+ * Pinning: o driver PostgreSQL (42.6+) usa ReentrantLock nos trechos com I/O e
+ * os blocos synchronized do Hikari não fazem I/O, então a espera por banco não
+ * prende a carrier. Para conferir em produção, grave os eventos
+ * {@code jdk.VirtualThreadPinned} com JFR.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    public static BeanPostProcessor jdbcAdmissionLimiterPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    log.info("Virtual threads ativas: conexões JDBC limitadas a {} (espera máxima {}ms)",
+                            hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+                    return new JdbcAdmissionLimiter(hikari, hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder jdbcAdmissionMetrics(DataSource dataSource) {
+        return registry -> {
+            JdbcAdmissionLimiter limiter = unwrap(dataSource);
+            if (limiter == null) {
+                return;
+            }
+            Gauge.builder("jdbc.admission.available", limiter, JdbcAdmissionLimiter::getAvailablePermits)
+                    .description("Vagas livres para conexão JDBC")
+                    .register(registry);
+            Gauge.builder("jdbc.admission.waiting", limiter, JdbcAdmissionLimiter::getWaitingThreads)
+                    .description("Threads aguardando vaga para conexão JDBC")
+                    .register(registry);
+        };
+    }
+
+    private static JdbcAdmissionLimiter unwrap(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(JdbcAdmissionLimiter.class) ? dataSource.unwrap(JdbcAdmissionLimiter.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -3,19 +3,22 @@ package br.com.brisabr.helpdesk_api.controller;
 import br.com.brisabr.helpdesk_api.dto.RelatorioAnalistaDTO;
 import br.com.brisabr.helpdesk_api.dto.RelatorioCategoriaDTO;
 import br.com.brisabr.helpdesk_api.dto.RelatorioMensalDTO;
+import br.com.brisabr.helpdesk_api.service.ReportExportFormat;
 import br.com.brisabr.helpdesk_api.service.ReportService;
-import br.com.brisabr.helpdesk_api.ticket.Ticket;
-import br.com.brisabr.helpdesk_api.ticket.TicketResponseDTO;
+import br.com.brisabr.helpdesk_api.ticket.TicketListItemRecord;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -50,7 +53,7 @@ public class ReportController {
 
     
     @GetMapping("/detailed")
-    public ResponseEntity<List<TicketResponseDTO>> getDetailedReport(
+    public ResponseEntity<List<TicketListItemRecord>> getDetailedReport(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicial,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFinal,
             @RequestParam(defaultValue = "abertura") String tipoData,
@@ -62,11 +65,42 @@ public class ReportController {
             @RequestParam(required = false) Long tecnicoId,
             @RequestParam(defaultValue = "numero") String ordenarPor
     ) {
-        List<Ticket> tickets = reportService.getDetailedReport(
+        return ResponseEntity.ok(reportService.getDetailedReport(
                 dataInicial, dataFinal, tipoData, status, categoria,
                 unidade, local, solicitanteId, tecnicoId, ordenarPor
+        ));
+    }
+
+    /**
+     * Exporta o relatório detalhado em CSV ou NDJSON, em streaming.
+     * Use no lugar de {@code /detailed} para períodos grandes.
+     */
+    @GetMapping("/detailed/export")
+    public ResponseEntity<StreamingResponseBody> exportDetailedReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicial,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFinal,
+            @RequestParam(defaultValue = "abertura") String tipoData,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) String unidade,
+            @RequestParam(required = false) String local,
+            @RequestParam(required = false) Long solicitanteId,
+            @RequestParam(required = false) Long tecnicoId,
+            @RequestParam(defaultValue = "numero") String ordenarPor,
+            @RequestParam(defaultValue = "csv") String formato
+    ) {
+        ReportExportFormat exportFormat = ReportExportFormat.fromString(formato);
+        StreamingResponseBody body = out -> reportService.exportDetailedReport(
+                dataInicial, dataFinal, tipoData, status, categoria,
+                unidade, local, solicitanteId, tecnicoId, ordenarPor,
+                exportFormat, out
         );
-        List<TicketResponseDTO> response = tickets.stream().map(TicketResponseDTO::new).collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("relatorio-detalhado." + exportFormat.getExtensao())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package br.com.brisabr.helpdesk_api.dispatch;
+
+/**
+ * Decisão do {@link DispatchEngine}: o chamado vai para o técnico. Fica
+ * pendente até o evento de atribuição confirmar ou {@link DispatchEngine#cancelar}
+ * desfazer.
+ */
+public record Atribuicao(ChamadoNaFila chamado, long tecnicoId) {
+}
@@ -0,0 +1,272 @@
+package br.com.brisabr.helpdesk_api.dispatch;
+
+import br.com.brisabr.helpdesk_api.events.TicketAssignedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketClosedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketCreatedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketEventEnvelope;
+import br.com.brisabr.helpdesk_api.events.TicketEventSubscriber;
+import br.com.brisabr.helpdesk_api.events.TicketReopenedEvent;
+import br.com.brisabr.helpdesk_api.rollup.ChamadoRollupRecord;
+import br.com.brisabr.helpdesk_api.rollup.ResumoDiarioChamadoRepository;
+import br.com.brisabr.helpdesk_api.ticket.Ticket;
+import br.com.brisabr.helpdesk_api.ticket.TicketRepository;
+import br.com.brisabr.helpdesk_api.ticket.TicketService;
+import br.com.brisabr.helpdesk_api.ticket.TicketStatus;
+import br.com.brisabr.helpdesk_api.user.User;
+import br.com.brisabr.helpdesk_api.user.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribuição automática dos chamados abertos entre os técnicos, pelo {@link DispatchEngine}.
+ *
+ * <ul>
+ *   <li>Na inicialização (e a cada {@code dispatch.auto.resync-ms}) o motor é
+ *       remontado: carga e experiência por técnico vêm do resumo diário, a fila
+ *       vem dos chamados abertos sem técnico.</li>
+ *   <li>Entre uma remontagem e outra o motor acompanha os eventos da outbox:
+ *       criação e reabertura enfileiram, atribuição soma carga, fechamento libera
+ *       o técnico.</li>
+ *   <li>As decisões são gravadas por {@link TicketService#assignTicketToTechnician},
+ *       com o mesmo UPDATE condicional da captura manual: se um técnico capturou
+ *       o chamado antes, a decisão é desfeita.</li>
+ * </ul>
+ *
+ * Técnicos de uma equipe listada em {@code dispatch.auto.equipe-categorias}
+ * ({@code Equipe:Categoria,...}) recebem só as categorias dela; os demais recebem
+ * todas. Desligado por padrão ({@code dispatch.auto.enabled}); com várias
+ * réplicas, ligar em uma só.
+ */
+@Service
+@ConditionalOnProperty(name = "dispatch.auto.enabled", havingValue = "true")
+public class AutoDispatchService implements TicketEventSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutoDispatchService.class);
+
+    private static final List<String> ATIVOS = List.of(
+            TicketStatus.ABERTO.getDisplayName(), TicketStatus.EM_ANDAMENTO.getDisplayName());
+
+    private final DispatchStrategy estrategia;
+    private final TicketService ticketService;
+    private final TicketRepository ticketRepository;
+    private final UserRepository userRepository;
+    private final ResumoDiarioChamadoRepository resumoRepository;
+    private final TransactionTemplate leitura;
+    private final TransactionTemplate novaTransacao;
+    private final int capacidade;
+    private final Map<String, Set<String>> categoriasPorEquipe;
+
+    private final Timer decisao;
+    private final Timer espera;
+    private final Counter atribuidos;
+    private final Counter conflitos;
+    private final MeterRegistry meterRegistry;
+
+    // Trocado inteiro a cada remontagem; null até a primeira
+    private volatile DispatchEngine engine;
+
+    public AutoDispatchService(
+            DispatchStrategy estrategia,
+            TicketService ticketService,
+            TicketRepository ticketRepository,
+            UserRepository userRepository,
+            ResumoDiarioChamadoRepository resumoRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${dispatch.auto.max-per-technician:10}") int capacidade,
+            @Value("${dispatch.auto.equipe-categorias:}") List<String> equipeCategorias) {
+        this.estrategia = estrategia;
+        this.ticketService = ticketService;
+        this.ticketRepository = ticketRepository;
+        this.userRepository = userRepository;
+        this.resumoRepository = resumoRepository;
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+        // O assinante roda dentro da transação do lote da outbox; a atribuição tem a sua
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.capacidade = capacidade;
+        this.categoriasPorEquipe = categoriasPorEquipe(equipeCategorias);
+
+        this.decisao = Timer.builder("helpdesk.dispatch.decision")
+                .description("Tempo de decisão do motor de distribuição, sem a gravação")
+                .tag("strategy", estrategia.nome())
+                .register(meterRegistry);
+        this.espera = Timer.builder("helpdesk.dispatch.queue.wait")
+                .description("Espera do chamado na fila até a atribuição automática")
+                .register(meterRegistry);
+        this.atribuidos = Counter.builder("helpdesk.dispatch.assigned")
+                .description("Chamados atribuídos pela distribuição automática")
+                .register(meterRegistry);
+        this.conflitos = Counter.builder("helpdesk.dispatch.conflicts")
+                .description("Decisões desfeitas porque o chamado saiu da fila antes da gravação")
+                .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * O gauge guarda referência ao serviço; só é registrado depois de construído.
+     */
+    @PostConstruct
+    public void registrarFila() {
+        Gauge.builder("helpdesk.dispatch.queued", this, servico -> servico.engine == null ? 0 : servico.engine.naFila())
+                .description("Chamados esperando técnico livre na distribuição automática")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String nome() {
+        return "auto-dispatch";
+    }
+
+    /**
+     * Só altera o estado em memória; as atribuições têm transação própria.
+     */
+    @Override
+    public boolean transacional() {
+        return false;
+    }
+
+    @Override
+    public void onEvent(TicketEventEnvelope envelope) {
+        DispatchEngine atual = engine;
+        if (atual == null) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        List<Atribuicao> decididas = switch (envelope.evento()) {
+            case TicketCreatedEvent e when envelope.depois() != null ->
+                    atual.novoChamado(naFila(e.ticketId(), envelope.depois(), envelope.ocorridoEm())).stream().toList();
+            case TicketAssignedEvent e when e.tecnicoId() != null -> atual.atribuido(e.ticketId(), e.tecnicoId());
+            case TicketReopenedEvent e when envelope.depois() != null ->
+                    atual.novoChamado(naFila(e.ticketId(), envelope.depois(), envelope.ocorridoEm())).stream().toList();
+            case TicketClosedEvent e -> atual.finalizado(e.ticketId(), e.tecnicoId(),
+                    envelope.depois() != null ? envelope.depois().categoria() : null);
+            default -> List.of();
+        };
+        decisao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        gravar(atual, decididas);
+    }
+
+    /**
+     * Remonta o motor a partir do banco. Corrige o que se perdeu entre eventos
+     * (técnicos novos, mudanças de equipe, falhas de gravação).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${dispatch.auto.resync-ms:600000}", initialDelayString = "${dispatch.auto.resync-ms:600000}")
+    public void sincronizar() {
+        long inicio = System.currentTimeMillis();
+        DispatchEngine novo = new DispatchEngine(estrategia, capacidade);
+        List<Atribuicao> decididas = new ArrayList<>();
+        leitura.executeWithoutResult(status -> {
+            Map<Long, Integer> cargas = new HashMap<>();
+            for (Object[] row : resumoRepository.getCargaPorTecnico(ATIVOS)) {
+                cargas.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+            }
+            Map<Long, Map<String, Integer>> experiencia = new HashMap<>();
+            for (Object[] row : resumoRepository.getResolvidosPorTecnicoECategoria()) {
+                experiencia.computeIfAbsent(((Number) row[0]).longValue(), id -> new HashMap<>())
+                        .put((String) row[1], ((Number) row[2]).intValue());
+            }
+            for (User tecnico : userRepository.findByPerfil("technician")) {
+                Collection<String> categorias = tecnico.getEquipe() == null ? Set.of()
+                        : categoriasPorEquipe.getOrDefault(DispatchEngine.chave(tecnico.getEquipe().getNomeEquipe()), Set.of());
+                decididas.addAll(novo.registrarTecnico(tecnico.getId(), categorias,
+                        cargas.getOrDefault(tecnico.getId(), 0), experiencia.getOrDefault(tecnico.getId(), Map.of())));
+            }
+            for (Object[] row : ticketRepository.findFilaByStatus(TicketStatus.ABERTO.getDisplayName())) {
+                LocalDateTime abertura = (LocalDateTime) row[4];
+                LocalDateTime prazo = row[3] != null ? (LocalDateTime) row[3]
+                        : Ticket.calculateSlaDeadline(abertura, (String) row[2]);
+                novo.novoChamado(new ChamadoNaFila((Long) row[0], (String) row[1], ChamadoNaFila.pesoDe((String) row[2]),
+                        epochMillis(prazo), epochMillis(abertura))).ifPresent(decididas::add);
+            }
+        });
+        engine = novo;
+        logger.info("Distribuição automática ({}) sincronizada em {} ms: {} chamados na fila, {} atribuições",
+                estrategia.nome(), System.currentTimeMillis() - inicio, novo.naFila(), decididas.size());
+        gravar(novo, decididas);
+    }
+
+    /**
+     * Grava as decisões, desfazendo as que perderam para outra atribuição; o
+     * técnico de uma decisão desfeita pode receber o próximo da fila.
+     */
+    private void gravar(DispatchEngine origem, List<Atribuicao> decididas) {
+        Deque<Atribuicao> pendentes = new ArrayDeque<>(decididas);
+        Atribuicao atribuicao;
+        while ((atribuicao = pendentes.poll()) != null) {
+            ChamadoNaFila chamado = atribuicao.chamado();
+            long tecnicoId = atribuicao.tecnicoId();
+            try {
+                novaTransacao.executeWithoutResult(status ->
+                        ticketService.assignTicketToTechnician(chamado.ticketId(), tecnicoId, null));
+                atribuidos.increment();
+                espera.record(Math.max(System.currentTimeMillis() - chamado.chegada(), 0), TimeUnit.MILLISECONDS);
+                logger.debug("Chamado {} atribuído automaticamente ao técnico {}", chamado.ticketId(), tecnicoId);
+            } catch (RuntimeException e) {
+                conflitos.increment();
+                logger.info("Atribuição automática do chamado {} ao técnico {} desfeita: {}",
+                        chamado.ticketId(), tecnicoId, e.getMessage());
+                pendentes.addAll(origem.cancelar(atribuicao));
+            }
+        }
+    }
+
+    private static ChamadoNaFila naFila(long ticketId, ChamadoRollupRecord estado, LocalDateTime chegada) {
+        LocalDateTime prazo = Ticket.calculateSlaDeadline(estado.dataAbertura(), estado.prioridade());
+        return new ChamadoNaFila(ticketId, estado.categoria(), ChamadoNaFila.pesoDe(estado.prioridade()),
+                epochMillis(prazo), epochMillis(chegada != null ? chegada : estado.dataAbertura()));
+    }
+
+    private static long epochMillis(LocalDateTime instante) {
+        return instante == null ? System.currentTimeMillis()
+                : instante.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Lê {@code Equipe:Categoria} de cada item; itens sem ':' são rejeitados.
+     */
+    static Map<String, Set<String>> categoriasPorEquipe(List<String> itens) {
+        Map<String, Set<String>> porEquipe = new HashMap<>();
+        for (String item : itens) {
+            if (item == null || item.isBlank()) {
+                continue;
+            }
+            int separador = item.indexOf(':');
+            if (separador <= 0 || separador == item.length() - 1) {
+                throw new IllegalArgumentException("dispatch.auto.equipe-categorias: esperado Equipe:Categoria, recebido " + item);
+            }
+            porEquipe.computeIfAbsent(DispatchEngine.chave(item.substring(0, separador)), equipe -> new HashSet<>())
+                    .add(item.substring(separador + 1).trim());
+        }
+        return porEquipe;
+    }
+}
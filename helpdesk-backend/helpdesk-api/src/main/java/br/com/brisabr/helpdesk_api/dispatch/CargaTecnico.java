@@ -0,0 +1,65 @@
+package br.com.brisabr.helpdesk_api.dispatch;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estado de um técnico no {@link DispatchEngine}, lido pelas estratégias.
+ *
+ * Só o motor altera os campos, e sempre com o técnico fora dos conjuntos
+ * ordenados: a ordem de uma {@link DispatchStrategy} depende deles.
+ */
+public final class CargaTecnico {
+
+    private final long id;
+    // Categorias atendidas (normalizadas); vazio atende todas
+    private final Set<String> categorias;
+    private final Map<String, Integer> experiencia;
+    int carga;
+    long ultimaAtribuicao;
+
+    CargaTecnico(long id, Set<String> categorias, int carga, Map<String, Integer> experiencia) {
+        this.id = id;
+        this.categorias = Set.copyOf(categorias);
+        this.carga = carga;
+        this.experiencia = new HashMap<>(experiencia);
+    }
+
+    public long id() {
+        return id;
+    }
+
+    /**
+     * Chamados em andamento com o técnico.
+     */
+    public int carga() {
+        return carga;
+    }
+
+    /**
+     * Sequência da última atribuição feita pelo motor (0 se nunca recebeu).
+     */
+    public long ultimaAtribuicao() {
+        return ultimaAtribuicao;
+    }
+
+    /**
+     * Chamados da categoria já resolvidos pelo técnico.
+     */
+    public int experiencia(String categoria) {
+        return experiencia.getOrDefault(categoria, 0);
+    }
+
+    Set<String> categorias() {
+        return categorias;
+    }
+
+    boolean generalista() {
+        return categorias.isEmpty();
+    }
+
+    void resolveu(String categoria) {
+        experiencia.merge(categoria, 1, Integer::sum);
+    }
+}
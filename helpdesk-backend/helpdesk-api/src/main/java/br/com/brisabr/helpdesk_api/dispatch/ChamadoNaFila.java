@@ -0,0 +1,38 @@
+package br.com.brisabr.helpdesk_api.dispatch;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Chamado aberto e sem técnico, na fila da sua categoria.
+ *
+ * @param peso prioridade como número, menor primeiro ({@link #pesoDe(String)})
+ * @param prazoSla prazo de SLA em epoch millis
+ * @param chegada quando entrou na fila, em epoch millis (para medir a espera)
+ */
+public record ChamadoNaFila(long ticketId, String categoria, int peso, long prazoSla, long chegada) {
+
+    /**
+     * Ordem de atendimento: prioridade, depois o prazo de SLA mais próximo e, no
+     * empate, o chamado mais antigo.
+     */
+    public static final Comparator<ChamadoNaFila> ORDEM = Comparator
+            .comparingInt(ChamadoNaFila::peso)
+            .thenComparingLong(ChamadoNaFila::prazoSla)
+            .thenComparingLong(ChamadoNaFila::ticketId);
+
+    /**
+     * Peso da prioridade, com os mesmos nomes aceitos em {@code Ticket.calculateSlaDeadline}.
+     */
+    public static int pesoDe(String prioridade) {
+        if (prioridade == null) {
+            return 2;
+        }
+        return switch (prioridade.toLowerCase(Locale.ROOT)) {
+            case "crítica" -> 0;
+            case "alta", "alto" -> 1;
+            case "baixa", "baixo" -> 3;
+            default -> 2;
+        };
+    }
+}
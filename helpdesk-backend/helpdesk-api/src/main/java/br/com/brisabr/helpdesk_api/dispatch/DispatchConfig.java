@@ -0,0 +1,23 @@
+package br.com.brisabr.helpdesk_api.dispatch;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Estratégia da distribuição automática, escolhida por {@code dispatch.auto.strategy}
+ * ({@code least-loaded}, {@code round-robin} ou {@code skill-weighted}). Um bean
+ * {@link DispatchStrategy} declarado pela aplicação tem precedência.
+ */
+@Configuration
+@ConditionalOnProperty(name = "dispatch.auto.enabled", havingValue = "true")
+public class DispatchConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DispatchStrategy dispatchStrategy(@Value("${dispatch.auto.strategy:least-loaded}") String nome) {
+        return DispatchStrategy.porNome(nome);
+    }
+}
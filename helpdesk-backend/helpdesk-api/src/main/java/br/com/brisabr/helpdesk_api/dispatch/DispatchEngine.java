@@ -0,0 +1,268 @@
+package br.com.brisabr.helpdesk_api.dispatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de distribuição em memória: filas de chamados e técnicos livres por categoria.
+ *
+ * <ul>
+ *   <li>Cada categoria tem uma fila de prioridade ({@link ChamadoNaFila#ORDEM}) e
+ *       o conjunto dos técnicos que a atendem e ainda têm capacidade, ordenado
+ *       pela {@link DispatchStrategy}.</li>
+ *   <li>Chamado novo: vai para o primeiro técnico livre da categoria ou, se não
+ *       há nenhum, para a fila. Técnico liberado: pega o melhor topo entre as
+ *       filas das categorias que atende. Os dois casos custam O(log n).</li>
+ *   <li>Fila com chamados implica nenhum técnico livre na categoria, então um
+ *       chamado novo nunca passa na frente dos que já esperam.</li>
+ * </ul>
+ *
+ * As decisões ficam pendentes até a atribuição voltar como evento
+ * ({@link #atribuido}), para que a carga não seja contada duas vezes. Sem
+ * locks próprios: todos os métodos públicos são sincronizados.
+ */
+public class DispatchEngine {
+
+    private final DispatchStrategy estrategia;
+    private final int capacidade;
+
+    private final Map<Long, CargaTecnico> tecnicos = new HashMap<>();
+    private final List<CargaTecnico> generalistas = new ArrayList<>();
+    private final Map<String, Categoria> categorias = new HashMap<>();
+    // Chamados na fila; o que sai daqui é descartado da PriorityQueue quando chegar ao topo
+    private final Map<Long, ChamadoNaFila> enfileirados = new HashMap<>();
+    // Chamado -> técnico, decididos pelo motor e ainda sem o evento de atribuição
+    private final Map<Long, Long> pendentes = new HashMap<>();
+    private long sequencia;
+
+    /**
+     * @param capacidade chamados em andamento a partir dos quais o técnico não recebe mais
+     */
+    public DispatchEngine(DispatchStrategy estrategia, int capacidade) {
+        if (capacidade < 1) {
+            throw new IllegalArgumentException("A capacidade por técnico deve ser positiva");
+        }
+        this.estrategia = estrategia;
+        this.capacidade = capacidade;
+    }
+
+    /**
+     * Registra o técnico com a carga atual e já entrega a ele o que está na fila.
+     *
+     * @param categorias categorias que atende (vazio atende todas)
+     * @param experiencia chamados resolvidos por categoria
+     */
+    public synchronized List<Atribuicao> registrarTecnico(long id, Collection<String> categorias, int carga,
+                                                         Map<String, Integer> experiencia) {
+        if (tecnicos.containsKey(id)) {
+            throw new IllegalArgumentException("Técnico já registrado: " + id);
+        }
+        Map<String, Integer> porChave = new HashMap<>();
+        experiencia.forEach((categoria, total) -> porChave.merge(chave(categoria), total, Integer::sum));
+        CargaTecnico tecnico = new CargaTecnico(id, categorias.stream().map(DispatchEngine::chave)
+                .collect(Collectors.toSet()), Math.max(carga, 0), porChave);
+        tecnicos.put(id, tecnico);
+        if (tecnico.generalista()) {
+            generalistas.add(tecnico);
+        }
+        tecnico.categorias().forEach(this::categoria);
+        if (tecnico.carga < capacidade) {
+            categoriasDe(tecnico).forEach(c -> c.livres.add(tecnico));
+        }
+        return preencher(tecnico);
+    }
+
+    /**
+     * Chamado aberto sem técnico: atribui se há técnico livre, senão enfileira.
+     * Um chamado já na fila ou pendente é ignorado (entrega repetida do evento).
+     */
+    public synchronized Optional<Atribuicao> novoChamado(ChamadoNaFila chamado) {
+        if (enfileirados.containsKey(chamado.ticketId()) || pendentes.containsKey(chamado.ticketId())) {
+            return Optional.empty();
+        }
+        ChamadoNaFila normalizado = new ChamadoNaFila(chamado.ticketId(), chave(chamado.categoria()),
+                chamado.peso(), chamado.prazoSla(), chamado.chegada());
+        Categoria categoria = categoria(normalizado.categoria());
+        if (categoria.livres.isEmpty()) {
+            enfileirados.put(normalizado.ticketId(), normalizado);
+            categoria.fila.add(normalizado);
+            return Optional.empty();
+        }
+        return Optional.of(atribuir(categoria.livres.first(), normalizado));
+    }
+
+    /**
+     * O chamado foi atribuído ao técnico (evento de atribuição).
+     * Confirma uma decisão pendente do motor ou, se a atribuição veio de fora,
+     * tira o chamado da fila e soma a carga. Se o motor tinha escolhido outro
+     * técnico, a decisão é desfeita e ele já recebe os próximos da fila.
+     */
+    public synchronized List<Atribuicao> atribuido(long ticketId, long tecnicoId) {
+        Long decidido = pendentes.remove(ticketId);
+        if (decidido != null && decidido == tecnicoId) {
+            return List.of();
+        }
+        enfileirados.remove(ticketId);
+        CargaTecnico tecnico = tecnicos.get(tecnicoId);
+        if (tecnico != null) {
+            alterar(tecnico, () -> tecnico.carga++);
+        }
+        return decidido == null ? List.of() : liberar(tecnicos.get(decidido));
+    }
+
+    /**
+     * O chamado foi finalizado. Tira-o da fila, se estava lá, e libera o técnico,
+     * que já recebe os próximos da fila.
+     *
+     * @param tecnicoId técnico do chamado ({@code null} se estava sem técnico)
+     */
+    public synchronized List<Atribuicao> finalizado(long ticketId, Long tecnicoId, String categoria) {
+        enfileirados.remove(ticketId);
+        CargaTecnico tecnico = tecnicoId == null ? null : tecnicos.get(tecnicoId);
+        if (tecnico == null) {
+            return List.of();
+        }
+        alterar(tecnico, () -> {
+            tecnico.carga = Math.max(tecnico.carga - 1, 0);
+            tecnico.resolveu(chave(categoria));
+        });
+        return preencher(tecnico);
+    }
+
+    /**
+     * Desfaz uma decisão que não pôde ser gravada (o chamado saiu da fila por
+     * outro caminho, por exemplo). O chamado não volta para a fila; o técnico
+     * recupera a capacidade e já recebe os próximos.
+     */
+    public synchronized List<Atribuicao> cancelar(Atribuicao atribuicao) {
+        long ticketId = atribuicao.chamado().ticketId();
+        if (!pendentes.remove(ticketId, atribuicao.tecnicoId())) {
+            return List.of();
+        }
+        return liberar(tecnicos.get(atribuicao.tecnicoId()));
+    }
+
+    public synchronized int naFila() {
+        return enfileirados.size();
+    }
+
+    public synchronized int pendentes() {
+        return pendentes.size();
+    }
+
+    /**
+     * Carga atual por técnico, para métricas e para a simulação.
+     */
+    public synchronized Map<Long, Integer> cargas() {
+        Map<Long, Integer> cargas = new HashMap<>();
+        tecnicos.forEach((id, tecnico) -> cargas.put(id, tecnico.carga));
+        return cargas;
+    }
+
+    public DispatchStrategy estrategia() {
+        return estrategia;
+    }
+
+    private List<Atribuicao> liberar(CargaTecnico tecnico) {
+        alterar(tecnico, () -> tecnico.carga = Math.max(tecnico.carga - 1, 0));
+        return preencher(tecnico);
+    }
+
+    private Atribuicao atribuir(CargaTecnico tecnico, ChamadoNaFila chamado) {
+        alterar(tecnico, () -> {
+            tecnico.carga++;
+            tecnico.ultimaAtribuicao = ++sequencia;
+        });
+        pendentes.put(chamado.ticketId(), tecnico.id());
+        return new Atribuicao(chamado, tecnico.id());
+    }
+
+    /**
+     * Entrega ao técnico os melhores chamados das filas que ele atende, até a capacidade.
+     */
+    private List<Atribuicao> preencher(CargaTecnico tecnico) {
+        List<Atribuicao> atribuicoes = new ArrayList<>();
+        while (tecnico.carga < capacidade) {
+            Categoria melhor = null;
+            for (Categoria categoria : categoriasDe(tecnico)) {
+                ChamadoNaFila topo = categoria.topo();
+                if (topo != null && (melhor == null || ChamadoNaFila.ORDEM.compare(topo, melhor.topo()) < 0)) {
+                    melhor = categoria;
+                }
+            }
+            if (melhor == null) {
+                break;
+            }
+            ChamadoNaFila chamado = melhor.fila.poll();
+            enfileirados.remove(chamado.ticketId());
+            atribuicoes.add(atribuir(tecnico, chamado));
+        }
+        return atribuicoes;
+    }
+
+    /**
+     * Aplica a mudança com o técnico fora dos conjuntos ordenados, e o devolve só se ainda tem capacidade.
+     */
+    private void alterar(CargaTecnico tecnico, Runnable mudanca) {
+        Collection<Categoria> dele = categoriasDe(tecnico);
+        dele.forEach(c -> c.livres.remove(tecnico));
+        mudanca.run();
+        if (tecnico.carga < capacidade) {
+            dele.forEach(c -> c.livres.add(tecnico));
+        }
+    }
+
+    private Collection<Categoria> categoriasDe(CargaTecnico tecnico) {
+        if (tecnico.generalista()) {
+            return List.copyOf(categorias.values());
+        }
+        return tecnico.categorias().stream().map(this::categoria).toList();
+    }
+
+    private Categoria categoria(String chave) {
+        Categoria categoria = categorias.get(chave);
+        if (categoria == null) {
+            categoria = new Categoria(estrategia.ordem(chave));
+            categorias.put(chave, categoria);
+            for (CargaTecnico generalista : generalistas) {
+                if (generalista.carga < capacidade) {
+                    categoria.livres.add(generalista);
+                }
+            }
+        }
+        return categoria;
+    }
+
+    static String chave(String categoria) {
+        return categoria == null ? "" : categoria.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private final class Categoria {
+        final TreeSet<CargaTecnico> livres;
+        final PriorityQueue<ChamadoNaFila> fila = new PriorityQueue<>(ChamadoNaFila.ORDEM);
+
+        Categoria(Comparator<CargaTecnico> ordem) {
+            this.livres = new TreeSet<>(ordem);
+        }
+
+        /**
+         * Melhor chamado ainda na fila, descartando os que saíram por outro caminho.
+         */
+        ChamadoNaFila topo() {
+            ChamadoNaFila topo;
+            while ((topo = fila.peek()) != null && enfileirados.get(topo.ticketId()) != topo) {
+                fila.poll();
+            }
+            return topo;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.brisabr.helpdesk_api.dispatch;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Escolhe, entre os técnicos livres de uma categoria, quem recebe o próximo chamado.
+ *
+ * A estratégia só define a ordem; o {@link DispatchEngine} mantém os técnicos
+ * livres num conjunto ordenado por ela e pega o primeiro. A ordem pode depender
+ * de {@link CargaTecnico#carga()}, {@link CargaTecnico#ultimaAtribuicao()} e
+ * {@link CargaTecnico#experiencia(String)}, e nunca deve empatar técnicos
+ * diferentes (desempate final pelo id).
+ *
+ * Escolhida por {@code dispatch.auto.strategy}; um bean próprio substitui as embutidas.
+ */
+public interface DispatchStrategy {
+
+    String nome();
+
+    /**
+     * Ordem dos técnicos livres para chamados da categoria (normalizada), do melhor para o pior.
+     */
+    Comparator<CargaTecnico> ordem(String categoria);
+
+    /**
+     * Quem está há mais tempo sem receber chamado do motor.
+     */
+    DispatchStrategy ROUND_ROBIN = estrategia("round-robin", categoria -> Comparator
+            .comparingLong(CargaTecnico::ultimaAtribuicao)
+            .thenComparingLong(CargaTecnico::id));
+
+    /**
+     * Quem tem menos chamados em andamento.
+     */
+    DispatchStrategy LEAST_LOADED = estrategia("least-loaded", categoria -> Comparator
+            .comparingInt(CargaTecnico::carga)
+            .thenComparingLong(CargaTecnico::id));
+
+    /**
+     * Experiência na categoria dividida pela carga: o especialista recebe mais,
+     * mas perde a vez à medida que acumula chamados.
+     */
+    DispatchStrategy SKILL_WEIGHTED = estrategia("skill-weighted", categoria -> Comparator
+            .comparingDouble((CargaTecnico t) -> -(1.0 + t.experiencia(categoria)) / (1.0 + t.carga()))
+            .thenComparingInt(CargaTecnico::carga)
+            .thenComparingLong(CargaTecnico::id));
+
+    /**
+     * Estratégia embutida pelo nome de {@code dispatch.auto.strategy}.
+     */
+    static DispatchStrategy porNome(String nome) {
+        return switch (nome == null ? "" : nome.trim().toLowerCase(Locale.ROOT)) {
+            case "round-robin" -> ROUND_ROBIN;
+            case "least-loaded" -> LEAST_LOADED;
+            case "skill-weighted" -> SKILL_WEIGHTED;
+            default -> throw new IllegalArgumentException("Estratégia de distribuição desconhecida: " + nome);
+        };
+    }
+
+    private static DispatchStrategy estrategia(String nome, Function<String, Comparator<CargaTecnico>> ordem) {
+        return new DispatchStrategy() {
+            @Override
+            public String nome() {
+                return nome;
+            }
+
+            @Override
+            public Comparator<CargaTecnico> ordem(String categoria) {
+                return ordem.apply(categoria);
+            }
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package br.com.brisabr.helpdesk_api.dto;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem paginada por cursor.
+ *
+ * @param content itens da página
+ * @param nextCursor cursor opaco para a próxima página ({@code null} na última)
+ */
+public record CursorPageDTO<T>(List<T> content, String nextCursor) {
+}
@@ -1,6 +1,6 @@
 package br.com.brisabr.helpdesk_api.dto;
 
-import br.com.brisabr.helpdesk_api.ticket.TicketResponseDTO;
+import br.com.brisabr.helpdesk_api.ticket.TicketListItemRecord;
 
 import java.util.List;
 
@@ -8,7 +8,7 @@ public class DashboardStatsDTO {
 
     private long chamadosNaFila;
     private List<RelatorioAnalistaDTO> chamadosPorAnalista;
-    private List<TicketResponseDTO> chamadosSlaViolado;
+    private List<TicketListItemRecord> chamadosSlaViolado;
 
     // Getters e Setters
     public long getChamadosNaFila() {
@@ -27,11 +27,11 @@ public class DashboardStatsDTO {
         this.chamadosPorAnalista = chamadosPorAnalista;
     }
 
-    public List<TicketResponseDTO> getChamadosSlaViolado() {
+    public List<TicketListItemRecord> getChamadosSlaViolado() {
         return chamadosSlaViolado;
     }
 
-    public void setChamadosSlaViolado(List<TicketResponseDTO> chamadosSlaViolado) {
+    public void setChamadosSlaViolado(List<TicketListItemRecord> chamadosSlaViolado) {
         this.chamadosSlaViolado = chamadosSlaViolado;
     }
 }
\ No newline at end of file
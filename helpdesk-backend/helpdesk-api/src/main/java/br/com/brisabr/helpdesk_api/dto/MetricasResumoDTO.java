@@ -0,0 +1,17 @@
+package br.com.brisabr.helpdesk_api.dto;
+
+/**
+ * Contadores agregados de chamados calculados em uma única passada sobre a tabela.
+ */
+public interface MetricasResumoDTO {
+    Long getTotal();
+    Long getCriadosHoje();
+    Long getFechadosHoje();
+    Long getAtrasados();
+    Long getCriticos();
+    Long getSlaViolado();
+    Double getMediaResolucaoMinutos();
+    Long getTecnicosAtivos();
+    Long getAtribuidos();
+    Long getFechadosSemana();
+}
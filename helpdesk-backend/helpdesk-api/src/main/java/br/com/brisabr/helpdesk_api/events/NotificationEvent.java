@@ -0,0 +1,46 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Evento do ciclo de vida de um chamado, gravado pelo TicketService na
+ * {@link TicketEventOutbox} e entregue aos assinantes e aos painéis conectados
+ * ({@link TicketEventStream}).
+ *
+ * A hierarquia é selada: um {@code switch} sobre o evento não precisa de
+ * {@code default} e o compilador aponta quem esqueceu um tipo novo.
+ */
+// type e message são derivados: ignorados ao ler o evento de volta da outbox
+@JsonIgnoreProperties(ignoreUnknown = true)
+public sealed interface NotificationEvent
+    permits TicketCreatedEvent, TicketAssignedEvent, TicketClosedEvent, TicketReopenedEvent, TicketCommentedEvent {
+
+    Long ticketId();
+
+    /**
+     * Dono do chamado: usuários comuns só recebem eventos dos próprios chamados.
+     */
+    Long solicitanteId();
+
+    /**
+     * Técnico atribuído, ou {@code null} se o chamado está na fila.
+     */
+    Long tecnicoId();
+
+    @JsonProperty("message")
+    String message();
+
+    /**
+     * Nome do evento no stream SSE.
+     */
+    default String type() {
+        return switch (this) {
+            case TicketCreatedEvent e -> "ticket.created";
+            case TicketAssignedEvent e -> "ticket.assigned";
+            case TicketClosedEvent e -> "ticket.closed";
+            case TicketReopenedEvent e -> "ticket.reopened";
+            case TicketCommentedEvent e -> "ticket.commented";
+        };
+    }
+}
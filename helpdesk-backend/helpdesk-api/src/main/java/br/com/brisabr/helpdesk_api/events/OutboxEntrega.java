@@ -0,0 +1,67 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Marca de que um assinante já processou um evento da outbox. É gravada na
+ * mesma transação do assinante: se a marca já existe, a chave primária derruba
+ * a transação e o efeito não se repete.
+ *
+ * Sem chave estrangeira para a outbox, para não disputar o lock da linha que o
+ * dispatcher mantém durante a entrega.
+ */
+@Entity
+@Table(name = "ticket_event_entregas")
+@IdClass(OutboxEntrega.Chave.class)
+@Getter
+@NoArgsConstructor
+public class OutboxEntrega implements Persistable<OutboxEntrega.Chave> {
+
+    @Id
+    @Column(name = "evento_id")
+    private Long eventoId;
+
+    @Id
+    @Column(length = 40)
+    private String assinante;
+
+    @Column(name = "entregue_em", nullable = false)
+    private LocalDateTime entregueEm;
+
+    public OutboxEntrega(Long eventoId, String assinante) {
+        this.eventoId = eventoId;
+        this.assinante = assinante;
+        this.entregueEm = LocalDateTime.now();
+    }
+
+    @Override
+    public Chave getId() {
+        return new Chave(eventoId, assinante);
+    }
+
+    /**
+     * Sempre um INSERT (nunca merge): uma marca repetida tem que falhar.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long eventoId;
+        private String assinante;
+    }
+}
@@ -0,0 +1,22 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEntregaRepository extends JpaRepository<OutboxEntrega, OutboxEntrega.Chave> {
+
+    @Query("SELECT e.assinante FROM OutboxEntrega e WHERE e.eventoId = :eventoId")
+    List<String> findAssinantesByEventoId(@Param("eventoId") Long eventoId);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEntrega e WHERE e.eventoId IN " +
+           "(SELECT o.id FROM OutboxEvento o WHERE o.processadoEm < :limite)")
+    int apagarDeProcessadosAntesDe(@Param("limite") LocalDateTime limite);
+}
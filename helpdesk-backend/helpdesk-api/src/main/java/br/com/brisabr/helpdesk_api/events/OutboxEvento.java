@@ -0,0 +1,61 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de chamado gravado na outbox, na mesma transação da transição que o
+ * gerou. O {@link TicketEventDispatcher} o entrega aos assinantes depois.
+ *
+ * {@code processadoEm} nulo com {@code proximaTentativa} nula indica um evento
+ * que esgotou as tentativas e aguarda intervenção.
+ */
+@Entity
+@Table(name = "ticket_event_outbox")
+@Data
+public class OutboxEvento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Chave de idempotência do evento, repassada aos assinantes
+    @Column(nullable = false, unique = true, length = 36)
+    private String chave;
+
+    @Column(nullable = false, length = 40)
+    private String tipo;
+
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+
+    @Column(name = "autor_id")
+    private Long autorId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    // ChamadoRollupRecord antes e depois da transição, em JSON
+    @Column(name = "estado_anterior", columnDefinition = "TEXT")
+    private String estadoAnterior;
+
+    @Column(name = "estado_novo", columnDefinition = "TEXT")
+    private String estadoNovo;
+
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(nullable = false)
+    private int tentativas;
+
+    @Column(name = "proxima_tentativa")
+    private LocalDateTime proximaTentativa;
+
+    @Column(name = "processado_em")
+    private LocalDateTime processadoEm;
+
+    @Column(name = "ultimo_erro", length = 500)
+    private String ultimoErro;
+}
@@ -0,0 +1,47 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventoRepository extends JpaRepository<OutboxEvento, Long> {
+
+    /**
+     * Reserva um lote de eventos pendentes em ordem de gravação ({@code FOR UPDATE
+     * SKIP LOCKED}): réplicas que drenam ao mesmo tempo pegam lotes disjuntos, e
+     * o lock some junto com a transação se o processo morrer no meio da entrega.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    // -2 = LockOptions.SKIP_LOCKED
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvento e WHERE e.processadoEm IS NULL AND e.proximaTentativa <= :agora ORDER BY e.id")
+    List<OutboxEvento> reservarPendentes(@Param("agora") LocalDateTime agora, Limit limit);
+
+    /**
+     * Eventos gravados depois de {@code depois}, em ordem de id, para o
+     * {@link TicketEventFanout} acompanhar a tabela pela chave primária.
+     */
+    @Query("SELECT e FROM OutboxEvento e WHERE e.id > :depois ORDER BY e.id")
+    List<OutboxEvento> findGravadosDepoisDe(@Param("depois") long depois, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM OutboxEvento e")
+    long findUltimoId();
+
+    @Query("SELECT COUNT(e) FROM OutboxEvento e WHERE e.processadoEm IS NULL AND e.proximaTentativa IS NOT NULL")
+    long contarPendentes();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvento e WHERE e.processadoEm < :limite")
+    int apagarProcessadosAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,10 @@
+package br.com.brisabr.helpdesk_api.events;
+
+public record TicketAssignedEvent(Long ticketId, Long solicitanteId, Long tecnicoId, String tecnico,
+                                  String prioridade) implements NotificationEvent {
+
+    @Override
+    public String message() {
+        return String.format("Chamado atribuído para %s - Prioridade: %s", tecnico, prioridade);
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.brisabr.helpdesk_api.events;
+
+public record TicketClosedEvent(Long ticketId, Long solicitanteId, Long tecnicoId, String tecnico,
+                                String solucao) implements NotificationEvent {
+
+    @Override
+    public String message() {
+        return String.format("Chamado resolvido por %s", tecnico);
+    }
+}
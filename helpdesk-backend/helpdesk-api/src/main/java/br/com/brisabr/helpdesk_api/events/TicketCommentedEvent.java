@@ -0,0 +1,10 @@
+package br.com.brisabr.helpdesk_api.events;
+
+public record TicketCommentedEvent(Long ticketId, Long solicitanteId, Long tecnicoId, Long historicoId,
+                                   String autor) implements NotificationEvent {
+
+    @Override
+    public String message() {
+        return String.format("Novo comentário de %s", autor);
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.brisabr.helpdesk_api.events;
+
+public record TicketCreatedEvent(Long ticketId, String numeroChamado, Long solicitanteId, String solicitante,
+                                 String categoria, String prioridade) implements NotificationEvent {
+
+    @Override
+    public Long tecnicoId() {
+        return null;
+    }
+
+    @Override
+    public String message() {
+        return String.format("Novo chamado criado por %s - Categoria: %s", solicitante, categoria);
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import br.com.brisabr.helpdesk_api.ratelimit.RateLimit;
+import br.com.brisabr.helpdesk_api.user.User;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controller do stream de eventos de chamados (Server-Sent Events).
+ *
+ * Endpoints disponíveis:
+ * - GET /api/tickets/events - Eventos ticket.created, ticket.assigned, ticket.closed,
+ *   ticket.reopened e ticket.commented; {@code resync} pede para recarregar a lista
+ *
+ * @author HelpDesk Team
+ */
+@RestController
+@RequestMapping("/api/tickets/events")
+public class TicketEventController {
+
+    private final TicketEventStream ticketEventStream;
+
+    public TicketEventController(TicketEventStream ticketEventStream) {
+        this.ticketEventStream = ticketEventStream;
+    }
+
+    /**
+     * Abre o stream de eventos visíveis para o usuário autenticado.
+     *
+     * @param lastEventId último evento recebido, enviado pelo navegador ao reconectar
+     * @param user Usuário autenticado
+     * @return Stream SSE
+     */
+    @RateLimit(requestsPerMinute = 30, type = RateLimit.LimitType.PER_USER)
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @AuthenticationPrincipal User user) {
+        return ticketEventStream.assinar(user, lastEventId);
+    }
+}
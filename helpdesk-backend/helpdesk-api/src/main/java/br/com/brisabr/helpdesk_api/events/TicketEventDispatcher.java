@@ -0,0 +1,238 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drena a outbox ({@link TicketEventOutbox}) em lotes e entrega cada evento aos
+ * {@link TicketEventSubscriber}s, pelo menos uma vez.
+ *
+ * <ul>
+ *   <li>O lote é reservado com {@code FOR UPDATE SKIP LOCKED}: várias réplicas
+ *       drenam em paralelo sem pegar o mesmo evento.</li>
+ *   <li>Cada assinante roda numa transação própria que grava a marca de entrega
+ *       ({@link OutboxEntrega}). Se o processo morre no meio do lote, a reserva
+ *       se desfaz e o evento volta para a fila; na próxima passada só recebe o
+ *       evento quem ainda não tem a marca.</li>
+ *   <li>Um assinante com erro não bloqueia os outros: o evento é tentado de novo
+ *       com espera exponencial até {@code events.outbox.max-attempts}, e então
+ *       fica parado (métrica {@code helpdesk.events.outbox.dead}).</li>
+ * </ul>
+ *
+ * A drenagem acontece logo após o commit de cada transição e, como rede de
+ * segurança, a cada {@code events.outbox.poll-interval-ms}. A ordem dos eventos
+ * de um chamado é mantida dentro de um lote, mas uma nova tentativa pode entregar
+ * um evento depois de outros mais recentes.
+ */
+@Component
+@ConditionalOnProperty(name = "events.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class TicketEventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketEventDispatcher.class);
+
+    private static final int MAX_ERRO = 500;
+
+    private final OutboxEventoRepository eventoRepository;
+    private final OutboxEntregaRepository entregaRepository;
+    private final TicketEventOutbox outbox;
+    private final List<TicketEventSubscriber> assinantes;
+    private final TransactionTemplate loteTransaction;
+    private final TransactionTemplate entregaTransaction;
+    private final int batchSize;
+    private final int maxTentativas;
+    private final Duration esperaInicial;
+    private final Duration retencao;
+    private final Counter entregues;
+    private final Counter falhas;
+    private final Counter mortos;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("outbox-", 0).factory());
+    private final AtomicBoolean agendado = new AtomicBoolean();
+
+    @Autowired
+    public TicketEventDispatcher(
+            OutboxEventoRepository eventoRepository,
+            OutboxEntregaRepository entregaRepository,
+            TicketEventOutbox outbox,
+            List<TicketEventSubscriber> assinantes,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${events.outbox.batch-size:100}") int batchSize,
+            @Value("${events.outbox.max-attempts:10}") int maxTentativas,
+            @Value("${events.outbox.initial-backoff-ms:1000}") long esperaInicialMillis,
+            @Value("${events.outbox.retention-hours:72}") long retencaoHoras) {
+        this.eventoRepository = eventoRepository;
+        this.entregaRepository = entregaRepository;
+        this.outbox = outbox;
+        this.assinantes = List.copyOf(assinantes);
+        this.loteTransaction = new TransactionTemplate(transactionManager);
+        this.entregaTransaction = new TransactionTemplate(transactionManager);
+        this.entregaTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.maxTentativas = maxTentativas;
+        this.esperaInicial = Duration.ofMillis(esperaInicialMillis);
+        this.retencao = Duration.ofHours(retencaoHoras);
+        this.entregues = Counter.builder("helpdesk.events.outbox.delivered")
+                .description("Eventos da outbox entregues a todos os assinantes")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("helpdesk.events.outbox.failures")
+                .description("Entregas de eventos da outbox que falharam e serão tentadas de novo")
+                .register(meterRegistry);
+        this.mortos = Counter.builder("helpdesk.events.outbox.dead")
+                .description("Eventos da outbox que esgotaram as tentativas")
+                .register(meterRegistry);
+        meterRegistry.gauge("helpdesk.events.outbox.pending", eventoRepository, OutboxEventoRepository::contarPendentes);
+    }
+
+    /**
+     * Agenda uma drenagem da outbox, se já não houver uma agendada.
+     */
+    public void acordar() {
+        if (agendado.compareAndSet(false, true)) {
+            executor.execute(this::drenar);
+        }
+    }
+
+    /**
+     * Rede de segurança: eventos cuja espera venceu e os gravados por réplicas que caíram.
+     */
+    @Scheduled(fixedDelayString = "${events.outbox.poll-interval-ms:5000}")
+    public void verificarPendentes() {
+        acordar();
+    }
+
+    /**
+     * Apaga os eventos já entregues há mais de {@code events.outbox.retention-hours}.
+     */
+    @Scheduled(cron = "${events.outbox.cleanup-cron:0 45 3 * * *}")
+    public void limparProcessados() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencao);
+        Integer removidos = loteTransaction.execute(status -> {
+            entregaRepository.apagarDeProcessadosAntesDe(limite);
+            return eventoRepository.apagarProcessadosAntesDe(limite);
+        });
+        logger.info("Outbox de eventos: {} eventos entregues antes de {} removidos", removidos, limite);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reserva e entrega um lote.
+     *
+     * @return quantidade de eventos reservados (menor que o lote quando a fila esvaziou)
+     */
+    int processarLote() {
+        Integer reservados = loteTransaction.execute(status -> {
+            LocalDateTime agora = LocalDateTime.now();
+            List<OutboxEvento> lote = eventoRepository.reservarPendentes(agora, Limit.of(batchSize));
+            for (OutboxEvento evento : lote) {
+                entregar(evento, agora);
+            }
+            return lote.size();
+        });
+        return reservados == null ? 0 : reservados;
+    }
+
+    private void drenar() {
+        // Liberado antes de drenar: um commit durante a drenagem agenda a próxima
+        agendado.set(false);
+        try {
+            while (processarLote() == batchSize) {
+                // Lote cheio: pode haver mais
+            }
+        } catch (RuntimeException e) {
+            logger.error("Falha ao drenar a outbox de eventos; nova tentativa no próximo ciclo", e);
+        }
+    }
+
+    private void entregar(OutboxEvento evento, LocalDateTime agora) {
+        TicketEventEnvelope envelope;
+        try {
+            envelope = outbox.ler(evento);
+        } catch (IllegalArgumentException e) {
+            // Não vai melhorar com novas tentativas
+            logger.error("Evento {} da outbox descartado: {}", evento.getId(), e.getMessage());
+            evento.setUltimoErro(resumir(e));
+            evento.setProximaTentativa(null);
+            mortos.increment();
+            return;
+        }
+
+        Set<String> jaEntregues = new HashSet<>(entregaRepository.findAssinantesByEventoId(evento.getId()));
+        RuntimeException erro = null;
+        for (TicketEventSubscriber assinante : assinantes) {
+            if (jaEntregues.contains(assinante.nome())) {
+                continue;
+            }
+            try {
+                entregar(assinante, envelope);
+            } catch (RuntimeException e) {
+                logger.warn("Assinante {} falhou no evento {} ({}) do chamado {}: {}", assinante.nome(),
+                        evento.getId(), evento.getTipo(), evento.getTicketId(), e.getMessage());
+                falhas.increment();
+                erro = e;
+            }
+        }
+
+        if (erro == null) {
+            evento.setProcessadoEm(LocalDateTime.now());
+            evento.setUltimoErro(null);
+            entregues.increment();
+            return;
+        }
+        int tentativas = evento.getTentativas() + 1;
+        evento.setTentativas(tentativas);
+        evento.setUltimoErro(resumir(erro));
+        if (tentativas >= maxTentativas) {
+            logger.error("Evento {} da outbox esgotou {} tentativas e não será mais entregue", evento.getId(), tentativas);
+            evento.setProximaTentativa(null);
+            mortos.increment();
+        } else {
+            evento.setProximaTentativa(agora.plus(esperaInicial.multipliedBy(1L << Math.min(tentativas - 1, 16))));
+        }
+    }
+
+    private void entregar(TicketEventSubscriber assinante, TicketEventEnvelope envelope) {
+        OutboxEntrega marca = new OutboxEntrega(envelope.id(), assinante.nome());
+        if (assinante.transacional()) {
+            // Efeito e marca juntos; a marca vai por último para que uma marca
+            // concorrente (reconstrução do resumo) derrube o efeito também
+            entregaTransaction.executeWithoutResult(status -> {
+                assinante.onEvent(envelope);
+                entregaRepository.saveAndFlush(marca);
+            });
+        } else {
+            assinante.onEvent(envelope);
+            entregaTransaction.executeWithoutResult(status -> entregaRepository.saveAndFlush(marca));
+        }
+    }
+
+    private static String resumir(Exception e) {
+        String mensagem = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return mensagem.length() > MAX_ERRO ? mensagem.substring(0, MAX_ERRO) : mensagem;
+    }
+}
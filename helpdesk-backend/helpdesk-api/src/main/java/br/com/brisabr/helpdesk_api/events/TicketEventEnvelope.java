@@ -0,0 +1,27 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import br.com.brisabr.helpdesk_api.rollup.ChamadoRollupRecord;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento lido da outbox, como os assinantes o recebem.
+ *
+ * @param id id do registro na outbox
+ * @param chave chave de idempotência: a mesma em todas as entregas do evento
+ * @param autorId usuário que executou a transição ({@code null} se foi o sistema)
+ * @param antes estado do chamado antes da transição ({@code null} para chamados novos
+ *              e eventos que não mudam o chamado)
+ * @param depois estado do chamado depois da transição
+ * @param ocorridoEm instante da transição, não da entrega
+ */
+public record TicketEventEnvelope(
+    Long id,
+    String chave,
+    NotificationEvent evento,
+    Long autorId,
+    ChamadoRollupRecord antes,
+    ChamadoRollupRecord depois,
+    LocalDateTime ocorridoEm
+) {
+}
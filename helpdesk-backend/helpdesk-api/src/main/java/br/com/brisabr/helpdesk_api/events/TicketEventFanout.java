@@ -0,0 +1,194 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Leva ao {@link TicketEventStream} desta réplica todos os eventos gravados na
+ * outbox, venham de qual réplica vierem.
+ *
+ * A entrega da outbox ({@link TicketEventDispatcher}) é dividida entre as
+ * réplicas, então não serve para o push: cada réplica só veria os eventos que
+ * drenou. Aqui cada réplica acompanha a tabela pela chave primária, a partir do
+ * último id que leu, logo após os próprios commits e a cada
+ * {@code events.sse.poll-ms} para os das outras réplicas.
+ *
+ * Ids são reservados no INSERT e ficam visíveis no commit, que pode vir fora de
+ * ordem: um id pulado na leitura fica como lacuna e é procurado de novo por
+ * {@code events.sse.gap-timeout-ms} (transações mais longas que isso, ou que
+ * sofreram rollback, são esquecidas). O evento encontrado numa lacuna chega ao
+ * painel depois de outros mais novos; o painel só reaplica o estado.
+ */
+@Component
+public class TicketEventFanout {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketEventFanout.class);
+
+    // Um salto maior que isso não é uma transação em andamento (sequência reiniciada, por exemplo)
+    private static final int MAX_LACUNAS = 1_000;
+
+    private final OutboxEventoRepository eventoRepository;
+    private final TicketEventOutbox outbox;
+    private final TicketEventStream stream;
+    private final int batchSize;
+    private final long esperaLacunaNanos;
+    private final LongSupplier relogio;
+    private final Counter lacunasPerdidas;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("sse-fanout-", 0).factory());
+    private final AtomicBoolean agendado = new AtomicBoolean();
+
+    // Só a thread do executor mexe nestes campos
+    private long ultimoLido = -1;
+    private final Map<Long, Long> lacunas = new LinkedHashMap<>();
+
+    @Autowired
+    public TicketEventFanout(
+            OutboxEventoRepository eventoRepository,
+            TicketEventOutbox outbox,
+            TicketEventStream stream,
+            MeterRegistry meterRegistry,
+            @Value("${events.outbox.batch-size:100}") int batchSize,
+            @Value("${events.sse.gap-timeout-ms:30000}") long esperaLacunaMillis) {
+        this(eventoRepository, outbox, stream, meterRegistry, batchSize, Duration.ofMillis(esperaLacunaMillis), System::nanoTime);
+    }
+
+    TicketEventFanout(OutboxEventoRepository eventoRepository, TicketEventOutbox outbox, TicketEventStream stream,
+                      MeterRegistry meterRegistry, int batchSize, Duration esperaLacuna, LongSupplier relogio) {
+        this.eventoRepository = eventoRepository;
+        this.outbox = outbox;
+        this.stream = stream;
+        this.batchSize = batchSize;
+        this.esperaLacunaNanos = esperaLacuna.toNanos();
+        this.relogio = relogio;
+        this.lacunasPerdidas = Counter.builder("helpdesk.events.sse.gaps.expired")
+                .description("Ids da outbox que não apareceram dentro da espera (rollback ou transação longa)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Começa do fim da outbox: o histórico anterior à subida não vai para os painéis.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        acordar();
+    }
+
+    /**
+     * Agenda uma leitura da outbox, se já não houver uma agendada.
+     */
+    public void acordar() {
+        if (agendado.compareAndSet(false, true)) {
+            executor.execute(this::acompanhar);
+        }
+    }
+
+    /**
+     * Eventos gravados por outras réplicas.
+     */
+    @Scheduled(fixedDelayString = "${events.sse.poll-ms:1000}")
+    public void verificarOutrasReplicas() {
+        acordar();
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private void acompanhar() {
+        // Liberado antes de ler: um commit durante a leitura agenda a próxima
+        agendado.set(false);
+        try {
+            ler();
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao acompanhar a outbox para o stream de eventos; nova tentativa no próximo ciclo: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Publica as lacunas que apareceram e os eventos novos.
+     */
+    void ler() {
+        if (ultimoLido < 0) {
+            ultimoLido = eventoRepository.findUltimoId();
+            return;
+        }
+        if (!lacunas.isEmpty()) {
+            preencherLacunas();
+        }
+        List<OutboxEvento> lote;
+        do {
+            lote = eventoRepository.findGravadosDepoisDe(ultimoLido, Limit.of(batchSize));
+            for (OutboxEvento evento : lote) {
+                registrarLacunas(evento.getId());
+                publicar(evento);
+                ultimoLido = evento.getId();
+            }
+        } while (lote.size() == batchSize);
+    }
+
+    private void preencherLacunas() {
+        long agora = relogio.getAsLong();
+        for (OutboxEvento evento : eventoRepository.findAllById(new ArrayList<>(lacunas.keySet()))) {
+            lacunas.remove(evento.getId());
+            publicar(evento);
+        }
+        Iterator<Long> desde = lacunas.values().iterator();
+        while (desde.hasNext()) {
+            if (agora - desde.next() > esperaLacunaNanos) {
+                desde.remove();
+                lacunasPerdidas.increment();
+            }
+        }
+    }
+
+    private void registrarLacunas(long id) {
+        if (ultimoLido == 0) {
+            // Outbox vazia na subida: os ids anteriores ao primeiro lido são de antes dela
+            return;
+        }
+        if (id - ultimoLido - 1 > MAX_LACUNAS) {
+            logger.warn("Salto de {} para {} nos ids da outbox; lacunas ignoradas", ultimoLido, id);
+            return;
+        }
+        long agora = relogio.getAsLong();
+        for (long pulado = ultimoLido + 1; pulado < id; pulado++) {
+            lacunas.putIfAbsent(pulado, agora);
+        }
+    }
+
+    private void publicar(OutboxEvento registro) {
+        try {
+            stream.publicar(outbox.ler(registro).evento());
+        } catch (IllegalArgumentException e) {
+            logger.debug("Evento {} da outbox ilegível, fora do stream: {}", registro.getId(), e.getMessage());
+        }
+    }
+
+    int lacunasPendentes() {
+        return lacunas.size();
+    }
+}
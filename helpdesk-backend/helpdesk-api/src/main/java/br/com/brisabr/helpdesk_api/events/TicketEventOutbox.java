@@ -0,0 +1,111 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import br.com.brisabr.helpdesk_api.rollup.ChamadoRollupRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Outbox dos eventos de chamado: o evento é gravado na transação da transição,
+ * então existe se e somente se a transição fez commit. Histórico, resumo diário,
+ * auditoria e distribuição automática saem da requisição e são feitos pelo
+ * {@link TicketEventDispatcher}; o push para os painéis, pelo {@link TicketEventFanout}.
+ */
+@Component
+public class TicketEventOutbox {
+
+    private static final Map<String, Class<? extends NotificationEvent>> TIPOS = Map.of(
+            "ticket.created", TicketCreatedEvent.class,
+            "ticket.assigned", TicketAssignedEvent.class,
+            "ticket.closed", TicketClosedEvent.class,
+            "ticket.reopened", TicketReopenedEvent.class,
+            "ticket.commented", TicketCommentedEvent.class);
+
+    private final OutboxEventoRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<TicketEventDispatcher> dispatcher;
+    private final ObjectProvider<TicketEventFanout> fanout;
+
+    public TicketEventOutbox(OutboxEventoRepository repository, ObjectMapper objectMapper,
+                             ObjectProvider<TicketEventDispatcher> dispatcher,
+                             ObjectProvider<TicketEventFanout> fanout) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.dispatcher = dispatcher;
+        this.fanout = fanout;
+    }
+
+    /**
+     * Grava o evento na transação corrente e acorda o dispatcher e o push depois do commit.
+     *
+     * @param autorId usuário que executou a transição
+     * @param antes estado do chamado antes da transição ({@code null} para chamados novos)
+     * @param depois estado depois da transição ({@code null} se o chamado não mudou)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(NotificationEvent evento, Long autorId, ChamadoRollupRecord antes, ChamadoRollupRecord depois) {
+        LocalDateTime agora = LocalDateTime.now();
+        OutboxEvento registro = new OutboxEvento();
+        registro.setChave(UUID.randomUUID().toString());
+        registro.setTipo(evento.type());
+        registro.setTicketId(evento.ticketId());
+        registro.setAutorId(autorId);
+        registro.setPayload(json(evento));
+        registro.setEstadoAnterior(antes != null ? json(antes) : null);
+        registro.setEstadoNovo(depois != null ? json(depois) : null);
+        registro.setCriadoEm(agora);
+        registro.setProximaTentativa(agora);
+        repository.save(registro);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatcher.ifAvailable(TicketEventDispatcher::acordar);
+                fanout.ifAvailable(TicketEventFanout::acordar);
+            }
+        });
+    }
+
+    /**
+     * Reconstrói o evento gravado.
+     *
+     * @throws IllegalArgumentException se o tipo é desconhecido ou o JSON não corresponde a ele
+     */
+    TicketEventEnvelope ler(OutboxEvento registro) {
+        Class<? extends NotificationEvent> tipo = TIPOS.get(registro.getTipo());
+        if (tipo == null) {
+            throw new IllegalArgumentException("Tipo de evento desconhecido: " + registro.getTipo());
+        }
+        try {
+            return new TicketEventEnvelope(
+                    registro.getId(),
+                    registro.getChave(),
+                    objectMapper.readValue(registro.getPayload(), tipo),
+                    registro.getAutorId(),
+                    registro.getEstadoAnterior() != null
+                            ? objectMapper.readValue(registro.getEstadoAnterior(), ChamadoRollupRecord.class) : null,
+                    registro.getEstadoNovo() != null
+                            ? objectMapper.readValue(registro.getEstadoNovo(), ChamadoRollupRecord.class) : null,
+                    registro.getCriadoEm());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Evento " + registro.getId() + " da outbox ilegível: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private String json(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Evento de chamado não serializável: " + valor, e);
+        }
+    }
+}
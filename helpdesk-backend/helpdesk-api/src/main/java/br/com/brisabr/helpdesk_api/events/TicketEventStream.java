@@ -0,0 +1,298 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import br.com.brisabr.helpdesk_api.user.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stream SSE dos eventos de chamados para os painéis, no lugar de recarregar
+ * {@code /api/tickets} e {@code /api/dashboard/stats} periodicamente.
+ *
+ * <ul>
+ *   <li>Os eventos chegam pela outbox ({@link TicketEventFanout}), depois do
+ *       commit da transição, de todas as réplicas, e são serializados uma única
+ *       vez, qualquer que seja o número de conexões.</li>
+ *   <li>Admin, gestor e técnico recebem todos os eventos; usuário comum, só os
+ *       dos próprios chamados (as mesmas regras da listagem).</li>
+ *   <li>Cada conexão tem um buffer limitado; um cliente lento perde os eventos
+ *       mais antigos e recebe {@code resync}, para recarregar a lista uma vez.</li>
+ *   <li>Os últimos eventos ficam num log curto: na reconexão o navegador manda
+ *       {@code Last-Event-ID} e recebe só o que perdeu. Se o id saiu do log ou é
+ *       de antes de um restart, recebe {@code resync}.</li>
+ * </ul>
+ *
+ * O envio para o socket acontece numa virtual thread por conexão, nunca na
+ * thread que lê a outbox. Os ids do log são desta instância: reconectar em
+ * outra réplica resulta em {@code resync}.
+ */
+@Component
+public class TicketEventStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketEventStream.class);
+
+    static final String RESYNC = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final int replaySize;
+    private final Counter descartados;
+
+    // Prefixo dos ids: um Last-Event-ID de antes de um restart não casa com o log atual
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    // Protegidos pelo lock: publicação e assinatura enxergam o log na mesma ordem
+    private final Object lock = new Object();
+    private final ArrayDeque<Registro> replay = new ArrayDeque<>();
+    private long sequencia;
+
+    @Autowired
+    public TicketEventStream(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${events.sse.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${events.sse.buffer-size:256}") int bufferSize,
+            @Value("${events.sse.replay-size:500}") int replaySize) {
+        this(objectMapper, meterRegistry, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-", 0).factory()),
+                timeoutMillis, bufferSize, replaySize);
+    }
+
+    TicketEventStream(ObjectMapper objectMapper, MeterRegistry meterRegistry, Executor executor,
+                      long timeoutMillis, int bufferSize, int replaySize) {
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        Gauge.builder("helpdesk.events.sse.connections", assinantes, Set::size)
+                .description("Conexões SSE abertas")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("helpdesk.events.sse.dropped")
+                .description("Eventos descartados por buffer cheio em conexões lentas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre o stream do usuário.
+     *
+     * @param lastEventId último id recebido numa conexão anterior ({@code null} se é a primeira)
+     */
+    public SseEmitter assinar(User user, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        try {
+            // Confirma a conexão na hora e sugere o intervalo de reconexão ao navegador
+            emitter.send(SseEmitter.event().comment("conectado").reconnectTime(3000));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        assinar(user, lastEventId, emitter);
+        return emitter;
+    }
+
+    Assinante assinar(User user, String lastEventId, SseEmitter emitter) {
+        Assinante assinante = new Assinante(emitter, user, bufferSize);
+        emitter.onCompletion(() -> assinantes.remove(assinante));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> assinantes.remove(assinante));
+
+        synchronized (lock) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                reenviarPerdidos(assinante, lastEventId.trim());
+            }
+            assinantes.add(assinante);
+        }
+        agendar(assinante);
+        logger.debug("Stream de eventos aberto para {} ({} conexões)", user.getEmail(), assinantes.size());
+        return assinante;
+    }
+
+    /**
+     * Distribui o evento às conexões que podem vê-lo.
+     */
+    public void publicar(NotificationEvent evento) {
+        String dados;
+        try {
+            dados = objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            logger.error("Evento {} do chamado {} não serializável", evento.type(), evento.ticketId(), e);
+            return;
+        }
+
+        List<Assinante> destinatarios = new ArrayList<>();
+        synchronized (lock) {
+            Registro registro = new Registro(++sequencia, evento, new Envio(instancia + "-" + sequencia, evento.type(), dados));
+            replay.addLast(registro);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            for (Assinante assinante : assinantes) {
+                if (assinante.podeVer(evento)) {
+                    enfileirar(assinante, registro.envio());
+                    destinatarios.add(assinante);
+                }
+            }
+        }
+        destinatarios.forEach(this::agendar);
+    }
+
+    /**
+     * Comentário periódico: mantém a conexão viva em proxies e derruba as que caíram.
+     */
+    @Scheduled(fixedRateString = "${events.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Assinante assinante : assinantes) {
+            enfileirar(assinante, Envio.HEARTBEAT);
+            agendar(assinante);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        assinantes.forEach(assinante -> assinante.emitter.complete());
+        assinantes.clear();
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    private void reenviarPerdidos(Assinante assinante, String lastEventId) {
+        long ultimo = sequenciaDe(lastEventId);
+        Registro primeiro = replay.peekFirst();
+        long primeiroNoLog = primeiro != null ? primeiro.sequencia() : sequencia + 1;
+        if (ultimo < 0 || ultimo > sequencia || ultimo < primeiroNoLog - 1) {
+            enfileirar(assinante, Envio.RESYNC);
+            return;
+        }
+        for (Registro registro : replay) {
+            if (registro.sequencia() > ultimo && assinante.podeVer(registro.evento())) {
+                enfileirar(assinante, registro.envio());
+            }
+        }
+    }
+
+    /**
+     * Sequência de um id desta instância, ou -1 se o id é de outra execução ou inválido.
+     */
+    private long sequenciaDe(String eventId) {
+        int separador = eventId.lastIndexOf('-');
+        if (separador < 0 || !instancia.equals(eventId.substring(0, separador))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separador + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void enfileirar(Assinante assinante, Envio envio) {
+        // Buffer cheio: descarta o mais antigo e avisa o cliente para recarregar
+        while (!assinante.fila.offer(envio)) {
+            if (assinante.fila.poll() != null) {
+                assinante.perdidos.incrementAndGet();
+                descartados.increment();
+            }
+        }
+    }
+
+    private void agendar(Assinante assinante) {
+        if (assinante.drenando.compareAndSet(false, true)) {
+            executor.execute(() -> drenar(assinante));
+        }
+    }
+
+    private void drenar(Assinante assinante) {
+        do {
+            try {
+                if (assinante.perdidos.getAndSet(0) > 0) {
+                    enviar(assinante.emitter, Envio.RESYNC);
+                }
+                Envio envio;
+                while ((envio = assinante.fila.poll()) != null) {
+                    enviar(assinante.emitter, envio);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectou (ou o emitter já foi completado)
+                logger.debug("Conexão SSE encerrada: {}", e.getMessage());
+                assinantes.remove(assinante);
+                assinante.fila.clear();
+                assinante.emitter.completeWithError(e);
+                return;
+            } finally {
+                assinante.drenando.set(false);
+            }
+            // Algo chegou entre o último poll e a liberação do flag
+        } while (!assinante.fila.isEmpty() && assinante.drenando.compareAndSet(false, true));
+    }
+
+    private static void enviar(SseEmitter emitter, Envio envio) throws IOException {
+        if (envio == Envio.HEARTBEAT) {
+            emitter.send(SseEmitter.event().comment("ping"));
+            return;
+        }
+        SseEmitter.SseEventBuilder evento = SseEmitter.event().name(envio.nome()).data(envio.dados());
+        if (envio.id() != null) {
+            evento.id(envio.id());
+        }
+        emitter.send(evento);
+    }
+
+    /**
+     * Evento já serializado, pronto para qualquer conexão.
+     */
+    record Envio(String id, String nome, String dados) {
+        static final Envio RESYNC = new Envio(null, TicketEventStream.RESYNC, "{}");
+        static final Envio HEARTBEAT = new Envio(null, null, null);
+    }
+
+    private record Registro(long sequencia, NotificationEvent evento, Envio envio) {
+    }
+
+    static final class Assinante {
+        private final SseEmitter emitter;
+        private final boolean veTodos;
+        private final Long usuarioId;
+        private final ArrayBlockingQueue<Envio> fila;
+        private final AtomicBoolean drenando = new AtomicBoolean();
+        private final AtomicInteger perdidos = new AtomicInteger();
+
+        Assinante(SseEmitter emitter, User user, int bufferSize) {
+            this.emitter = emitter;
+            String perfil = user.getPerfil() == null ? "" : user.getPerfil().toLowerCase();
+            this.veTodos = perfil.equals("admin") || perfil.equals("manager") || perfil.equals("technician");
+            this.usuarioId = user.getId();
+            this.fila = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        boolean podeVer(NotificationEvent evento) {
+            return veTodos || Objects.equals(usuarioId, evento.solicitanteId());
+        }
+    }
+}
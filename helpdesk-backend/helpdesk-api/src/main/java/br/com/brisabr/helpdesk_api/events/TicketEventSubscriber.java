@@ -0,0 +1,27 @@
+package br.com.brisabr.helpdesk_api.events;
+
+/**
+ * Assinante dos eventos de chamado gravados na outbox.
+ *
+ * A entrega é pelo menos uma vez. Assinantes transacionais rodam numa transação
+ * própria que também grava a marca de entrega, então o efeito no banco acontece
+ * uma única vez; os demais (distribuição automática, por exemplo) podem receber o mesmo evento de
+ * novo depois de uma falha e devem tolerar a repetição.
+ */
+public interface TicketEventSubscriber {
+
+    /**
+     * Nome estável do assinante, gravado nas marcas de entrega. Trocar o nome
+     * faz os eventos pendentes serem entregues de novo.
+     */
+    String nome();
+
+    void onEvent(TicketEventEnvelope envelope);
+
+    /**
+     * Se {@link #onEvent} grava no banco e deve rodar na transação da marca de entrega.
+     */
+    default boolean transacional() {
+        return true;
+    }
+}
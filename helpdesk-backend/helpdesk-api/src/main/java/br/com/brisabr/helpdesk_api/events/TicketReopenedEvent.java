@@ -0,0 +1,14 @@
+package br.com.brisabr.helpdesk_api.events;
+
+/**
+ * Chamado reaberto pelo solicitante. O chamado volta para a fila sem técnico;
+ * {@code tecnicoId} é o técnico que o tinha resolvido, para ser avisado.
+ */
+public record TicketReopenedEvent(Long ticketId, Long solicitanteId, Long tecnicoId, String motivo,
+                                  String solicitante) implements NotificationEvent {
+
+    @Override
+    public String message() {
+        return String.format("Chamado reaberto por %s - Motivo: %s", solicitante, motivo);
+    }
+}
@@ -0,0 +1,13 @@
+package br.com.brisabr.helpdesk_api.exception;
+
+/**
+ * Exceção lançada no download de um anexo ainda em quarentena ou bloqueado pelo antivírus.
+ */
+public class AttachmentQuarantinedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AttachmentQuarantinedException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,7 @@ package br.com.brisabr.helpdesk_api.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -153,6 +154,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
     }
 
+    /**
+     * Trata chamado alterado por outra requisição entre a leitura e a gravação (lock otimista)
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex,
+            WebRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "Chamado alterado",
+                "O chamado foi alterado por outra pessoa. Recarregue e tente novamente.",
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        logger.warn("Conflito de versão: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     /**
      * Trata usuário não encontrado
      */
@@ -193,6 +214,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    /**
+     * Trata download de anexo em quarentena
+     */
+    @ExceptionHandler(AttachmentQuarantinedException.class)
+    public ResponseEntity<ErrorResponse> handleAttachmentQuarantinedException(
+            AttachmentQuarantinedException ex,
+            WebRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "Anexo indisponível",
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        logger.warn("Download de anexo bloqueado: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     /**
      * Trata operação não autorizada
      */
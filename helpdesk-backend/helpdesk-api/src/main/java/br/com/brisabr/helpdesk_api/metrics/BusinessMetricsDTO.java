@@ -82,7 +82,7 @@ public record BusinessMetricsDTO(
     ) {}
 
     public record TrendMetrics(
-            List<DailyTrend> daily,       // Tendência diária (últimos 7 dias)
+            List<DailyTrend> daily,       // Tendência diária (janela de 7, 30 ou 90 dias)
             double growthRate,            // Taxa de crescimento de tickets (%)
             String trend                  // "UP", "DOWN", "STABLE"
     ) {}
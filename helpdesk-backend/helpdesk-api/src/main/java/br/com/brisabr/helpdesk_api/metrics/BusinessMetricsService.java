@@ -1,12 +1,19 @@
 package br.com.brisabr.helpdesk_api.metrics;
 
+import br.com.brisabr.helpdesk_api.dto.MetricasResumoDTO;
+import br.com.brisabr.helpdesk_api.rollup.ResumoDiarioChamadoRepository;
 import br.com.brisabr.helpdesk_api.ticket.TicketRepository;
 import br.com.brisabr.helpdesk_api.ticket.TicketStatus;
-import br.com.brisabr.helpdesk_api.user.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -16,95 +23,131 @@ import java.util.stream.Collectors;
 /**
  * Serviço responsável por calcular métricas de negócio do HelpDesk.
  * Métricas são calculadas sob demanda e cacheadas para otimização.
+ *
+ * Cada dimensão é obtida com uma única consulta agrupada, então o número de
+ * consultas por cálculo é constante, independente da janela de tendência.
+ * O cálculo roda numa única sessão, e os statements JDBC preparados nela são
+ * registrados em {@code helpdesk.metrics.refresh.queries}.
+ *
+ * As agregações leem o resumo diário ({@code resumo_diario_chamados}); apenas o
+ * tempo de primeira resposta e os chamados atrasados consultam as tabelas brutas.
  */
 @Service
 public class BusinessMetricsService {
 
     private static final Logger logger = LoggerFactory.getLogger(BusinessMetricsService.class);
 
-    private final TicketRepository ticketRepository;
-    private final UserRepository userRepository;
+    /**
+     * Janelas de tendência aceitas, em dias.
+     */
+    public static final Set<Integer> TREND_WINDOWS = Set.of(7, 30, 90);
+
+    private static final List<String> ACTIVE_STATUSES = Arrays.stream(TicketStatus.values())
+            .filter(status -> !status.isFinalizado())
+            .map(TicketStatus::getDisplayName)
+            .toList();
 
-    public BusinessMetricsService(TicketRepository ticketRepository,
-                                  UserRepository userRepository) {
+    private final EntityManager entityManager;
+    private final TicketRepository ticketRepository;
+    private final ResumoDiarioChamadoRepository resumoRepository;
+    private final DistributionSummary queriesPerRefresh;
+
+    public BusinessMetricsService(EntityManager entityManager,
+                                  TicketRepository ticketRepository,
+                                  ResumoDiarioChamadoRepository resumoRepository,
+                                  MeterRegistry meterRegistry) {
+        this.entityManager = entityManager;
         this.ticketRepository = ticketRepository;
-        this.userRepository = userRepository;
+        this.resumoRepository = resumoRepository;
+        this.queriesPerRefresh = DistributionSummary.builder("helpdesk.metrics.refresh.queries")
+                .description("Statements JDBC por cálculo de métricas de negócio")
+                .register(meterRegistry);
     }
 
     /**
      * Calcula métricas completas de negócio.
-     * Resultado é cacheado por 5 minutos.
+     * Resultado é cacheado por 5 minutos, separadamente para cada janela de tendência.
+     *
+     * @param trendDays janela da tendência diária (7, 30 ou 90 dias)
      */
-    @Cacheable(value = "businessMetrics", key = "'all'")
-    public BusinessMetricsDTO calculateMetrics() {
-        logger.info("Calculando métricas de negócio...");
+    @Cacheable(value = "businessMetrics", key = "#trendDays")
+    @Transactional(readOnly = true)
+    public BusinessMetricsDTO calculateMetrics(int trendDays) {
+        if (!TREND_WINDOWS.contains(trendDays)) {
+            throw new IllegalArgumentException("Janela de tendência inválida: " + trendDays + " (use 7, 30 ou 90)");
+        }
+        logger.info("Calculando métricas de negócio (tendência de {} dias)...", trendDays);
 
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfToday = now.toLocalDate().atStartOfDay();
-        LocalDateTime sevenDaysAgo = now.minusDays(7);
-
-        return new BusinessMetricsDTO(
+        LocalDate today = now.toLocalDate();
+        StatementCounter statements = new StatementCounter();
+        entityManager.unwrap(Session.class).addEventListeners(statements);
+
+        MetricasResumoDTO resumo = resumoRepository.getMetricasResumo(
+                ACTIVE_STATUSES,
+                today,
+                today.minusDays(7),
+                now.minusHours(48),   // Atrasados: abertos há mais de 48 horas
+                now.minusHours(60)); // Risco crítico: abertos há mais de 60 horas
+        Map<TicketStatus, Long> byStatus = countByStatus();
+
+        BusinessMetricsDTO metrics = new BusinessMetricsDTO(
                 now,
-                calculateTicketMetrics(startOfToday),
-                calculateSlaMetrics(),
-                calculateProductivityMetrics(),
-                calculateSatisfactionMetrics(),
+                calculateTicketMetrics(resumo, byStatus),
+                calculateSlaMetrics(resumo),
+                calculateProductivityMetrics(resumo),
+                calculateSatisfactionMetrics(byStatus),
                 calculateTicketsByCategory(),
                 calculateTicketsByPriority(),
-                calculateTrendMetrics(sevenDaysAgo, now)
+                calculateTrendMetrics(now.toLocalDate().minusDays(trendDays), now.toLocalDate())
         );
-    }
-
-    private BusinessMetricsDTO.TicketMetrics calculateTicketMetrics(LocalDateTime startOfToday) {
-        long totalOpen = ticketRepository.countByStatus(TicketStatus.ABERTO);
-        long totalInProgress = ticketRepository.countByStatus(TicketStatus.EM_ANDAMENTO);
-        long totalResolved = ticketRepository.countByStatus(TicketStatus.RESOLVIDO);
-        long totalClosed = ticketRepository.countByStatus(TicketStatus.FECHADO);
 
-        long createdToday = ticketRepository.countByDataAberturaBetween(startOfToday, LocalDateTime.now());
-        long closedToday = ticketRepository.countByStatusAndDataFechamentoBetween(
-                TicketStatus.FECHADO, startOfToday, LocalDateTime.now());
+        queriesPerRefresh.record(statements.count);
+        logger.debug("Métricas de negócio calculadas com {} statements", statements.count);
+        return metrics;
+    }
 
-        // Tickets atrasados: abertos há mais de 48 horas sem resolução
-        LocalDateTime overdueThreshold = LocalDateTime.now().minusHours(48);
-        long overdueTickets = ticketRepository.countByStatusInAndDataAberturaLessThan(
-                Arrays.asList(TicketStatus.ABERTO, TicketStatus.EM_ANDAMENTO, TicketStatus.RESOLVIDO),
-                overdueThreshold);
+    private Map<TicketStatus, Long> countByStatus() {
+        Map<TicketStatus, Long> counts = new EnumMap<>(TicketStatus.class);
+        for (Object[] row : resumoRepository.countGroupedByStatus()) {
+            try {
+                counts.merge(TicketStatus.fromString((String) row[0]), ((Number) row[1]).longValue(), Long::sum);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Status de chamado desconhecido ignorado nas métricas: {}", row[0]);
+            }
+        }
+        return counts;
+    }
 
-        // Tempo médio de resolução
-        Double avgResolutionMinutes = ticketRepository.calculateAverageResolutionTime();
+    private BusinessMetricsDTO.TicketMetrics calculateTicketMetrics(MetricasResumoDTO resumo,
+                                                                    Map<TicketStatus, Long> byStatus) {
+        Double avgResolutionMinutes = resumo.getMediaResolucaoMinutos();
         double avgResolutionHours = avgResolutionMinutes != null ? avgResolutionMinutes / 60.0 : 0.0;
 
         return new BusinessMetricsDTO.TicketMetrics(
-                totalOpen,
-                totalInProgress,
-                totalResolved,
-                totalClosed,
-                createdToday,
-                closedToday,
-                overdueTickets,
+                byStatus.getOrDefault(TicketStatus.ABERTO, 0L),
+                byStatus.getOrDefault(TicketStatus.EM_ANDAMENTO, 0L),
+                byStatus.getOrDefault(TicketStatus.RESOLVIDO, 0L),
+                byStatus.getOrDefault(TicketStatus.FECHADO, 0L) + byStatus.getOrDefault(TicketStatus.ENCERRADO, 0L),
+                resumo.getCriadosHoje(),
+                resumo.getFechadosHoje(),
+                resumo.getAtrasados(),
                 Math.round(avgResolutionHours * 100.0) / 100.0
         );
     }
 
-    private BusinessMetricsDTO.SlaMetrics calculateSlaMetrics() {
-        long totalTickets = ticketRepository.count();
+    private BusinessMetricsDTO.SlaMetrics calculateSlaMetrics(MetricasResumoDTO resumo) {
+        long totalTickets = resumo.getTotal();
 
         // SLA violado: fechados após 72 horas
-        long ticketsBreachedSla = ticketRepository.countTicketsBreachingSla();
+        long ticketsBreachedSla = resumo.getSlaViolado();
         long ticketsWithinSla = totalTickets - ticketsBreachedSla;
 
-        // Tickets em risco crítico: abertos há mais de 60 horas e ainda não fechados
-        LocalDateTime criticalThreshold = LocalDateTime.now().minusHours(60);
-        long criticalSlaTickets = ticketRepository.countByStatusInAndDataAberturaLessThan(
-                Arrays.asList(TicketStatus.ABERTO, TicketStatus.EM_ANDAMENTO, TicketStatus.RESOLVIDO),
-                criticalThreshold);
-
         double complianceRate = totalTickets > 0
                 ? (ticketsWithinSla * 100.0) / totalTickets
                 : 100.0;
 
-        // Tempo médio de primeira resposta (primeira atribuição ou comentário)
+        // Tempo médio de primeira resposta (primeira interação de quem não é o solicitante)
         Double avgResponseMinutes = ticketRepository.calculateAverageFirstResponseTime();
         double avgResponseHours = avgResponseMinutes != null ? avgResponseMinutes / 60.0 : 0.0;
 
@@ -112,31 +155,27 @@ public class BusinessMetricsService {
                 Math.round(complianceRate * 100.0) / 100.0,
                 ticketsWithinSla,
                 ticketsBreachedSla,
-                criticalSlaTickets,
+                resumo.getCriticos(),
                 Math.round(avgResponseHours * 100.0) / 100.0
         );
     }
 
-    private BusinessMetricsDTO.ProductivityMetrics calculateProductivityMetrics() {
+    private BusinessMetricsDTO.ProductivityMetrics calculateProductivityMetrics(MetricasResumoDTO resumo) {
         // Técnicos ativos (com pelo menos 1 ticket atribuído)
-        long activeTechnicians = ticketRepository.countDistinctTechnicians();
+        long activeTechnicians = resumo.getTecnicosAtivos();
 
         // Total de tickets atribuídos
-        long totalAssignedTickets = ticketRepository.countByAtribuidoIsNotNull();
+        long totalAssignedTickets = resumo.getAtribuidos();
 
         double avgTicketsPerTechnician = activeTechnicians > 0
                 ? (double) totalAssignedTickets / activeTechnicians
                 : 0.0;
 
         // Taxa de resolução por dia (últimos 7 dias)
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-        long resolvedLast7Days = ticketRepository.countByStatusAndDataFechamentoBetween(
-                TicketStatus.FECHADO, sevenDaysAgo, LocalDateTime.now());
-        double avgResolutionRatePerDay = resolvedLast7Days / 7.0;
+        double avgResolutionRatePerDay = resumo.getFechadosSemana() / 7.0;
 
         // Top 5 técnicos
-        List<BusinessMetricsDTO.TechnicianPerformance> topPerformers =
-                calculateTopPerformers();
+        List<BusinessMetricsDTO.TechnicianPerformance> topPerformers = calculateTopPerformers();
 
         return new BusinessMetricsDTO.ProductivityMetrics(
                 activeTechnicians,
@@ -147,16 +186,16 @@ public class BusinessMetricsService {
     }
 
     private List<BusinessMetricsDTO.TechnicianPerformance> calculateTopPerformers() {
-        List<Object[]> technicianStats = ticketRepository.getAnalystPerformance();
+        List<Object[]> technicianStats = resumoRepository.getAnalystPerformance();
 
         return technicianStats.stream()
                 .limit(5)
                 .map(stats -> {
-                    Long techId = (Long) stats[0];
+                    Long techId = ((Number) stats[0]).longValue();
                     String techName = (String) stats[1];
-                    Long assigned = (Long) stats[2];
-                    Long resolved = (Long) stats[3];
-                    Double avgTime = (Double) stats[4];
+                    long assigned = ((Number) stats[2]).longValue();
+                    long resolved = ((Number) stats[3]).longValue();
+                    Double avgTime = stats[4] != null ? ((Number) stats[4]).doubleValue() : null;
 
                     double resolutionRate = assigned > 0
                             ? (resolved * 100.0) / assigned
@@ -174,10 +213,10 @@ public class BusinessMetricsService {
                 .collect(Collectors.toList());
     }
 
-    private BusinessMetricsDTO.SatisfactionMetrics calculateSatisfactionMetrics() {
+    private BusinessMetricsDTO.SatisfactionMetrics calculateSatisfactionMetrics(Map<TicketStatus, Long> byStatus) {
         // Simulação - em produção viria de tabela de avaliações
         Double avgRating = 4.2;
-        long totalRatings = ticketRepository.countByStatus(TicketStatus.FECHADO);
+        long totalRatings = byStatus.getOrDefault(TicketStatus.FECHADO, 0L);
         long positiveRatings = (long) (totalRatings * 0.75);
         long negativeRatings = (long) (totalRatings * 0.10);
         double satisfactionRate = totalRatings > 0
@@ -194,46 +233,38 @@ public class BusinessMetricsService {
     }
 
     private Map<String, Long> calculateTicketsByCategory() {
-        List<Object[]> results = ticketRepository.countTicketsByCategory();
+        List<Object[]> results = resumoRepository.countTicketsByCategory();
         return results.stream()
                 .collect(Collectors.toMap(
                         row -> (String) row[0],
-                        row -> (Long) row[1],
+                        row -> ((Number) row[1]).longValue(),
                         (a, b) -> a,
                         LinkedHashMap::new
                 ));
     }
 
     private Map<String, Long> calculateTicketsByPriority() {
-        List<Object[]> results = ticketRepository.countTicketsByPriority();
+        List<Object[]> results = resumoRepository.countTicketsByPriority();
         return results.stream()
                 .collect(Collectors.toMap(
                         row -> (String) row[0],
-                        row -> (Long) row[1],
+                        row -> ((Number) row[1]).longValue(),
                         (a, b) -> a,
                         LinkedHashMap::new
                 ));
     }
 
-    private BusinessMetricsDTO.TrendMetrics calculateTrendMetrics(
-            LocalDateTime start, LocalDateTime end) {
-
-        List<BusinessMetricsDTO.DailyTrend> dailyTrends = new ArrayList<>();
+    private BusinessMetricsDTO.TrendMetrics calculateTrendMetrics(LocalDate start, LocalDate end) {
 
-        for (LocalDate date = start.toLocalDate();
-             !date.isAfter(end.toLocalDate());
-             date = date.plusDays(1)) {
-
-            LocalDateTime dayStart = date.atStartOfDay();
-            LocalDateTime dayEnd = date.plusDays(1).atStartOfDay();
-
-            long created = ticketRepository.countByDataAberturaBetween(dayStart, dayEnd);
-            long closed = ticketRepository.countByStatusAndDataFechamentoBetween(
-                    TicketStatus.FECHADO, dayStart, dayEnd);
-            long backlog = ticketRepository.countOpenTicketsAtDate(dayEnd);
+        List<Object[]> rows = resumoRepository.getTendenciaDiaria(start, end);
 
+        List<BusinessMetricsDTO.DailyTrend> dailyTrends = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
             dailyTrends.add(new BusinessMetricsDTO.DailyTrend(
-                    dayStart, created, closed, backlog
+                    toLocalDate(row[0]).atStartOfDay(),
+                    ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(),
+                    ((Number) row[3]).longValue()
             ));
         }
 
@@ -253,4 +284,32 @@ public class BusinessMetricsService {
                 trend
         );
     }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate localDate) {
+            return localDate;
+        }
+        if (value instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toLocalDate();
+        }
+        return LocalDate.parse(value.toString());
+    }
+
+    /**
+     * Conta os statements JDBC que a sessão prepara durante um cálculo de métricas,
+     * inclusive os disparados por carregamento preguiçoso.
+     */
+    private static final class StatementCounter extends BaseSessionEventListener {
+        private static final long serialVersionUID = 1L;
+
+        private int count;
+
+        @Override
+        public void jdbcPrepareStatementStart() {
+            count++;
+        }
+    }
 }
@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -35,15 +36,17 @@ public class MetricsController {
      * - Satisfação dos clientes
      * - Tendências e distribuições
      *
+     * @param dias janela da tendência diária: 7, 30 ou 90 dias (padrão 7)
      * @return BusinessMetricsDTO com todas as métricas
      */
     @RateLimit(requestsPerMinute = 30, type = RateLimit.LimitType.PER_USER)
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER')")
-    public ResponseEntity<BusinessMetricsDTO> getBusinessMetrics() {
-        logger.info("Requisição de métricas de negócio recebida");
+    public ResponseEntity<BusinessMetricsDTO> getBusinessMetrics(
+            @RequestParam(defaultValue = "7") int dias) {
+        logger.info("Requisição de métricas de negócio recebida (tendência de {} dias)", dias);
 
-        BusinessMetricsDTO metrics = metricsService.calculateMetrics();
+        BusinessMetricsDTO metrics = metricsService.calculateMetrics(dias);
 
         logger.info("Métricas calculadas com sucesso - Tickets abertos: {}, SLA: {}%",
                 metrics.tickets().totalOpen(),
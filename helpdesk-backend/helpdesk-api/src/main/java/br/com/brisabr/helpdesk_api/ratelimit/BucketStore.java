@@ -0,0 +1,35 @@
+package br.com.brisabr.helpdesk_api.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+import java.util.function.Supplier;
+
+/**
+ * Onde ficam os buckets do rate limiting ({@link RateLimitInterceptor} e {@link RateLimiter}).
+ *
+ * Escolhido por {@code rate-limit.store}:
+ * <ul>
+ *   <li>{@code local} (padrão): {@link LocalBucketStore}, em memória, um bucket por réplica;</li>
+ *   <li>{@code jdbc}: {@link JdbcBucketStore}, no banco, compartilhado por todas as réplicas.</li>
+ * </ul>
+ */
+public interface BucketStore {
+
+    /**
+     * Bucket da chave, criado com {@code configuration} se ainda não existir.
+     */
+    Bucket bucket(String key, Supplier<BucketConfiguration> configuration);
+
+    /**
+     * Descarta o bucket da chave; o próximo acesso começa com a capacidade cheia.
+     */
+    void remove(String key);
+
+    /**
+     * Se os buckets são vistos por todas as réplicas.
+     */
+    default boolean isShared() {
+        return false;
+    }
+}
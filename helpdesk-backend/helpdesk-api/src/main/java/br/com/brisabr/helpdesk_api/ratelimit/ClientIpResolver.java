@@ -0,0 +1,55 @@
+package br.com.brisabr.helpdesk_api.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Descobre o IP do cliente para o rate limiting e a auditoria.
+ *
+ * {@code X-Forwarded-For} e {@code X-Real-IP} só são considerados quando a
+ * conexão vem de um proxy listado em {@code rate-limit.trusted-proxies}; caso
+ * contrário qualquer cliente escolheria o próprio IP mandando o cabeçalho. No
+ * {@code X-Forwarded-For} vale o endereço mais à direita que não é de um proxy
+ * confiável: os anteriores foram escritos pelo próprio cliente.
+ */
+@Component
+public class ClientIpResolver {
+
+    private final Set<String> proxiesConfiaveis;
+
+    public ClientIpResolver(@Value("${rate-limit.trusted-proxies:}") List<String> proxiesConfiaveis) {
+        this.proxiesConfiaveis = Set.copyOf(proxiesConfiaveis.stream()
+                .map(String::trim)
+                .filter(ip -> !ip.isEmpty())
+                .toList());
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoto = request.getRemoteAddr();
+        if (!proxiesConfiaveis.contains(remoto)) {
+            return remoto;
+        }
+
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isBlank()) {
+            String[] saltos = xForwardedFor.split(",");
+            for (int i = saltos.length - 1; i >= 0; i--) {
+                String ip = saltos[i].trim();
+                if (!ip.isEmpty() && !proxiesConfiaveis.contains(ip)) {
+                    return ip;
+                }
+            }
+        }
+
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isBlank()) {
+            return xRealIp.trim();
+        }
+
+        return remoto;
+    }
+}
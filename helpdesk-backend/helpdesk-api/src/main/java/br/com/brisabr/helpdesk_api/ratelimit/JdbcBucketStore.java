@@ -0,0 +1,217 @@
+package br.com.brisabr.helpdesk_api.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.AsyncProxyManager;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Buckets no banco (tabela {@code rate_limit_buckets}, migração V7), compartilhados
+ * por todas as réplicas da API.
+ *
+ * O estado de cada bucket é o blob serializado pelo Bucket4j, gravado com
+ * compare-and-swap por uma coluna de versão: um UPDATE condicional, sem lock
+ * de linha, que funciona igual no PostgreSQL e no H2 dos testes.
+ *
+ * Para que a maioria das requisições não vá ao banco, cada réplica pode
+ * consumir localmente até {@code rate-limit.jdbc.lease-tokens} tokens (limitado
+ * a 10% da capacidade) antes de sincronizar, ou sincroniza após
+ * {@code rate-limit.jdbc.lease-max-delay-ms}. O excesso possível é de um lote
+ * por réplica; buckets pequenos (login: 5 tentativas) nunca usam o lote e vão
+ * sempre ao banco.
+ *
+ * Linhas de buckets que já voltaram à capacidade cheia ({@code expires_at}
+ * no passado) equivalem a linhas ausentes e são removidas periodicamente.
+ *
+ * O modo assíncrono do Bucket4j ({@link #async()}) roda as mesmas operações
+ * JDBC, bloqueantes, em virtual threads.
+ */
+public class JdbcBucketStore implements BucketStore, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcBucketStore.class);
+
+    private static final String SELECT_SQL = "SELECT state, version FROM rate_limit_buckets WHERE bucket_key = ?";
+    private static final String INSERT_SQL = "INSERT INTO rate_limit_buckets (bucket_key, state, version, expires_at) VALUES (?, ?, 1, ?)";
+    private static final String UPDATE_SQL = "UPDATE rate_limit_buckets SET state = ?, version = version + 1, expires_at = ? "
+            + "WHERE bucket_key = ? AND version = ?";
+    private static final String DELETE_SQL = "DELETE FROM rate_limit_buckets WHERE bucket_key = ?";
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM rate_limit_buckets WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcProxyManager proxyManager = new JdbcProxyManager();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rate-limit-", 0).factory());
+    private final long leaseTokens;
+    private final Duration leaseMaxDelay;
+
+    // O lote de tokens locais vive no proxy; manter o proxy em cache preserva o lote entre requisições
+    private final Cache<String, Bucket> proxies = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    public JdbcBucketStore(JdbcTemplate jdbcTemplate, long leaseTokens, Duration leaseMaxDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseTokens = leaseTokens;
+        this.leaseMaxDelay = leaseMaxDelay;
+    }
+
+    @Override
+    public Bucket bucket(String key, Supplier<BucketConfiguration> configuration) {
+        return proxies.get(key, k -> {
+            BucketConfiguration config = configuration.get();
+            RemoteBucketBuilder<String> builder = proxyManager.builder();
+            long lote = Math.min(leaseTokens, config.getBandwidths()[0].getCapacity() / 10);
+            if (lote > 0) {
+                builder = builder.withOptimization(Optimizations.delaying(new DelayParameters(lote, leaseMaxDelay)));
+            }
+            return builder.build(k, () -> config);
+        });
+    }
+
+    @Override
+    public void remove(String key) {
+        proxies.invalidate(key);
+        proxyManager.removeProxy(key);
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    /**
+     * Os mesmos buckets pela API assíncrona do Bucket4j.
+     */
+    public AsyncProxyManager<String> async() {
+        return proxyManager.asAsync();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Remove os buckets que já se recompuseram por completo.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.jdbc.cleanup-interval-ms:600000}")
+    public void removerExpirados() {
+        try {
+            int removidos = jdbcTemplate.update(DELETE_EXPIRED_SQL, Timestamp.from(Instant.now()));
+            if (removidos > 0) {
+                logger.debug("Rate limit: {} bucket(s) expirados removidos do banco", removidos);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Falha ao remover buckets expirados do rate limit: {}", e.getMessage());
+        }
+    }
+
+    private final class JdbcProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+        JdbcProxyManager() {
+            super(ClientSideConfig.getDefault());
+        }
+
+        @Override
+        protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+            return new JdbcCompareAndSwapOperation(key);
+        }
+
+        @Override
+        protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+            // Mesma operação: a versão lida em getStateData vale para o compareAndSwap seguinte
+            JdbcCompareAndSwapOperation operacao = new JdbcCompareAndSwapOperation(key);
+            return new AsyncCompareAndSwapOperation() {
+                @Override
+                public CompletableFuture<Optional<byte[]>> getStateData() {
+                    return CompletableFuture.supplyAsync(operacao::getStateData, executor);
+                }
+
+                @Override
+                public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                    return CompletableFuture.supplyAsync(() -> operacao.compareAndSwap(originalData, newData, newState), executor);
+                }
+            };
+        }
+
+        @Override
+        public void removeProxy(String key) {
+            jdbcTemplate.update(DELETE_SQL, key);
+        }
+
+        @Override
+        protected CompletableFuture<Void> removeAsync(String key) {
+            return CompletableFuture.runAsync(() -> removeProxy(key), executor);
+        }
+
+        @Override
+        public boolean isAsyncModeSupported() {
+            return true;
+        }
+
+        private static Timestamp expiraEm(RemoteBucketState estado) {
+            long agoraNanos = System.currentTimeMillis() * 1_000_000L;
+            long recomposicaoNanos = estado.calculateFullRefillingTime(agoraNanos);
+            return Timestamp.from(Instant.now().plusNanos(recomposicaoNanos));
+        }
+
+        private final class JdbcCompareAndSwapOperation implements CompareAndSwapOperation {
+
+            private final String key;
+            // Versão lida em getStateData; o swap só vale se ninguém gravou depois
+            private long versao;
+
+            JdbcCompareAndSwapOperation(String key) {
+                this.key = key;
+            }
+
+            @Override
+            public Optional<byte[]> getStateData() {
+                List<byte[]> estados = jdbcTemplate.query(SELECT_SQL, (rs, n) -> {
+                    versao = rs.getLong("version");
+                    return rs.getBytes("state");
+                }, key);
+                return estados.stream().findFirst();
+            }
+
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState) {
+                Timestamp expiraEm = expiraEm(newState);
+                if (originalData == null) {
+                    try {
+                        return jdbcTemplate.update(INSERT_SQL, key, newData, expiraEm) == 1;
+                    } catch (DuplicateKeyException e) {
+                        // Outra réplica criou o bucket primeiro; o Bucket4j relê e tenta de novo
+                        return false;
+                    }
+                }
+                return jdbcTemplate.update(UPDATE_SQL, newData, expiraEm, key, versao) == 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.brisabr.helpdesk_api.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucketBuilder;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Buckets em memória (Caffeine). Com várias réplicas cada uma tem os seus, e o
+ * limite efetivo é multiplicado pelo número de réplicas.
+ */
+public class LocalBucketStore implements BucketStore {
+
+    /**
+     * Expira após 10 minutos de inatividade para liberar memória.
+     */
+    private final Cache<String, Bucket> buckets = Caffeine.newBuilder()
+            .maximumSize(10000) // Máximo de 10.000 chaves em cache
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .recordStats() // Habilita estatísticas
+            .build();
+
+    @Override
+    public Bucket bucket(String key, Supplier<BucketConfiguration> configuration) {
+        return buckets.get(key, k -> {
+            LocalBucketBuilder builder = Bucket.builder();
+            for (Bandwidth limite : configuration.get().getBandwidths()) {
+                builder.addLimit(limite);
+            }
+            return builder.build();
+        });
+    }
+
+    @Override
+    public void remove(String key) {
+        buckets.invalidate(key);
+    }
+}
@@ -15,8 +15,18 @@ import java.lang.annotation.Target;
  * &#64;PostMapping("/api/tickets")
  * public ResponseEntity<?> createTicket(...) { ... }
  * </pre>
+ *
+ * Na classe do controller vale como padrão para todos os seus endpoints; a
+ * anotação no método substitui a da classe por inteiro. Com {@link #roles()}
+ * usuários de um papel recebem outro limite:
+ * <pre>
+ * &#64;RateLimit(requestsPerMinute = 60, type = LimitType.PER_USER,
+ *            roles = &#64;RoleLimit(role = "TECHNICIAN", requestsPerMinute = 600))
+ * </pre>
+ *
+ * As anotações são lidas uma vez, na subida, pelo {@link RateLimitInterceptor}.
  */
-@Target(ElementType.METHOD)
+@Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface RateLimit {
 
@@ -39,6 +49,28 @@ public @interface RateLimit {
      */
     String message() default "Taxa de requisições excedida. Tente novamente em alguns instantes.";
 
+    /**
+     * Limites específicos por papel (sem o prefixo {@code ROLE_}). Quem tem mais
+     * de um papel listado fica com o maior limite; quem não tem nenhum, com
+     * {@link #requestsPerMinute()}.
+     */
+    RoleLimit[] roles() default {};
+
+    @Target({})
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface RoleLimit {
+
+        /**
+         * Papel do usuário, por exemplo {@code TECHNICIAN}.
+         */
+        String role();
+
+        /**
+         * Requisições por minuto para quem tem o papel.
+         */
+        int requestsPerMinute();
+    }
+
     enum LimitType {
         PER_IP,      // Limita por endereço IP
         PER_USER,    // Limita por ID do usuário autenticado
@@ -1,48 +1,60 @@
 package br.com.brisabr.helpdesk_api.ratelimit;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.Duration;
 
 /**
- * Configuração do sistema de rate limiting usando Bucket4j + Caffeine.
+ * Configuração do sistema de rate limiting usando Bucket4j.
  * Implementa o algoritmo Token Bucket para controle de taxa de requisições.
+ *
+ * Os buckets ficam no {@link BucketStore} escolhido por {@code rate-limit.store}:
+ * {@code local} (Caffeine, por réplica) ou {@code jdbc} (banco, compartilhado).
  */
 @Configuration
 public class RateLimitConfig {
 
     /**
-     * Cache Caffeine para armazenar os buckets de rate limiting.
-     * Expira após 10 minutos de inatividade para liberar memória.
+     * Buckets em memória; cada réplica aplica o limite sozinha.
      */
     @Bean
-    public Cache<String, Bucket> rateLimitCache() {
-        return Caffeine.newBuilder()
-                .maximumSize(10000) // Máximo de 10.000 chaves em cache
-                .expireAfterAccess(Duration.ofMinutes(10))
-                .recordStats() // Habilita estatísticas
-                .build();
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "local", matchIfMissing = true)
+    public BucketStore localBucketStore() {
+        return new LocalBucketStore();
+    }
+
+    /**
+     * Buckets no banco, para que o limite valha para o conjunto das réplicas.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.store", havingValue = "jdbc")
+    public BucketStore jdbcBucketStore(
+            JdbcTemplate jdbcTemplate,
+            @Value("${rate-limit.jdbc.lease-tokens:20}") long leaseTokens,
+            @Value("${rate-limit.jdbc.lease-max-delay-ms:1000}") long leaseMaxDelayMillis) {
+        return new JdbcBucketStore(jdbcTemplate, leaseTokens, Duration.ofMillis(leaseMaxDelayMillis));
     }
 
     /**
-     * Cria um bucket padrão com limite configurável.
+     * Cria a configuração de um bucket padrão com limite configurável.
      *
      * @param requestsPerMinute Número de requisições permitidas por minuto
-     * @return Bucket configurado
+     * @return Configuração do bucket
      */
-    public Bucket createBucket(int requestsPerMinute) {
+    public BucketConfiguration createBucketConfiguration(int requestsPerMinute) {
         // Bandwidth: capacidade máxima = requestsPerMinute com refill intervalar
         Bandwidth limit = Bandwidth.builder()
                 .capacity(requestsPerMinute)
                 .refillIntervally(requestsPerMinute, Duration.ofMinutes(1))
                 .build();
 
-        return Bucket.builder()
+        return BucketConfiguration.builder()
                 .addLimit(limit)
                 .build();
     }
@@ -1,12 +1,13 @@
 package br.com.brisabr.helpdesk_api.ratelimit;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import io.github.bucket4j.Bucket;
 import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.core.Authentication;
@@ -14,26 +15,81 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
-
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Interceptor que aplica rate limiting baseado na anotação @RateLimit.
  * Intercepta requisições HTTP e verifica se o limite foi excedido.
+ *
+ * As anotações dos controllers são resolvidas na subida, num mapa imutável do
+ * método do handler e do padrão de rota para a {@link RateLimitPolicy}; a
+ * requisição não faz reflexão nem formata a chave do endpoint. Um handler
+ * mapeado em várias rotas tem uma política por rota, com bucket e tags próprios. Cada endpoint limitado tem os
+ * contadores {@value RateLimitPolicy#METRICA} (tags {@code method}, {@code uri}
+ * e {@code outcome}).
  */
 @Component
-public class RateLimitInterceptor implements HandlerInterceptor {
+public class RateLimitInterceptor implements HandlerInterceptor, SmartInitializingSingleton {
 
     private static final Logger logger = LoggerFactory.getLogger(RateLimitInterceptor.class);
 
-    private final Cache<String, Bucket> rateLimitCache;
+    private final BucketStore bucketStore;
     private final RateLimitConfig rateLimitConfig;
-
-    public RateLimitInterceptor(Cache<String, Bucket> rateLimitCache,
-                                RateLimitConfig rateLimitConfig) {
-        this.rateLimitCache = rateLimitCache;
+    private final ClientIpResolver clientIpResolver;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMappings;
+
+    private volatile Map<Rota, Optional<RateLimitPolicy>> politicas = Map.of();
+    // Handlers que não passaram pelos RequestMappingHandlerMapping na subida
+    private final Map<Rota, Optional<RateLimitPolicy>> politicasTardias = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(BucketStore bucketStore,
+                                RateLimitConfig rateLimitConfig,
+                                ClientIpResolver clientIpResolver,
+                                MeterRegistry meterRegistry,
+                                ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+        this.bucketStore = bucketStore;
+        this.clientIpResolver = clientIpResolver;
         this.rateLimitConfig = rateLimitConfig;
-    }    @Override
+        this.meterRegistry = meterRegistry;
+        this.handlerMappings = handlerMappings;
+    }
+
+    /**
+     * Resolve as políticas de todos os handlers mapeados, depois que os
+     * mapeamentos estão prontos e antes de o servidor aceitar requisições.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<Rota, Optional<RateLimitPolicy>> resolvidas = new HashMap<>();
+        handlerMappings.orderedStream().forEach(mapping -> {
+            for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : mapping.getHandlerMethods().entrySet()) {
+                RequestMappingInfo info = entry.getKey();
+                HandlerMethod handlerMethod = entry.getValue();
+                String metodoHttp = String.join(",", new TreeSet<>(info.getMethodsCondition().getMethods().stream()
+                        .map(Enum::name).toList()));
+                for (String padrao : info.getPatternValues()) {
+                    resolvidas.computeIfAbsent(new Rota(handlerMethod.getMethod(), padrao), rota -> Optional.ofNullable(
+                            RateLimitPolicy.of(handlerMethod, metodoHttp, padrao, rateLimitConfig, meterRegistry)));
+                }
+            }
+        });
+        politicas = Map.copyOf(resolvidas);
+        logger.info("Rate limiting: {} rotas limitadas de {} mapeadas",
+                resolvidas.values().stream().filter(Optional::isPresent).count(), resolvidas.size());
+    }
+
+    @Override
     public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler)
             throws Exception {
 
@@ -41,45 +97,46 @@ public class RateLimitInterceptor implements HandlerInterceptor {
             return true; // Não é um método de controller, permite
         }
 
-        // Verifica se o método tem anotação @RateLimit
-        RateLimit rateLimit = handlerMethod.getMethodAnnotation(RateLimit.class);
-        if (rateLimit == null) {
+        // Padrão que casou com a requisição, gravado pelo RequestMappingHandlerMapping
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Rota rota = new Rota(handlerMethod.getMethod(), padrao != null ? padrao.toString() : null);
+        Optional<RateLimitPolicy> resolvida = politicas.get(rota);
+        if (resolvida == null) {
+            resolvida = politicaTardia(rota, handlerMethod, request);
+        }
+        if (resolvida.isEmpty()) {
             return true; // Sem rate limit configurado, permite
         }
+        RateLimitPolicy politica = resolvida.get();
 
-        // Gera chave única baseada no tipo de limite
-        String key = generateKey(request, rateLimit.type());
-
-        // Obtém ou cria bucket para esta chave
-        Bucket bucket = rateLimitCache.get(key, k ->
-                rateLimitConfig.createBucket(rateLimit.requestsPerMinute()));
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        RateLimitPolicy.Faixa faixa = politica.faixa(authentication);
+        String key = generateKey(request, authentication, politica.tipo(), faixa.sufixoChave());
 
         // Tenta consumir 1 token
-        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);        if (probe.isConsumed()) {
-            // Requisição permitida - adiciona headers informativos
-            response.addHeader("X-RateLimit-Limit", String.valueOf(rateLimit.requestsPerMinute()));
-            response.addHeader("X-RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
-            response.addHeader("X-RateLimit-Reset",
-                    String.valueOf(TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill())));
+        ConsumptionProbe probe = bucketStore.bucket(key, faixa.configuracao()).tryConsumeAndReturnRemaining(1);
+        politica.registrar(probe.isConsumed());
+
+        response.setHeader("X-RateLimit-Limit", String.valueOf(faixa.limite()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
+        response.setHeader("X-RateLimit-Reset", String.valueOf(segundos(probe.getNanosToWaitForReset())));
 
+        if (probe.isConsumed()) {
             logger.debug("Rate limit check passed for key: {} - Remaining tokens: {}",
                     key, probe.getRemainingTokens());
 
             return true;
         } else {
             // Limite excedido - bloqueia requisição
-            long waitTime = TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill());
+            long waitTime = Math.max(1, segundos(probe.getNanosToWaitForRefill()));
 
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.setContentType("application/json");
-            response.addHeader("X-RateLimit-Limit", String.valueOf(rateLimit.requestsPerMinute()));
-            response.addHeader("X-RateLimit-Remaining", "0");
-            response.addHeader("X-RateLimit-Reset", String.valueOf(waitTime));
-            response.addHeader("Retry-After", String.valueOf(waitTime));
+            response.setHeader("Retry-After", String.valueOf(waitTime));
 
             String errorMessage = String.format(
                     "{\"error\":\"%s\",\"retryAfter\":\"%d segundos\"}",
-                    rateLimit.message(), waitTime);
+                    politica.mensagem(), waitTime);
 
             response.getWriter().write(errorMessage);
 
@@ -89,56 +146,51 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         }
     }
 
+    /**
+     * Política de um handler desconhecido na subida (registrado depois, ou por
+     * outro tipo de mapeamento). Sem padrão na requisição, a rota é a URI do
+     * primeiro acesso.
+     */
+    private Optional<RateLimitPolicy> politicaTardia(Rota rota, HandlerMethod handlerMethod, HttpServletRequest request) {
+        return politicasTardias.computeIfAbsent(rota, chave -> Optional.ofNullable(RateLimitPolicy.of(handlerMethod, "",
+                chave.padrao() != null ? chave.padrao() : request.getRequestURI(), rateLimitConfig, meterRegistry)));
+    }
+
     /**
      * Gera chave única para identificar o bucket de rate limiting.
      *
      * @param request Requisição HTTP
+     * @param authentication Usuário autenticado (pode ser null)
      * @param type Tipo de limite (PER_IP, PER_USER, GLOBAL)
+     * @param sufixo Endpoint e faixa, fixos por política
      * @return Chave única para o bucket
      */
-    private String generateKey(HttpServletRequest request, RateLimit.LimitType type) {
-        String endpoint = request.getRequestURI();
-
+    private String generateKey(HttpServletRequest request, Authentication authentication,
+                               RateLimit.LimitType type, String sufixo) {
         return switch (type) {
-            case PER_IP -> {
-                String ip = getClientIp(request);
-                yield String.format("ip:%s:%s", ip, endpoint);
-            }
-            case PER_USER -> {
-                String userId = getUserId();
-                yield String.format("user:%s:%s", userId, endpoint);
-            }
-            case GLOBAL -> {
-                yield String.format("global:%s", endpoint);
-            }
+            case PER_IP -> "ip:" + clientIpResolver.resolve(request) + sufixo;
+            case PER_USER -> "user:" + getUserId(authentication) + sufixo;
+            case GLOBAL -> "global" + sufixo;
         };
     }
 
     /**
-     * Obtém o endereço IP real do cliente, considerando proxies e load balancers.
+     * Obtém o ID do usuário autenticado do contexto de segurança.
      */
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
+    private static String getUserId(Authentication authentication) {
+        if (authentication != null && authentication.isAuthenticated()) {
+            return authentication.getName();
         }
+        return "anonymous";
+    }
 
-        return request.getRemoteAddr();
+    private static long segundos(long nanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1);
     }
 
     /**
-     * Obtém o ID do usuário autenticado do contexto de segurança.
+     * Método do handler e padrão de rota que casou com a requisição ({@code null} se desconhecido).
      */
-    private String getUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.isAuthenticated()) {
-            return authentication.getName();
-        }
-        return "anonymous";
+    private record Rota(Method metodo, String padrao) {
     }
 }
@@ -0,0 +1,116 @@
+package br.com.brisabr.helpdesk_api.ratelimit;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * {@link RateLimit} de um endpoint já resolvido: anotação do método ou da
+ * classe, configuração dos buckets, sufixo das chaves e contadores. Montado
+ * uma vez por handler, para que a requisição só consulte um mapa.
+ */
+final class RateLimitPolicy {
+
+    static final String METRICA = "helpdesk.ratelimit.requests";
+
+    private final RateLimit.LimitType tipo;
+    private final String mensagem;
+    private final Faixa padrao;
+    // Do maior para o menor limite: a primeira faixa do usuário é a que vale
+    private final List<Faixa> faixasPorPapel;
+    private final Counter permitidas;
+    private final Counter rejeitadas;
+
+    private RateLimitPolicy(RateLimit rateLimit, String metodoHttp, String rota,
+                            RateLimitConfig config, MeterRegistry meterRegistry) {
+        this.tipo = rateLimit.type();
+        this.mensagem = rateLimit.message();
+        String endpoint = metodoHttp.isEmpty() ? rota : metodoHttp + " " + rota;
+        this.padrao = new Faixa(null, rateLimit.requestsPerMinute(), ":" + endpoint, config);
+        this.faixasPorPapel = Arrays.stream(rateLimit.roles())
+                .map(papel -> new Faixa("ROLE_" + papel.role(), papel.requestsPerMinute(),
+                        ":" + endpoint + ":" + papel.role(), config))
+                .sorted(Comparator.comparingInt(Faixa::limite).reversed())
+                .toList();
+        this.permitidas = contador(meterRegistry, metodoHttp, rota, "allowed");
+        this.rejeitadas = contador(meterRegistry, metodoHttp, rota, "rejected");
+    }
+
+    /**
+     * Política do handler, ou {@code null} se nem o método nem a classe têm {@link RateLimit}.
+     *
+     * @param metodoHttp métodos HTTP do mapeamento (vazio se aceita qualquer um)
+     * @param rota template da rota, por exemplo {@code /v1/api/tickets/{id}}
+     */
+    static RateLimitPolicy of(HandlerMethod handlerMethod, String metodoHttp, String rota,
+                              RateLimitConfig config, MeterRegistry meterRegistry) {
+        RateLimit rateLimit = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), RateLimit.class);
+        if (rateLimit == null) {
+            rateLimit = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RateLimit.class);
+        }
+        return rateLimit == null ? null : new RateLimitPolicy(rateLimit, metodoHttp, rota, config, meterRegistry);
+    }
+
+    RateLimit.LimitType tipo() {
+        return tipo;
+    }
+
+    String mensagem() {
+        return mensagem;
+    }
+
+    /**
+     * Faixa do usuário autenticado: o maior limite entre os papéis dele, ou o padrão.
+     */
+    Faixa faixa(Authentication authentication) {
+        if (faixasPorPapel.isEmpty() || authentication == null) {
+            return padrao;
+        }
+        for (Faixa faixa : faixasPorPapel) {
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                if (faixa.authority().equals(authority.getAuthority())) {
+                    return faixa;
+                }
+            }
+        }
+        return padrao;
+    }
+
+    void registrar(boolean permitida) {
+        (permitida ? permitidas : rejeitadas).increment();
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String metodoHttp, String rota, String resultado) {
+        return Counter.builder(METRICA)
+                .description("Requisições avaliadas pelo rate limiting, por endpoint")
+                .tag("method", metodoHttp.isEmpty() ? "ANY" : metodoHttp)
+                .tag("uri", rota)
+                .tag("outcome", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Limite aplicado a um grupo de usuários do endpoint, com o bucket já configurado.
+     *
+     * @param sufixoChave parte fixa da chave do bucket, acrescentada ao sujeito (IP, usuário)
+     */
+    record Faixa(String authority, int limite, String sufixoChave, Supplier<BucketConfiguration> configuracao) {
+
+        Faixa(String authority, int limite, String sufixoChave, RateLimitConfig config) {
+            this(authority, limite, sufixoChave, configuracaoFixa(config.createBucketConfiguration(limite)));
+        }
+
+        private static Supplier<BucketConfiguration> configuracaoFixa(BucketConfiguration configuracao) {
+            return () -> configuracao;
+        }
+    }
+}
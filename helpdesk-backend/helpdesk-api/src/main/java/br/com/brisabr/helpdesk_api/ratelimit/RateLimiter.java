@@ -2,105 +2,234 @@ package br.com.brisabr.helpdesk_api.ratelimit;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.text.Normalizer;
 import java.time.Duration;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Implementa rate limiting (limitação de taxa) para prevenir força bruta.
- * Usa Caffeine cache para rastrear tentativas por IP.
+ * Implementa rate limiting (limitação de taxa) de login para prevenir força bruta.
+ *
+ * As tentativas são contadas em duas dimensões, cada uma numa janela deslizante
+ * sem locks ({@link SlidingWindowCounter}):
+ * <ul>
+ *   <li>por conta (email normalizado): barra quem distribui tentativas contra
+ *       um email entre muitos IPs;</li>
+ *   <li>por IP ({@link ClientIpResolver}): barra quem testa muitas contas a
+ *       partir do mesmo endereço. O limite é maior por causa de NAT.</li>
+ * </ul>
+ *
+ * Só tentativas admitidas entram nas janelas. Quem estoura o limite fica
+ * bloqueado até a janela liberar uma tentativa; reincidentes ficam bloqueados
+ * por {@code janela × 2^(n-2)}, até {@code rate-limit.login.max-backoff-seconds}. O tempo de espera é devolvido
+ * para o cabeçalho {@code Retry-After}.
+ *
+ * As janelas são locais à réplica. Com {@code rate-limit.store=jdbc} o limite
+ * por conta também é aplicado num bucket do {@link BucketStore} compartilhado,
+ * e passa a valer para todas as réplicas juntas.
  */
 @Component
 public class RateLimiter {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
-    
-    // Máximo de tentativas por janela de tempo
-    private static final int MAX_ATTEMPTS = 5;
-    
-    // Janela de tempo (1 minuto)
-    private static final Duration WINDOW_DURATION = Duration.ofMinutes(1);
-    
-    // Cache: IP -> contador de tentativas
-    private final Cache<String, AtomicInteger> attemptsCache;
-    
-    public RateLimiter() {
-        this.attemptsCache = Caffeine.newBuilder()
-                .expireAfterWrite(WINDOW_DURATION)
-                .maximumSize(10_000)
+
+    private final BucketStore bucketStore;
+    private final ClientIpResolver clientIpResolver;
+    private final int janelaSegundos;
+    private final int maxTentativasConta;
+    private final int maxTentativasIp;
+    private final long maxBackoffMillis;
+    private final BucketConfiguration bucketConta;
+
+    // Chave ("conta:<email>" ou "ip:<ip>") -> janela e bloqueio
+    private final Cache<String, Tentativas> tentativas;
+
+    public RateLimiter(
+            BucketStore bucketStore,
+            ClientIpResolver clientIpResolver,
+            @Value("${rate-limit.login.window-seconds:60}") int janelaSegundos,
+            @Value("${rate-limit.login.max-attempts-per-account:5}") int maxTentativasConta,
+            @Value("${rate-limit.login.max-attempts-per-ip:20}") int maxTentativasIp,
+            @Value("${rate-limit.login.max-backoff-seconds:3600}") long maxBackoffSeconds) {
+        this.bucketStore = bucketStore;
+        this.clientIpResolver = clientIpResolver;
+        this.janelaSegundos = janelaSegundos;
+        this.maxTentativasConta = maxTentativasConta;
+        this.maxTentativasIp = maxTentativasIp;
+        this.maxBackoffMillis = TimeUnit.SECONDS.toMillis(maxBackoffSeconds);
+        this.bucketConta = BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(maxTentativasConta)
+                        .refillIntervally(maxTentativasConta, Duration.ofSeconds(janelaSegundos))
+                        .build())
+                .build();
+        // Reincidência é esquecida depois de um bloqueio máximo sem tentativas
+        this.tentativas = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(Math.max(maxBackoffMillis, TimeUnit.SECONDS.toMillis(janelaSegundos))))
+                .maximumSize(100_000)
                 .build();
     }
-    
+
     /**
-     * Verifica se o IP está dentro do limite de tentativas.
-     * 
+     * Resultado de uma tentativa de login.
+     *
+     * @param allowed se a tentativa pode prosseguir
+     * @param retryAfterSeconds espera até a próxima tentativa ser aceita (0 se permitida)
+     * @param remainingAttempts tentativas restantes na janela para a conta e o IP
+     */
+    public record Decision(boolean allowed, long retryAfterSeconds, int remainingAttempts) {
+    }
+
+    /**
+     * Registra uma tentativa de login e decide se ela pode prosseguir.
+     *
      * @param request Requisição HTTP
+     * @param email Email informado no login
+     */
+    public Decision check(HttpServletRequest request, String email) {
+        return check(clientIpResolver.resolve(request), email, System.currentTimeMillis());
+    }
+
+    /**
+     * Verifica se a tentativa de login está dentro dos limites.
+     *
      * @return true se permitido, false se bloqueado
      */
-    public boolean isAllowed(HttpServletRequest request) {
-        String clientIp = getClientIp(request);
-        
-        AtomicInteger attempts = attemptsCache.get(clientIp, k -> new AtomicInteger(0));
-        int currentAttempts = attempts.incrementAndGet();
-        
-        if (currentAttempts > MAX_ATTEMPTS) {
-            logger.warn("Rate limit excedido para IP: {} ({} tentativas)", clientIp, currentAttempts);
-            return false;
+    public boolean isAllowed(HttpServletRequest request, String email) {
+        return check(request, email).allowed();
+    }
+
+    Decision check(String clientIp, String email, long agoraMillis) {
+        long agoraSegundos = TimeUnit.MILLISECONDS.toSeconds(agoraMillis);
+        String chaveConta = "conta:" + normalizeEmail(email);
+        Tentativas ip = tentativas.get("ip:" + clientIp, k -> new Tentativas(janelaSegundos));
+        Tentativas conta = tentativas.get(chaveConta, k -> new Tentativas(janelaSegundos));
+
+        long bloqueio = Math.max(ip.bloqueadoAte.get(), conta.bloqueadoAte.get());
+        if (bloqueio > agoraMillis) {
+            return new Decision(false, segundosAte(bloqueio, agoraMillis), 0);
+        }
+
+        // Reserva nas duas janelas e desfaz as duas se a tentativa for recusada: só
+        // tentativas admitidas contam, e uma dimensão não é cobrada pela outra
+        int usadasIp = ip.janela.incrementAndGet(agoraSegundos);
+        int usadasConta = conta.janela.incrementAndGet(agoraSegundos);
+        if (usadasIp > maxTentativasIp || usadasConta > maxTentativasConta) {
+            ip.janela.decrement(agoraSegundos);
+            conta.janela.decrement(agoraSegundos);
+            if (usadasIp > maxTentativasIp) {
+                logger.warn("Rate limit de login excedido para IP: {} ({} tentativas na janela)", clientIp, usadasIp - 1);
+                return bloquear(ip, maxTentativasIp, agoraMillis, agoraSegundos);
+            }
+            logger.warn("Rate limit de login excedido para a conta {} ({} tentativas na janela, último IP {})",
+                    chaveConta, usadasConta - 1, clientIp);
+            return bloquear(conta, maxTentativasConta, agoraMillis, agoraSegundos);
+        }
+
+        int restantes = Math.min(maxTentativasIp - usadasIp, maxTentativasConta - usadasConta);
+        if (bucketStore.isShared()) {
+            // Limite da conta para o conjunto das réplicas
+            ConsumptionProbe compartilhado = bucketStore.bucket(chaveConta, () -> bucketConta).tryConsumeAndReturnRemaining(1);
+            if (!compartilhado.isConsumed()) {
+                ip.janela.decrement(agoraSegundos);
+                conta.janela.decrement(agoraSegundos);
+                logger.warn("Rate limit de login excedido para a conta {} somando as réplicas", chaveConta);
+                return new Decision(false, segundosAte(agoraMillis + TimeUnit.NANOSECONDS.toMillis(
+                        compartilhado.getNanosToWaitForRefill()), agoraMillis), 0);
+            }
+            restantes = Math.min(restantes, (int) compartilhado.getRemainingTokens());
         }
-        
-        logger.debug("Tentativa {} de {} para IP: {}", currentAttempts, MAX_ATTEMPTS, clientIp);
-        return true;
+
+        logger.debug("Tentativa de login permitida para IP {} ({} restantes)", clientIp, restantes);
+        return new Decision(true, 0, restantes);
     }
-    
+
     /**
-     * Reseta o contador de tentativas para um IP (após login bem-sucedido).
-     * 
-     * @param request Requisição HTTP
+     * Reseta as tentativas da conta após login bem-sucedido. As do IP continuam
+     * correndo: um login válido não pode liberar um IP que testa outras contas.
+     *
+     * @param email Email do login bem-sucedido
      */
-    public void resetAttempts(HttpServletRequest request) {
-        String clientIp = getClientIp(request);
-        attemptsCache.invalidate(clientIp);
-        logger.debug("Contador resetado para IP: {}", clientIp);
+    public void resetAttempts(String email) {
+        String chaveConta = "conta:" + normalizeEmail(email);
+        tentativas.invalidate(chaveConta);
+        if (bucketStore.isShared()) {
+            bucketStore.remove(chaveConta);
+        }
+        logger.debug("Contador resetado para a conta: {}", chaveConta);
     }
-    
+
     /**
-     * Obtém tentativas restantes para um IP.
-     * 
+     * Obtém tentativas restantes na janela para o IP e a conta, sem registrar tentativa.
+     *
      * @param request Requisição HTTP
+     * @param email Email informado no login
      * @return Número de tentativas restantes
      */
-    public int getRemainingAttempts(HttpServletRequest request) {
-        String clientIp = getClientIp(request);
-        AtomicInteger attempts = attemptsCache.getIfPresent(clientIp);
-        
-        if (attempts == null) {
-            return MAX_ATTEMPTS;
-        }
-        
-        return Math.max(0, MAX_ATTEMPTS - attempts.get());
+    public int getRemainingAttempts(HttpServletRequest request, String email) {
+        long agoraSegundos = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        Tentativas ip = tentativas.getIfPresent("ip:" + clientIpResolver.resolve(request));
+        Tentativas conta = tentativas.getIfPresent("conta:" + normalizeEmail(email));
+        int restantesIp = ip == null ? maxTentativasIp : maxTentativasIp - ip.janela.count(agoraSegundos);
+        int restantesConta = conta == null ? maxTentativasConta : maxTentativasConta - conta.janela.count(agoraSegundos);
+        return Math.max(0, Math.min(restantesIp, restantesConta));
     }
-    
+
     /**
-     * Extrai IP real do cliente (considera proxies e load balancers).
-     * 
-     * @param request Requisição HTTP
-     * @return IP do cliente
+     * Email em minúsculas, sem espaços nas pontas e em forma Unicode canônica,
+     * para que variações do mesmo endereço caiam na mesma conta.
      */
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+    static String normalizeEmail(String email) {
+        if (email == null) {
+            return "";
         }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
+        return Normalizer.normalize(email.trim(), Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    private Decision bloquear(Tentativas alvo, int limite, long agoraMillis, long agoraSegundos) {
+        // Zerar a reincidência esquecida e contar a nova num único compare-and-set
+        int reincidencia = alvo.reincidencia.updateAndGet(atual -> new Reincidencia(agoraMillis,
+                agoraMillis - atual.ultimaInfracao() > maxBackoffMillis ? 1 : atual.vezes() + 1)).vezes();
+
+        // 1ª vez: até a janela liberar uma tentativa; depois, janela × 2^(n-2)
+        long esperaMillis = TimeUnit.SECONDS.toMillis(alvo.janela.secondsUntilBelow(limite, agoraSegundos));
+        if (reincidencia > 1) {
+            long backoff = TimeUnit.SECONDS.toMillis(janelaSegundos) << Math.min(reincidencia - 2, 20);
+            esperaMillis = Math.max(esperaMillis, Math.min(backoff, maxBackoffMillis));
         }
-        
-        return request.getRemoteAddr();
+        long ate = agoraMillis + esperaMillis;
+        alvo.bloqueadoAte.accumulateAndGet(ate, Math::max);
+        return new Decision(false, segundosAte(ate, agoraMillis), 0);
+    }
+
+    private static long segundosAte(long instanteMillis, long agoraMillis) {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(instanteMillis - agoraMillis + 999));
+    }
+
+    private static final class Tentativas {
+        final SlidingWindowCounter janela;
+        final AtomicLong bloqueadoAte = new AtomicLong();
+        final AtomicReference<Reincidencia> reincidencia = new AtomicReference<>(new Reincidencia(0, 0));
+
+        Tentativas(int janelaSegundos) {
+            this.janela = new SlidingWindowCounter(janelaSegundos);
+        }
+    }
+
+    /**
+     * Bloqueios seguidos de uma chave e o instante do último, trocados juntos.
+     */
+    private record Reincidencia(long ultimaInfracao, int vezes) {
     }
 }
@@ -0,0 +1,111 @@
+package br.com.brisabr.helpdesk_api.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador de eventos numa janela deslizante de N segundos, sem locks.
+ *
+ * Um anel de N posições, uma por segundo, num {@link AtomicLongArray}. Cada
+ * posição guarda num único {@code long} o segundo a que pertence (bits altos)
+ * e a contagem desse segundo (20 bits baixos), então reaproveitar a posição de
+ * um segundo que saiu da janela e incrementar são o mesmo compare-and-set.
+ * A contagem da janela soma as posições cujo segundo ainda está dentro dela.
+ *
+ * Diferente da janela fixa, que zera tudo de uma vez, os eventos saem da
+ * contagem um segundo por vez, exatamente N segundos depois de acontecerem.
+ */
+final class SlidingWindowCounter {
+
+    private static final int BITS_CONTAGEM = 20;
+    private static final long MASCARA_CONTAGEM = (1L << BITS_CONTAGEM) - 1;
+
+    private final AtomicLongArray segundos;
+    private final int janelaSegundos;
+
+    SlidingWindowCounter(int janelaSegundos) {
+        if (janelaSegundos <= 0) {
+            throw new IllegalArgumentException("Janela deve ter ao menos 1 segundo: " + janelaSegundos);
+        }
+        this.janelaSegundos = janelaSegundos;
+        this.segundos = new AtomicLongArray(janelaSegundos);
+    }
+
+    /**
+     * Registra um evento no segundo {@code agoraSegundos} e devolve a contagem da janela.
+     */
+    int incrementAndGet(long agoraSegundos) {
+        int posicao = (int) Math.floorMod(agoraSegundos, (long) janelaSegundos);
+        while (true) {
+            long atual = segundos.get(posicao);
+            long novo;
+            if (atual >>> BITS_CONTAGEM == agoraSegundos) {
+                if ((atual & MASCARA_CONTAGEM) == MASCARA_CONTAGEM) {
+                    break; // saturado: mais de um milhão de eventos no mesmo segundo
+                }
+                novo = atual + 1;
+            } else if (atual >>> BITS_CONTAGEM < agoraSegundos) {
+                novo = (agoraSegundos << BITS_CONTAGEM) | 1;
+            } else {
+                break; // thread atrasada: a posição já pertence a um segundo posterior
+            }
+            if (segundos.compareAndSet(posicao, atual, novo)) {
+                break;
+            }
+        }
+        return count(agoraSegundos);
+    }
+
+    /**
+     * Desfaz um evento registrado no segundo {@code agoraSegundos}. Não faz nada se
+     * a posição já foi reaproveitada por um segundo posterior.
+     */
+    void decrement(long agoraSegundos) {
+        int posicao = (int) Math.floorMod(agoraSegundos, (long) janelaSegundos);
+        while (true) {
+            long atual = segundos.get(posicao);
+            if (atual >>> BITS_CONTAGEM != agoraSegundos || (atual & MASCARA_CONTAGEM) == 0) {
+                return;
+            }
+            if (segundos.compareAndSet(posicao, atual, atual - 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Eventos nos últimos {@code janelaSegundos} segundos, incluindo o atual.
+     */
+    int count(long agoraSegundos) {
+        long inicio = agoraSegundos - janelaSegundos;
+        int total = 0;
+        for (int i = 0; i < janelaSegundos; i++) {
+            long valor = segundos.get(i);
+            long segundo = valor >>> BITS_CONTAGEM;
+            if (segundo > inicio && segundo <= agoraSegundos) {
+                total += (int) (valor & MASCARA_CONTAGEM);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Segundos até a contagem cair abaixo de {@code limite}, com a janela sem novos eventos.
+     */
+    long secondsUntilBelow(int limite, long agoraSegundos) {
+        int excedente = count(agoraSegundos) - limite + 1;
+        if (excedente <= 0) {
+            return 0;
+        }
+        // Do segundo mais antigo para o mais recente, até sair o suficiente
+        for (long segundo = agoraSegundos - janelaSegundos + 1; segundo <= agoraSegundos; segundo++) {
+            long valor = segundos.get((int) Math.floorMod(segundo, (long) janelaSegundos));
+            if (valor >>> BITS_CONTAGEM == segundo) {
+                excedente -= (int) (valor & MASCARA_CONTAGEM);
+                if (excedente <= 0) {
+                    return segundo + janelaSegundos - agoraSegundos;
+                }
+            }
+        }
+        return janelaSegundos;
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.brisabr.helpdesk_api.rollup;
+
+import br.com.brisabr.helpdesk_api.ticket.Ticket;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de um chamado relevante para o resumo diário.
+ *
+ * Capturado antes de uma transição para que a contribuição antiga do chamado
+ * possa ser subtraída do resumo.
+ */
+public record ChamadoRollupRecord(
+    LocalDateTime dataAbertura,
+    LocalDateTime dataFechamento,
+    String categoria,
+    String prioridade,
+    long idTecnico,
+    String status
+) {
+    public static ChamadoRollupRecord of(Ticket ticket) {
+        return new ChamadoRollupRecord(
+            ticket.getDataAbertura(),
+            ticket.getDataFechamento(),
+            ticket.getCategoria(),
+            ticket.getPrioridade(),
+            ticket.getAtribuido() != null ? ticket.getAtribuido().getId() : 0L,
+            ticket.getStatus()
+        );
+    }
+}
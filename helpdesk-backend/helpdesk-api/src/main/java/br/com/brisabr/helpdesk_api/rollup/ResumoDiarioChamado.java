@@ -0,0 +1,82 @@
+package br.com.brisabr.helpdesk_api.rollup;
+
+import br.com.brisabr.helpdesk_api.dto.RelatorioCategoriaDTO;
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Resumo diário pré-agregado dos chamados.
+ *
+ * Cada linha acumula, para um dia e uma combinação de categoria, prioridade,
+ * técnico e status <em>atual</em> do chamado:
+ * - {@code abertos}: chamados abertos naquele dia;
+ * - {@code fechados}, {@code duracaoSegundos} e {@code fechadosSlaViolado}:
+ *   chamados fechados naquele dia, a soma dos tempos de resolução e quantos
+ *   passaram de 72 horas.
+ *
+ * Quando um chamado muda de estado, sua contribuição antiga é subtraída e a
+ * nova somada ({@link TicketRollupService}). Chamados sem técnico usam
+ * {@code idTecnico = 0} para que a chave única não tenha nulos.
+ */
+@NamedNativeQuery(
+    name = "ResumoDiarioChamado.getTempoMedioPorCategoria",
+    query = "SELECT r.categoria AS categoria, CAST(SUM(r.duracao_segundos) AS double precision) / SUM(r.fechados) / 3600.0 AS tempo_medio_horas " +
+            "FROM resumo_diario_chamados r " +
+            "WHERE r.dia >= :inicio AND r.dia < :fim AND (:mes = 0 OR EXTRACT(MONTH FROM r.dia) = :mes) " +
+            "GROUP BY r.categoria HAVING SUM(r.fechados) > 0",
+    resultSetMapping = "CategoriaReportMapping"
+)
+@SqlResultSetMapping(
+    name = "CategoriaReportMapping",
+    classes = @ConstructorResult(
+        targetClass = RelatorioCategoriaDTO.class,
+        columns = {
+            @ColumnResult(name = "categoria", type = String.class),
+            @ColumnResult(name = "tempo_medio_horas", type = Double.class)
+        }
+    )
+)
+@Entity
+@Table(name = "resumo_diario_chamados",
+       uniqueConstraints = @UniqueConstraint(name = "uk_resumo_diario_chave",
+               columnNames = {"dia", "categoria", "prioridade", "id_tecnico", "status"}))
+@Getter
+@Setter
+@EqualsAndHashCode(of = "id")
+public class ResumoDiarioChamado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Column(nullable = false)
+    private String categoria;
+
+    @Column(nullable = false)
+    private String prioridade;
+
+    @Column(name = "id_tecnico", nullable = false)
+    private long idTecnico;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private long abertos;
+
+    @Column(nullable = false)
+    private long fechados;
+
+    @Column(name = "duracao_segundos", nullable = false)
+    private long duracaoSegundos;
+
+    @Column(name = "fechados_sla_violado", nullable = false)
+    private long fechadosSlaViolado;
+}
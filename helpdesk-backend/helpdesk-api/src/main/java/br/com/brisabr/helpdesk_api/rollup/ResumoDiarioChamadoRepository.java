@@ -0,0 +1,150 @@
+package br.com.brisabr.helpdesk_api.rollup;
+
+import br.com.brisabr.helpdesk_api.dto.MetricasResumoDTO;
+import br.com.brisabr.helpdesk_api.dto.RelatorioAnalistaDTO;
+import br.com.brisabr.helpdesk_api.dto.RelatorioCategoriaDTO;
+import br.com.brisabr.helpdesk_api.dto.RelatorioMensalDTO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Acesso ao resumo diário de chamados.
+ *
+ * Todas as consultas de relatório filtram por intervalo em {@code dia}, então o
+ * custo é proporcional ao número de dias pedidos e não ao total de chamados.
+ */
+@Repository
+public interface ResumoDiarioChamadoRepository extends JpaRepository<ResumoDiarioChamado, Long> {
+
+    // ========== Manutenção ==========
+
+    @Modifying
+    @Query(value = "INSERT INTO resumo_diario_chamados " +
+           "(dia, categoria, prioridade, id_tecnico, status, abertos, fechados, duracao_segundos, fechados_sla_violado) " +
+           "VALUES (:dia, :categoria, :prioridade, :idTecnico, :status, :abertos, :fechados, :duracao, :slaViolado) " +
+           "ON CONFLICT (dia, categoria, prioridade, id_tecnico, status) DO UPDATE SET " +
+           "abertos = resumo_diario_chamados.abertos + EXCLUDED.abertos, " +
+           "fechados = resumo_diario_chamados.fechados + EXCLUDED.fechados, " +
+           "duracao_segundos = resumo_diario_chamados.duracao_segundos + EXCLUDED.duracao_segundos, " +
+           "fechados_sla_violado = resumo_diario_chamados.fechados_sla_violado + EXCLUDED.fechados_sla_violado",
+           nativeQuery = true)
+    void acumular(@Param("dia") LocalDate dia,
+                  @Param("categoria") String categoria,
+                  @Param("prioridade") String prioridade,
+                  @Param("idTecnico") long idTecnico,
+                  @Param("status") String status,
+                  @Param("abertos") long abertos,
+                  @Param("fechados") long fechados,
+                  @Param("duracao") long duracao,
+                  @Param("slaViolado") long slaViolado);
+
+    // ========== Relatórios ==========
+
+    @Query(value = "SELECT u.nome as nomeAnalista, SUM(r.abertos) as totalChamados " +
+           "FROM resumo_diario_chamados r JOIN usuarios u ON r.id_tecnico = u.id " +
+           "WHERE r.dia >= :inicio AND r.dia < :fim AND (:mes = 0 OR EXTRACT(MONTH FROM r.dia) = :mes) " +
+           "GROUP BY u.nome HAVING SUM(r.abertos) > 0", nativeQuery = true)
+    List<RelatorioAnalistaDTO> getChamadosPorAnalista(@Param("inicio") LocalDate inicio,
+                                                      @Param("fim") LocalDate fim,
+                                                      @Param("mes") int mes);
+
+    @Query(name = "ResumoDiarioChamado.getTempoMedioPorCategoria", nativeQuery = true)
+    List<RelatorioCategoriaDTO> getTempoMedioPorCategoria(@Param("inicio") LocalDate inicio,
+                                                          @Param("fim") LocalDate fim,
+                                                          @Param("mes") int mes);
+
+    @Query(value = "SELECT CAST(EXTRACT(MONTH FROM r.dia) AS integer) as mes, SUM(r.abertos) as totalChamados " +
+           "FROM resumo_diario_chamados r " +
+           "WHERE r.dia >= :inicio AND r.dia < :fim " +
+           "GROUP BY 1 HAVING SUM(r.abertos) > 0 ORDER BY 1", nativeQuery = true)
+    List<RelatorioMensalDTO> getChamadosPorMes(@Param("inicio") LocalDate inicio,
+                                               @Param("fim") LocalDate fim);
+
+    // ========== Distribuição automática ==========
+
+    /**
+     * [idTecnico, chamados] em andamento por técnico: a mesma base de
+     * {@link #getChamadosPorAnalista}, restrita aos status ativos e sem período.
+     */
+    @Query(value = "SELECT r.id_tecnico, SUM(r.abertos) FROM resumo_diario_chamados r " +
+           "WHERE r.id_tecnico <> 0 AND r.status IN (:ativos) " +
+           "GROUP BY r.id_tecnico HAVING SUM(r.abertos) > 0", nativeQuery = true)
+    List<Object[]> getCargaPorTecnico(@Param("ativos") List<String> ativos);
+
+    /**
+     * [idTecnico, categoria, fechados] de todo o histórico.
+     */
+    @Query(value = "SELECT r.id_tecnico, r.categoria, SUM(r.fechados) FROM resumo_diario_chamados r " +
+           "WHERE r.id_tecnico <> 0 " +
+           "GROUP BY r.id_tecnico, r.categoria HAVING SUM(r.fechados) > 0", nativeQuery = true)
+    List<Object[]> getResolvidosPorTecnicoECategoria();
+
+    // ========== Business Metrics ==========
+
+    @Query(value = "SELECT r.status, SUM(r.abertos) FROM resumo_diario_chamados r GROUP BY r.status", nativeQuery = true)
+    List<Object[]> countGroupedByStatus();
+
+    /**
+     * Contadores escalares das métricas de negócio. Apenas atrasados e críticos, que
+     * precisam de precisão em horas, consultam {@code chamados} (só os ativos).
+     */
+    @Query(value = "SELECT COALESCE(SUM(r.abertos), 0) AS total, " +
+           "COALESCE(SUM(r.abertos) FILTER (WHERE r.dia = :hoje), 0) AS criadosHoje, " +
+           "COALESCE(SUM(r.fechados) FILTER (WHERE r.dia = :hoje), 0) AS fechadosHoje, " +
+           "(SELECT COUNT(*) FROM chamados c WHERE c.status IN (:ativos) AND c.data_abertura < :limiteAtraso) AS atrasados, " +
+           "(SELECT COUNT(*) FROM chamados c WHERE c.status IN (:ativos) AND c.data_abertura < :limiteCritico) AS criticos, " +
+           "COALESCE(SUM(r.fechados_sla_violado), 0) AS slaViolado, " +
+           "CAST(SUM(r.duracao_segundos) AS double precision) / NULLIF(SUM(r.fechados), 0) / 60.0 AS mediaResolucaoMinutos, " +
+           "COUNT(DISTINCT r.id_tecnico) FILTER (WHERE r.id_tecnico <> 0 AND r.abertos > 0) AS tecnicosAtivos, " +
+           "COALESCE(SUM(r.abertos) FILTER (WHERE r.id_tecnico <> 0), 0) AS atribuidos, " +
+           "COALESCE(SUM(r.fechados) FILTER (WHERE r.dia > :inicioSemana), 0) AS fechadosSemana " +
+           "FROM resumo_diario_chamados r", nativeQuery = true)
+    MetricasResumoDTO getMetricasResumo(@Param("ativos") List<String> ativos,
+                                        @Param("hoje") LocalDate hoje,
+                                        @Param("inicioSemana") LocalDate inicioSemana,
+                                        @Param("limiteAtraso") LocalDateTime limiteAtraso,
+                                        @Param("limiteCritico") LocalDateTime limiteCritico);
+
+    /**
+     * Tendência diária [dia, criados, fechados, backlog] entre {@code inicio} e {@code fim} (inclusive).
+     *
+     * O backlog de cada dia é o saldo atual de abertos menos o saldo dos dias
+     * posteriores, acumulado com window function.
+     */
+    @Query(value = "WITH dias AS (" +
+           "  SELECT CAST(d AS date) AS dia FROM generate_series(CAST(:inicio AS date), CAST(:fim AS date), INTERVAL '1 day') AS d" +
+           "), por_dia AS (" +
+           "  SELECT r.dia, SUM(r.abertos) AS criados, SUM(r.fechados) AS fechados FROM resumo_diario_chamados r " +
+           "  WHERE r.dia >= :inicio AND r.dia <= :fim GROUP BY r.dia" +
+           "), saldo AS (" +
+           "  SELECT COALESCE(SUM(r.abertos) - SUM(r.fechados), 0) AS abertos_agora FROM resumo_diario_chamados r" +
+           ") " +
+           "SELECT d.dia, COALESCE(p.criados, 0), COALESCE(p.fechados, 0), " +
+           "(SELECT abertos_agora FROM saldo) - COALESCE(SUM(COALESCE(p.criados, 0) - COALESCE(p.fechados, 0)) " +
+           "  OVER (ORDER BY d.dia DESC ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) " +
+           "FROM dias d LEFT JOIN por_dia p ON p.dia = d.dia " +
+           "ORDER BY d.dia", nativeQuery = true)
+    List<Object[]> getTendenciaDiaria(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    @Query(value = "SELECT u.id, u.nome, SUM(r.abertos), SUM(r.fechados), " +
+           "CAST(SUM(r.duracao_segundos) AS double precision) / NULLIF(SUM(r.fechados), 0) / 60.0 " +
+           "FROM resumo_diario_chamados r JOIN usuarios u ON r.id_tecnico = u.id " +
+           "GROUP BY u.id, u.nome HAVING SUM(r.abertos) > 0 " +
+           "ORDER BY SUM(r.abertos) DESC", nativeQuery = true)
+    List<Object[]> getAnalystPerformance();
+
+    @Query(value = "SELECT r.categoria, SUM(r.abertos) FROM resumo_diario_chamados r " +
+           "GROUP BY r.categoria HAVING SUM(r.abertos) > 0 ORDER BY 2 DESC", nativeQuery = true)
+    List<Object[]> countTicketsByCategory();
+
+    @Query(value = "SELECT r.prioridade, SUM(r.abertos) FROM resumo_diario_chamados r " +
+           "GROUP BY r.prioridade HAVING SUM(r.abertos) > 0 ORDER BY 2 DESC", nativeQuery = true)
+    List<Object[]> countTicketsByPriority();
+}
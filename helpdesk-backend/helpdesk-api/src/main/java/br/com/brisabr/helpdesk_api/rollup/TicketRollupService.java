@@ -0,0 +1,218 @@
+package br.com.brisabr.helpdesk_api.rollup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantém o resumo diário de chamados ({@link ResumoDiarioChamado}).
+ *
+ * As transições de chamado chegam pela outbox de eventos ({@link TicketRollupSubscriber})
+ * e aplicam a diferença entre a contribuição anterior e a nova; só transições
+ * que fizeram commit entram no resumo, com alguns instantes de atraso. Uma
+ * reconstrução completa noturna corrige qualquer divergência (alterações feitas
+ * direto no banco, por exemplo).
+ *
+ * A reconstrução monta uma tabela nova ({@value #TABELA_NOVA}) sem bloquear a
+ * atual, que segue recebendo as transições, e só no fim troca uma pela outra.
+ */
+@Service
+public class TicketRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketRollupService.class);
+
+    private static final long SLA_SEGUNDOS = Duration.ofHours(72).toSeconds();
+
+    static final String TABELA = "resumo_diario_chamados";
+    static final String TABELA_NOVA = "resumo_diario_chamados_novo";
+
+    // Réplicas rodando o cron ao mesmo tempo: só uma reconstrói
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext('resumo_diario_chamados_reconstrucao'))";
+
+    /**
+     * Agrega os chamados na tabela nova e, no mesmo snapshot, guarda quais
+     * eventos da outbox já estavam visíveis e quais ainda não tinham sido entregues.
+     */
+    private static final String RECONSTRUIR_SQL = "WITH vistos AS (" +
+            "  INSERT INTO resumo_eventos_vistos (evento_id, pendente) " +
+            "  SELECT id, processado_em IS NULL FROM ticket_event_outbox" +
+            ") " +
+            "INSERT INTO " + TABELA_NOVA + " " +
+            "(dia, categoria, prioridade, id_tecnico, status, abertos, fechados, duracao_segundos, fechados_sla_violado) " +
+            "SELECT dia, categoria, prioridade, id_tecnico, status, SUM(abertos), SUM(fechados), SUM(duracao), SUM(sla_violado) FROM (" +
+            "  SELECT CAST(data_abertura AS date) AS dia, categoria, prioridade, COALESCE(id_tecnico_atribuido, 0) AS id_tecnico, status, " +
+            "         1 AS abertos, 0 AS fechados, 0 AS duracao, 0 AS sla_violado " +
+            "  FROM chamados WHERE data_abertura IS NOT NULL " +
+            "  UNION ALL " +
+            "  SELECT CAST(data_fechamento AS date), categoria, prioridade, COALESCE(id_tecnico_atribuido, 0), status, " +
+            "         0, 1, CAST(EXTRACT(EPOCH FROM (data_fechamento - data_abertura)) AS bigint), " +
+            "         CASE WHEN data_fechamento - data_abertura > INTERVAL '72 hours' THEN 1 ELSE 0 END " +
+            "  FROM chamados WHERE data_abertura IS NOT NULL AND data_fechamento IS NOT NULL" +
+            ") f GROUP BY dia, categoria, prioridade, id_tecnico, status";
+
+    private final ResumoDiarioChamadoRepository resumoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${rollup.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    @Value("${rollup.swap.lock-timeout-ms:10000}")
+    private long lockTimeoutMillis;
+
+    public TicketRollupService(ResumoDiarioChamadoRepository resumoRepository,
+                               JdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               TransactionTemplate transactionTemplate) {
+        this.resumoRepository = resumoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Popula o resumo na primeira inicialização após a criação da tabela, para
+     * que os relatórios não fiquem vazios até a reconstrução noturna.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (rebuildOnStartup && resumoRepository.count() == 0) {
+            transactionTemplate.executeWithoutResult(status -> reconstruir());
+        }
+    }
+
+    /**
+     * Atualiza o resumo para refletir a transição de um chamado.
+     *
+     * @param antes estado capturado antes da transição ({@code null} para chamados novos)
+     * @param depois estado do chamado depois da transição
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarTransicao(ChamadoRollupRecord antes, ChamadoRollupRecord depois) {
+        if (antes != null) {
+            acumular(antes, -1);
+        }
+        acumular(depois, 1);
+    }
+
+    /**
+     * Reconstrói o resumo a partir da tabela de chamados.
+     *
+     * A agregação, a parte demorada, preenche {@value #TABELA_NOVA} enquanto o
+     * resumo atual continua sendo lido e atualizado. A troca é curta e feita sob
+     * lock exclusivo, que espera as transições em andamento e segura as novas:
+     * <ul>
+     *   <li>eventos que a agregação já enxergou e ainda não tinham sido aplicados
+     *       são marcados como entregues; quando o dispatcher tenta aplicá-los, a
+     *       marca repetida desfaz a transação e o delta não é contado duas vezes;</li>
+     *   <li>as tabelas trocam de nome e a antiga é removida;</li>
+     *   <li>eventos que chegaram depois da agregação e já foram aplicados à tabela
+     *       antiga são aplicados de novo à nova.</li>
+     * </ul>
+     * Se o lock não vier em {@code rollup.swap.lock-timeout-ms} (um relatório
+     * longo lendo o resumo), a reconstrução é desfeita e o resumo atual fica.
+     */
+    @Scheduled(cron = "${rollup.reconcile.cron:0 30 2 * * *}")
+    @Transactional
+    public void reconstruir() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class))) {
+            logger.info("Resumo diário de chamados sendo reconstruído por outra instância");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int inseridas = montarTabelaNova();
+        long agregacao = System.currentTimeMillis() - start;
+        int reaplicados = trocarTabelas();
+        logger.info("Resumo diário de chamados reconstruído: {} linhas em {} ms ({} ms de troca, {} eventos reaplicados)",
+                inseridas, System.currentTimeMillis() - start, System.currentTimeMillis() - start - agregacao, reaplicados);
+    }
+
+    /**
+     * Primeira etapa da reconstrução: agrega os chamados em {@value #TABELA_NOVA}.
+     *
+     * @return linhas inseridas
+     */
+    int montarTabelaNova() {
+        jdbcTemplate.execute("CREATE TEMP TABLE resumo_eventos_vistos (evento_id bigint PRIMARY KEY, pendente boolean NOT NULL) " +
+                "ON COMMIT DROP");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABELA_NOVA);
+        jdbcTemplate.execute("CREATE TABLE " + TABELA_NOVA + " (LIKE " + TABELA + " INCLUDING DEFAULTS INCLUDING IDENTITY)");
+        int inseridas = jdbcTemplate.update(RECONSTRUIR_SQL);
+        // Índices depois da carga; nomes provisórios até a tabela antiga sair
+        jdbcTemplate.execute("ALTER TABLE " + TABELA_NOVA +
+                " ADD CONSTRAINT " + TABELA_NOVA + "_pkey PRIMARY KEY (id)," +
+                " ADD CONSTRAINT uk_resumo_diario_chave_novo UNIQUE (dia, categoria, prioridade, id_tecnico, status)");
+        jdbcTemplate.execute("ANALYZE " + TABELA_NOVA);
+        return inseridas;
+    }
+
+    /**
+     * Segunda etapa da reconstrução: troca as tabelas sob lock.
+     *
+     * @return eventos aplicados de novo à tabela nova
+     */
+    int trocarTabelas() {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMillis);
+        jdbcTemplate.execute("LOCK TABLE " + TABELA + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.update("INSERT INTO ticket_event_entregas (evento_id, assinante, entregue_em) " +
+                "SELECT evento_id, ?, now() FROM resumo_eventos_vistos WHERE pendente ON CONFLICT DO NOTHING",
+                TicketRollupSubscriber.NOME);
+        List<Map<String, Object>> posteriores = jdbcTemplate.queryForList(
+                "SELECT o.estado_anterior, o.estado_novo FROM ticket_event_entregas e " +
+                "JOIN ticket_event_outbox o ON o.id = e.evento_id " +
+                "WHERE e.assinante = ? AND NOT EXISTS (SELECT 1 FROM resumo_eventos_vistos v WHERE v.evento_id = e.evento_id) " +
+                "ORDER BY o.id", TicketRollupSubscriber.NOME);
+        jdbcTemplate.execute("DROP TABLE " + TABELA);
+        jdbcTemplate.execute("ALTER TABLE " + TABELA_NOVA + " RENAME TO " + TABELA);
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " RENAME CONSTRAINT " + TABELA_NOVA + "_pkey TO " + TABELA + "_pkey");
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " RENAME CONSTRAINT uk_resumo_diario_chave_novo TO uk_resumo_diario_chave");
+        jdbcTemplate.execute("ALTER SEQUENCE IF EXISTS " + TABELA_NOVA + "_id_seq RENAME TO " + TABELA + "_id_seq");
+        for (Map<String, Object> evento : posteriores) {
+            if (evento.get("estado_novo") != null) {
+                registrarTransicao(estado(evento.get("estado_anterior")), estado(evento.get("estado_novo")));
+            }
+        }
+        return posteriores.size();
+    }
+
+    private ChamadoRollupRecord estado(Object json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json.toString(), ChamadoRollupRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Estado de chamado ilegível na outbox: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private void acumular(ChamadoRollupRecord chamado, int sinal) {
+        if (chamado.dataAbertura() == null) {
+            return;
+        }
+        resumoRepository.acumular(chamado.dataAbertura().toLocalDate(), chamado.categoria(), chamado.prioridade(),
+                chamado.idTecnico(), chamado.status(), sinal, 0, 0, 0);
+
+        if (chamado.dataFechamento() != null) {
+            long duracao = Duration.between(chamado.dataAbertura(), chamado.dataFechamento()).toSeconds();
+            resumoRepository.acumular(chamado.dataFechamento().toLocalDate(), chamado.categoria(), chamado.prioridade(),
+                    chamado.idTecnico(), chamado.status(), 0, sinal, sinal * duracao,
+                    duracao > SLA_SEGUNDOS ? sinal : 0);
+        }
+    }
+}
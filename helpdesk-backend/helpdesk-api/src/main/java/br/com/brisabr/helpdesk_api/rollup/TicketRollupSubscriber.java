@@ -0,0 +1,36 @@
+package br.com.brisabr.helpdesk_api.rollup;
+
+import br.com.brisabr.helpdesk_api.events.TicketEventEnvelope;
+import br.com.brisabr.helpdesk_api.events.TicketEventSubscriber;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aplica ao resumo diário a diferença entre o estado do chamado antes e depois
+ * de cada transição gravada na outbox.
+ */
+@Component
+public class TicketRollupSubscriber implements TicketEventSubscriber {
+
+    /**
+     * Nome nas marcas de entrega; a reconstrução do resumo marca os eventos pendentes com ele.
+     */
+    public static final String NOME = "rollup";
+
+    private final TicketRollupService ticketRollupService;
+
+    public TicketRollupSubscriber(TicketRollupService ticketRollupService) {
+        this.ticketRollupService = ticketRollupService;
+    }
+
+    @Override
+    public String nome() {
+        return NOME;
+    }
+
+    @Override
+    public void onEvent(TicketEventEnvelope envelope) {
+        if (envelope.depois() != null) {
+            ticketRollupService.registrarTransicao(envelope.antes(), envelope.depois());
+        }
+    }
+}
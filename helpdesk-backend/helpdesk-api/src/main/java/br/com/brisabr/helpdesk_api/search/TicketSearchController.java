@@ -0,0 +1,81 @@
+package br.com.brisabr.helpdesk_api.search;
+
+import br.com.brisabr.helpdesk_api.ratelimit.RateLimit;
+import br.com.brisabr.helpdesk_api.user.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Busca textual de chamados.
+ *
+ * Endpoints:
+ * - GET /api/tickets/search - Busca por termos na descrição, solução e comentários
+ *
+ * Mesmo limite de requisições da listagem de chamados.
+ */
+@RestController
+@RequestMapping("/api/tickets/search")
+@RateLimit(requestsPerMinute = 120, type = RateLimit.LimitType.PER_USER, roles = {
+        @RateLimit.RoleLimit(role = "TECHNICIAN", requestsPerMinute = 600),
+        @RateLimit.RoleLimit(role = "MANAGER", requestsPerMinute = 600),
+        @RateLimit.RoleLimit(role = "ADMIN", requestsPerMinute = 600)
+})
+public class TicketSearchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketSearchController.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final TicketSearchService searchService;
+
+    public TicketSearchController(TicketSearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /**
+     * Busca chamados pelos termos, do mais relevante para o menos relevante.
+     *
+     * O termo aceita a sintaxe de busca web: palavras (todas obrigatórias),
+     * {@code "frase exata"}, {@code or} e {@code -excluir}. Palavras são
+     * comparadas pelo radical em português ("impressoras" encontra "impressora").
+     *
+     * @param q Termo de busca (até 200 caracteres)
+     * @param size Itens por página (1 a 100)
+     * @param user Usuário autenticado
+     * @return Página com o chamado, a relevância e os trechos destacados
+     *
+     * Exemplos:
+     * - GET /api/tickets/search?q=impressora
+     * - GET /api/tickets/search?q="sem acesso" vpn&status=Aberto&page=0&size=20
+     * - GET /api/tickets/search?q=senha -email&categoria=Rede&dataInicial=2025-01-01
+     */
+    @GetMapping
+    public ResponseEntity<Page<TicketSearchHit>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicial,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFinal,
+            @RequestParam(defaultValue = "abertura") String tipoData,
+            @RequestParam(required = false) Long tecnicoId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal User user) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        logger.debug("Busca textual de tickets: page={}, size={}, usuário={}", page, pageSize, user.getEmail());
+        TicketSearchService.Filtros filtros = new TicketSearchService.Filtros(
+                dataInicial, dataFinal, tipoData, status, categoria, tecnicoId);
+        return ResponseEntity.ok(searchService.buscar(q, filtros, PageRequest.of(Math.max(page, 0), pageSize), user));
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.brisabr.helpdesk_api.search;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Documento de busca textual de um chamado ({@code chamados_busca}).
+ *
+ * Gravado só por SQL nativo ({@link TicketSearchRepository#indexar}); a entidade
+ * existe para que a consulta de busca faça o join em Criteria, ao lado da
+ * {@code TicketSpecification}. O {@code tsvector} nunca é lido pela aplicação.
+ */
+@Entity
+@Table(name = "chamados_busca")
+@Getter
+public class TicketSearchDocument {
+
+    @Id
+    @Column(name = "id_chamado")
+    private Long idChamado;
+
+    @Column(nullable = false, columnDefinition = "tsvector", insertable = false, updatable = false)
+    private String documento;
+
+    @Column(name = "atualizado_em", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime atualizadoEm;
+}
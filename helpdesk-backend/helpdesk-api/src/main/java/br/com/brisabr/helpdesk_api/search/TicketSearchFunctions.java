@@ -0,0 +1,46 @@
+package br.com.brisabr.helpdesk_api.search;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Funções de busca textual do PostgreSQL para HQL e Criteria, registradas em
+ * {@code META-INF/services}:
+ * <ul>
+ *   <li>{@code busca_corresponde(documento, termo)}: {@code documento @@ websearch_to_tsquery(...)},
+ *       a forma que usa o índice GIN;</li>
+ *   <li>{@code busca_relevancia(documento, termo)}: {@code ts_rank_cd} normalizado para 0..1.</li>
+ * </ul>
+ *
+ * O termo segue a sintaxe de {@code websearch_to_tsquery}: palavras, "frases
+ * entre aspas", {@code or} e {@code -exclusão}.
+ *
+ * Em outros bancos (o H2 dos testes, onde {@code tsvector} é um VARCHAR) as
+ * funções viram uma busca por substring com relevância constante, o bastante
+ * para exercitar filtros, candidatos e paginação da busca.
+ */
+public class TicketSearchFunctions implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry tipos = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        if (!(functionContributions.getDialect() instanceof PostgreSQLDialect)) {
+            String contem = "lower(?1) like concat('%', lower(?2), '%')";
+            functionContributions.getFunctionRegistry().registerPattern("busca_corresponde",
+                    "(" + contem + ")", tipos.resolve(StandardBasicTypes.BOOLEAN));
+            functionContributions.getFunctionRegistry().registerPattern("busca_relevancia",
+                    "(case when " + contem + " then 1e0 else 0e0 end)", tipos.resolve(StandardBasicTypes.DOUBLE));
+            return;
+        }
+        functionContributions.getFunctionRegistry().registerPattern("busca_corresponde",
+                "(?1 @@ websearch_to_tsquery('" + TicketSearchRepository.DICIONARIO + "', ?2))",
+                tipos.resolve(StandardBasicTypes.BOOLEAN));
+        // Normalização 32: rank / (rank + 1)
+        functionContributions.getFunctionRegistry().registerPattern("busca_relevancia",
+                "ts_rank_cd(?1, websearch_to_tsquery('" + TicketSearchRepository.DICIONARIO + "', ?2), 32)",
+                tipos.resolve(StandardBasicTypes.DOUBLE));
+    }
+}
@@ -0,0 +1,23 @@
+package br.com.brisabr.helpdesk_api.search;
+
+import br.com.brisabr.helpdesk_api.ticket.TicketListItemRecord;
+
+/**
+ * Chamado encontrado pela busca textual.
+ *
+ * Os trechos vêm com o HTML escapado e os termos encontrados entre
+ * {@code <mark>} e {@code </mark>}, prontos para exibir.
+ *
+ * @param relevancia de 0 a 1; descrição pesa mais que solução, que pesa mais que comentários
+ * @param descricao trecho da descrição (o começo, se o termo está só em outro campo)
+ * @param solucao trecho da solução, ou {@code null} se o termo não aparece nela
+ * @param comentario trecho do comentário mais recente com o termo, ou {@code null}
+ */
+public record TicketSearchHit(
+    TicketListItemRecord chamado,
+    double relevancia,
+    String descricao,
+    String solucao,
+    String comentario
+) {
+}
@@ -0,0 +1,86 @@
+package br.com.brisabr.helpdesk_api.search;
+
+import br.com.brisabr.helpdesk_api.events.TicketEventEnvelope;
+import br.com.brisabr.helpdesk_api.events.TicketEventSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Mantém {@code chamados_busca} em dia a partir da outbox de eventos.
+ *
+ * Todo evento de chamado (abertura, atribuição, resolução, reabertura,
+ * comentário) recalcula o documento do chamado na transação da entrega; o
+ * chamado aparece na busca alguns instantes depois do commit.
+ *
+ * Na subida, os chamados que ainda não têm documento (todos, na primeira vez)
+ * são indexados em segundo plano, em lotes de {@code search.backfill.batch-size}
+ * com uma transação por lote.
+ */
+@Component
+@ConditionalOnProperty(name = "search.index.enabled", havingValue = "true", matchIfMissing = true)
+public class TicketSearchIndexer implements TicketEventSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketSearchIndexer.class);
+
+    private final TicketSearchRepository searchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${search.backfill.batch-size:1000}")
+    private int tamanhoLote;
+
+    public TicketSearchIndexer(TicketSearchRepository searchRepository, TransactionTemplate transactionTemplate) {
+        this.searchRepository = searchRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public String nome() {
+        return "busca";
+    }
+
+    @Override
+    public void onEvent(TicketEventEnvelope envelope) {
+        searchRepository.indexar(envelope.evento().ticketId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        Thread.ofVirtual().name("busca-backfill").start(this::indexarPendentes);
+    }
+
+    /**
+     * Indexa, por faixas de id, os chamados sem documento.
+     *
+     * @return quantidade de chamados indexados
+     */
+    public long indexarPendentes() {
+        long start = System.currentTimeMillis();
+        long indexados = 0;
+        long depois = 0;
+        try {
+            while (true) {
+                long inicioFaixa = depois;
+                Long ate = searchRepository.findFimDoLote(inicioFaixa, tamanhoLote);
+                if (ate == null) {
+                    break;
+                }
+                Integer inseridos = transactionTemplate.execute(status -> searchRepository.indexarPendentes(inicioFaixa, ate));
+                indexados += inseridos == null ? 0 : inseridos;
+                depois = ate;
+            }
+        } catch (DataAccessException e) {
+            logger.error("Falha ao indexar chamados para a busca a partir do id {}: {}", depois, e.getMessage());
+        }
+        if (indexados > 0) {
+            logger.info("Busca textual: {} chamados indexados em {} ms", indexados, System.currentTimeMillis() - start);
+        }
+        return indexados;
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.brisabr.helpdesk_api.search;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Manutenção e leitura de {@code chamados_busca}.
+ *
+ * O documento de cada chamado é sempre recalculado a partir de {@code chamados}
+ * e {@code historico_chamados}, então reindexar o mesmo chamado de novo (entrega
+ * repetida de um evento) não muda nada.
+ */
+@Repository
+public interface TicketSearchRepository extends JpaRepository<TicketSearchDocument, Long> {
+
+    /**
+     * Dicionário do PostgreSQL usado no índice e nas consultas; trocar exige reindexar tudo.
+     */
+    String DICIONARIO = "portuguese";
+
+    /**
+     * Número e descrição com peso A, solução com peso B, comentários com peso C.
+     */
+    String DOCUMENTO = "setweight(to_tsvector('" + DICIONARIO + "', c.numero_chamado || ' ' || c.descricao), 'A') || " +
+            "setweight(to_tsvector('" + DICIONARIO + "', COALESCE(c.solucao, '')), 'B') || " +
+            "setweight(to_tsvector('" + DICIONARIO + "', COALESCE((SELECT string_agg(h.comentario, ' ') " +
+            "FROM historico_chamados h WHERE h.id_chamado = c.id), '')), 'C')";
+
+    /**
+     * Marcadores devolvidos por {@code ts_headline} em volta dos termos encontrados;
+     * o serviço escapa o texto e troca os dois por {@code <mark>}.
+     */
+    String INICIO_DESTAQUE = "⟦";
+    String FIM_DESTAQUE = "⟧";
+
+    String OPCOES_DESTAQUE = "StartSel=" + INICIO_DESTAQUE + ", StopSel=" + FIM_DESTAQUE +
+            ", MaxWords=30, MinWords=12, MaxFragments=2, FragmentDelimiter=\" ... \"";
+
+    @Modifying
+    @Query(value = "INSERT INTO chamados_busca (id_chamado, documento, atualizado_em) " +
+           "SELECT c.id, " + DOCUMENTO + ", now() FROM chamados c WHERE c.id = :id " +
+           "ON CONFLICT (id_chamado) DO UPDATE SET documento = EXCLUDED.documento, atualizado_em = EXCLUDED.atualizado_em",
+           nativeQuery = true)
+    int indexar(@Param("id") Long id);
+
+    /**
+     * Indexa os chamados com id em {@code (depois, ate]} que ainda não têm documento.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO chamados_busca (id_chamado, documento, atualizado_em) " +
+           "SELECT c.id, " + DOCUMENTO + ", now() FROM chamados c " +
+           "WHERE c.id > :depois AND c.id <= :ate " +
+           "AND NOT EXISTS (SELECT 1 FROM chamados_busca b WHERE b.id_chamado = c.id) " +
+           "ON CONFLICT (id_chamado) DO NOTHING", nativeQuery = true)
+    int indexarPendentes(@Param("depois") long depois, @Param("ate") long ate);
+
+    /**
+     * Último id dos próximos {@code lote} chamados depois de {@code depois}
+     * ({@code null} quando não há mais), para percorrer a tabela em faixas pelo índice.
+     */
+    @Query(value = "SELECT max(l.id) FROM (SELECT c.id FROM chamados c WHERE c.id > :depois ORDER BY c.id LIMIT :lote) l",
+           nativeQuery = true)
+    Long findFimDoLote(@Param("depois") long depois, @Param("lote") int lote);
+
+    /**
+     * [id, descrição, solução, comentário] com os termos marcados. A descrição
+     * sempre vem (o começo do texto, se o termo está em outro campo); solução e
+     * comentário só quando contêm o termo. Do comentário vem o mais recente que contém.
+     */
+    @Query(value = "SELECT c.id, " +
+           "ts_headline('" + DICIONARIO + "', c.descricao, q, '" + OPCOES_DESTAQUE + "'), " +
+           "CASE WHEN to_tsvector('" + DICIONARIO + "', COALESCE(c.solucao, '')) @@ q " +
+           "     THEN ts_headline('" + DICIONARIO + "', c.solucao, q, '" + OPCOES_DESTAQUE + "') END, " +
+           "(SELECT ts_headline('" + DICIONARIO + "', h.comentario, q, '" + OPCOES_DESTAQUE + "') " +
+           " FROM historico_chamados h WHERE h.id_chamado = c.id AND to_tsvector('" + DICIONARIO + "', h.comentario) @@ q " +
+           " ORDER BY h.data_ocorrencia DESC LIMIT 1) " +
+           "FROM chamados c, websearch_to_tsquery('" + DICIONARIO + "', :termo) q " +
+           "WHERE c.id IN (:ids)", nativeQuery = true)
+    List<Object[]> destacar(@Param("ids") Collection<Long> ids, @Param("termo") String termo);
+}
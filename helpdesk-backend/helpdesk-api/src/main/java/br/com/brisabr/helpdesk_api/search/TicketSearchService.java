@@ -0,0 +1,217 @@
+package br.com.brisabr.helpdesk_api.search;
+
+import br.com.brisabr.helpdesk_api.ticket.Ticket;
+import br.com.brisabr.helpdesk_api.ticket.TicketListItemRecord;
+import br.com.brisabr.helpdesk_api.ticket.TicketRepository;
+import br.com.brisabr.helpdesk_api.ticket.TicketSpecification;
+import br.com.brisabr.helpdesk_api.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.query.criteria.JpaEntityJoin;
+import org.hibernate.query.criteria.JpaRoot;
+import org.hibernate.query.criteria.JpaSubQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Busca textual nos chamados: descrição, solução e comentários.
+ *
+ * <ul>
+ *   <li>Os termos são casados contra {@code chamados_busca} (tsvector com o
+ *       dicionário portuguese e índice GIN), no mesmo SQL que aplica os filtros
+ *       de {@link TicketSpecification#withFilters}.</li>
+ *   <li>A relevância ({@code ts_rank_cd}, que lê o documento inteiro) só é
+ *       calculada para os {@code search.rank.max-candidates} chamados mais
+ *       recentes que casam com o termo e os filtros; termos que casam com
+ *       boa parte da base não ranqueiam a base inteira. O total também para aí.</li>
+ *   <li>A página vem ordenada por relevância, depois do mais recente para o
+ *       mais antigo.</li>
+ *   <li>Os trechos destacados só são calculados para os chamados da página.</li>
+ * </ul>
+ *
+ * Aplica as mesmas regras de visibilidade da listagem: usuário comum só
+ * encontra os próprios chamados.
+ */
+@Service
+public class TicketSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketSearchService.class);
+
+    static final int MAX_TERMO = 200;
+
+    private final EntityManager entityManager;
+    private final TicketRepository ticketRepository;
+    private final TicketSearchRepository searchRepository;
+    private final int maxCandidatos;
+
+    public TicketSearchService(EntityManager entityManager,
+                               TicketRepository ticketRepository,
+                               TicketSearchRepository searchRepository,
+                               @Value("${search.rank.max-candidates:1000}") int maxCandidatos) {
+        this.entityManager = entityManager;
+        this.ticketRepository = ticketRepository;
+        this.searchRepository = searchRepository;
+        this.maxCandidatos = maxCandidatos;
+    }
+
+    /**
+     * Filtros opcionais da busca, com o mesmo significado dos do relatório detalhado.
+     */
+    public record Filtros(LocalDate dataInicial, LocalDate dataFinal, String tipoData,
+                          String status, String categoria, Long tecnicoId) {
+    }
+
+    @Transactional(readOnly = true)
+    public Page<TicketSearchHit> buscar(String termo, Filtros filtros, Pageable pageable, User user) {
+        if (termo == null || termo.isBlank()) {
+            throw new IllegalArgumentException("Informe o termo de busca");
+        }
+        if (termo.length() > MAX_TERMO) {
+            throw new IllegalArgumentException("O termo de busca deve ter no máximo " + MAX_TERMO + " caracteres");
+        }
+        Long solicitanteId;
+        switch (user.getPerfil().toLowerCase()) {
+            case "admin", "manager", "technician" -> solicitanteId = null;
+            case "user" -> solicitanteId = user.getId();
+            default -> {
+                return Page.empty(pageable);
+            }
+        }
+
+        long inicio = System.currentTimeMillis();
+        String consulta = termo.trim();
+        Specification<Ticket> spec = TicketSpecification.withFilters(filtros.dataInicial(), filtros.dataFinal(),
+                filtros.tipoData(), filtros.status(), filtros.categoria(), null, null, solicitanteId, filtros.tecnicoId());
+
+        List<Object[]> pagina = entityManager.createQuery(paginaQuery(spec))
+                .setParameter("termo", consulta)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        if (pagina.isEmpty()) {
+            long total = pageable.getOffset() == 0 ? 0 : contar(spec, consulta);
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+        long total = pagina.size() < pageable.getPageSize() && pageable.getOffset() == 0
+                ? pagina.size() : contar(spec, consulta);
+
+        List<Long> ids = pagina.stream().map(linha -> (Long) linha[0]).toList();
+        Map<Long, TicketListItemRecord> itens = ticketRepository.findListItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(TicketListItemRecord::id, Function.identity()));
+        Map<Long, Object[]> trechos = new HashMap<>();
+        for (Object[] linha : searchRepository.destacar(ids, consulta)) {
+            trechos.put(((Number) linha[0]).longValue(), linha);
+        }
+
+        List<TicketSearchHit> resultado = new ArrayList<>(pagina.size());
+        for (Object[] linha : pagina) {
+            Long id = (Long) linha[0];
+            TicketListItemRecord item = itens.get(id);
+            if (item == null) {
+                continue;
+            }
+            Object[] trecho = trechos.getOrDefault(id, new Object[4]);
+            resultado.add(new TicketSearchHit(item, ((Number) linha[1]).doubleValue(),
+                    destacar((String) trecho[1]), destacar((String) trecho[2]), destacar((String) trecho[3])));
+        }
+        logger.debug("Busca \"{}\": {} de {} chamados em {} ms", consulta, resultado.size(), total,
+                System.currentTimeMillis() - inicio);
+        return new PageImpl<>(resultado, pageable, total);
+    }
+
+    /**
+     * [id, relevância] da página: os candidatos, join com o documento e ordem por relevância.
+     */
+    private CriteriaQuery<Object[]> paginaQuery(Specification<Ticket> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Ticket> root = query.from(Ticket.class);
+        JpaEntityJoin<TicketSearchDocument> documento = documento(root, cb);
+        ParameterExpression<String> termo = cb.parameter(String.class, "termo");
+        Expression<Double> relevancia = cb.function("busca_relevancia", Double.class, documento.get("documento"), termo);
+
+        query.multiselect(root.get("id"), relevancia);
+        query.where(root.get("id").in(candidatos(spec, query, cb, termo)));
+        query.orderBy(cb.desc(relevancia), cb.desc(root.get("dataAbertura")), cb.desc(root.get("id")));
+        return query;
+    }
+
+    private long contar(Specification<Ticket> spec, String consulta) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Ticket> root = query.from(Ticket.class);
+        ParameterExpression<String> termo = cb.parameter(String.class, "termo");
+
+        query.select(cb.count(root));
+        query.where(root.get("id").in(candidatos(spec, query, cb, termo)));
+        return entityManager.createQuery(query).setParameter("termo", consulta).getSingleResult();
+    }
+
+    /**
+     * Ids dos chamados que casam com o termo (índice GIN) e os filtros, os
+     * {@code maxCandidatos} mais recentes, sem calcular relevância.
+     */
+    private Subquery<Long> candidatos(Specification<Ticket> spec, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                      ParameterExpression<String> termo) {
+        JpaSubQuery<Long> subquery = (JpaSubQuery<Long>) query.subquery(Long.class);
+        Root<Ticket> root = subquery.from(Ticket.class);
+        JpaEntityJoin<TicketSearchDocument> documento = documento(root, cb);
+
+        subquery.select(root.get("id"));
+        subquery.where(filtros(spec, root, query, cb, documento, termo));
+        subquery.orderBy(cb.desc(root.get("dataAbertura")), cb.desc(root.get("id")));
+        return subquery.fetch(maxCandidatos);
+    }
+
+    private static JpaEntityJoin<TicketSearchDocument> documento(Root<Ticket> root, CriteriaBuilder cb) {
+        JpaEntityJoin<TicketSearchDocument> documento = ((JpaRoot<Ticket>) root).join(TicketSearchDocument.class);
+        documento.on(cb.equal(documento.get("idChamado"), root.get("id")));
+        return documento;
+    }
+
+    private static Predicate[] filtros(Specification<Ticket> spec, Root<Ticket> root, CriteriaQuery<?> query,
+                                       CriteriaBuilder cb, JpaEntityJoin<TicketSearchDocument> documento,
+                                       ParameterExpression<String> termo) {
+        List<Predicate> predicados = new ArrayList<>();
+        predicados.add(cb.isTrue(cb.function("busca_corresponde", Boolean.class, documento.get("documento"), termo)));
+        Predicate predicado = spec.toPredicate(root, query, cb);
+        if (predicado != null) {
+            predicados.add(predicado);
+        }
+        return predicados.toArray(new Predicate[0]);
+    }
+
+    /**
+     * Escapa o trecho e troca os marcadores de {@code ts_headline} por {@code <mark>}.
+     */
+    static String destacar(String trecho) {
+        if (trecho == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(trecho)
+                .replace(TicketSearchRepository.INICIO_DESTAQUE, "<mark>")
+                .replace(TicketSearchRepository.FIM_DESTAQUE, "</mark>");
+    }
+}
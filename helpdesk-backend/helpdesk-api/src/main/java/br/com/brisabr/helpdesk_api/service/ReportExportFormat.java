@@ -0,0 +1,34 @@
+package br.com.brisabr.helpdesk_api.service;
+
+/**
+ * Formatos suportados na exportação do relatório detalhado.
+ */
+public enum ReportExportFormat {
+    CSV("text/csv;charset=UTF-8", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extensao;
+
+    ReportExportFormat(String contentType, String extensao) {
+        this.contentType = contentType;
+        this.extensao = extensao;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    public static ReportExportFormat fromString(String formato) {
+        for (ReportExportFormat value : values()) {
+            if (value.extensao.equalsIgnoreCase(formato)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Formato de exportação inválido: " + formato + " (use csv ou ndjson)");
+    }
+}
@@ -0,0 +1,139 @@
+package br.com.brisabr.helpdesk_api.service;
+
+import br.com.brisabr.helpdesk_api.ticket.TicketListItemRecord;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Escreve linhas do relatório detalhado diretamente no stream de saída,
+ * uma por vez, sem acumular o resultado em memória.
+ *
+ * {@link #close()} apenas descarrega o buffer; o stream de saída pertence a quem o criou.
+ */
+public abstract class ReportRowWriter implements Closeable {
+
+    static final String[] COLUNAS = {
+            "id", "numeroChamado", "categoria", "prioridade", "status",
+            "dataAbertura", "dataFechamento", "slaDeadline", "foiReaberto",
+            "nomeSolicitante", "nomeTecnicoAtribuido", "descricao", "solucao"
+    };
+
+    public static ReportRowWriter of(ReportExportFormat formato, OutputStream out) throws IOException {
+        return switch (formato) {
+            case CSV -> new Csv(out);
+            case NDJSON -> new Ndjson(out);
+        };
+    }
+
+    public abstract void write(TicketListItemRecord linha) throws IOException;
+
+    private static String texto(LocalDateTime value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * CSV (RFC 4180) com cabeçalho. Campos de texto iniciados por =, +, - ou @
+     * recebem um apóstrofo para não serem interpretados como fórmula em planilhas.
+     */
+    private static final class Csv extends ReportRowWriter {
+
+        private final Writer writer;
+
+        Csv(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", COLUNAS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(TicketListItemRecord linha) throws IOException {
+            writer.write(String.valueOf(linha.id()));
+            cell(linha.numeroChamado());
+            cell(linha.categoria());
+            cell(linha.prioridade());
+            cell(linha.status());
+            cell(texto(linha.dataAbertura()));
+            cell(texto(linha.dataFechamento()));
+            cell(texto(linha.slaDeadline()));
+            cell(String.valueOf(linha.foiReaberto()));
+            cell(linha.nomeSolicitante());
+            cell(linha.nomeTecnicoAtribuido());
+            cell(linha.descricao());
+            cell(linha.solucao());
+            writer.write("\r\n");
+        }
+
+        private void cell(String value) throws IOException {
+            writer.write(',');
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            char first = value.charAt(0);
+            if (first == '=' || first == '+' || first == '-' || first == '@') {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Um objeto JSON por linha, com os mesmos nomes de campo da API de chamados.
+     */
+    private static final class Ndjson extends ReportRowWriter {
+
+        private static final JsonFactory JSON_FACTORY = new JsonFactory()
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        private final JsonGenerator generator;
+
+        Ndjson(OutputStream out) throws IOException {
+            this.generator = JSON_FACTORY.createGenerator(out);
+        }
+
+        @Override
+        public void write(TicketListItemRecord linha) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField(COLUNAS[0], linha.id());
+            generator.writeStringField(COLUNAS[1], linha.numeroChamado());
+            generator.writeStringField(COLUNAS[2], linha.categoria());
+            generator.writeStringField(COLUNAS[3], linha.prioridade());
+            generator.writeStringField(COLUNAS[4], linha.status());
+            generator.writeStringField(COLUNAS[5], texto(linha.dataAbertura()));
+            generator.writeStringField(COLUNAS[6], texto(linha.dataFechamento()));
+            generator.writeStringField(COLUNAS[7], texto(linha.slaDeadline()));
+            generator.writeBooleanField(COLUNAS[8], linha.foiReaberto());
+            generator.writeStringField(COLUNAS[9], linha.nomeSolicitante());
+            generator.writeStringField(COLUNAS[10], linha.nomeTecnicoAtribuido());
+            generator.writeStringField(COLUNAS[11], linha.descricao());
+            generator.writeStringField(COLUNAS[12], linha.solucao());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
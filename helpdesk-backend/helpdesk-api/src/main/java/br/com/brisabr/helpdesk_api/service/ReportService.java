@@ -3,14 +3,31 @@ package br.com.brisabr.helpdesk_api.service;
 import br.com.brisabr.helpdesk_api.dto.RelatorioAnalistaDTO;
 import br.com.brisabr.helpdesk_api.dto.RelatorioCategoriaDTO;
 import br.com.brisabr.helpdesk_api.dto.RelatorioMensalDTO;
+import br.com.brisabr.helpdesk_api.rollup.ResumoDiarioChamadoRepository;
 import br.com.brisabr.helpdesk_api.ticket.Ticket;
-import br.com.brisabr.helpdesk_api.ticket.TicketRepository;
+import br.com.brisabr.helpdesk_api.ticket.TicketListItemRecord;
 import br.com.brisabr.helpdesk_api.ticket.TicketSpecification;
+import br.com.brisabr.helpdesk_api.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.SelectionQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -19,16 +36,27 @@ import java.util.List;
  * 
  * Fornece estatísticas agregadas sobre chamados, desempenho de analistas
  * e tempos médios por categoria.
+ *
+ * Os relatórios agregados leem o resumo diário ({@code resumo_diario_chamados}),
+ * filtrando por intervalo de datas em vez de EXTRACT sobre a tabela de chamados.
  */
 @Service
 public class ReportService {
     
     private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
 
-    private final TicketRepository ticketRepository;
+    private static final LocalDate INICIO_SEM_FILTRO = LocalDate.of(1970, 1, 1);
+    private static final LocalDate FIM_SEM_FILTRO = LocalDate.of(9999, 1, 1);
 
-    public ReportService(TicketRepository ticketRepository) {
-        this.ticketRepository = ticketRepository;
+    private final ResumoDiarioChamadoRepository resumoRepository;
+    private final EntityManager entityManager;
+
+    @Value("${report.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    public ReportService(ResumoDiarioChamadoRepository resumoRepository, EntityManager entityManager) {
+        this.resumoRepository = resumoRepository;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -40,7 +68,8 @@ public class ReportService {
      */
     public List<RelatorioAnalistaDTO> getChamadosPorAnalista(Integer ano, Integer mes) {
         logger.info("Gerando relatório de chamados por analista - Ano: {}, Mês: {}", ano, mes);
-        List<RelatorioAnalistaDTO> resultado = ticketRepository.getChamadosPorAnalista(ano, mes);
+        List<RelatorioAnalistaDTO> resultado = resumoRepository.getChamadosPorAnalista(
+                inicioPeriodo(ano, mes), fimPeriodo(ano, mes), mesSemAno(ano, mes));
         logger.debug("Relatório gerado com {} analistas", resultado.size());
         return resultado;
     }
@@ -54,7 +83,8 @@ public class ReportService {
      */
     public List<RelatorioCategoriaDTO> getTempoMedioPorCategoria(Integer ano, Integer mes) {
         logger.info("Gerando relatório de tempo médio por categoria - Ano: {}, Mês: {}", ano, mes);
-        List<RelatorioCategoriaDTO> resultado = ticketRepository.getTempoMedioPorCategoria(ano, mes);
+        List<RelatorioCategoriaDTO> resultado = resumoRepository.getTempoMedioPorCategoria(
+                inicioPeriodo(ano, mes), fimPeriodo(ano, mes), mesSemAno(ano, mes));
         logger.debug("Relatório gerado com {} categorias", resultado.size());
         return resultado;
     }
@@ -67,7 +97,8 @@ public class ReportService {
      */
     public List<RelatorioMensalDTO> getChamadosPorMes(Integer ano) {
         logger.info("Gerando relatório mensal de chamados - Ano: {}", ano);
-        List<RelatorioMensalDTO> resultado = ticketRepository.getChamadosPorMes(ano);
+        List<RelatorioMensalDTO> resultado = resumoRepository.getChamadosPorMes(
+                inicioPeriodo(ano, null), fimPeriodo(ano, null));
         logger.debug("Relatório gerado com {} meses", resultado.size());
         return resultado;
     }
@@ -85,9 +116,10 @@ public class ReportService {
      * @param solicitanteId ID do solicitante
      * @param tecnicoId ID do técnico
      * @param ordenarPor Campo para ordenação
-     * @return Lista de tickets que atendem aos critérios
+     * @return Lista de tickets que atendem aos critérios, na visão resumida
      */
-    public List<Ticket> getDetailedReport(
+    @Transactional(readOnly = true)
+    public List<TicketListItemRecord> getDetailedReport(
             LocalDate dataInicial, LocalDate dataFinal, String tipoData, String status,
             String categoria, String unidade, String local, Long solicitanteId, Long tecnicoId, String ordenarPor) {
         
@@ -98,6 +130,75 @@ public class ReportService {
             dataInicial, dataFinal, tipoData, status, categoria, unidade, local, solicitanteId, tecnicoId
         );
 
+        return entityManager.createQuery(detailedReportQuery(spec, ordenarPor)).getResultList();
+    }
+
+    /**
+     * Exporta o relatório detalhado no formato pedido, escrevendo cada linha
+     * direto em {@code out}.
+     *
+     * A consulta seleciona apenas colunas escalares (sem histórico nem anexos) e é
+     * percorrida com um cursor forward-only, buscando {@code report.export.fetch-size}
+     * linhas por vez; o consumo de memória não depende do tamanho do relatório.
+     *
+     * @return Quantidade de linhas exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportDetailedReport(
+            LocalDate dataInicial, LocalDate dataFinal, String tipoData, String status,
+            String categoria, String unidade, String local, Long solicitanteId, Long tecnicoId, String ordenarPor,
+            ReportExportFormat formato, OutputStream out) throws IOException {
+
+        long start = System.currentTimeMillis();
+        Specification<Ticket> spec = TicketSpecification.withFilters(
+            dataInicial, dataFinal, tipoData, status, categoria, unidade, local, solicitanteId, tecnicoId
+        );
+
+        @SuppressWarnings("unchecked")
+        SelectionQuery<TicketListItemRecord> selection = entityManager
+                .createQuery(detailedReportQuery(spec, ordenarPor))
+                .unwrap(SelectionQuery.class);
+        long linhas = 0;
+        try (ScrollableResults<TicketListItemRecord> rows = selection
+                     .setReadOnly(true)
+                     .setFetchSize(exportFetchSize)
+                     .scroll(ScrollMode.FORWARD_ONLY);
+             ReportRowWriter writer = ReportRowWriter.of(formato, out)) {
+            while (rows.next()) {
+                writer.write(rows.get());
+                linhas++;
+            }
+        }
+
+        logger.info("Relatório detalhado exportado em {}: {} linhas em {} ms",
+                    formato, linhas, System.currentTimeMillis() - start);
+        return linhas;
+    }
+
+    /**
+     * Consulta do relatório detalhado na visão resumida: uma linha por chamado com
+     * os nomes do solicitante e do técnico, sem histórico nem anexos.
+     */
+    private CriteriaQuery<TicketListItemRecord> detailedReportQuery(Specification<Ticket> spec, String ordenarPor) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TicketListItemRecord> query = cb.createQuery(TicketListItemRecord.class);
+        Root<Ticket> root = query.from(Ticket.class);
+        Join<Ticket, User> solicitante = root.join("solicitante", JoinType.LEFT);
+        Join<Ticket, User> atribuido = root.join("atribuido", JoinType.LEFT);
+        query.select(cb.construct(TicketListItemRecord.class,
+                root.get("id"), root.get("numeroChamado"), root.get("categoria"), root.get("prioridade"),
+                root.get("status"), root.get("dataAbertura"), root.get("dataFechamento"), root.get("slaDeadline"),
+                root.get("foiReaberto"), solicitante.get("nome"), atribuido.get("nome"),
+                root.get("descricao"), root.get("solucao")));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(detailedReportSort(ordenarPor), root, cb));
+        return query;
+    }
+
+    private Sort detailedReportSort(String ordenarPor) {
         Sort sort = Sort.by(Sort.Direction.DESC, "id");
         if (ordenarPor != null && !ordenarPor.isEmpty()) {
             if ("numero".equalsIgnoreCase(ordenarPor)) {
@@ -110,7 +211,33 @@ public class ReportService {
                 sort = Sort.by(Sort.Direction.DESC, "dataAbertura");
             }
         }
+        return sort;
+    }
 
-        return ticketRepository.findAll(spec, sort);
+    /**
+     * Primeiro dia do período (inclusive): o mês informado, o ano inteiro ou sem limite.
+     */
+    private LocalDate inicioPeriodo(Integer ano, Integer mes) {
+        if (ano == null) {
+            return INICIO_SEM_FILTRO;
+        }
+        return LocalDate.of(ano, mes != null ? mes : 1, 1);
+    }
+
+    /**
+     * Dia seguinte ao fim do período (exclusivo).
+     */
+    private LocalDate fimPeriodo(Integer ano, Integer mes) {
+        if (ano == null) {
+            return FIM_SEM_FILTRO;
+        }
+        return mes != null ? LocalDate.of(ano, mes, 1).plusMonths(1) : LocalDate.of(ano + 1, 1, 1);
+    }
+
+    /**
+     * Filtro de mês usado apenas quando não há ano (mesmo mês em todos os anos); 0 = sem filtro.
+     */
+    private int mesSemAno(Integer ano, Integer mes) {
+        return (ano == null && mes != null) ? mes : 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,266 @@
+package br.com.brisabr.helpdesk_api.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Storage com deduplicação por conteúdo: cada arquivo é gravado uma única vez,
+ * com a chave derivada do SHA-256 ({@code sha256/ab/abcdef...}).
+ *
+ * O upload é gravado num arquivo temporário enquanto o hash é calculado (ou
+ * aproveitado de quem já o calcula na leitura, como a validação de uploads);
+ * se o conteúdo já existe, o temporário é descartado e a chave existente é devolvida.
+ * Como vários anexos podem compartilhar o mesmo arquivo, {@link #release} não
+ * apaga nada: os arquivos sem nenhum anexo apontando para eles são removidos
+ * pela coleta de órfãos ({@code AnexoConteudoGcService}).
+ *
+ * Chaves antigas (estrutura por data do {@link LocalFileStorageService})
+ * continuam sendo lidas e removidas normalmente.
+ */
+@Primary
+@Service
+public class ContentAddressedFileStorageService implements FileStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentAddressedFileStorageService.class);
+
+    /**
+     * Prefixo das chaves deduplicadas.
+     */
+    public static final String KEY_PREFIX = "sha256/";
+
+    private static final int LOCK_STRIPES = 64;
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final LocalFileStorageService local;
+    private final Path rootLocation;
+    private final Path contentLocation;
+    private final Path tempLocation;
+    // Serializa, por hash, o reaproveitamento de um arquivo e a sua remoção (coleta de órfãos, quarentena).
+    // ReentrantLock e não synchronized: o upload roda em virtual threads e faz I/O com o lock.
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public ContentAddressedFileStorageService(LocalFileStorageService local) {
+        this.local = local;
+        this.rootLocation = local.getFilePath("");
+        this.contentLocation = rootLocation.resolve(KEY_PREFIX);
+        this.tempLocation = rootLocation.resolve(".tmp");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+
+        try {
+            Files.createDirectories(contentLocation);
+            Files.createDirectories(tempLocation);
+        } catch (IOException e) {
+            throw new RuntimeException("Não foi possível criar diretório de armazenamento", e);
+        }
+    }
+
+    @Override
+    public String store(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Não é possível armazenar arquivo vazio");
+        }
+
+        try (InputStream inputStream = file.getInputStream()) {
+            return store(inputStream, file.getOriginalFilename());
+        }
+    }
+
+    @Override
+    public String store(InputStream content, String originalFilename) throws IOException {
+        MessageDigest sha256 = newSha256();
+        return store(new DigestInputStream(content, sha256), originalFilename,
+                () -> HexFormat.of().formatHex(sha256.digest()));
+    }
+
+    @Override
+    public String store(InputStream content, String originalFilename, Supplier<String> sha256) throws IOException {
+        if (originalFilename == null || originalFilename.contains("..")) {
+            throw new IllegalArgumentException("Nome de arquivo inválido: " + originalFilename);
+        }
+
+        Path temporario = Files.createTempFile(tempLocation, "upload-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporario)) {
+                content.transferTo(out);
+            }
+            String hash = sha256.get();
+            if (hash == null || !SHA256_HEX.matcher(hash).matches()) {
+                // O hash vira caminho no disco
+                throw new IllegalStateException("SHA-256 inválido para " + originalFilename + ": " + hash);
+            }
+            String chave = KEY_PREFIX + hash.substring(0, 2) + "/" + hash;
+            Path destino = getFilePath(chave);
+
+            ReentrantLock lock = lockFor(chave);
+            lock.lock();
+            try {
+                if (Files.exists(destino)) {
+                    // Renovar a data protege o arquivo da coleta até o novo anexo ser gravado
+                    Files.setLastModifiedTime(destino, FileTime.from(Instant.now()));
+                    logger.info("Conteúdo já armazenado, reaproveitando: {} ({})", chave, originalFilename);
+                } else {
+                    Files.createDirectories(destino.getParent());
+                    Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+                    logger.info("Arquivo armazenado: {} ({})", destino, originalFilename);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return chave;
+        } finally {
+            // Conteúdo rejeitado no meio da cópia ou duplicado: o temporário não é mais necessário
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    @Override
+    public byte[] load(String fileId) throws IOException {
+        return local.load(fileId);
+    }
+
+    @Override
+    public Resource loadAsResource(String fileId) throws IOException {
+        return local.loadAsResource(fileId);
+    }
+
+    @Override
+    public Path getFilePath(String fileId) {
+        return local.getFilePath(fileId);
+    }
+
+    /**
+     * Remove o arquivo na hora, mesmo que outros anexos o compartilhem (conteúdo
+     * infectado). Chaves deduplicadas são removidas sob o mesmo lock do
+     * reaproveitamento, para não sumirem no meio de um upload do mesmo conteúdo.
+     */
+    @Override
+    public void delete(String fileId) throws IOException {
+        if (!fileId.startsWith(KEY_PREFIX)) {
+            local.delete(fileId);
+            return;
+        }
+        ReentrantLock lock = lockFor(fileId);
+        lock.lock();
+        try {
+            local.delete(fileId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Arquivos deduplicados podem ser compartilhados por outros anexos; só os
+     * de chave antiga são removidos na hora.
+     */
+    @Override
+    public void release(String fileId) throws IOException {
+        if (!fileId.startsWith(KEY_PREFIX)) {
+            local.delete(fileId);
+        }
+    }
+
+    @Override
+    public boolean exists(String fileId) {
+        return local.exists(fileId);
+    }
+
+    /**
+     * Chaves dos arquivos deduplicados que não foram gravados nem reaproveitados
+     * desde {@code olderThan}. O stream deve ser fechado.
+     */
+    public Stream<String> listContentOlderThan(Instant olderThan) throws IOException {
+        return Files.walk(contentLocation, 2)
+                .filter(Files::isRegularFile)
+                .filter(arquivo -> lastModified(arquivo).isBefore(olderThan))
+                .map(arquivo -> rootLocation.relativize(arquivo).toString().replace('\\', '/'));
+    }
+
+    /**
+     * Remove o arquivo se ele continua sem ser reaproveitado desde {@code olderThan}.
+     *
+     * @return {@code false} se um upload reaproveitou o arquivo nesse meio-tempo
+     */
+    public boolean deleteIfUnusedSince(String fileId, Instant olderThan) throws IOException {
+        if (!fileId.startsWith(KEY_PREFIX)) {
+            throw new IllegalArgumentException("Chave não deduplicada: " + fileId);
+        }
+        Path arquivo = getFilePath(fileId);
+        ReentrantLock lock = lockFor(fileId);
+        lock.lock();
+        try {
+            if (!Files.exists(arquivo) || !lastModified(arquivo).isBefore(olderThan)) {
+                return false;
+            }
+            Files.delete(arquivo);
+            logger.info("Arquivo órfão removido: {}", arquivo);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove temporários esquecidos por uploads interrompidos (queda da aplicação).
+     *
+     * @return quantidade de temporários removidos
+     */
+    public int purgeTemporaryFiles(Instant olderThan) throws IOException {
+        int removidos = 0;
+        try (Stream<Path> temporarios = Files.list(tempLocation)) {
+            for (Path temporario : (Iterable<Path>) temporarios::iterator) {
+                if (lastModified(temporario).isBefore(olderThan) && Files.deleteIfExists(temporario)) {
+                    removidos++;
+                }
+            }
+        }
+        return removidos;
+    }
+
+    private ReentrantLock lockFor(String chave) {
+        return locks[Math.floorMod(chave.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static Instant lastModified(Path arquivo) {
+        try {
+            return Files.getLastModifiedTime(arquivo).toInstant();
+        } catch (NoSuchFileException e) {
+            // Removido por outra coleta ou upload concluído; não é candidato
+            return Instant.MAX;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
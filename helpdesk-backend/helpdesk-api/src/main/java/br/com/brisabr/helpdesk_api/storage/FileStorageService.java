@@ -1,8 +1,11 @@
 package br.com.brisabr.helpdesk_api.storage;
 
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.function.Supplier;
 
 /**
  * Interface para serviços de armazenamento de arquivos.
@@ -19,6 +22,27 @@ public interface FileStorageService {
      */
     String store(MultipartFile file) throws IOException;
     
+    /**
+     * Armazena o conteúdo de um stream sem carregá-lo inteiro em memória.
+     * 
+     * @param content Stream com o conteúdo (não é fechado por este método)
+     * @param originalFilename Nome original do arquivo
+     * @return Identificador único do arquivo armazenado
+     * @throws IOException Se houver erro no armazenamento
+     */
+    String store(InputStream content, String originalFilename) throws IOException;
+    
+    /**
+     * Como {@link #store(InputStream, String)}, para quem já calcula o SHA-256
+     * enquanto o stream é lido: implementações que usam o hash o pedem a
+     * {@code sha256} depois de ler o conteúdo até o fim, em vez de calculá-lo de novo.
+     * 
+     * @param sha256 SHA-256 do conteúdo em hexadecimal, válido após a leitura completa
+     */
+    default String store(InputStream content, String originalFilename, Supplier<String> sha256) throws IOException {
+        return store(content, originalFilename);
+    }
+    
     /**
      * Carrega um arquivo como bytes.
      * 
@@ -28,6 +52,16 @@ public interface FileStorageService {
      */
     byte[] load(String fileId) throws IOException;
     
+    /**
+     * Carrega um arquivo como {@link Resource} para envio em streaming,
+     * permitindo que o Spring atenda requisições com HTTP Range.
+     * 
+     * @param fileId Identificador do arquivo
+     * @return Resource apontando para o arquivo
+     * @throws IOException Se o arquivo não existir
+     */
+    Resource loadAsResource(String fileId) throws IOException;
+    
     /**
      * Obtém o caminho completo para um arquivo.
      * 
@@ -44,6 +78,17 @@ public interface FileStorageService {
      */
     void delete(String fileId) throws IOException;
     
+    /**
+     * Libera o arquivo de um anexo que não será mais usado (rollback, upload rejeitado).
+     * Implementações que compartilham arquivos entre anexos podem adiar a remoção.
+     * 
+     * @param fileId Identificador do arquivo
+     * @throws IOException Se houver erro na exclusão
+     */
+    default void release(String fileId) throws IOException {
+        delete(fileId);
+    }
+    
     /**
      * Verifica se um arquivo existe.
      * 
@@ -3,6 +3,8 @@ package br.com.brisabr.helpdesk_api.storage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -25,6 +27,9 @@ import java.util.UUID;
  * - Melhor performance de queries
  * - Facilita backup incremental
  * - Possibilita migração futura para S3/Azure Blob
+ * 
+ * Os uploads novos passam pelo {@link ContentAddressedFileStorageService}, que
+ * deduplica por conteúdo e usa esta classe para ler as chaves antigas.
  */
 @Service
 public class LocalFileStorageService implements FileStorageService {
@@ -50,13 +55,23 @@ public class LocalFileStorageService implements FileStorageService {
             throw new IllegalArgumentException("Não é possível armazenar arquivo vazio");
         }
         
-        String originalFilename = file.getOriginalFilename();
+        try (InputStream inputStream = file.getInputStream()) {
+            return store(inputStream, file.getOriginalFilename());
+        }
+    }
+    
+    @Override
+    public String store(InputStream content, String originalFilename) throws IOException {
         if (originalFilename == null || originalFilename.contains("..")) {
             throw new IllegalArgumentException("Nome de arquivo inválido: " + originalFilename);
         }
         
+        // Alguns navegadores enviam o caminho completo; manter apenas o nome
+        String filename = originalFilename.substring(
+                Math.max(originalFilename.lastIndexOf('/'), originalFilename.lastIndexOf('\\')) + 1);
+        
         // Gerar nome único: UUID + nome original
-        String fileId = UUID.randomUUID().toString() + "_" + originalFilename;
+        String fileId = UUID.randomUUID().toString() + "_" + filename;
         
         // Criar estrutura de diretórios por data (YYYY/MM/DD)
         java.time.LocalDate today = java.time.LocalDate.now();
@@ -76,11 +91,15 @@ public class LocalFileStorageService implements FileStorageService {
             throw new SecurityException("Tentativa de armazenar arquivo fora do diretório permitido");
         }
         
-        // Copiar arquivo
-        try (InputStream inputStream = file.getInputStream()) {
-            Files.copy(inputStream, destinationFile, StandardCopyOption.REPLACE_EXISTING);
-            logger.info("Arquivo armazenado: {}", destinationFile);
+        // Copiar em blocos direto para o disco, sem materializar o arquivo em memória
+        try {
+            Files.copy(content, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            // Conteúdo rejeitado no meio da cópia (tamanho, assinatura): não deixar arquivo parcial
+            Files.deleteIfExists(destinationFile);
+            throw e;
         }
+        logger.info("Arquivo armazenado: {}", destinationFile);
         
         // Retornar caminho relativo como ID
         return rootLocation.relativize(destinationFile).toString().replace('\\', '/');
@@ -97,6 +116,18 @@ public class LocalFileStorageService implements FileStorageService {
         return Files.readAllBytes(file);
     }
     
+    @Override
+    public Resource loadAsResource(String fileId) throws IOException {
+        Path file = getFilePath(fileId);
+        
+        if (!file.startsWith(rootLocation) || !Files.isReadable(file)) {
+            throw new IOException("Arquivo não encontrado: " + fileId);
+        }
+        
+        // FileSystemResource expõe um FileChannel, o que permite leitura por regiões (HTTP Range)
+        return new FileSystemResource(file);
+    }
+    
     @Override
     public Path getFilePath(String fileId) {
         return rootLocation.resolve(fileId).normalize().toAbsolutePath();
@@ -17,10 +17,28 @@ public class AnexoChamado {
     @Column(name = "tipo_arquivo", nullable = false)
     private String tipoArquivo;
 
+    /**
+     * Conteúdo em Base64 de anexos legados. Novos anexos ficam no
+     * {@link br.com.brisabr.helpdesk_api.storage.FileStorageService} e só guardam a chave.
+     */
     @Lob
-    @Column(name = "dados", nullable = false, columnDefinition = "TEXT")
+    @Column(name = "dados", columnDefinition = "TEXT")
     private String dados;
 
+    @Column(name = "chave_armazenamento", length = 512)
+    private String chaveArmazenamento;
+
+    @Column(name = "tamanho")
+    private Long tamanho;
+
+    // SHA-256 do conteúdo (hex), calculado na mesma leitura que grava o arquivo
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "verificacao", length = 20)
+    private VerificacaoAntivirus verificacao;
+
     @Column(name = "data_upload", nullable = false)
     private ZonedDateTime dataUpload;
 
@@ -42,6 +60,15 @@ public class AnexoChamado {
     public void setTipoArquivo(String tipoArquivo) { this.tipoArquivo = tipoArquivo; }
     public String getDados() { return dados; }
     public void setDados(String dados) { this.dados = dados; }
+    public String getChaveArmazenamento() { return chaveArmazenamento; }
+    public void setChaveArmazenamento(String chaveArmazenamento) { this.chaveArmazenamento = chaveArmazenamento; }
+    public Long getTamanho() { return tamanho; }
+    public void setTamanho(Long tamanho) { this.tamanho = tamanho; }
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+    public VerificacaoAntivirus getVerificacao() { return verificacao; }
+    public void setVerificacao(VerificacaoAntivirus verificacao) { this.verificacao = verificacao; }
+    public boolean isLiberado() { return verificacao == null || verificacao == VerificacaoAntivirus.LIBERADO; }
     public ZonedDateTime getDataUpload() { return dataUpload; }
     public void setDataUpload(ZonedDateTime dataUpload) { this.dataUpload = dataUpload; }
     public Ticket getTicket() { return ticket; }
@@ -1,5 +1,8 @@
 package br.com.brisabr.helpdesk_api.ticket;
 
+import br.com.brisabr.helpdesk_api.exception.AttachmentNotFoundException;
+import br.com.brisabr.helpdesk_api.exception.AttachmentQuarantinedException;
+import br.com.brisabr.helpdesk_api.storage.FileStorageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ByteArrayResource;
@@ -12,6 +15,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.Base64;
 
 /**
@@ -29,14 +33,21 @@ public class AnexoChamadoController {
     private static final Logger logger = LoggerFactory.getLogger(AnexoChamadoController.class);
 
     private final TicketService ticketService;
+    private final FileStorageService fileStorageService;
 
-    public AnexoChamadoController(TicketService ticketService) {
+    public AnexoChamadoController(TicketService ticketService, FileStorageService fileStorageService) {
         this.ticketService = ticketService;
+        this.fileStorageService = fileStorageService;
     }
 
     /**
      * Realiza download de um anexo de ticket.
      *
+     * Anexos no storage são enviados em streaming direto do arquivo, e o Spring
+     * responde com 206 (Partial Content) quando a requisição traz o header Range.
+     * Anexos legados, ainda em Base64 no banco, são decodificados em memória.
+     * Anexos em quarentena só são liberados depois do scan antivírus (409 até lá).
+     *
      * @param id ID do anexo
      * @return Arquivo para download
      */
@@ -45,16 +56,30 @@ public class AnexoChamadoController {
         logger.info("Download de anexo solicitado: ID={}", id);
 
         AnexoChamado anexo = ticketService.getAnexoById(id);
-        byte[] dadosDecodificados = Base64.getDecoder().decode(anexo.getDados());
-        ByteArrayResource resource = new ByteArrayResource(dadosDecodificados);
+        if (anexo.getVerificacao() == VerificacaoAntivirus.PENDENTE) {
+            throw new AttachmentQuarantinedException("Anexo " + id + " ainda está em verificação antivírus. Tente novamente em instantes.");
+        }
+        if (!anexo.isLiberado()) {
+            throw new AttachmentQuarantinedException("Anexo " + id + " foi bloqueado pelo antivírus");
+        }
+        Resource resource;
+        if (anexo.getChaveArmazenamento() != null) {
+            try {
+                resource = fileStorageService.loadAsResource(anexo.getChaveArmazenamento());
+            } catch (IOException e) {
+                throw new AttachmentNotFoundException("Conteúdo do anexo " + id + " não encontrado no armazenamento", e);
+            }
+        } else {
+            resource = new ByteArrayResource(Base64.getDecoder().decode(anexo.getDados()));
+        }
 
         logger.debug("Anexo recuperado: arquivo={}, tamanho={} bytes",
-                    anexo.getNomeArquivo(), dadosDecodificados.length);
+                    anexo.getNomeArquivo(), anexo.getTamanho());
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=\"" + anexo.getNomeArquivo() + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                 .contentType(MediaType.parseMediaType(anexo.getTipoArquivo()))
-                .contentLength(dadosDecodificados.length)
                 .body(resource);
     }
 }
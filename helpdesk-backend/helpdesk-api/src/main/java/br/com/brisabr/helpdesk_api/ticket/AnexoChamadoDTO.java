@@ -5,11 +5,13 @@ public class AnexoChamadoDTO {
     private Long id;
     private String nomeArquivo;
     private String tipoArquivo;
+    private VerificacaoAntivirus verificacao;
 
     public AnexoChamadoDTO(AnexoChamado anexo) {
         this.id = anexo.getId();
         this.nomeArquivo = anexo.getNomeArquivo();
         this.tipoArquivo = anexo.getTipoArquivo();
+        this.verificacao = anexo.getVerificacao();
     }
 
     // Getters
@@ -24,4 +26,8 @@ public class AnexoChamadoDTO {
     public String getTipoArquivo() {
         return tipoArquivo;
     }
+
+    public VerificacaoAntivirus getVerificacao() {
+        return verificacao;
+    }
 }
@@ -1,8 +1,65 @@
 package br.com.brisabr.helpdesk_api.ticket;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 @Repository
 public interface AnexoChamadoRepository extends JpaRepository<AnexoChamado, Long> {
-}
\ No newline at end of file
+
+    /**
+     * IDs de anexos legados que ainda guardam o conteúdo em Base64 no banco.
+     */
+    @Query("SELECT a.id FROM AnexoChamado a WHERE a.chaveArmazenamento IS NULL AND a.dados IS NOT NULL ORDER BY a.id")
+    List<Long> findLegacyIds(Pageable pageable);
+
+    /**
+     * IDs de anexos em quarentena enviados antes de {@code enviadosAntes}, para repetir o scan.
+     */
+    @Query("SELECT a.id FROM AnexoChamado a WHERE a.verificacao = :verificacao AND a.dataUpload < :enviadosAntes ORDER BY a.id")
+    List<Long> findIdsByVerificacao(@Param("verificacao") VerificacaoAntivirus verificacao,
+                                    @Param("enviadosAntes") ZonedDateTime enviadosAntes,
+                                    Pageable pageable);
+
+    /**
+     * Entre as chaves informadas, as que ainda são usadas por algum anexo não
+     * infectado (coleta de órfãos). Anexos infectados não seguram o arquivo: um
+     * upload que regravou o conteúdo depois da quarentena não o deixa no disco.
+     */
+    @Query("SELECT DISTINCT a.chaveArmazenamento FROM AnexoChamado a WHERE a.chaveArmazenamento IN :chaves " +
+           "AND (a.verificacao IS NULL OR a.verificacao <> br.com.brisabr.helpdesk_api.ticket.VerificacaoAntivirus.INFECTADO)")
+    Set<String> findReferencedKeys(@Param("chaves") Collection<String> chaves);
+
+    /**
+     * Se algum anexo com o arquivo informado já tem a verificação informada (conteúdo já declarado infectado).
+     */
+    boolean existsByChaveArmazenamentoAndVerificacao(String chaveArmazenamento, VerificacaoAntivirus verificacao);
+
+    /**
+     * Soma do tamanho dos anexos com chave no prefixo informado, contando cada anexo.
+     */
+    @Query("SELECT COALESCE(SUM(a.tamanho), 0) FROM AnexoChamado a WHERE a.chaveArmazenamento LIKE :prefixo")
+    long sumSizeByKeyPrefix(@Param("prefixo") String prefixo);
+
+    /**
+     * Soma do tamanho dos arquivos com chave no prefixo informado, contando cada arquivo uma vez.
+     */
+    @Query("SELECT COALESCE(SUM(a.tamanho), 0) FROM AnexoChamado a WHERE a.id IN " +
+           "(SELECT MIN(b.id) FROM AnexoChamado b WHERE b.chaveArmazenamento LIKE :prefixo GROUP BY b.chaveArmazenamento)")
+    long sumDistinctSizeByKeyPrefix(@Param("prefixo") String prefixo);
+
+    /**
+     * Marca todos os anexos que compartilham o arquivo (deduplicação) com a mesma verificação.
+     */
+    @Modifying
+    @Query("UPDATE AnexoChamado a SET a.verificacao = :verificacao WHERE a.chaveArmazenamento = :chave")
+    int updateVerificacaoByChave(@Param("chave") String chave, @Param("verificacao") VerificacaoAntivirus verificacao);
+}
@@ -0,0 +1,152 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import br.com.brisabr.helpdesk_api.storage.ContentAddressedFileStorageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Coleta de órfãos do storage deduplicado ({@link ContentAddressedFileStorageService}).
+ *
+ * A contagem de referências de cada arquivo são as linhas de {@link AnexoChamado}
+ * com a mesma chave: um arquivo sem nenhuma linha apontando para ele (rollback,
+ * upload rejeitado) é removido, desde que não tenha sido gravado nem reaproveitado
+ * dentro do período de carência, que cobre os uploads ainda não commitados.
+ *
+ * A cada passada também atualiza as métricas de deduplicação
+ * ({@code helpdesk.storage.dedup.ratio} e {@code helpdesk.storage.dedup.bytes.saved}).
+ */
+@Service
+public class AnexoConteudoGcService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnexoConteudoGcService.class);
+
+    private static final String PREFIXO = ContentAddressedFileStorageService.KEY_PREFIX + "%";
+
+    private final AnexoChamadoRepository anexoChamadoRepository;
+    private final ContentAddressedFileStorageService storage;
+    private final AtomicLong bytesAnexos = new AtomicLong();
+    private final AtomicLong bytesArmazenados = new AtomicLong();
+    private final Counter orfaosRemovidos;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${file.storage.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.storage.gc.grace-period-ms:3600000}")
+    private long gracePeriodMillis;
+
+    @Value("${file.storage.gc.batch-size:500}")
+    private int batchSize;
+
+    public AnexoConteudoGcService(
+            AnexoChamadoRepository anexoChamadoRepository,
+            ContentAddressedFileStorageService storage,
+            MeterRegistry meterRegistry) {
+        this.anexoChamadoRepository = anexoChamadoRepository;
+        this.storage = storage;
+        this.meterRegistry = meterRegistry;
+        this.orfaosRemovidos = Counter.builder("helpdesk.storage.gc.removed")
+                .description("Arquivos órfãos removidos do storage")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Os gauges guardam referência ao serviço; só são registrados depois de construído.
+     */
+    @PostConstruct
+    public void registrarMetricas() {
+        Gauge.builder("helpdesk.storage.dedup.ratio", this, AnexoConteudoGcService::getRatio)
+                .description("Bytes de anexos por byte efetivamente armazenado (1 = sem duplicatas)")
+                .register(meterRegistry);
+        Gauge.builder("helpdesk.storage.dedup.bytes.saved", this, AnexoConteudoGcService::getBytesSaved)
+                .description("Bytes que a deduplicação evitou gravar no storage")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Remove os arquivos órfãos e atualiza as métricas de deduplicação.
+     */
+    @Scheduled(initialDelayString = "${file.storage.gc.initial-delay-ms:120000}",
+               fixedDelayString = "${file.storage.gc.interval-ms:3600000}")
+    public void coletarOrfaos() {
+        if (!enabled) {
+            return;
+        }
+
+        Instant antesDe = Instant.now().minus(Duration.ofMillis(gracePeriodMillis));
+        try {
+            int removidos = coletar(antesDe);
+            int temporarios = storage.purgeTemporaryFiles(antesDe);
+            if (removidos > 0 || temporarios > 0) {
+                logger.info("Coleta do storage: {} arquivo(s) órfão(s) e {} temporário(s) removidos", removidos, temporarios);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Falha na coleta de órfãos do storage: {}", e.getMessage());
+        }
+        atualizarEstatisticas();
+    }
+
+    int coletar(Instant antesDe) throws IOException {
+        int removidos = 0;
+        try (Stream<String> candidatos = storage.listContentOlderThan(antesDe)) {
+            Iterator<String> it = candidatos.iterator();
+            List<String> lote = new ArrayList<>(batchSize);
+            while (it.hasNext()) {
+                lote.add(it.next());
+                if (lote.size() == batchSize || !it.hasNext()) {
+                    removidos += removerNaoReferenciados(lote, antesDe);
+                    lote.clear();
+                }
+            }
+        }
+        return removidos;
+    }
+
+    private int removerNaoReferenciados(List<String> chaves, Instant antesDe) throws IOException {
+        Set<String> referenciadas = anexoChamadoRepository.findReferencedKeys(chaves);
+        int removidos = 0;
+        for (String chave : chaves) {
+            if (!referenciadas.contains(chave) && storage.deleteIfUnusedSince(chave, antesDe)) {
+                removidos++;
+            }
+        }
+        orfaosRemovidos.increment(removidos);
+        return removidos;
+    }
+
+    void atualizarEstatisticas() {
+        try {
+            bytesAnexos.set(anexoChamadoRepository.sumSizeByKeyPrefix(PREFIXO));
+            bytesArmazenados.set(anexoChamadoRepository.sumDistinctSizeByKeyPrefix(PREFIXO));
+        } catch (RuntimeException e) {
+            logger.warn("Não foi possível atualizar as métricas de deduplicação: {}", e.getMessage());
+        }
+    }
+
+    double getRatio() {
+        long armazenados = bytesArmazenados.get();
+        return armazenados == 0 ? 1.0 : (double) bytesAnexos.get() / armazenados;
+    }
+
+    long getBytesSaved() {
+        return bytesAnexos.get() - bytesArmazenados.get();
+    }
+}
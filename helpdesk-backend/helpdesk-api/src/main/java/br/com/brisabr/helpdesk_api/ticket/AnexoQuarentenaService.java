@@ -0,0 +1,170 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import br.com.brisabr.helpdesk_api.antivirus.AntivirusScanner;
+import br.com.brisabr.helpdesk_api.antivirus.ScanResult;
+import br.com.brisabr.helpdesk_api.storage.FileStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scan em segundo plano dos anexos em quarentena
+ * ({@code file.upload.antivirus.mode=quarantine}).
+ *
+ * O chamado é criado com os anexos em {@link VerificacaoAntivirus#PENDENTE}; depois
+ * do commit os arquivos são lidos do storage e escaneados em paralelo. Anexos
+ * limpos são liberados para download; infectados têm o conteúdo removido do
+ * storage (e os demais anexos que compartilham o arquivo são marcados junto).
+ * Uploads do mesmo conteúdo commitados depois do veredito já entram como
+ * infectados; os que estavam em andamento herdam o resultado na próxima
+ * verificação, quando o arquivo não existe mais.
+ * Se o clamd estiver fora do ar, os anexos continuam pendentes e a
+ * varredura periódica tenta de novo.
+ */
+@Service
+public class AnexoQuarentenaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnexoQuarentenaService.class);
+
+    private final AnexoChamadoRepository anexoChamadoRepository;
+    private final FileStorageService fileStorageService;
+    private final AntivirusScanner antivirusScanner;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${file.upload.antivirus.quarantine.retry-after-ms:120000}")
+    private long retryAfterMillis;
+
+    @Value("${file.upload.antivirus.quarantine.batch-size:20}")
+    private int batchSize;
+
+    public AnexoQuarentenaService(
+            AnexoChamadoRepository anexoChamadoRepository,
+            FileStorageService fileStorageService,
+            AntivirusScanner antivirusScanner,
+            TransactionTemplate transactionTemplate) {
+        this.anexoChamadoRepository = anexoChamadoRepository;
+        this.fileStorageService = fileStorageService;
+        this.antivirusScanner = antivirusScanner;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Novos anexos entram em quarentena em vez de serem escaneados no upload.
+     */
+    public boolean isAtiva() {
+        return antivirusScanner.isQuarantineMode();
+    }
+
+    /**
+     * Escaneia os anexos recém-criados, fora da thread da requisição.
+     */
+    @Async
+    public void verificarAposCommit(List<Long> ids) {
+        verificar(ids);
+    }
+
+    /**
+     * Repete o scan de anexos que ficaram pendentes (clamd indisponível, reinício da aplicação).
+     */
+    @Scheduled(initialDelayString = "${file.upload.antivirus.quarantine.retry-interval-ms:60000}",
+               fixedDelayString = "${file.upload.antivirus.quarantine.retry-interval-ms:60000}")
+    public void verificarPendentes() {
+        if (!antivirusScanner.isQuarantineMode()) {
+            return;
+        }
+        ZonedDateTime enviadosAntes = ZonedDateTime.now().minus(Duration.ofMillis(retryAfterMillis));
+        List<Long> ids = anexoChamadoRepository.findIdsByVerificacao(
+                VerificacaoAntivirus.PENDENTE, enviadosAntes, PageRequest.of(0, batchSize));
+        if (!ids.isEmpty()) {
+            logger.info("Quarentena: repetindo o scan de {} anexo(s) pendente(s)", ids.size());
+            verificar(ids);
+        }
+    }
+
+    void verificar(List<Long> ids) {
+        List<AnexoChamado> pendentes = new ArrayList<>();
+        List<Resource> conteudos = new ArrayList<>();
+        for (AnexoChamado anexo : anexoChamadoRepository.findAllById(ids)) {
+            if (anexo.getVerificacao() != VerificacaoAntivirus.PENDENTE) {
+                continue;
+            }
+            try {
+                conteudos.add(fileStorageService.loadAsResource(anexo.getChaveArmazenamento()));
+                pendentes.add(anexo);
+            } catch (IOException e) {
+                marcarSemConteudo(anexo);
+            }
+        }
+        if (pendentes.isEmpty()) {
+            return;
+        }
+
+        List<ScanResult> resultados;
+        try {
+            resultados = antivirusScanner.scanAll(conteudos);
+        } catch (IOException e) {
+            logger.warn("Quarentena: scan de {} anexo(s) adiado: {}", pendentes.size(), e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < pendentes.size(); i++) {
+            registrar(pendentes.get(i), resultados.get(i));
+        }
+    }
+
+    /**
+     * Anexo pendente cujo arquivo sumiu. Se outro anexo do mesmo conteúdo já foi
+     * declarado infectado, o arquivo foi removido pela quarentena enquanto este
+     * upload ainda não tinha sido commitado: o anexo herda o resultado em vez de
+     * ficar pendente para sempre.
+     */
+    private void marcarSemConteudo(AnexoChamado anexo) {
+        if (anexo.getChaveArmazenamento() == null
+                || !anexoChamadoRepository.existsByChaveArmazenamentoAndVerificacao(
+                        anexo.getChaveArmazenamento(), VerificacaoAntivirus.INFECTADO)) {
+            logger.error("Quarentena: conteúdo do anexo {} não encontrado no storage", anexo.getId());
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> anexoChamadoRepository.updateVerificacaoByChave(
+                anexo.getChaveArmazenamento(), VerificacaoAntivirus.INFECTADO));
+        logger.warn("Quarentena: anexo {} ({}) compartilha conteúdo já removido como infectado",
+                anexo.getId(), anexo.getNomeArquivo());
+    }
+
+    private void registrar(AnexoChamado anexo, ScanResult resultado) {
+        VerificacaoAntivirus verificacao = resultado.limpo() ? VerificacaoAntivirus.LIBERADO : VerificacaoAntivirus.INFECTADO;
+        transactionTemplate.executeWithoutResult(status -> anexoChamadoRepository.findById(anexo.getId())
+                .filter(atual -> atual.getVerificacao() == VerificacaoAntivirus.PENDENTE)
+                .ifPresent(atual -> {
+                    atual.setVerificacao(verificacao);
+                    anexoChamadoRepository.save(atual);
+                    if (!resultado.limpo()) {
+                        // Outros anexos podem apontar para o mesmo arquivo (deduplicação por conteúdo)
+                        anexoChamadoRepository.updateVerificacaoByChave(atual.getChaveArmazenamento(), verificacao);
+                    }
+                }));
+
+        if (resultado.limpo()) {
+            logger.debug("Quarentena: anexo {} liberado", anexo.getId());
+            return;
+        }
+        logger.error("Quarentena: malware no anexo {} ({}): {}", anexo.getId(), anexo.getNomeArquivo(), resultado.assinatura());
+        try {
+            fileStorageService.delete(anexo.getChaveArmazenamento());
+        } catch (IOException e) {
+            logger.error("Quarentena: não foi possível remover o conteúdo do anexo {}: {}", anexo.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import br.com.brisabr.helpdesk_api.storage.FileStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Migra em segundo plano os anexos legados (Base64 na coluna dados) para o
+ * {@link FileStorageService}, em lotes pequenos para não segurar conexões nem
+ * carregar muitos anexos em memória ao mesmo tempo.
+ *
+ * Cada anexo é migrado em sua própria transação: o arquivo é gravado no storage,
+ * a linha passa a guardar só a chave e, se o update falhar, o arquivo é removido.
+ */
+@Service
+public class AnexoStorageMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnexoStorageMigrationService.class);
+
+    private final AnexoChamadoRepository anexoChamadoRepository;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${file.storage.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.storage.migration.batch-size:50}")
+    private int batchSize;
+
+    public AnexoStorageMigrationService(
+            AnexoChamadoRepository anexoChamadoRepository,
+            FileStorageService fileStorageService,
+            TransactionTemplate transactionTemplate) {
+        this.anexoChamadoRepository = anexoChamadoRepository;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Processa um lote de anexos legados a cada intervalo configurado.
+     */
+    @Scheduled(initialDelayString = "${file.storage.migration.initial-delay-ms:60000}",
+               fixedDelayString = "${file.storage.migration.interval-ms:30000}")
+    public void migrateLegacyAttachments() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Long> ids = anexoChamadoRepository.findLegacyIds(PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        int migrated = 0;
+        for (Long id : ids) {
+            try {
+                if (migrate(id)) {
+                    migrated++;
+                }
+            } catch (Exception e) {
+                logger.error("Falha ao migrar anexo {} para o storage: {}", id, e.getMessage());
+            }
+        }
+        logger.info("Migração de anexos: {}/{} anexos do lote movidos para o storage", migrated, ids.size());
+    }
+
+    boolean migrate(Long id) throws IOException {
+        AnexoChamado anexo = anexoChamadoRepository.findById(id).orElse(null);
+        if (anexo == null || anexo.getChaveArmazenamento() != null || anexo.getDados() == null) {
+            return false;
+        }
+
+        byte[] encoded = anexo.getDados().getBytes(StandardCharsets.ISO_8859_1);
+        String chave;
+        try (InputStream content = Base64.getMimeDecoder().wrap(new ByteArrayInputStream(encoded))) {
+            chave = fileStorageService.store(content, anexo.getNomeArquivo());
+        }
+        long tamanho = fileStorageService.getFilePath(chave).toFile().length();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                AnexoChamado atual = anexoChamadoRepository.findById(id).orElseThrow();
+                atual.setChaveArmazenamento(chave);
+                atual.setTamanho(tamanho);
+                atual.setDados(null);
+                anexoChamadoRepository.save(atual);
+            });
+        } catch (RuntimeException e) {
+            fileStorageService.release(chave);
+            throw e;
+        }
+        return true;
+    }
+}
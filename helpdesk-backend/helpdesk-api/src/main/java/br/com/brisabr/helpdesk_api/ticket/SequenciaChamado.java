@@ -0,0 +1,34 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Sequência de numeração de chamados por ano.
+ *
+ * {@code ultimoReservado} guarda o maior número já entregue a algum
+ * {@link TicketNumberAllocator}; cada instância reserva um bloco de números
+ * incrementando esse valor sob lock de linha.
+ */
+@Entity
+@Table(name = "sequencias_chamados")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(of = "ano")
+public class SequenciaChamado {
+
+    @Id
+    private Integer ano;
+
+    @Column(name = "ultimo_reservado", nullable = false)
+    private long ultimoReservado;
+
+    public SequenciaChamado(Integer ano, long ultimoReservado) {
+        this.ano = ano;
+        this.ultimoReservado = ultimoReservado;
+    }
+}
@@ -0,0 +1,16 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface SequenciaChamadoRepository extends JpaRepository<SequenciaChamado, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SequenciaChamado s WHERE s.ano = :ano")
+    Optional<SequenciaChamado> findByAnoForUpdate(@Param("ano") Integer ano);
+}
@@ -0,0 +1,56 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Chamados ativos com SLA violado, consultados direto na coluna sla_deadline.
+ *
+ * O prazo é gravado com o chamado, então todas as réplicas veem a mesma lista
+ * sem manter estado em memória. O índice {@code idx_chamados_status_sla}
+ * (status, sla_deadline) faz a consulta percorrer apenas o prefixo já vencido
+ * de "Aberto" e "Em Andamento", independente do tamanho do histórico de
+ * chamados fechados.
+ *
+ * Na inicialização, o prazo dos chamados ativos antigos que ainda não possuem a
+ * coluna é preenchido num único UPDATE.
+ */
+@Component
+public class SlaViolationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlaViolationIndex.class);
+
+    static final List<String> ACTIVE_STATUSES = List.of("Aberto", "Em Andamento");
+
+    private final TicketRepository ticketRepository;
+
+    public SlaViolationIndex(TicketRepository ticketRepository) {
+        this.ticketRepository = ticketRepository;
+    }
+
+    /**
+     * Preenche o prazo de SLA de registros antigos que ainda não possuem a coluna sla_deadline.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingDeadlines() {
+        long start = System.currentTimeMillis();
+        int backfilled = ticketRepository.backfillSlaDeadlines(ACTIVE_STATUSES, LocalDateTime.now().plusYears(1));
+        if (backfilled > 0) {
+            logger.info("Prazos de SLA preenchidos: {} chamados ativos em {} ms",
+                    backfilled, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Retorna os chamados ativos cujo prazo já venceu, do mais atrasado para o mais recente.
+     */
+    public List<TicketListItemRecord> findViolated(LocalDateTime now) {
+        return ticketRepository.findSlaViolatedByStatusIn(ACTIVE_STATUSES, now);
+    }
+}
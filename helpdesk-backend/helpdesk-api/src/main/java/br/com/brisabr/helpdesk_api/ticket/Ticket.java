@@ -1,6 +1,5 @@
 package br.com.brisabr.helpdesk_api.ticket;
 
-import br.com.brisabr.helpdesk_api.dto.RelatorioCategoriaDTO;
 import br.com.brisabr.helpdesk_api.user.User;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
@@ -12,21 +11,6 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
-@NamedNativeQuery(
-    name = "Ticket.getTempoMedioPorCategoria",
-    query = "SELECT t.categoria as categoria, AVG(EXTRACT(EPOCH FROM (t.data_fechamento - t.data_abertura))) / 3600.0 as tempo_medio_horas FROM chamados t WHERE t.data_fechamento IS NOT NULL AND (:ano IS NULL OR EXTRACT(YEAR FROM t.data_fechamento) = :ano) AND (:mes IS NULL OR EXTRACT(MONTH FROM t.data_fechamento) = :mes) GROUP BY t.categoria",
-    resultSetMapping = "CategoriaReportMapping"
-)
-@SqlResultSetMapping(
-    name = "CategoriaReportMapping",
-    classes = @ConstructorResult(
-        targetClass = RelatorioCategoriaDTO.class,
-        columns = {
-            @ColumnResult(name = "categoria", type = String.class),
-            @ColumnResult(name = "tempo_medio_horas", type = Double.class)
-        }
-    )
-)
 @Entity
 @Table(name = "chamados")
 @Getter
@@ -59,6 +43,13 @@ public class Ticket {
 
     @Column(name = "data_fechamento")
     private LocalDateTime dataFechamento;
+
+    /**
+     * Prazo de SLA persistido na abertura para permitir consultas por intervalo
+     * sem recalcular {@link #calculateSlaDeadline} para cada linha.
+     */
+    @Column(name = "sla_deadline")
+    private LocalDateTime slaDeadline;
     
     @Column(length = 1000)
     private String solucao;
@@ -66,6 +57,15 @@ public class Ticket {
     @Column(name = "foi_reaberto")
     private boolean foiReaberto;
 
+    /**
+     * Versão para lock otimista: uma transição feita sobre um chamado que mudou
+     * desde a leitura falha em vez de sobrescrever a outra. O default preenche
+     * as linhas existentes quando o Hibernate acrescenta a coluna.
+     */
+    @Version
+    @Column(name = "versao", nullable = false, columnDefinition = "bigint default 0")
+    private long versao;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_solicitante", nullable = false)
     private User solicitante;
@@ -1,5 +1,6 @@
 package br.com.brisabr.helpdesk_api.ticket;
 
+import br.com.brisabr.helpdesk_api.dto.CursorPageDTO;
 import br.com.brisabr.helpdesk_api.ratelimit.RateLimit;
 import br.com.brisabr.helpdesk_api.user.User;
 import jakarta.validation.Valid;
@@ -24,6 +25,7 @@ import java.util.List;
  *
  * Endpoints principais:
  * - GET /api/tickets - Lista tickets com paginação
+ * - GET /api/tickets/cursor - Lista tickets com paginação por cursor
  * - GET /api/tickets/{id} - Busca ticket por ID
  * - POST /api/tickets - Cria novo ticket
  * - POST /api/tickets/{id}/comments - Adiciona comentário
@@ -32,14 +34,24 @@ import java.util.List;
  * - POST /api/tickets/{id}/close - Fecha ticket
  * - POST /api/tickets/{id}/reopen - Reabre ticket
  *
+ * Endpoints sem {@link RateLimit} próprio seguem o da classe: técnicos e
+ * gestores consultam a fila com frequência e têm limite maior.
+ *
  * @author HelpDesk Team
  */
 @RestController
 @RequestMapping("/api/tickets")
+@RateLimit(requestsPerMinute = 120, type = RateLimit.LimitType.PER_USER, roles = {
+        @RateLimit.RoleLimit(role = "TECHNICIAN", requestsPerMinute = 600),
+        @RateLimit.RoleLimit(role = "MANAGER", requestsPerMinute = 600),
+        @RateLimit.RoleLimit(role = "ADMIN", requestsPerMinute = 600)
+})
 public class TicketController {
 
     private static final Logger logger = LoggerFactory.getLogger(TicketController.class);
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final TicketService ticketService;
 
     public TicketController(TicketService ticketService) {
@@ -77,7 +89,7 @@ public class TicketController {
      * - GET /api/tickets?page=1&size=15&sort=prioridade.nome,asc&sort=dataAbertura,desc
      */
     @GetMapping
-    public ResponseEntity<Page<TicketResponseDTO>> getAllTicketsPaginated(
+    public ResponseEntity<Page<TicketListItemRecord>> getAllTicketsPaginated(
             @PageableDefault(size = 20, sort = "dataAbertura", direction = Sort.Direction.DESC) Pageable pageable,
             @AuthenticationPrincipal User user) {
         logger.debug("Listando tickets paginados: page={}, size={}, usuário={}",
@@ -85,6 +97,31 @@ public class TicketController {
         return ResponseEntity.ok(ticketService.getAllTicketsPaginated(pageable, user));
     }
 
+    /**
+     * Lista tickets paginados por cursor, do mais recente para o mais antigo.
+     *
+     * Alternativa a {@code GET /api/tickets} para listas longas: não retorna o
+     * total e o tempo de resposta não cresce com a profundidade da página.
+     *
+     * @param cursor Valor de {@code nextCursor} da página anterior (omitir na primeira)
+     * @param size Itens por página (1 a 100)
+     * @param user Usuário autenticado
+     * @return Itens da página e o cursor da próxima ({@code null} na última)
+     *
+     * Exemplos:
+     * - GET /api/tickets/cursor?size=20
+     * - GET /api/tickets/cursor?size=20&cursor=MjAyNS0wMy0xMFQwODozMHw0Mg
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDTO<TicketListItemRecord>> getTicketsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal User user) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        logger.debug("Listando tickets por cursor: size={}, usuário={}", pageSize, user.getEmail());
+        return ResponseEntity.ok(ticketService.getTicketsByCursor(cursor, pageSize, user));
+    }
+
     /**
      * Busca um ticket específico por ID.
      *
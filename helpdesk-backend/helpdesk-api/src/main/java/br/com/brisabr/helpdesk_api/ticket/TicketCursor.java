@@ -0,0 +1,40 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição na listagem de chamados paginada por cursor (keyset).
+ *
+ * A ordem é {@code dataAbertura DESC, id DESC}; o cursor guarda a chave do
+ * último chamado entregue e a próxima página começa logo depois dele.
+ * Para o cliente o valor é opaco: Base64 URL-safe de {@code dataAbertura|id}.
+ */
+public record TicketCursor(LocalDateTime dataAbertura, Long id) {
+
+    public static TicketCursor of(TicketListItemRecord ticket) {
+        return new TicketCursor(ticket.dataAbertura(), ticket.id());
+    }
+
+    public String encode() {
+        String raw = dataAbertura + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException se o cursor não foi gerado por {@link #encode()}
+     */
+    public static TicketCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new TicketCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import br.com.brisabr.helpdesk_api.events.TicketAssignedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketClosedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketCommentedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketCreatedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketEventEnvelope;
+import br.com.brisabr.helpdesk_api.events.TicketEventSubscriber;
+import br.com.brisabr.helpdesk_api.events.TicketReopenedEvent;
+import br.com.brisabr.helpdesk_api.user.User;
+import br.com.brisabr.helpdesk_api.user.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Grava no histórico do chamado as entradas automáticas das transições
+ * ("Chamado criado.", atribuição, resolução, reabertura) a partir da outbox.
+ *
+ * Comentários não geram entrada: o próprio comentário já é o histórico.
+ */
+@Component
+public class TicketHistorySubscriber implements TicketEventSubscriber {
+
+    private final HistoricoChamadoRepository historicoChamadoRepository;
+    private final TicketRepository ticketRepository;
+    private final UserRepository userRepository;
+
+    public TicketHistorySubscriber(HistoricoChamadoRepository historicoChamadoRepository,
+                                   TicketRepository ticketRepository,
+                                   UserRepository userRepository) {
+        this.historicoChamadoRepository = historicoChamadoRepository;
+        this.ticketRepository = ticketRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public String nome() {
+        return "historico";
+    }
+
+    @Override
+    public void onEvent(TicketEventEnvelope envelope) {
+        String comentario = switch (envelope.evento()) {
+            case TicketCreatedEvent e -> "Chamado criado.";
+            case TicketAssignedEvent e -> Objects.equals(envelope.autorId(), e.tecnicoId())
+                    ? "Chamado atribuído a " + e.tecnico() + "."
+                    : "Chamado atribuído para " + e.tecnico() + " por " + nomeDoAutor(envelope) + ".";
+            case TicketClosedEvent e -> "Chamado Resolvido. Solução: " + e.solucao();
+            case TicketReopenedEvent e -> "Chamado reaberto. Motivo: " + e.motivo();
+            case TicketCommentedEvent e -> null;
+        };
+        if (comentario == null) {
+            return;
+        }
+
+        HistoricoChamado historico = new HistoricoChamado();
+        historico.setTicket(ticketRepository.getReferenceById(envelope.evento().ticketId()));
+        historico.setAutor(envelope.autorId() != null ? userRepository.getReferenceById(envelope.autorId()) : null);
+        historico.setComentario(comentario);
+        historicoChamadoRepository.save(historico);
+    }
+
+    private String nomeDoAutor(TicketEventEnvelope envelope) {
+        return envelope.autorId() == null ? "sistema"
+                : userRepository.findById(envelope.autorId()).map(User::getNome).orElse("usuário removido");
+    }
+}
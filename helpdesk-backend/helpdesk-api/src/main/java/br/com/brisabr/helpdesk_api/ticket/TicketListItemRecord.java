@@ -0,0 +1,39 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import java.time.LocalDateTime;
+
+/**
+ * Record com a visão resumida de um chamado, usada em listagens, no dashboard e nos relatórios.
+ *
+ * Montado direto na consulta (constructor expression) com apenas as colunas do
+ * chamado e os nomes do solicitante e do técnico, sem histórico nem anexos.
+ * Assim uma página custa uma única consulta, independente do número de linhas.
+ * O detalhe completo continua em {@link TicketResponseDTO} ({@code GET /api/tickets/{id}}).
+ */
+public record TicketListItemRecord(
+    Long id,
+    String numeroChamado,
+    String categoria,
+    String prioridade,
+    String status,
+    LocalDateTime dataAbertura,
+    LocalDateTime dataFechamento,
+    LocalDateTime slaDeadline,
+    boolean foiReaberto,
+    String nomeSolicitante,
+    String nomeTecnicoAtribuido,
+    String descricao,
+    String solucao
+) {
+    /**
+     * Compact constructor com os mesmos valores padrão de {@link TicketResponseDTO}
+     */
+    public TicketListItemRecord {
+        if (nomeSolicitante == null) {
+            nomeSolicitante = "N/A";
+        }
+        if (slaDeadline == null && dataAbertura != null) {
+            slaDeadline = Ticket.calculateSlaDeadline(dataAbertura, prioridade);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Year;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gera o número sequencial dos chamados ({@code AAAA-NNN}) a partir de blocos
+ * reservados na tabela {@code sequencias_chamados}.
+ *
+ * Cada instância reserva {@code blockSize} números de uma vez, em transação
+ * própria e com lock de linha, e os entrega a partir da memória. Assim a
+ * criação de chamados não faz agregação sobre a tabela de chamados e duas
+ * instâncias da aplicação nunca recebem o mesmo número. Os números não usados
+ * de um bloco são perdidos quando a aplicação reinicia.
+ */
+@Component
+public class TicketNumberAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketNumberAllocator.class);
+
+    private final SequenciaChamadoRepository sequenciaChamadoRepository;
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate requiresNew;
+    private final int blockSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private int currentYear;
+    private long next;
+    private long end;
+
+    public TicketNumberAllocator(
+            SequenciaChamadoRepository sequenciaChamadoRepository,
+            TicketRepository ticketRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${ticket.numero.block-size:100}") int blockSize) {
+        this.sequenciaChamadoRepository = sequenciaChamadoRepository;
+        this.ticketRepository = ticketRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Retorna o próximo número de chamado do ano corrente.
+     */
+    public String nextNumeroChamado() {
+        int year = Year.now().getValue();
+        return year + "-" + "%03d".formatted(nextValue(year));
+    }
+
+    long nextValue(int year) {
+        lock.lock();
+        try {
+            if (year != currentYear || next > end) {
+                long reservedEnd = reserveBlock(year);
+                currentYear = year;
+                next = reservedEnd - blockSize + 1;
+                end = reservedEnd;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserva um novo bloco e retorna o último número dele.
+     */
+    private long reserveBlock(int year) {
+        try {
+            return requiresNew.execute(status -> incrementSequence(year));
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância criou a linha do ano ao mesmo tempo; agora ela existe e pode ser travada
+            logger.debug("Sequência de {} criada concorrentemente, reservando novamente", year);
+            return requiresNew.execute(status -> incrementSequence(year));
+        }
+    }
+
+    private long incrementSequence(int year) {
+        SequenciaChamado sequencia = sequenciaChamadoRepository.findByAnoForUpdate(year)
+                .orElseGet(() -> {
+                    Long max = ticketRepository.findMaxNumeroByPrefixo(year + "-");
+                    long seed = max != null ? max : 0L;
+                    logger.info("Criando sequência de chamados para {} a partir de {}", year, seed);
+                    return sequenciaChamadoRepository.saveAndFlush(new SequenciaChamado(year, seed));
+                });
+        sequencia.setUltimoReservado(sequencia.getUltimoReservado() + blockSize);
+        sequenciaChamadoRepository.saveAndFlush(sequencia);
+        logger.debug("Bloco de números reservado para {}: até {}", year, sequencia.getUltimoReservado());
+        return sequencia.getUltimoReservado();
+    }
+}
@@ -1,93 +1,150 @@
 package br.com.brisabr.helpdesk_api.ticket;
 
-import br.com.brisabr.helpdesk_api.dto.RelatorioAnalistaDTO;
-import br.com.brisabr.helpdesk_api.dto.RelatorioCategoriaDTO;
-import br.com.brisabr.helpdesk_api.dto.RelatorioMensalDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long>, JpaSpecificationExecutor<Ticket> {
 
-    @Query(value = "SELECT COUNT(*) FROM chamados WHERE EXTRACT(YEAR FROM data_abertura) = :year", nativeQuery = true)
-    long countByYear(@Param("year") int year);
+    /**
+     * Projeção {@link TicketListItemRecord}: colunas do chamado e nomes do solicitante
+     * e do técnico em uma única consulta, sem carregar histórico nem anexos.
+     */
+    String LIST_ITEM_SELECT = "SELECT new br.com.brisabr.helpdesk_api.ticket.TicketListItemRecord(" +
+           "t.id, t.numeroChamado, t.categoria, t.prioridade, t.status, t.dataAbertura, t.dataFechamento, " +
+           "t.slaDeadline, t.foiReaberto, s.nome, a.nome, t.descricao, t.solucao) " +
+           "FROM Ticket t LEFT JOIN t.solicitante s LEFT JOIN t.atribuido a ";
+
+    /**
+     * Maior número sequencial já usado com o prefixo informado (ex.: "2025-").
+     * Executado apenas uma vez por ano, ao criar a linha de {@link SequenciaChamado}.
+     */
+    @Query("SELECT MAX(CAST(SUBSTRING(t.numeroChamado, LENGTH(:prefixo) + 1) AS long)) FROM Ticket t WHERE t.numeroChamado LIKE CONCAT(:prefixo, '%')")
+    Long findMaxNumeroByPrefixo(@Param("prefixo") String prefixo);
 
     List<Ticket> findAllBySolicitanteId(Long solicitanteId);
 
     @Query(value = "SELECT COUNT(*) FROM chamados WHERE status = :status AND id_tecnico_atribuido IS NULL", nativeQuery = true)
     long countByStatusAndAtribuidoIsNull(@Param("status") String status);
 
-    @Query(name = "Ticket.getTempoMedioPorCategoria", nativeQuery = true)
-    List<RelatorioCategoriaDTO> getTempoMedioPorCategoria(@Param("ano") Integer ano, @Param("mes") Integer mes);
-
-    @Query(value = "SELECT u.nome as nomeAnalista, COUNT(t.id) as totalChamados " +
-                   "FROM chamados t JOIN usuarios u ON t.id_tecnico_atribuido = u.id " +
-                   "WHERE (:ano IS NULL OR EXTRACT(YEAR FROM t.data_abertura) = :ano) " +
-                   "AND (:mes IS NULL OR EXTRACT(MONTH FROM t.data_abertura) = :mes) " +
-                   "GROUP BY u.nome", nativeQuery = true)
-    List<RelatorioAnalistaDTO> getChamadosPorAnalista(@Param("ano") Integer ano, @Param("mes") Integer mes);
-
-    @Query(value = "SELECT EXTRACT(MONTH FROM t.data_abertura) as mes, COUNT(t.id) as totalChamados " +
-                   "FROM chamados t " +
-                   "WHERE EXTRACT(YEAR FROM t.data_abertura) = :ano " +
-                   "GROUP BY mes ORDER BY mes", nativeQuery = true)
-    List<RelatorioMensalDTO> getChamadosPorMes(@Param("ano") Integer ano);
-
-
     @Query("SELECT t FROM Ticket t LEFT JOIN FETCH t.anexos WHERE t.id = :id")
     Optional<Ticket> findByIdWithAnexos(@Param("id") Long id);
 
-    // ========== Métodos para Business Metrics ==========
-
-    long countByStatus(TicketStatus status);
-
-    long countByDataAberturaBetween(LocalDateTime start, LocalDateTime end);
-
-    long countByStatusAndDataFechamentoBetween(TicketStatus status, LocalDateTime start, LocalDateTime end);
-
-    long countByStatusInAndDataAberturaLessThan(List<TicketStatus> statuses, LocalDateTime date);
+    // ========== Listagens (projeção) ==========
+
+    @Query(value = LIST_ITEM_SELECT, countQuery = "SELECT COUNT(t) FROM Ticket t")
+    Page<TicketListItemRecord> findListPage(Pageable pageable);
+
+    @Query(value = LIST_ITEM_SELECT + "WHERE t.solicitante.id = :solicitanteId",
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.solicitante.id = :solicitanteId")
+    Page<TicketListItemRecord> findListPageBySolicitante(@Param("solicitanteId") Long solicitanteId, Pageable pageable);
+
+    @Query(LIST_ITEM_SELECT + "WHERE t.id IN :ids")
+    List<TicketListItemRecord> findListItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ========== Paginação por cursor (keyset) ==========
+    // Ordem (dataAbertura DESC, id DESC). O "<=" isolado permite range scan no índice
+    // (data_abertura DESC, id DESC); o OR só desempata chamados com a mesma data.
+
+    @Query(LIST_ITEM_SELECT + "ORDER BY t.dataAbertura DESC, t.id DESC")
+    List<TicketListItemRecord> findFirstKeysetPage(Limit limit);
+
+    @Query(LIST_ITEM_SELECT + "WHERE t.dataAbertura <= :dataAbertura " +
+           "AND (t.dataAbertura < :dataAbertura OR t.id < :id) " +
+           "ORDER BY t.dataAbertura DESC, t.id DESC")
+    List<TicketListItemRecord> findKeysetPageAfter(@Param("dataAbertura") LocalDateTime dataAbertura,
+                                     @Param("id") Long id,
+                                     Limit limit);
+
+    @Query(LIST_ITEM_SELECT + "WHERE t.solicitante.id = :solicitanteId " +
+           "ORDER BY t.dataAbertura DESC, t.id DESC")
+    List<TicketListItemRecord> findFirstKeysetPageBySolicitante(@Param("solicitanteId") Long solicitanteId, Limit limit);
+
+    @Query(LIST_ITEM_SELECT + "WHERE t.solicitante.id = :solicitanteId " +
+           "AND t.dataAbertura <= :dataAbertura " +
+           "AND (t.dataAbertura < :dataAbertura OR t.id < :id) " +
+           "ORDER BY t.dataAbertura DESC, t.id DESC")
+    List<TicketListItemRecord> findKeysetPageAfterBySolicitante(@Param("solicitanteId") Long solicitanteId,
+                                                  @Param("dataAbertura") LocalDateTime dataAbertura,
+                                                  @Param("id") Long id,
+                                                  Limit limit);
+
+    // ========== Índice de SLA ==========
+
+    /**
+     * Chamados nos status informados com o prazo de SLA vencido em {@code agora},
+     * do mais atrasado para o mais recente. Em cada status percorre só o trecho
+     * vencido de {@code idx_chamados_status_sla}.
+     */
+    @Query(LIST_ITEM_SELECT + "WHERE t.status IN :statuses AND t.slaDeadline < :agora ORDER BY t.slaDeadline, t.id")
+    List<TicketListItemRecord> findSlaViolatedByStatusIn(@Param("statuses") List<String> statuses,
+                                                         @Param("agora") LocalDateTime agora);
+
+    /**
+     * Preenche num único UPDATE o prazo de SLA dos chamados nos status informados
+     * que ainda não têm a coluna, com a regra de {@link Ticket#calculateSlaDeadline}.
+     *
+     * @param semPrazo prazo dos chamados sem data de abertura ou prioridade
+     * @return quantidade de chamados preenchidos
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Ticket t SET t.slaDeadline = CASE " +
+           "WHEN t.dataAbertura IS NULL OR t.prioridade IS NULL THEN :semPrazo " +
+           "WHEN lower(t.prioridade) = 'crítica' THEN t.dataAbertura + 2 hour " +
+           "WHEN lower(t.prioridade) IN ('alta', 'alto') THEN t.dataAbertura + 8 hour " +
+           "WHEN lower(t.prioridade) IN ('baixa', 'baixo') THEN t.dataAbertura + 2 day " +
+           "ELSE t.dataAbertura + 24 hour END " +
+           "WHERE t.status IN :statuses AND t.slaDeadline IS NULL")
+    int backfillSlaDeadlines(@Param("statuses") List<String> statuses, @Param("semPrazo") LocalDateTime semPrazo);
+
+    /**
+     * Retorna [id, categoria, prioridade, slaDeadline, dataAbertura] dos chamados
+     * na fila (no status informado e sem técnico), para a distribuição automática.
+     */
+    @Query("SELECT t.id, t.categoria, t.prioridade, t.slaDeadline, t.dataAbertura FROM Ticket t " +
+           "WHERE t.status = :status AND t.atribuido IS NULL")
+    List<Object[]> findFilaByStatus(@Param("status") String status);
+
+    /**
+     * Atribui o chamado num único UPDATE condicional, sem ler antes: de várias
+     * capturas simultâneas do mesmo chamado, só uma encontra a linha ainda aberta
+     * e sem técnico. Limpa o contexto de persistência para que a releitura veja
+     * o novo estado.
+     *
+     * @return 1 se atribuiu, 0 se o chamado não existe ou não está mais na fila
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE chamados SET id_tecnico_atribuido = :tecnicoId, status = :emAndamento, versao = versao + 1 " +
+           "WHERE id = :id AND status = :aberto AND id_tecnico_atribuido IS NULL", nativeQuery = true)
+    int atribuirSeNaFila(@Param("id") Long id,
+                         @Param("tecnicoId") Long tecnicoId,
+                         @Param("aberto") String aberto,
+                         @Param("emAndamento") String emAndamento);
 
-    @Query("SELECT COUNT(DISTINCT t.atribuido.id) FROM Ticket t WHERE t.atribuido IS NOT NULL")
-    long countDistinctTechnicians();
-
-    long countByAtribuidoIsNotNull();
-
-    @Query(value = "SELECT AVG(EXTRACT(EPOCH FROM (data_fechamento - data_abertura)) / 60) FROM chamados " +
-           "WHERE status = 'FECHADO' AND data_fechamento IS NOT NULL", nativeQuery = true)
-    Double calculateAverageResolutionTime();
-
-    @Query(value = "SELECT COUNT(*) FROM chamados " +
-           "WHERE status = 'FECHADO' AND EXTRACT(EPOCH FROM (data_fechamento - data_abertura)) / 3600 > 72", nativeQuery = true)
-    long countTicketsBreachingSla();
+    // ========== Métodos para Business Metrics ==========
 
-    @Query(value = "SELECT AVG(EXTRACT(EPOCH FROM (" +
-           "(SELECT MIN(h.data_registro) FROM historico_chamado h WHERE h.id_chamado = c.id) - c.data_abertura)) / 60) " +
-           "FROM chamados c WHERE EXISTS (SELECT 1 FROM historico_chamado h WHERE h.id_chamado = c.id)", nativeQuery = true)
+    /**
+     * Tempo médio (minutos) até a primeira interação de alguém que não seja o solicitante.
+     */
+    @Query(value = "SELECT AVG(EXTRACT(EPOCH FROM (p.primeira - c.data_abertura)) / 60) " +
+           "FROM chamados c JOIN (" +
+           "  SELECT h.id_chamado, MIN(h.data_ocorrencia) AS primeira FROM historico_chamados h " +
+           "  JOIN chamados ch ON ch.id = h.id_chamado " +
+           "  WHERE h.id_autor <> ch.id_solicitante GROUP BY h.id_chamado" +
+           ") p ON p.id_chamado = c.id", nativeQuery = true)
     Double calculateAverageFirstResponseTime();
-
-    @Query(value = "SELECT u.id, u.nome, COUNT(c.id), " +
-           "SUM(CASE WHEN c.status = 'FECHADO' THEN 1 ELSE 0 END), " +
-           "AVG(CASE WHEN c.status = 'FECHADO' THEN EXTRACT(EPOCH FROM (c.data_fechamento - c.data_abertura)) / 60 END) " +
-           "FROM chamados c JOIN usuarios u ON c.id_tecnico_atribuido = u.id " +
-           "WHERE c.id_tecnico_atribuido IS NOT NULL " +
-           "GROUP BY u.id, u.nome " +
-           "ORDER BY COUNT(c.id) DESC", nativeQuery = true)
-    List<Object[]> getAnalystPerformance();
-
-    @Query("SELECT t.categoria, COUNT(t) FROM Ticket t GROUP BY t.categoria ORDER BY COUNT(t) DESC")
-    List<Object[]> countTicketsByCategory();
-
-    @Query("SELECT t.prioridade, COUNT(t) FROM Ticket t GROUP BY t.prioridade ORDER BY COUNT(t) DESC")
-    List<Object[]> countTicketsByPriority();
-
-    @Query(value = "SELECT COUNT(*) FROM chamados WHERE status IN ('ABERTO', 'EM_ANDAMENTO', 'RESOLVIDO') " +
-           "AND data_abertura < :date", nativeQuery = true)
-    long countOpenTicketsAtDate(@Param("date") LocalDateTime date);
 }
@@ -41,7 +41,9 @@ public class TicketResponseDTO {
         this.historico = (ticket.getHistorico() != null) 
             ? ticket.getHistorico().stream().map(HistoricoItemDTO::new).collect(Collectors.toList()) 
             : List.of();
-        this.slaDeadline = Ticket.calculateSlaDeadline(ticket.getDataAbertura(), ticket.getPrioridade());
+        this.slaDeadline = (ticket.getSlaDeadline() != null)
+            ? ticket.getSlaDeadline()
+            : Ticket.calculateSlaDeadline(ticket.getDataAbertura(), ticket.getPrioridade());
         
         
         this.anexos = (ticket.getAnexos() != null)
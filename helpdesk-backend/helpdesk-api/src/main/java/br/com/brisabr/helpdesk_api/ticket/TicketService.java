@@ -1,29 +1,41 @@
 package br.com.brisabr.helpdesk_api.ticket;
 
+import br.com.brisabr.helpdesk_api.dto.CursorPageDTO;
 import br.com.brisabr.helpdesk_api.dto.DashboardStatsDTO;
+import br.com.brisabr.helpdesk_api.events.NotificationEvent;
+import br.com.brisabr.helpdesk_api.events.TicketAssignedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketClosedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketCommentedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketCreatedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketEventOutbox;
+import br.com.brisabr.helpdesk_api.events.TicketReopenedEvent;
 import br.com.brisabr.helpdesk_api.exception.AttachmentNotFoundException;
 import br.com.brisabr.helpdesk_api.exception.InvalidTicketStateException;
 import br.com.brisabr.helpdesk_api.exception.TicketNotFoundException;
 import br.com.brisabr.helpdesk_api.exception.UnauthorizedOperationException;
 import br.com.brisabr.helpdesk_api.exception.UserNotFoundException;
+import br.com.brisabr.helpdesk_api.rollup.ChamadoRollupRecord;
+import br.com.brisabr.helpdesk_api.service.ReportService;
+import br.com.brisabr.helpdesk_api.storage.FileStorageService;
 import br.com.brisabr.helpdesk_api.user.User;
 import br.com.brisabr.helpdesk_api.user.UserRepository;
+import br.com.brisabr.helpdesk_api.util.ArquivoValidado;
 import br.com.brisabr.helpdesk_api.util.FileValidator;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.Year;
-import java.util.Base64;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Service
 public class TicketService {
@@ -35,18 +47,36 @@ public class TicketService {
     private final AnexoChamadoRepository anexoChamadoRepository;
     private final UserRepository userRepository;
     private final FileValidator fileValidator;
+    private final SlaViolationIndex slaViolationIndex;
+    private final FileStorageService fileStorageService;
+    private final TicketNumberAllocator ticketNumberAllocator;
+    private final ReportService reportService;
+    private final AnexoQuarentenaService anexoQuarentenaService;
+    private final TicketEventOutbox ticketEventOutbox;
 
     public TicketService(
             TicketRepository ticketRepository,
             HistoricoChamadoRepository historicoChamadoRepository,
             AnexoChamadoRepository anexoChamadoRepository,
             UserRepository userRepository,
-            FileValidator fileValidator) {
+            FileValidator fileValidator,
+            SlaViolationIndex slaViolationIndex,
+            FileStorageService fileStorageService,
+            TicketNumberAllocator ticketNumberAllocator,
+            ReportService reportService,
+            AnexoQuarentenaService anexoQuarentenaService,
+            TicketEventOutbox ticketEventOutbox) {
         this.ticketRepository = ticketRepository;
         this.historicoChamadoRepository = historicoChamadoRepository;
         this.anexoChamadoRepository = anexoChamadoRepository;
         this.userRepository = userRepository;
         this.fileValidator = fileValidator;
+        this.slaViolationIndex = slaViolationIndex;
+        this.fileStorageService = fileStorageService;
+        this.ticketNumberAllocator = ticketNumberAllocator;
+        this.reportService = reportService;
+        this.anexoQuarentenaService = anexoQuarentenaService;
+        this.ticketEventOutbox = ticketEventOutbox;
     }
 
     @Transactional(readOnly = true)
@@ -63,8 +93,7 @@ public class TicketService {
         fileValidator.validateFiles(anexos);
 
         Ticket newTicket = new Ticket();
-        long countThisYear = ticketRepository.countByYear(Year.now().getValue());
-        String numeroChamado = Year.now().getValue() + "-" + "%03d".formatted(countThisYear + 1);
+        String numeroChamado = ticketNumberAllocator.nextNumeroChamado();
 
         logger.debug("Número do chamado gerado: {}", numeroChamado);
 
@@ -75,20 +104,43 @@ public class TicketService {
         newTicket.setStatus("Aberto");
         newTicket.setSolicitante(solicitante);
         newTicket.setDataAbertura(LocalDateTime.now());
+        newTicket.setSlaDeadline(Ticket.calculateSlaDeadline(newTicket.getDataAbertura(), newTicket.getPrioridade()));
+        boolean quarentena = false;
         if (anexos != null && !anexos.isEmpty()) {
-            for (MultipartFile anexo : anexos) {
-                if (anexo.isEmpty()) continue;
+            quarentena = anexoQuarentenaService.isAtiva();
+            List<String> chavesArmazenadas = new ArrayList<>();
+            deleteStoredFilesOnRollback(chavesArmazenadas);
+            List<MultipartFile> naoVazios = anexos.stream().filter(a -> !a.isEmpty()).toList();
+            // Cada anexo é lido uma única vez: validação de conteúdo, hash, antivírus e gravação no storage
+            List<ArquivoValidado> validados = fileValidator.validateAndStore(naoVazios, fileStorageService);
+            for (int i = 0; i < naoVazios.size(); i++) {
+                MultipartFile anexo = naoVazios.get(i);
+                ArquivoValidado validado = validados.get(i);
+                chavesArmazenadas.add(validado.chaveArmazenamento());
                 AnexoChamado anexoChamado = new AnexoChamado();
                 anexoChamado.setNomeArquivo(anexo.getOriginalFilename());
                 anexoChamado.setTipoArquivo(anexo.getContentType());
-                anexoChamado.setDados(Base64.getEncoder().encodeToString(anexo.getBytes()));
+                anexoChamado.setChaveArmazenamento(validado.chaveArmazenamento());
+                anexoChamado.setTamanho(validado.tamanho());
+                anexoChamado.setSha256(validado.sha256());
+                if (quarentena) {
+                    // Conteúdo que a quarentena já condenou (e pode já ter removido do storage) não volta a ser escaneado
+                    anexoChamado.setVerificacao(anexoChamadoRepository.existsByChaveArmazenamentoAndVerificacao(
+                            validado.chaveArmazenamento(), VerificacaoAntivirus.INFECTADO)
+                            ? VerificacaoAntivirus.INFECTADO : VerificacaoAntivirus.PENDENTE);
+                }
                 anexoChamado.setTicket(newTicket);
                 newTicket.getAnexos().add(anexoChamado);
             }
         }
 
         Ticket savedTicket = ticketRepository.saveAndFlush(newTicket);
-        createHistoryEntry(savedTicket, solicitante, "Chamado criado.");
+        if (quarentena) {
+            scanAfterCommit(savedTicket.getAnexos().stream().map(AnexoChamado::getId).toList());
+        }
+        publicar(new TicketCreatedEvent(savedTicket.getId(), numeroChamado, solicitante.getId(),
+                solicitante.getNome(), savedTicket.getCategoria(), savedTicket.getPrioridade()),
+                solicitante, null, savedTicket);
 
         logger.info("Ticket criado com sucesso: {} - ID: {}, Anexos: {}",
                     numeroChamado, savedTicket.getId(), anexos != null ? anexos.size() : 0);
@@ -113,44 +165,90 @@ public class TicketService {
             logger.warn("Tentativa não autorizada de reabrir ticket {} por usuário {}", ticketId, currentUser.getId());
             throw new UnauthorizedOperationException("Apenas o solicitante do chamado pode reabri-lo.");
         }
-        if (!List.of("Resolvido", "Encerrado", "Fechado").contains(ticket.getStatus())) {
+        if (!TicketStatus.fromString(ticket.getStatus()).podeTransicionarPara(TicketStatus.ABERTO)) {
             logger.warn("Tentativa de reabrir ticket {} com status inválido: {}", ticketId, ticket.getStatus());
             throw new InvalidTicketStateException("Apenas chamados finalizados podem ser reabertos.");
         }
-        ticket.setStatus("Aberto");
+        ChamadoRollupRecord antes = ChamadoRollupRecord.of(ticket);
+        // Volta para a fila sem técnico: pode ser capturado ou atribuído de novo
+        Long tecnicoAnterior = idDe(ticket.getAtribuido());
+        ticket.setStatus(TicketStatus.ABERTO.getDisplayName());
+        ticket.setAtribuido(null);
         ticket.setFoiReaberto(true);
         ticket.setDataFechamento(null);
         ticket.setSolucao(null);
         Ticket updatedTicket = ticketRepository.save(ticket);
-        createHistoryEntry(updatedTicket, currentUser, "Chamado reaberto. Motivo: " + data.getMotivo());
+        publicar(new TicketReopenedEvent(ticketId, currentUser.getId(), tecnicoAnterior,
+                data.getMotivo(), currentUser.getNome()), currentUser, antes, updatedTicket);
 
         logger.info("Ticket {} reaberto com sucesso. Motivo: {}", ticketId, data.getMotivo());
         return new TicketResponseDTO(ticket);
     }
 
+    /**
+     * Lista chamados paginados na visão resumida ({@link TicketListItemRecord}):
+     * uma consulta para a página e uma para o total, independente do tamanho da página.
+     */
     @Transactional(readOnly = true)
-    public Page<TicketResponseDTO> getAllTicketsPaginated(Pageable pageable, User user) {
+    public Page<TicketListItemRecord> getAllTicketsPaginated(Pageable pageable, User user) {
         String perfil = user.getPerfil().toLowerCase();
 
-        Page<Ticket> ticketPage;
         switch (perfil) {
             case "admin":
             case "manager":
             case "technician":
                 // Admin, Manager e Technician veem todos os tickets
-                ticketPage = ticketRepository.findAll(pageable);
-                break;
+                return ticketRepository.findListPage(pageable);
             case "user":
                 // Usuário comum vê apenas seus próprios tickets
-                Specification<Ticket> spec = TicketSpecification.bySolicitanteId(user.getId());
-                ticketPage = ticketRepository.findAll(spec, pageable);
+                return ticketRepository.findListPageBySolicitante(user.getId(), pageable);
+            default:
+                return Page.empty(pageable);
+        }
+    }
+
+    /**
+     * Lista chamados por cursor (keyset), na ordem {@code dataAbertura DESC, id DESC}.
+     *
+     * Diferente de {@link #getAllTicketsPaginated}, não usa OFFSET nem conta o
+     * total: cada página é um range scan a partir do cursor, então o custo não
+     * depende da profundidade. Aplica as mesmas regras de visibilidade por perfil.
+     *
+     * @param cursor cursor recebido na página anterior ({@code null} para a primeira)
+     * @param size quantidade de itens por página
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TicketListItemRecord> getTicketsByCursor(String cursor, int size, User user) {
+        TicketCursor after = cursor != null && !cursor.isBlank() ? TicketCursor.decode(cursor) : null;
+        // Um item a mais indica se existe próxima página sem precisar de COUNT
+        Limit limit = Limit.of(size + 1);
+
+        List<TicketListItemRecord> tickets;
+        switch (user.getPerfil().toLowerCase()) {
+            case "admin":
+            case "manager":
+            case "technician":
+                tickets = after == null
+                        ? ticketRepository.findFirstKeysetPage(limit)
+                        : ticketRepository.findKeysetPageAfter(after.dataAbertura(), after.id(), limit);
+                break;
+            case "user":
+                tickets = after == null
+                        ? ticketRepository.findFirstKeysetPageBySolicitante(user.getId(), limit)
+                        : ticketRepository.findKeysetPageAfterBySolicitante(
+                                user.getId(), after.dataAbertura(), after.id(), limit);
                 break;
             default:
-                ticketPage = Page.empty(pageable);
+                tickets = List.of();
                 break;
         }
 
-        return ticketPage.map(TicketResponseDTO::new);
+        String nextCursor = null;
+        if (tickets.size() > size) {
+            tickets = tickets.subList(0, size);
+            nextCursor = TicketCursor.of(tickets.get(size - 1)).encode();
+        }
+        return new CursorPageDTO<>(tickets, nextCursor);
     }
 
     @Transactional
@@ -161,26 +259,26 @@ public class TicketService {
         novoHistorico.setAutor(autor);
         novoHistorico.setComentario(data.getComentario());
         HistoricoChamado historicoSalvo = historicoChamadoRepository.save(novoHistorico);
+        publicar(new TicketCommentedEvent(ticketId, idDe(ticket.getSolicitante()), idDe(ticket.getAtribuido()),
+                historicoSalvo.getId(), autor.getNome()), autor, null, null);
         return new HistoricoItemDTO(historicoSalvo);
     }
 
+    /**
+     * Captura do chamado pelo próprio técnico. Entre capturas simultâneas do mesmo
+     * chamado, exatamente uma vence; as demais recebem 409.
+     */
     @Transactional
     public TicketResponseDTO assignTicketToSelf(Long ticketId, User currentUser) {
         logger.info("Técnico {} (ID: {}) capturando ticket ID: {}",
                     currentUser.getNome(), currentUser.getId(), ticketId);
 
-        Ticket ticket = ticketRepository.findById(ticketId).orElseThrow(() -> new TicketNotFoundException(ticketId));
-        if (!"Aberto".equals(ticket.getStatus())) {
-            logger.warn("Tentativa de capturar ticket {} com status inválido: {}", ticketId, ticket.getStatus());
-            throw new InvalidTicketStateException("Este chamado não está mais aberto para captura.");
-        }
-        ticket.setAtribuido(currentUser);
-        ticket.setStatus("Em Andamento");
-        Ticket updatedTicket = ticketRepository.save(ticket);
-        createHistoryEntry(updatedTicket, currentUser, "Chamado atribuído a " + currentUser.getNome() + ".");
+        Ticket updatedTicket = atribuirSeNaFila(ticketId, currentUser, "Este chamado não está mais aberto para captura.");
+        publicar(new TicketAssignedEvent(ticketId, idDe(updatedTicket.getSolicitante()), currentUser.getId(),
+                currentUser.getNome(), updatedTicket.getPrioridade()), currentUser, naFila(updatedTicket), updatedTicket);
 
         logger.info("Ticket {} atribuído com sucesso para {}", ticketId, currentUser.getNome());
-        return new TicketResponseDTO(ticket);
+        return new TicketResponseDTO(updatedTicket);
     }
 
 
@@ -188,26 +286,12 @@ public class TicketService {
     public TicketResponseDTO assignTicketToTechnician(Long ticketId, Long technicianId, User currentUser) {
         // Validação de permissão agora é feita via @PreAuthorize no Controller
 
-        Ticket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new TicketNotFoundException(ticketId));
-
-
-        if (!"Aberto".equals(ticket.getStatus())) {
-            throw new InvalidTicketStateException("Este chamado não está mais aberto para atribuição.");
-        }
-
-
         User technician = userRepository.findById(technicianId)
                 .orElseThrow(() -> new UserNotFoundException(technicianId));
 
-
-        ticket.setAtribuido(technician);
-        ticket.setStatus("Em Andamento");
-        Ticket updatedTicket = ticketRepository.save(ticket);
-
-
-        String assignerName = currentUser.getNome();
-        createHistoryEntry(updatedTicket, currentUser, "Chamado atribuído para " + technician.getNome() + " por " + assignerName + ".");
+        Ticket updatedTicket = atribuirSeNaFila(ticketId, technician, "Este chamado não está mais aberto para atribuição.");
+        publicar(new TicketAssignedEvent(ticketId, idDe(updatedTicket.getSolicitante()), technician.getId(),
+                technician.getNome(), updatedTicket.getPrioridade()), currentUser, naFila(updatedTicket), updatedTicket);
 
         return new TicketResponseDTO(updatedTicket);
     }
@@ -224,11 +308,17 @@ public class TicketService {
             logger.warn("Tentativa não autorizada de fechar ticket {} por usuário {}", ticketId, currentUser.getId());
             throw new UnauthorizedOperationException("Apenas o técnico responsável ou um gestor pode encerrar o chamado.");
         }
+        if (!TicketStatus.fromString(ticket.getStatus()).podeTransicionarPara(TicketStatus.RESOLVIDO)) {
+            logger.warn("Tentativa de fechar ticket {} com status inválido: {}", ticketId, ticket.getStatus());
+            throw new InvalidTicketStateException("Este chamado já foi finalizado.");
+        }
+        ChamadoRollupRecord antes = ChamadoRollupRecord.of(ticket);
         ticket.setSolucao(data.getSolucao());
-        ticket.setStatus("Resolvido");
+        ticket.setStatus(TicketStatus.RESOLVIDO.getDisplayName());
         ticket.setDataFechamento(LocalDateTime.now());
         Ticket updatedTicket = ticketRepository.save(ticket);
-        createHistoryEntry(updatedTicket, currentUser, "Chamado Resolvido. Solução: " + data.getSolucao());
+        publicar(new TicketClosedEvent(ticketId, idDe(updatedTicket.getSolicitante()), idDe(updatedTicket.getAtribuido()),
+                currentUser.getNome(), data.getSolucao()), currentUser, antes, updatedTicket);
 
         logger.info("Ticket {} fechado com sucesso. Status: Resolvido", ticketId);
         return new TicketResponseDTO(ticket);
@@ -238,28 +328,95 @@ public class TicketService {
     public DashboardStatsDTO getDashboardStats() {
         DashboardStatsDTO stats = new DashboardStatsDTO();
         stats.setChamadosNaFila(ticketRepository.countByStatusAndAtribuidoIsNull("Aberto"));
-        stats.setChamadosPorAnalista(ticketRepository.getChamadosPorAnalista(null, null));
-
-        List<Ticket> activeTickets = ticketRepository.findAll().stream()
-                .filter(ticket -> List.of("Aberto", "Em Andamento").contains(ticket.getStatus()))
-                .toList();
-        LocalDateTime now = LocalDateTime.now();
-        List<TicketResponseDTO> slaViolatedTickets = activeTickets.stream()
-                .filter(ticket -> {
-                    LocalDateTime slaDeadline = Ticket.calculateSlaDeadline(ticket.getDataAbertura(), ticket.getPrioridade());
-                    return now.isAfter(slaDeadline);
-                })
-                .map(TicketResponseDTO::new)
-                .collect(Collectors.toList());
-        stats.setChamadosSlaViolado(slaViolatedTickets);
+        stats.setChamadosPorAnalista(reportService.getChamadosPorAnalista(null, null));
+
+        // O índice devolve apenas os chamados ativos já vencidos, sem varrer a tabela inteira
+        stats.setChamadosSlaViolado(slaViolationIndex.findViolated(LocalDateTime.now()));
         return stats;
     }
 
-    private void createHistoryEntry(Ticket ticket, User autor, String comentario) {
-        HistoricoChamado historico = new HistoricoChamado();
-        historico.setTicket(ticket);
-        historico.setAutor(autor);
-        historico.setComentario(comentario);
-        historicoChamadoRepository.save(historico);
+    /**
+     * Dispara o scan da quarentena só depois do commit, quando os anexos já são visíveis para outra transação.
+     */
+    private void scanAfterCommit(List<Long> anexoIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            anexoQuarentenaService.verificarAposCommit(anexoIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                anexoQuarentenaService.verificarAposCommit(anexoIds);
+            }
+        });
+    }
+
+    /**
+     * Remove do storage os arquivos gravados caso a transação do chamado sofra rollback,
+     * evitando arquivos órfãos no disco.
+     */
+    private void deleteStoredFilesOnRollback(List<String> chaves) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                for (String chave : chaves) {
+                    try {
+                        fileStorageService.release(chave);
+                    } catch (IOException e) {
+                        logger.warn("Não foi possível remover anexo órfão {}: {}", chave, e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Grava o evento na outbox, na transação da transição. Histórico, resumo diário,
+     * auditoria e push são feitos a partir da outbox, fora da requisição.
+     *
+     * @param antes estado anterior para o resumo diário ({@code null} para chamados novos)
+     * @param depois chamado depois da transição ({@code null} se o chamado não mudou)
+     */
+    private void publicar(NotificationEvent evento, User autor, ChamadoRollupRecord antes, Ticket depois) {
+        ticketEventOutbox.registrar(evento, idDe(autor), antes, depois != null ? ChamadoRollupRecord.of(depois) : null);
+    }
+
+    /**
+     * Atribui o chamado ao técnico se ele ainda estiver na fila (aberto e sem
+     * técnico), num único UPDATE condicional, e relê o chamado já atribuído.
+     *
+     * @throws TicketNotFoundException se o chamado não existe
+     * @throws InvalidTicketStateException se outro técnico levou o chamado antes
+     *         ou ele não está mais aberto
+     */
+    private Ticket atribuirSeNaFila(Long ticketId, User tecnico, String mensagemConflito) {
+        int atribuidos = ticketRepository.atribuirSeNaFila(ticketId, tecnico.getId(),
+                TicketStatus.ABERTO.getDisplayName(), TicketStatus.EM_ANDAMENTO.getDisplayName());
+        Ticket ticket = ticketRepository.findById(ticketId).orElseThrow(() -> new TicketNotFoundException(ticketId));
+        if (atribuidos == 0) {
+            logger.warn("Atribuição do ticket {} a {} recusada: status {}, técnico {}", ticketId, tecnico.getId(),
+                    ticket.getStatus(), idDe(ticket.getAtribuido()));
+            throw new InvalidTicketStateException(mensagemConflito);
+        }
+        return ticket;
+    }
+
+    /**
+     * Estado do chamado antes da atribuição, para o resumo diário. O UPDATE
+     * condicional só passa por chamados abertos, sem técnico e sem fechamento.
+     */
+    private static ChamadoRollupRecord naFila(Ticket ticket) {
+        return new ChamadoRollupRecord(ticket.getDataAbertura(), null, ticket.getCategoria(), ticket.getPrioridade(),
+                0L, TicketStatus.ABERTO.getDisplayName());
+    }
+
+    private static Long idDe(User user) {
+        return user != null ? user.getId() : null;
     }
 }
@@ -3,6 +3,7 @@ package br.com.brisabr.helpdesk_api.ticket;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,7 +20,9 @@ public class TicketSpecification {
             
             if (dataInicial != null && dataFinal != null && tipoData != null) {
                 String dateField = tipoData.equalsIgnoreCase("fechamento") ? "dataFechamento" : "dataAbertura";
-                predicates.add(criteriaBuilder.between(root.get(dateField), dataInicial.atStartOfDay(), dataFinal.plusDays(1).atStartOfDay()));
+                // Intervalo semiaberto [dataInicial, dataFinal + 1 dia): usa o índice da coluna e não inclui a meia-noite seguinte
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.<LocalDateTime>get(dateField), dataInicial.atStartOfDay()));
+                predicates.add(criteriaBuilder.lessThan(root.<LocalDateTime>get(dateField), dataFinal.plusDays(1).atStartOfDay()));
             }
 
             
@@ -1,5 +1,11 @@
 package br.com.brisabr.helpdesk_api.ticket;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Enum que representa os possíveis status de um ticket no sistema.
  * 
@@ -9,6 +15,9 @@ package br.com.brisabr.helpdesk_api.ticket;
  * Status legados mantidos para compatibilidade:
  * - ENCERRADO
  * - FECHADO
+ *
+ * As transições permitidas ficam numa tabela ({@link #podeTransicionarPara}),
+ * montada a partir de {@link #podeSerAtribuido()} e {@link #isFinalizado()}.
  */
 public enum TicketStatus {
     /**
@@ -36,6 +45,25 @@ public enum TicketStatus {
      */
     FECHADO("Fechado");
     
+    private static final Map<TicketStatus, Set<TicketStatus>> TRANSICOES = new EnumMap<>(TicketStatus.class);
+
+    static {
+        for (TicketStatus origem : values()) {
+            Set<TicketStatus> destinos = EnumSet.noneOf(TicketStatus.class);
+            if (origem.podeSerAtribuido()) {
+                destinos.add(EM_ANDAMENTO);
+            }
+            if (!origem.isFinalizado()) {
+                // Gestor pode resolver um chamado ainda na fila
+                destinos.add(RESOLVIDO);
+            } else {
+                // Reabertura pelo solicitante
+                destinos.add(ABERTO);
+            }
+            TRANSICOES.put(origem, Collections.unmodifiableSet(destinos));
+        }
+    }
+
     private final String displayName;
     
     TicketStatus(String displayName) {
@@ -63,6 +91,13 @@ public enum TicketStatus {
         return this == ABERTO;
     }
     
+    /**
+     * Verifica se a tabela de transições permite ir deste status para {@code destino}.
+     */
+    public boolean podeTransicionarPara(TicketStatus destino) {
+        return TRANSICOES.get(this).contains(destino);
+    }
+
     /**
      * Converte string para enum, aceitando tanto o nome quanto o displayName.
      */
@@ -0,0 +1,24 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+/**
+ * Situação de um anexo no modo quarentena do antivírus
+ * ({@code file.upload.antivirus.mode=quarantine}).
+ *
+ * Anexos sem valor (legados ou enviados fora desse modo) são tratados como liberados.
+ */
+public enum VerificacaoAntivirus {
+    /**
+     * Aguardando o scan; o download fica bloqueado.
+     */
+    PENDENTE,
+
+    /**
+     * Passou no scan e pode ser baixado.
+     */
+    LIBERADO,
+
+    /**
+     * Malware encontrado; o conteúdo foi removido do storage.
+     */
+    INFECTADO
+}
@@ -15,6 +15,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "usuarios")
+@EntityListeners(UserCacheInvalidationListener.class)
 @Data
 @NoArgsConstructor
 public class User implements UserDetails {
@@ -0,0 +1,29 @@
+package br.com.brisabr.helpdesk_api.user;
+
+import br.com.brisabr.helpdesk_api.auth.AuthenticatedUserCache;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA que invalida o {@link AuthenticatedUserCache} quando um usuário
+ * é alterado (perfil, senha, email, etc.) ou removido.
+ *
+ * Instanciado pelo Spring via SpringBeanContainer do Hibernate.
+ */
+@Component
+public class UserCacheInvalidationListener {
+
+    private final AuthenticatedUserCache authenticatedUserCache;
+
+    public UserCacheInvalidationListener(@Lazy AuthenticatedUserCache authenticatedUserCache) {
+        this.authenticatedUserCache = authenticatedUserCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        authenticatedUserCache.invalidate(user.getId());
+    }
+}
@@ -0,0 +1,11 @@
+package br.com.brisabr.helpdesk_api.util;
+
+/**
+ * Arquivo validado e gravado no storage em uma única leitura.
+ *
+ * @param chaveArmazenamento chave no storage ({@code null} quando só validado)
+ * @param sha256 hash do conteúdo em hexadecimal
+ * @param tamanho bytes efetivamente lidos do upload
+ */
+public record ArquivoValidado(String chaveArmazenamento, String sha256, long tamanho) {
+}
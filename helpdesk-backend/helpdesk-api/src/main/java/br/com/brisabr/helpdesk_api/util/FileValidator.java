@@ -1,5 +1,11 @@
 package br.com.brisabr.helpdesk_api.util;
 
+import br.com.brisabr.helpdesk_api.antivirus.AntivirusScanner;
+import br.com.brisabr.helpdesk_api.antivirus.ScanEmAndamento;
+import br.com.brisabr.helpdesk_api.antivirus.ScanResult;
+import br.com.brisabr.helpdesk_api.storage.FileStorageService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,16 +14,25 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 /**
  * Validador de arquivos enviados via upload.
  * Valida tipo MIME real (não apenas extensão do nome do arquivo).
  * Suporta detecção de malware via ClamAV quando habilitado.
+ *
+ * O conteúdo de cada arquivo é lido uma única vez ({@link UploadInputStream}):
+ * assinatura, tamanho, SHA-256, antivírus e gravação no storage saem da mesma leitura.
  */
 @Component
 public class FileValidator {
@@ -30,14 +45,22 @@ public class FileValidator {
     @Value("${file.upload.max-files:5}")
     private int maxFiles;
 
-    @Value("${file.upload.antivirus.enabled:false}")
-    private boolean antivirusEnabled;
-
-    @Value("${file.upload.antivirus.clamav.host:localhost}")
-    private String clamavHost;
-
-    @Value("${file.upload.antivirus.clamav.port:3310}")
-    private int clamavPort;
+    private final AntivirusScanner antivirusScanner;
+    private final DistributionSummary bytesLidos;
+    private final DistributionSummary bytesDeclarados;
+
+    public FileValidator(AntivirusScanner antivirusScanner, MeterRegistry meterRegistry) {
+        this.antivirusScanner = antivirusScanner;
+        // Com a leitura em passada única as duas somas devem ser iguais
+        this.bytesLidos = DistributionSummary.builder("helpdesk.upload.bytes.read")
+                .description("Bytes lidos do multipart por arquivo enviado")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.bytesDeclarados = DistributionSummary.builder("helpdesk.upload.bytes.size")
+                .description("Tamanho declarado de cada arquivo enviado")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
 
     // Padrão para nomes de arquivo perigosos
     private static final Pattern DANGEROUS_FILENAME_PATTERN = Pattern.compile(
@@ -114,13 +137,123 @@ public class FileValidator {
         MAGIC_NUMBERS.put("application/x-rar-compressed", new byte[]{0x52, 0x61, 0x72, 0x21}); // Rar!
     }
 
+    private static final MagicNumberTrie MAGIC_TRIE = new MagicNumberTrie(MAGIC_NUMBERS);
+
     /**
-     * Valida um arquivo enviado via upload.
+     * Valida um arquivo enviado via upload, lendo o conteúdo uma vez e descartando-o.
+     * Para validar e gravar no storage na mesma leitura use {@link #validateAndStore}.
      *
      * @param file Arquivo MultipartFile
      * @throws IllegalArgumentException se o arquivo for inválido
      */
     public void validateFile(MultipartFile file) throws IOException {
+        validateMetadata(file);
+        validateContent(file, null);
+    }
+
+    /**
+     * Valida e grava os arquivos no storage com uma única leitura de cada um:
+     * o mesmo stream confere assinatura e tamanho, calcula o SHA-256, alimenta
+     * o antivírus (modo síncrono) e é gravado no storage. Os arquivos são
+     * processados em paralelo.
+     *
+     * Os metadados devem ter sido validados antes com {@link #validateFiles}.
+     * Se algum arquivo for rejeitado, os já gravados são removidos.
+     *
+     * @return um resultado por arquivo, na mesma ordem
+     * @throws IllegalArgumentException se algum arquivo for inválido ou contiver malware
+     */
+    public List<ArquivoValidado> validateAndStore(List<MultipartFile> files, FileStorageService storage) throws IOException {
+        if (files.size() == 1) {
+            return List.of(validateContent(files.get(0), storage));
+        }
+
+        List<Future<ArquivoValidado>> futures = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : files) {
+                futures.add(executor.submit(() -> validateContent(file, storage)));
+            }
+        }
+
+        List<ArquivoValidado> validados = new ArrayList<>(files.size());
+        Throwable falha = null;
+        for (Future<ArquivoValidado> future : futures) {
+            try {
+                validados.add(future.get());
+            } catch (ExecutionException e) {
+                falha = falha == null ? e.getCause() : falha;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                falha = falha == null ? e : falha;
+            }
+        }
+        if (falha == null) {
+            return validados;
+        }
+
+        for (ArquivoValidado validado : validados) {
+            deleteQuietly(storage, validado.chaveArmazenamento());
+        }
+        if (falha instanceof IOException io) {
+            throw io;
+        }
+        if (falha instanceof RuntimeException re) {
+            throw re;
+        }
+        throw new IOException("Falha ao processar arquivos enviados", falha);
+    }
+
+    /**
+     * Passada única sobre o conteúdo de um arquivo (ver {@link UploadInputStream}).
+     *
+     * @param storage onde gravar o conteúdo; {@code null} para apenas validar
+     */
+    private ArquivoValidado validateContent(MultipartFile file, FileStorageService storage) throws IOException {
+        AntivirusTee antivirus = antivirusScanner.isSyncMode() ? openAntivirus() : null;
+        UploadInputStream content;
+        String chave = null;
+        try (InputStream in = file.getInputStream()) {
+            content = new UploadInputStream(in, maxFileSize, MAGIC_TRIE, file.getContentType(), antivirus);
+            if (storage != null) {
+                chave = storage.store(content, file.getOriginalFilename(), content::sha256Hex);
+            } else {
+                content.transferTo(OutputStream.nullOutputStream());
+            }
+        } catch (IOException | RuntimeException e) {
+            if (antivirus != null) {
+                antivirus.close();
+            }
+            if (e instanceof IllegalArgumentException) {
+                logger.warn("Arquivo {} rejeitado: {}", file.getOriginalFilename(), e.getMessage());
+            }
+            throw e;
+        }
+
+        if (antivirus != null) {
+            try {
+                checkScanResult(file, antivirus, storage, chave);
+            } catch (IOException | RuntimeException e) {
+                if (chave != null) {
+                    deleteQuietly(storage, chave);
+                }
+                throw e;
+            }
+        }
+
+        long lidos = content.getBytesLidos();
+        bytesLidos.record(lidos);
+        bytesDeclarados.record(file.getSize());
+        if (lidos != file.getSize()) {
+            logger.warn("Arquivo {}: {} bytes lidos, {} declarados", file.getOriginalFilename(), lidos, file.getSize());
+        }
+        logger.debug("Arquivo validado com sucesso: {} ({})", file.getOriginalFilename(), file.getContentType());
+        return new ArquivoValidado(chave, content.sha256Hex(), lidos);
+    }
+
+    /**
+     * Validações de nome, tamanho declarado e tipo MIME, sem ler o conteúdo.
+     */
+    private void validateMetadata(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("Arquivo vazio ou nulo");
         }
@@ -174,72 +307,23 @@ public class FileValidator {
             );
         }
 
-        // Validar assinatura do arquivo (magic numbers) para tipos comuns
-        validateMagicNumbers(file, contentType);
-
-        // Scan antivírus se habilitado
-        if (antivirusEnabled) {
-            scanForViruses(file);
-        }
-
-        logger.debug("Arquivo validado com sucesso: {} ({})", file.getOriginalFilename(), contentType);
+        // A assinatura (magic number) é conferida durante a leitura do conteúdo
     }
 
     /**
-     * Escaneia arquivo em busca de vírus usando ClamAV.
+     * Abre o scan que recebe o conteúdo junto com a gravação.
      *
-     * @param file Arquivo a ser escaneado
-     * @throws IOException se houver erro de I/O
-     * @throws IllegalArgumentException se vírus for detectado
+     * @return {@code null} se o ClamAV estiver inacessível (o upload segue sem scan)
      */
-    private void scanForViruses(MultipartFile file) throws IOException {
-        try (java.net.Socket socket = new java.net.Socket(clamavHost, clamavPort)) {
-            socket.setSoTimeout(30000); // 30 segundos timeout
-
-            // Enviar comando INSTREAM
-            try (java.io.OutputStream out = socket.getOutputStream();
-                 InputStream in = socket.getInputStream()) {
-
-                out.write("zINSTREAM\0".getBytes());
-                out.flush();
-
-                // Enviar arquivo em chunks
-                byte[] buffer = new byte[2048];
-                try (InputStream fileStream = file.getInputStream()) {
-                    int read;
-                    while ((read = fileStream.read(buffer)) > 0) {
-                        // Enviar tamanho do chunk (4 bytes, big-endian)
-                        out.write(new byte[]{
-                            (byte) (read >> 24),
-                            (byte) (read >> 16),
-                            (byte) (read >> 8),
-                            (byte) read
-                        });
-                        out.write(buffer, 0, read);
-                    }
-                }
-
-                // Enviar fim do stream (chunk size = 0)
-                out.write(new byte[]{0, 0, 0, 0});
-                out.flush();
-
-                // Ler resposta
-                byte[] response = new byte[1024];
-                int responseLength = in.read(response);
-                String result = new String(response, 0, responseLength).trim();
-
-                if (!result.contains("OK")) {
-                    logger.error("Vírus detectado no arquivo {}: {}", file.getOriginalFilename(), result);
-                    throw new IllegalArgumentException("Arquivo contém malware e foi rejeitado");
-                }
-
-                logger.debug("Arquivo {} passou no scan antivírus", file.getOriginalFilename());
-            }
+    private AntivirusTee openAntivirus() throws IOException {
+        try {
+            return new AntivirusTee(antivirusScanner.abrirStream());
         } catch (java.net.ConnectException e) {
-            logger.error("Não foi possível conectar ao ClamAV em {}:{}", clamavHost, clamavPort);
+            logger.error("Não foi possível conectar ao ClamAV: {}", e.getMessage());
             // Em produção, você pode querer falhar aqui
             // Por enquanto, apenas logamos o erro
             logger.warn("Scan antivírus desabilitado devido a erro de conexão");
+            return null;
         } catch (IOException e) {
             logger.error("Erro ao escanear arquivo com ClamAV", e);
             throw new IOException("Erro ao escanear arquivo em busca de vírus", e);
@@ -247,68 +331,88 @@ public class FileValidator {
     }
 
     /**
-     * Valida assinatura do arquivo comparando com magic numbers conhecidos.
+     * Lê o resultado do scan. Se a sessão com o ClamAV caiu no meio do envio,
+     * escaneia de novo a partir da cópia gravada (ou do próprio upload, sem storage).
      *
-     * @param file Arquivo MultipartFile
-     * @param declaredType Tipo MIME declarado
-     * @throws IOException se houver erro ao ler o arquivo
-     * @throws IllegalArgumentException se a assinatura não corresponder ao tipo declarado
+     * @throws IllegalArgumentException se vírus for detectado
      */
-    private void validateMagicNumbers(MultipartFile file, String declaredType) throws IOException {
-        byte[] magicNumber = MAGIC_NUMBERS.get(declaredType);
-        if (magicNumber == null) {
-            // Não temos magic number para este tipo, pular validação
-            logger.debug("Magic number não disponível para tipo: {}", declaredType);
-            return;
+    private void checkScanResult(MultipartFile file, AntivirusTee antivirus, FileStorageService storage, String chave)
+            throws IOException {
+        ScanResult result = antivirus.concluir();
+        if (result == null) {
+            try {
+                result = antivirusScanner.scan(storage != null ? storage.loadAsResource(chave) : file);
+            } catch (java.net.ConnectException e) {
+                logger.warn("Scan antivírus desabilitado devido a erro de conexão");
+                return;
+            } catch (IOException e) {
+                logger.error("Erro ao escanear arquivo com ClamAV", e);
+                throw new IOException("Erro ao escanear arquivo em busca de vírus", e);
+            }
+        }
+        if (!result.limpo()) {
+            logger.error("Vírus detectado no arquivo {}: {}", file.getOriginalFilename(), result.assinatura());
+            throw new IllegalArgumentException("Arquivo contém malware e foi rejeitado");
         }
+        logger.debug("Arquivo {} passou no scan antivírus", file.getOriginalFilename());
+    }
 
-        byte[] fileHeader = new byte[magicNumber.length];
-        try (InputStream inputStream = file.getInputStream()) {
-            int bytesRead = inputStream.read(fileHeader);
+    private static void deleteQuietly(FileStorageService storage, String chave) {
+        try {
+            storage.release(chave);
+        } catch (IOException e) {
+            logger.warn("Não foi possível remover arquivo rejeitado {}: {}", chave, e.getMessage());
+        }
+    }
 
-            if (bytesRead < magicNumber.length) {
-                logger.warn("Arquivo muito pequeno para validar magic number: {} bytes (necessário: {})",
-                    bytesRead, magicNumber.length);
-                throw new IllegalArgumentException("Arquivo corrompido ou inválido");
-            }
+    /**
+     * Repassa ao ClamAV os bytes lidos pelo {@link UploadInputStream}. Uma falha
+     * na sessão não interrompe a gravação: o tee para de enviar e o arquivo é
+     * escaneado depois, a partir da cópia gravada.
+     */
+    private static final class AntivirusTee implements UploadInputStream.Tee {
 
-            // Comparar primeiros bytes
-            boolean matches = true;
-            for (int i = 0; i < magicNumber.length; i++) {
-                if (fileHeader[i] != magicNumber[i]) {
-                    matches = false;
-                    break;
-                }
-            }
+        private final ScanEmAndamento scan;
+        private IOException falha;
 
-            if (!matches) {
-                logger.warn("Magic number não corresponde ao tipo declarado '{}'. Esperado: {}, Encontrado: {}",
-                    declaredType,
-                    bytesToHex(magicNumber),
-                    bytesToHex(fileHeader));
-                throw new IllegalArgumentException(
-                    "Tipo de arquivo não corresponde ao conteúdo real. " +
-                    "O arquivo pode estar corrompido ou foi renomeado incorretamente."
-                );
+        private AntivirusTee(ScanEmAndamento scan) {
+            this.scan = scan;
+        }
+
+        @Override
+        public void write(byte[] dados, int offset, int tamanho) {
+            if (falha != null) {
+                return;
+            }
+            try {
+                scan.enviar(dados, offset, tamanho);
+            } catch (IOException e) {
+                falha = e;
             }
+        }
 
-            logger.debug("Magic number validado para tipo: {}", declaredType);
+        /**
+         * @return o resultado, ou {@code null} se a sessão falhou e o scan precisa ser refeito
+         */
+        ScanResult concluir() {
+            if (falha == null) {
+                try {
+                    return scan.concluir();
+                } catch (IOException e) {
+                    falha = e;
+                }
+            }
+            logger.debug("Sessão do ClamAV falhou durante o upload ({}); escaneando de novo", falha.getMessage());
+            return null;
         }
-    }
 
-    /**
-     * Converte bytes para representação hexadecimal (para logging).
-     */
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02X ", b));
+        void close() {
+            scan.close();
         }
-        return sb.toString().trim();
     }
 
     /**
-     * Valida uma lista de arquivos.
+     * Valida quantidade, tamanho e metadados de uma lista de arquivos, sem ler o conteúdo.
      *
      * @param files Lista de arquivos
      * @throws IOException se houver erro ao ler os arquivos
@@ -344,10 +448,10 @@ public class FileValidator {
             );
         }
 
-        // Validar cada arquivo individualmente
+        // Validar os metadados de cada arquivo; o conteúdo é validado em validateAndStore
         for (MultipartFile file : files) {
             if (!file.isEmpty()) {
-                validateFile(file);
+                validateMetadata(file);
             }
         }
 
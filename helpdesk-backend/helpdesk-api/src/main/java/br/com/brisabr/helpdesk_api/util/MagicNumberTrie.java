@@ -0,0 +1,72 @@
+package br.com.brisabr.helpdesk_api.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Árvore de prefixos das assinaturas de arquivo (magic numbers).
+ *
+ * Uma única descida pelos primeiros bytes do arquivo devolve todos os tipos MIME
+ * cuja assinatura é prefixo do cabeçalho; tipos com a mesma assinatura (DOCX,
+ * XLSX e ZIP começam todos com {@code PK\3\4}) ficam no mesmo nó.
+ */
+final class MagicNumberTrie {
+
+    private static final class No {
+        private final No[] filhos = new No[256];
+        private final List<String> tipos = new ArrayList<>(1);
+    }
+
+    private final No raiz = new No();
+    private final Set<String> tiposComAssinatura = new HashSet<>();
+    private final int maiorAssinatura;
+
+    MagicNumberTrie(Map<String, byte[]> assinaturas) {
+        int maior = 0;
+        for (Map.Entry<String, byte[]> entrada : assinaturas.entrySet()) {
+            No no = raiz;
+            for (byte b : entrada.getValue()) {
+                int i = b & 0xFF;
+                if (no.filhos[i] == null) {
+                    no.filhos[i] = new No();
+                }
+                no = no.filhos[i];
+            }
+            no.tipos.add(entrada.getKey());
+            tiposComAssinatura.add(entrada.getKey());
+            maior = Math.max(maior, entrada.getValue().length);
+        }
+        this.maiorAssinatura = maior;
+    }
+
+    /**
+     * Quantos bytes do início do arquivo bastam para qualquer consulta.
+     */
+    int maiorAssinatura() {
+        return maiorAssinatura;
+    }
+
+    boolean temAssinatura(String tipo) {
+        return tiposComAssinatura.contains(tipo);
+    }
+
+    /**
+     * Verifica se o cabeçalho começa com a assinatura do tipo declarado.
+     */
+    boolean corresponde(String tipo, byte[] cabecalho, int tamanho) {
+        No no = raiz;
+        for (int i = 0; i < tamanho; i++) {
+            no = no.filhos[cabecalho[i] & 0xFF];
+            if (no == null) {
+                return false;
+            }
+            if (no.tipos.contains(tipo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
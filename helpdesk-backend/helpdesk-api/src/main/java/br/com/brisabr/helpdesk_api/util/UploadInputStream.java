@@ -0,0 +1,132 @@
+package br.com.brisabr.helpdesk_api.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Stream de upload que valida enquanto é lido, para que o conteúdo do multipart
+ * seja percorrido uma única vez.
+ *
+ * A cada leitura: conta os bytes e barra o que passar de {@code maxBytes},
+ * atualiza o SHA-256, guarda o cabeçalho e confere a assinatura do tipo
+ * declarado assim que tiver bytes suficientes, e repassa os bytes ao
+ * {@link Tee} (scan antivírus). Erros de validação saem como
+ * {@link IllegalArgumentException}, como no restante do {@link FileValidator}.
+ */
+final class UploadInputStream extends FilterInputStream {
+
+    /**
+     * Destino adicional dos bytes lidos; não pode lançar exceção verificada
+     * para não interromper o consumidor principal.
+     */
+    @FunctionalInterface
+    interface Tee {
+        void write(byte[] dados, int offset, int tamanho);
+    }
+
+    private final long maxBytes;
+    private final MagicNumberTrie assinaturas;
+    private final String tipoDeclarado;
+    private final Tee tee;
+    private final MessageDigest sha256;
+    private String sha256Hex;
+    private final byte[] cabecalho;
+    private int tamanhoCabecalho;
+    private boolean cabecalhoVerificado;
+    private long bytesLidos;
+    private boolean fim;
+
+    UploadInputStream(InputStream in, long maxBytes, MagicNumberTrie assinaturas, String tipoDeclarado, Tee tee) {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.assinaturas = assinaturas;
+        this.tipoDeclarado = tipoDeclarado;
+        this.tee = tee;
+        this.cabecalho = new byte[assinaturas.maiorAssinatura()];
+        this.cabecalhoVerificado = !assinaturas.temAssinatura(tipoDeclarado);
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] um = new byte[1];
+        int n = read(um, 0, 1);
+        return n < 0 ? -1 : um[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n < 0) {
+            if (!fim) {
+                fim = true;
+                verificarCabecalho();
+            }
+            return n;
+        }
+        bytesLidos += n;
+        if (bytesLidos > maxBytes) {
+            throw new IllegalArgumentException(String.format(
+                    "Arquivo muito grande. Tamanho máximo: %.2f MB", maxBytes / (1024.0 * 1024.0)));
+        }
+        sha256.update(b, off, n);
+        if (!cabecalhoVerificado) {
+            int copiar = Math.min(n, cabecalho.length - tamanhoCabecalho);
+            System.arraycopy(b, off, cabecalho, tamanhoCabecalho, copiar);
+            tamanhoCabecalho += copiar;
+            if (tamanhoCabecalho == cabecalho.length) {
+                verificarCabecalho();
+            }
+        }
+        if (tee != null) {
+            tee.write(b, off, n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        // Pular bytes deixaria o hash e o scan incompletos
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    long getBytesLidos() {
+        return bytesLidos;
+    }
+
+    /**
+     * SHA-256 do conteúdo em hexadecimal; só é definitivo depois de lido até o
+     * fim. Calculado na primeira chamada (o storage e o anexo usam o mesmo).
+     */
+    String sha256Hex() {
+        if (sha256Hex == null) {
+            sha256Hex = HexFormat.of().formatHex(sha256.digest());
+        }
+        return sha256Hex;
+    }
+
+    private void verificarCabecalho() {
+        if (cabecalhoVerificado) {
+            return;
+        }
+        cabecalhoVerificado = true;
+        if (!assinaturas.corresponde(tipoDeclarado, cabecalho, tamanhoCabecalho)) {
+            throw new IllegalArgumentException(
+                    "Tipo de arquivo não corresponde ao conteúdo real. " +
+                    "O arquivo pode estar corrompido ou foi renomeado incorretamente.");
+        }
+    }
+}
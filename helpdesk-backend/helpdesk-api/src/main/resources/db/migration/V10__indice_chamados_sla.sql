@@ -0,0 +1,10 @@
+-- =====================================================
+-- Chamados com SLA violado (dashboard), direto na coluna sla_deadline
+-- =====================================================
+-- CONCURRENTLY não bloqueia escrita em bases já populadas; o Flyway
+-- executa scripts só com esse tipo de comando fora de transação.
+
+-- findSlaViolatedByStatusIn: status IN ('Aberto', 'Em Andamento') AND sla_deadline < ?
+-- backfillSlaDeadlines: status IN (...) AND sla_deadline IS NULL
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chamados_status_sla
+    ON chamados (status, sla_deadline);
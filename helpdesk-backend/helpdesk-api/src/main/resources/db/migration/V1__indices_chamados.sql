@@ -0,0 +1,33 @@
+-- =====================================================
+-- Índices de chamados, um por formato de consulta
+-- (TicketRepository, relatório detalhado e métricas do dashboard)
+-- =====================================================
+-- CONCURRENTLY não bloqueia escrita em bases já populadas; o Flyway
+-- executa scripts só com esse tipo de comando fora de transação.
+
+-- Listagem paginada e por cursor: ORDER BY data_abertura DESC, id DESC
+-- Relatório detalhado por período de abertura: data_abertura >= ? AND data_abertura < ?
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chamados_keyset
+    ON chamados (data_abertura DESC, id DESC);
+
+-- "Meus chamados" (paginado e por cursor) e findAllBySolicitanteId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chamados_solicitante_keyset
+    ON chamados (id_solicitante, data_abertura DESC, id DESC);
+
+-- findSlaEntriesByStatusIn: status IN ('Aberto', 'Em Andamento')
+-- Métricas (atrasados/críticos): status IN (...) AND data_abertura < ?
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chamados_status_abertura
+    ON chamados (status, data_abertura);
+
+-- countByStatusAndAtribuidoIsNull: status = ? AND id_tecnico_atribuido IS NULL
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chamados_status_tecnico_null
+    ON chamados (status, id_tecnico_atribuido)
+    WHERE id_tecnico_atribuido IS NULL;
+
+-- Relatório detalhado filtrado por técnico (e opcionalmente status)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chamados_tecnico_status
+    ON chamados (id_tecnico_atribuido, status);
+
+-- Relatório detalhado por período de fechamento: data_fechamento >= ? AND data_fechamento < ?
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chamados_data_fechamento
+    ON chamados (data_fechamento);
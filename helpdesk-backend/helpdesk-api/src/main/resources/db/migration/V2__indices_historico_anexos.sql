@@ -0,0 +1,18 @@
+-- =====================================================
+-- Índices de histórico e anexos
+-- =====================================================
+
+-- Histórico de um chamado (coleção Ticket.historico) em ordem cronológica
+-- Primeira resposta: MIN(data_ocorrencia) por id_chamado
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_historico_chamado_data
+    ON historico_chamados (id_chamado, data_ocorrencia DESC);
+
+-- Anexos de um chamado (findByIdWithAnexos, coleção Ticket.anexos)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_anexos_chamado
+    ON anexos_chamados (id_chamado);
+
+-- AnexoChamadoRepository.findLegacyIds: anexos ainda em Base64 no banco, por id.
+-- Parcial: encolhe conforme a migração para o storage avança.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_anexos_legados
+    ON anexos_chamados (id)
+    WHERE chave_armazenamento IS NULL AND dados IS NOT NULL;
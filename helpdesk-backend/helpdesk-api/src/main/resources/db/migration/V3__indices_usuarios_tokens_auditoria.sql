@@ -0,0 +1,30 @@
+-- =====================================================
+-- Índices de usuários, refresh tokens e auditoria
+-- =====================================================
+
+-- UserRepository.findByPerfil
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_usuarios_perfil
+    ON usuarios (perfil);
+
+-- RefreshTokenRepository.deleteExpiredTokens: expiry_date < ? (revogados ou não)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_expiry_date
+    ON refresh_tokens (expiry_date);
+
+-- RefreshTokenRepository.revokeAllUserTokens: user_id = ? AND revoked = false
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_user_ativos
+    ON refresh_tokens (user_id)
+    WHERE revoked = false;
+
+-- AuditLogRepository: filtro por usuário, ação ou IP, sempre ORDER BY timestamp DESC
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_audit_user_timestamp
+    ON audit_logs (user_id, timestamp DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_audit_action_timestamp
+    ON audit_logs (action, timestamp DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_audit_ip_timestamp
+    ON audit_logs (ip_address, timestamp DESC);
+
+-- AuditLogRepository.findByTimestampBetween
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_audit_timestamp
+    ON audit_logs (timestamp DESC);
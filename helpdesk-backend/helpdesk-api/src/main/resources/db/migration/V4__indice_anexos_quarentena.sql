@@ -0,0 +1,9 @@
+-- =====================================================
+-- Índice da quarentena do antivírus
+-- =====================================================
+
+-- AnexoChamadoRepository.findIdsByVerificacao: anexos que ainda aguardam o scan.
+-- Parcial: só contém os poucos anexos pendentes, não cresce com o histórico.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_anexos_quarentena_pendentes
+    ON anexos_chamados (id, data_upload)
+    WHERE verificacao = 'PENDENTE';
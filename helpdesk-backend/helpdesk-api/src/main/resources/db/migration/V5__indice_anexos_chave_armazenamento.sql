@@ -0,0 +1,10 @@
+-- =====================================================
+-- Índice da deduplicação de anexos
+-- =====================================================
+
+-- AnexoConteudoGcService: referências a cada arquivo do storage (findReferencedKeys)
+-- e estatísticas de deduplicação (GROUP BY chave_armazenamento).
+-- Parcial: anexos legados sem chave ficam de fora.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_anexos_chave_armazenamento
+    ON anexos_chamados (chave_armazenamento)
+    WHERE chave_armazenamento IS NOT NULL;
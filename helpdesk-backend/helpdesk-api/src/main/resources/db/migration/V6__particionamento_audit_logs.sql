@@ -0,0 +1,90 @@
+-- =====================================================
+-- Particionamento mensal de audit_logs
+-- =====================================================
+--
+-- audit_logs passa a ser particionada por RANGE (timestamp), uma partição por
+-- mês (audit_logs_pAAAA_MM). A retenção remove partições inteiras
+-- (AuditPartitionService) em vez de DELETE, sem inchar a tabela nem o WAL.
+--
+-- A conversão copia as linhas existentes e segura um lock exclusivo na tabela
+-- até o fim da migração; em bancos com muitos logs, rodar numa janela de
+-- manutenção. Se a tabela já é particionada, o bloco não faz nada. Os índices
+-- são criados sem CONCURRENTLY, que não é aceito em tabela particionada.
+
+DO $$
+DECLARE
+    mes        date;
+    ultimo_mes date;
+    restricao  record;
+    sequencia  text;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('audit_logs')) IS DISTINCT FROM 'r' THEN
+        RETURN;
+    END IF;
+
+    LOCK TABLE audit_logs IN ACCESS EXCLUSIVE MODE;
+    ALTER TABLE audit_logs RENAME TO audit_logs_legado;
+
+    CREATE TABLE audit_logs (
+        LIKE audit_logs_legado INCLUDING DEFAULTS INCLUDING IDENTITY INCLUDING CONSTRAINTS
+    ) PARTITION BY RANGE ("timestamp");
+
+    -- A chave de uma tabela particionada precisa incluir a coluna de partição
+    ALTER TABLE audit_logs ADD PRIMARY KEY (id, "timestamp");
+
+    -- Chaves estrangeiras (user_id -> usuarios) com o mesmo nome dado pelo Hibernate
+    FOR restricao IN
+        SELECT conname, pg_get_constraintdef(oid) AS definicao
+        FROM pg_constraint
+        WHERE conrelid = 'audit_logs_legado'::regclass AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE audit_logs_legado DROP CONSTRAINT %I', restricao.conname);
+        EXECUTE format('ALTER TABLE audit_logs ADD CONSTRAINT %I %s', restricao.conname, restricao.definicao);
+    END LOOP;
+
+    -- Uma partição por mês com dados, do mais antigo até dois meses à frente
+    mes := date_trunc('month', coalesce((SELECT min("timestamp") FROM audit_logs_legado), now()))::date;
+    ultimo_mes := (date_trunc('month', now()) + INTERVAL '2 months')::date;
+    WHILE mes <= ultimo_mes LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+                       'audit_logs_p' || to_char(mes, 'YYYY_MM'), mes, (mes + INTERVAL '1 month')::date);
+        mes := (mes + INTERVAL '1 month')::date;
+    END LOOP;
+
+    -- Rede de segurança: linhas fora das partições mensais (relógio adiantado,
+    -- job de partições parado) não fazem o INSERT da auditoria falhar
+    CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+    INSERT INTO audit_logs OVERRIDING SYSTEM VALUE SELECT * FROM audit_logs_legado;
+
+    -- id SERIAL (bancos antigos): a sequência passa a pertencer à nova tabela
+    sequencia := pg_get_serial_sequence('audit_logs_legado', 'id');
+    IF sequencia IS NOT NULL AND pg_get_serial_sequence('audit_logs', 'id') IS NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY audit_logs.id', sequencia);
+    END IF;
+    sequencia := pg_get_serial_sequence('audit_logs', 'id');
+    IF sequencia IS NOT NULL THEN
+        PERFORM setval(sequencia, coalesce((SELECT max(id) FROM audit_logs), 0) + 1, false);
+    END IF;
+
+    DROP TABLE audit_logs_legado;
+END
+$$;
+
+-- Os índices da V3 foram removidos com a tabela antiga. Na tabela particionada
+-- cada índice é criado em todas as partições, inclusive nas futuras.
+-- O id no fim desempata a paginação por cursor (timestamp DESC, id DESC).
+
+-- AuditLogRepository: filtro por usuário ou IP dentro de um período
+CREATE INDEX IF NOT EXISTS idx_audit_user_timestamp
+    ON audit_logs (user_id, timestamp DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_audit_ip_timestamp
+    ON audit_logs (ip_address, timestamp DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_audit_action_timestamp
+    ON audit_logs (action, timestamp DESC);
+
+-- AuditLogRepository.findByTimestampBetween e páginas por período
+CREATE INDEX IF NOT EXISTS idx_audit_timestamp
+    ON audit_logs (timestamp DESC, id DESC);
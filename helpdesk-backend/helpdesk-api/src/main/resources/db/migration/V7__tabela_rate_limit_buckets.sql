@@ -0,0 +1,17 @@
+-- =====================================================
+-- Buckets de rate limiting compartilhados entre réplicas
+-- =====================================================
+
+-- JdbcBucketStore (rate-limit.store=jdbc): estado serializado do Bucket4j por
+-- chave, gravado com compare-and-swap pela coluna version. A tabela é criada
+-- mesmo com o store local, para que trocar de store não exija migração.
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+    bucket_key VARCHAR(255) PRIMARY KEY,
+    state      BYTEA        NOT NULL,
+    version    BIGINT       NOT NULL,
+    expires_at TIMESTAMP    NOT NULL
+);
+
+-- JdbcBucketStore.removerExpirados: buckets que já voltaram à capacidade cheia
+CREATE INDEX IF NOT EXISTS idx_rate_limit_buckets_expires_at
+    ON rate_limit_buckets (expires_at);
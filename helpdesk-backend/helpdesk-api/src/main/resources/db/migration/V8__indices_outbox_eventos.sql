@@ -0,0 +1,15 @@
+-- =====================================================
+-- Índices da outbox de eventos de chamados
+-- =====================================================
+
+-- TicketEventDispatcher.reservarPendentes: só os eventos ainda não entregues,
+-- na ordem em que o dispatcher os reserva. Parcial: a maior parte da tabela
+-- são eventos já entregues aguardando a limpeza.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_outbox_pendentes
+    ON ticket_event_outbox (proxima_tentativa, id)
+    WHERE processado_em IS NULL;
+
+-- TicketEventDispatcher.limparProcessados: eventos entregues antes do limite de retenção
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_outbox_processado_em
+    ON ticket_event_outbox (processado_em)
+    WHERE processado_em IS NOT NULL;
@@ -0,0 +1,18 @@
+-- =====================================================
+-- Busca textual de chamados (GET /api/tickets/search)
+-- =====================================================
+
+-- Um documento tsvector por chamado (dicionário portuguese): número e descrição
+-- com peso A, solução com peso B, comentários com peso C. Mantido pelo
+-- TicketSearchIndexer a partir da outbox; na primeira subida os chamados
+-- existentes são indexados em segundo plano. A tabela nasce vazia, então o
+-- índice não precisa de CONCURRENTLY.
+CREATE TABLE IF NOT EXISTS chamados_busca (
+    id_chamado    BIGINT    PRIMARY KEY,
+    documento     TSVECTOR  NOT NULL,
+    atualizado_em TIMESTAMP NOT NULL
+);
+
+-- TicketSearchService.buscar: documento @@ websearch_to_tsquery('portuguese', termo)
+CREATE INDEX IF NOT EXISTS idx_chamados_busca_documento
+    ON chamados_busca USING GIN (documento);
@@ -0,0 +1,449 @@
+package br.com.brisabr.helpdesk_api;
+
+import br.com.brisabr.helpdesk_api.audit.AuditLogRepository;
+import br.com.brisabr.helpdesk_api.auth.RefreshTokenRepository;
+import br.com.brisabr.helpdesk_api.rollup.ResumoDiarioChamadoRepository;
+import br.com.brisabr.helpdesk_api.search.TicketSearchRepository;
+import br.com.brisabr.helpdesk_api.search.TicketSearchService;
+import br.com.brisabr.helpdesk_api.service.ReportService;
+import br.com.brisabr.helpdesk_api.ticket.AnexoChamadoRepository;
+import br.com.brisabr.helpdesk_api.ticket.TicketRepository;
+import br.com.brisabr.helpdesk_api.user.User;
+import br.com.brisabr.helpdesk_api.user.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Roda EXPLAIN sobre as consultas dos repositórios num PostgreSQL real, com as
+ * migrações de {@code db/migration} aplicadas e tabelas populadas, e falha se
+ * alguma consulta fizer Seq Scan numa tabela com mais de {@value #LIMITE_LINHAS} linhas.
+ *
+ * Cada caso chama o método do repositório com parâmetros realistas; o SQL gerado
+ * pelo Hibernate e os valores vinculados são capturados na camada JDBC e
+ * repetidos com {@code EXPLAIN (FORMAT JSON)}, o que produz o mesmo plano da execução.
+ *
+ * Ficam de fora, por percorrerem a tabela inteira por definição: o total das
+ * listagens paginadas ({@code SELECT count(*)} sem filtro), as agregações
+ * completas do resumo diário, {@code calculateAverageFirstResponseTime},
+ * a reconstrução do resumo e {@code findMaxNumeroByPrefixo} (uma vez por ano).
+ *
+ * Sem Docker disponível o teste é ignorado.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@Import(RepositoryQueryPlanTest.CapturaJdbcConfig.class)
+@DisplayName("Repositórios - Planos de execução no PostgreSQL")
+class RepositoryQueryPlanTest {
+
+    private static final long LIMITE_LINHAS = 1_000;
+    private static final List<String> ATIVOS = List.of("Aberto", "Em Andamento");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private AnexoChamadoRepository anexoChamadoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private ResumoDiarioChamadoRepository resumoRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private TicketSearchRepository searchRepository;
+
+    @Autowired
+    private TicketSearchService searchService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Long> linhasPorTabela = new HashMap<>();
+    private long primeiroUsuario;
+    private long primeiroChamado;
+
+    @BeforeEach
+    void popular() {
+        jdbcTemplate.update("INSERT INTO usuarios (nome, email, senha, perfil, data_criacao) " +
+                "SELECT 'Usuário ' || g, 'usuario' || g || '@plano.test', 'x', " +
+                "CASE WHEN g % 10 = 0 THEN 'technician' ELSE 'user' END, now() " +
+                "FROM generate_series(1, 500) g");
+        primeiroUsuario = jdbcTemplate.queryForObject("SELECT min(id) FROM usuarios", Long.class);
+
+        // ~3 anos de chamados; 5% abertos sem técnico, 5% em andamento, o resto resolvido
+        jdbcTemplate.update("INSERT INTO chamados (numero_chamado, descricao, categoria, prioridade, status, " +
+                "data_abertura, data_fechamento, sla_deadline, foi_reaberto, id_solicitante, id_tecnico_atribuido) " +
+                "SELECT '2090-' || g, 'Chamado ' || g, 'Categoria ' || (g % 8), " +
+                "(ARRAY['Baixa', 'Média', 'Alta', 'Crítica'])[g % 4 + 1], " +
+                "CASE g % 20 WHEN 0 THEN 'Aberto' WHEN 1 THEN 'Em Andamento' ELSE 'Resolvido' END, " +
+                "TIMESTAMP '2023-01-01' + g * INTERVAL '25 minutes', " +
+                "CASE WHEN g % 20 > 1 THEN TIMESTAMP '2023-01-01' + g * INTERVAL '25 minutes' + INTERVAL '6 hours' END, " +
+                "TIMESTAMP '2023-01-01' + g * INTERVAL '25 minutes' + INTERVAL '24 hours', false, " +
+                "? + g % 500, CASE WHEN g % 20 = 0 THEN NULL ELSE ? + (g % 50) * 10 END " +
+                "FROM generate_series(1, 60000) g", primeiroUsuario, primeiroUsuario);
+        primeiroChamado = jdbcTemplate.queryForObject("SELECT min(id) FROM chamados", Long.class);
+
+        jdbcTemplate.update("INSERT INTO historico_chamados (id_chamado, id_autor, comentario, data_ocorrencia) " +
+                "SELECT c.id, c.id_tecnico_atribuido, 'Atualização ' || n, c.data_abertura + n * INTERVAL '1 hour' " +
+                "FROM chamados c, generate_series(1, 2) n");
+
+        // Um anexo a cada três chamados; 1% ainda em Base64 no banco
+        jdbcTemplate.update("INSERT INTO anexos_chamados (nome_arquivo, tipo_arquivo, dados, chave_armazenamento, " +
+                "tamanho, data_upload, id_chamado) " +
+                "SELECT 'arquivo' || c.id || '.pdf', 'application/pdf', " +
+                "CASE WHEN c.id % 300 = 0 THEN 'JVBERi0=' END, CASE WHEN c.id % 300 <> 0 THEN 'anexos/' || c.id END, " +
+                "1024, c.data_abertura, c.id FROM chamados c WHERE c.id % 3 = 0");
+
+        jdbcTemplate.update("INSERT INTO audit_logs (user_id, action, ip_address, user_agent, timestamp, status) " +
+                "SELECT ? + g % 500, CASE WHEN g % 50 = 0 THEN 'LOGIN_FAILURE' WHEN g % 2 = 0 THEN 'LOGIN' ELSE 'VIEW_TICKET' END, " +
+                "'10.0.' || (g % 250) || '.' || (g % 200), 'k6', TIMESTAMP '2025-01-01' + g * INTERVAL '10 minutes', 'SUCCESS' " +
+                "FROM generate_series(1, 50000) g", primeiroUsuario);
+
+        // 90% revogados, 2% expirados
+        jdbcTemplate.update("INSERT INTO refresh_tokens (token, user_id, expiry_date, created_at, revoked) " +
+                "SELECT 'token-' || g, ? + g % 500, " +
+                "CASE WHEN g % 50 = 0 THEN now() - INTERVAL '1 day' ELSE now() + INTERVAL '7 days' END, now(), g % 10 <> 0 " +
+                "FROM generate_series(1, 20000) g", primeiroUsuario);
+
+        jdbcTemplate.update("INSERT INTO resumo_diario_chamados (dia, categoria, prioridade, id_tecnico, status, " +
+                "abertos, fechados, duracao_segundos, fechados_sla_violado) " +
+                "SELECT CAST(d AS date), 'Categoria ' || (t % 4), 'Alta', ? + t * 10, s, 3, 2, 7200, 0 " +
+                "FROM generate_series(DATE '2023-01-01', DATE '2025-12-31', INTERVAL '1 day') d, " +
+                "generate_series(0, 7) t, unnest(ARRAY['Aberto', 'Em Andamento', 'Resolvido']) s", primeiroUsuario);
+
+        // Documentos da busca textual, como o backfill do TicketSearchIndexer
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> searchRepository.indexarPendentes(0, Long.MAX_VALUE));
+
+        jdbcTemplate.execute("VACUUM ANALYZE");
+        jdbcTemplate.query("SELECT relname, reltuples FROM pg_class WHERE relkind = 'r' " +
+                        "AND relnamespace = CAST('public' AS regnamespace)",
+                (ResultSet rs) -> {
+                    linhasPorTabela.put(rs.getString(1), (long) rs.getFloat(2));
+                });
+    }
+
+    @TestFactory
+    @DisplayName("Nenhuma consulta de repositório deve fazer Seq Scan em tabela grande")
+    Stream<DynamicTest> consultasDosRepositorios() {
+        LocalDateTime meioDoPeriodo = LocalDateTime.of(2024, 6, 1, 12, 0);
+        Long solicitante = primeiroUsuario + 7;
+        PageRequest pagina = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "dataAbertura", "id"));
+        User gestor = new User();
+        gestor.setId(primeiroUsuario);
+        gestor.setPerfil("manager");
+        User comum = new User();
+        comum.setId(solicitante);
+        comum.setPerfil("user");
+        TicketSearchService.Filtros semFiltros = new TicketSearchService.Filtros(null, null, null, null, null, null);
+
+        List<Caso> casos = List.of(
+                // TicketRepository
+                caso("findListPage", () -> ticketRepository.findListPage(pagina)),
+                caso("findListPageBySolicitante", () -> ticketRepository.findListPageBySolicitante(solicitante, pagina)),
+                caso("findListItemsByIdIn", () -> ticketRepository.findListItemsByIdIn(
+                        List.of(primeiroChamado, primeiroChamado + 1, primeiroChamado + 2))),
+                caso("findFirstKeysetPage", () -> ticketRepository.findFirstKeysetPage(Limit.of(20))),
+                caso("findKeysetPageAfter", () -> ticketRepository.findKeysetPageAfter(
+                        meioDoPeriodo, primeiroChamado + 30_000, Limit.of(20))),
+                caso("findFirstKeysetPageBySolicitante", () -> ticketRepository.findFirstKeysetPageBySolicitante(
+                        solicitante, Limit.of(20))),
+                caso("findKeysetPageAfterBySolicitante", () -> ticketRepository.findKeysetPageAfterBySolicitante(
+                        solicitante, meioDoPeriodo, primeiroChamado + 30_000, Limit.of(20))),
+                caso("findAllBySolicitanteId", () -> ticketRepository.findAllBySolicitanteId(solicitante)),
+                caso("countByStatusAndAtribuidoIsNull", () -> ticketRepository.countByStatusAndAtribuidoIsNull("Aberto")),
+                caso("findByIdWithAnexos", () -> ticketRepository.findByIdWithAnexos(primeiroChamado + 299)),
+                caso("historico do chamado", () -> ticketRepository.findById(primeiroChamado + 10)
+                        .orElseThrow().getHistorico().size()),
+                caso("findSlaViolatedByStatusIn", () -> ticketRepository.findSlaViolatedByStatusIn(ATIVOS, meioDoPeriodo)),
+                caso("backfillSlaDeadlines", () -> ticketRepository.backfillSlaDeadlines(ATIVOS, meioDoPeriodo)),
+                // Relatório detalhado (Criteria sobre chamados)
+                caso("relatório detalhado por abertura", () -> reportService.getDetailedReport(
+                        LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), "abertura", null,
+                        null, null, null, null, null, "data")),
+                caso("relatório detalhado por fechamento", () -> reportService.getDetailedReport(
+                        LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), "fechamento", "Resolvido",
+                        null, null, null, null, null, "data")),
+                caso("relatório detalhado por técnico", () -> reportService.getDetailedReport(
+                        null, null, null, "Em Andamento", null, null, null, null, primeiroUsuario + 10, "numero")),
+                // Busca textual (página, total e trechos destacados)
+                caso("busca textual", () -> searchService.buscar("chamado 4242", semFiltros, PageRequest.of(1, 20), gestor)),
+                caso("busca textual com filtros", () -> searchService.buscar("atualização 4242",
+                        new TicketSearchService.Filtros(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31), "abertura",
+                                "Resolvido", "Categoria 2", null), PageRequest.of(0, 20), gestor)),
+                caso("busca textual do solicitante", () -> searchService.buscar("chamado", semFiltros,
+                        PageRequest.of(0, 20), comum)),
+                caso("indexar", () -> searchRepository.indexar(primeiroChamado + 42)),
+                // ResumoDiarioChamadoRepository (o resumo inteiro é agregado nas métricas)
+                caso("getChamadosPorAnalista", () -> resumoRepository.getChamadosPorAnalista(
+                        LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1), 0)),
+                caso("getTempoMedioPorCategoria", () -> resumoRepository.getTempoMedioPorCategoria(
+                        LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 1), 0)),
+                caso("getMetricasResumo", () -> resumoRepository.getMetricasResumo(ATIVOS,
+                                LocalDate.of(2025, 12, 31), LocalDate.of(2025, 12, 24),
+                                LocalDateTime.of(2025, 12, 30, 0, 0), LocalDateTime.of(2025, 12, 28, 0, 0)),
+                        "resumo_diario_chamados"),
+                // AnexoChamadoRepository
+                caso("findLegacyIds", () -> anexoChamadoRepository.findLegacyIds(PageRequest.of(0, 50))),
+                // UserRepository
+                caso("findByEmail", () -> userRepository.findByEmail("usuario42@plano.test")),
+                caso("findByPerfil", () -> userRepository.findByPerfil("technician")),
+                // RefreshTokenRepository
+                caso("findByToken", () -> refreshTokenRepository.findByToken("token-42")),
+                caso("findByTokenAndRevokedFalse", () -> refreshTokenRepository.findByTokenAndRevokedFalse("token-40")),
+                caso("deleteExpiredTokens", () -> refreshTokenRepository.deleteExpiredTokens(LocalDateTime.now())),
+                caso("revokeAllUserTokens", () -> {
+                    User usuario = userRepository.findById(solicitante).orElseThrow();
+                    refreshTokenRepository.revokeAllUserTokens(usuario, LocalDateTime.now());
+                }),
+                // AuditLogRepository
+                caso("findByUserIdOrderByTimestampDesc", () -> auditLogRepository.findByUserIdOrderByTimestampDesc(solicitante)),
+                caso("findByActionOrderByTimestampDesc", () -> auditLogRepository.findByActionOrderByTimestampDesc("LOGIN_FAILURE")),
+                caso("findByTimestampBetween", () -> auditLogRepository.findByTimestampBetween(
+                        LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 3, 2, 0, 0))),
+                caso("findByIpAddressOrderByTimestampDesc", () -> auditLogRepository.findByIpAddressOrderByTimestampDesc("10.0.1.1")),
+                caso("findPageByTimestampBetween", () -> auditLogRepository.findPageByTimestampBetween(
+                        LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 6, 1, 0, 0), Long.MAX_VALUE, Limit.of(50))),
+                caso("findPageByUserId", () -> auditLogRepository.findPageByUserId(solicitante,
+                        LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 12, 31, 0, 0), Long.MAX_VALUE, Limit.of(50))),
+                caso("findPageByIpAddress", () -> auditLogRepository.findPageByIpAddress("10.0.1.1",
+                        LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 12, 31, 0, 0), Long.MAX_VALUE, Limit.of(50))),
+                caso("streamByTimestampBetween", () -> {
+                    try (Stream<?> logs = auditLogRepository.streamByTimestampBetween(
+                            LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 3, 2, 0, 0))) {
+                        logs.forEach(log -> { });
+                    }
+                })
+        );
+
+        return casos.stream().map(caso -> DynamicTest.dynamicTest(caso.nome(), () -> verificar(caso)));
+    }
+
+    private void verificar(Caso caso) throws Exception {
+        List<Capturado> capturados = executarCapturando(caso.acao());
+        assertThat(capturados).as("nenhum SQL capturado para %s", caso.nome()).isNotEmpty();
+
+        List<String> violacoes = new ArrayList<>();
+        for (Capturado capturado : capturados) {
+            if (totalSemFiltro(capturado.sql())) {
+                continue;
+            }
+            JsonNode plano = explain(capturado);
+            coletarSeqScans(plano.get(0).get("Plan"), caso.varreduraPermitida(), violacoes);
+            if (!violacoes.isEmpty()) {
+                violacoes.add("SQL: " + capturado.sql());
+                violacoes.add("Plano: " + plano.toPrettyString());
+                break;
+            }
+        }
+        assertThat(violacoes).as(caso.nome()).isEmpty();
+    }
+
+    /**
+     * Executa a ação numa transação revertida (alguns casos alteram dados) e
+     * devolve os statements enviados ao banco.
+     */
+    private List<Capturado> executarCapturando(Runnable acao) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        CapturaJdbc.CAPTURADOS.clear();
+        CapturaJdbc.gravando = true;
+        try {
+            transacao.executeWithoutResult(status -> {
+                acao.run();
+                status.setRollbackOnly();
+            });
+        } finally {
+            CapturaJdbc.gravando = false;
+        }
+        return List.copyOf(CapturaJdbc.CAPTURADOS);
+    }
+
+    private static boolean totalSemFiltro(String sql) {
+        String normalizado = sql.toLowerCase(Locale.ROOT);
+        return normalizado.startsWith("select count(") && !normalizado.contains(" where ");
+    }
+
+    private JsonNode explain(Capturado capturado) throws Exception {
+        String json = jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + capturado.sql())) {
+                for (Parametro parametro : capturado.parametros()) {
+                    try {
+                        parametro.metodo().invoke(statement, parametro.argumentos());
+                    } catch (IllegalAccessException | InvocationTargetException e) {
+                        throw new IllegalStateException("Falha ao repetir parâmetro " + parametro.metodo().getName(), e);
+                    }
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+        return objectMapper.readTree(json);
+    }
+
+    private void coletarSeqScans(JsonNode no, Set<String> permitidas, List<String> violacoes) {
+        if ("Seq Scan".equals(no.path("Node Type").asText())) {
+            String tabela = no.path("Relation Name").asText();
+            long linhas = linhasPorTabela.getOrDefault(tabela, 0L);
+            if (linhas > LIMITE_LINHAS && !permitidas.contains(tabela)) {
+                violacoes.add("Seq Scan em " + tabela + " (" + linhas + " linhas)");
+            }
+        }
+        for (JsonNode filho : no.path("Plans")) {
+            coletarSeqScans(filho, permitidas, violacoes);
+        }
+    }
+
+    private static Caso caso(String nome, Runnable acao, String... varreduraPermitida) {
+        return new Caso(nome, acao, Set.of(varreduraPermitida));
+    }
+
+    private record Caso(String nome, Runnable acao, Set<String> varreduraPermitida) {
+    }
+
+    private record Parametro(Method metodo, Object[] argumentos) {
+    }
+
+    private record Capturado(String sql, List<Parametro> parametros) {
+    }
+
+    /**
+     * Sem {@code @TestConfiguration} de propósito: o {@code @ComponentScan} explícito
+     * da aplicação não aplica o TypeExcludeFilter e levaria o proxy para os
+     * contextos de todos os outros testes. Só entra via {@code @Import}.
+     */
+    static class CapturaJdbcConfig {
+
+        @Bean
+        static BeanPostProcessor capturaJdbc() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? CapturaJdbc.envolver(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Proxy de DataSource que registra o SQL e as chamadas {@code setXxx} de cada
+     * PreparedStatement executado enquanto {@link #gravando} estiver ligado.
+     */
+    static final class CapturaJdbc {
+
+        static final List<Capturado> CAPTURADOS = new CopyOnWriteArrayList<>();
+        static volatile boolean gravando;
+
+        private static final Set<String> EXECUCOES = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate");
+
+        static DataSource envolver(DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (metodo, resultado, args) ->
+                    resultado instanceof Connection connection && metodo.getName().equals("getConnection")
+                            ? envolver(connection) : resultado);
+        }
+
+        private static Connection envolver(Connection connection) {
+            return proxy(Connection.class, connection, (metodo, resultado, args) ->
+                    resultado instanceof PreparedStatement statement && metodo.getName().equals("prepareStatement")
+                            ? envolver(statement, (String) args[0]) : resultado);
+        }
+
+        private static PreparedStatement envolver(PreparedStatement statement, String sql) {
+            List<Parametro> parametros = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(CapturaJdbc.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, metodo, args) -> {
+                        String nome = metodo.getName();
+                        if (nome.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                            parametros.add(new Parametro(metodo, args.clone()));
+                        } else if (nome.equals("clearParameters")) {
+                            parametros.clear();
+                        } else if (EXECUCOES.contains(nome) && (args == null || args.length == 0) && gravando) {
+                            CAPTURADOS.add(new Capturado(sql, List.copyOf(parametros)));
+                        }
+                        return invocar(statement, metodo, args);
+                    });
+        }
+
+        private interface AposChamada {
+            Object aplicar(Method metodo, Object resultado, Object[] args);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> tipo, T alvo, AposChamada aposChamada) {
+            return (T) Proxy.newProxyInstance(CapturaJdbc.class.getClassLoader(), new Class<?>[]{tipo},
+                    (proxy, metodo, args) -> aposChamada.aplicar(metodo, invocar(alvo, metodo, args), args));
+        }
+
+        private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+            try {
+                return metodo.invoke(alvo, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
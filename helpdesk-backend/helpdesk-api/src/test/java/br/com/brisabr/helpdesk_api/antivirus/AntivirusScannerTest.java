@@ -0,0 +1,137 @@
+package br.com.brisabr.helpdesk_api.antivirus;
+
+import br.com.brisabr.helpdesk_api.util.FileValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Scanner contra um clamd falso ({@link FakeClamd}) rodando numa porta local.
+ */
+@DisplayName("AntivirusScanner - Sessões do clamd")
+class AntivirusScannerTest {
+
+    private FakeClamd clamd;
+    private AntivirusScanner scanner;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        clamd = new FakeClamd();
+        scanner = scanner(clamd.porta(), 1_000);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        scanner.shutdown();
+        clamd.close();
+    }
+
+    @Test
+    @DisplayName("Reaproveita a mesma sessão para scans seguidos")
+    void shouldReuseSession() throws IOException {
+        assertThat(scanner.scan(arquivo("conteúdo limpo")).limpo()).isTrue();
+        ScanResult infectado = scanner.scan(arquivo("xx " + FakeClamd.ASSINATURA + " xx"));
+        assertThat(scanner.scan(arquivo("outro limpo")).limpo()).isTrue();
+
+        assertThat(infectado.limpo()).isFalse();
+        assertThat(infectado.assinatura()).isEqualTo("Eicar-Test-Signature");
+        assertThat(clamd.conexoes()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Escaneia os anexos de um chamado em paralelo")
+    void shouldScanAttachmentsInParallel() throws IOException {
+        clamd.atraso(300);
+        List<ByteArrayResource> arquivos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            arquivos.add(arquivo("anexo " + i));
+        }
+
+        long inicio = System.nanoTime();
+        List<ScanResult> resultados = scanner.scanAll(arquivos);
+        long decorridoMillis = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertThat(resultados).hasSize(5).allMatch(ScanResult::limpo);
+        assertThat(clamd.picoScansSimultaneos()).isEqualTo(5);
+        assertThat(decorridoMillis).isLessThan(5 * 300);
+    }
+
+    @Test
+    @DisplayName("Interrompe o lote quando o clamd passa do prazo e segue atendendo depois")
+    void shouldTimeOutSlowClamd() throws IOException {
+        clamd.atraso(3_000);
+        // Pode vencer o timeout de leitura do socket ou o prazo do lote, o que vier primeiro
+        assertThatThrownBy(() -> scanner.scanAll(List.of(arquivo("a"), arquivo("b"))))
+                .isInstanceOf(IOException.class);
+
+        clamd.atraso(0);
+        assertThat(scanner.scan(arquivo("depois do timeout")).limpo()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Abre sessão nova quando o clamd encerra a sessão ociosa")
+    void shouldReconnectAfterIdleTimeout() throws IOException {
+        assertThat(scanner.scan(arquivo("primeiro")).limpo()).isTrue();
+        clamd.encerrarSessoes();
+
+        assertThat(scanner.scan(arquivo("segundo")).limpo()).isTrue();
+        assertThat(clamd.conexoes()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Sinaliza ConnectException quando o clamd não está no ar")
+    void shouldReportConnectionFailure() throws IOException {
+        int portaLivre;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            portaLivre = socket.getLocalPort();
+        }
+        AntivirusScanner semClamd = scanner(portaLivre, 1_000);
+        try {
+            assertThatThrownBy(() -> semClamd.scan(arquivo("x"))).isInstanceOf(ConnectException.class);
+        } finally {
+            semClamd.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("FileValidator rejeita o upload infectado no modo síncrono")
+    void fileValidatorShouldRejectInfectedUpload() {
+        FileValidator validator = new FileValidator(scanner, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(validator, "maxFileSize", 10L * 1024 * 1024);
+        ReflectionTestUtils.setField(validator, "maxFiles", 5);
+        MultipartFile limpo = new MockMultipartFile("arquivos", "limpo.txt", "text/plain",
+                "conteúdo limpo".getBytes(StandardCharsets.UTF_8));
+        MultipartFile infectado = new MockMultipartFile("arquivos", "virus.txt", "text/plain",
+                ("xx " + FakeClamd.ASSINATURA + " xx").getBytes(StandardCharsets.UTF_8));
+
+        assertThatCode(() -> validator.validateFile(limpo)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> validator.validateFile(infectado))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("malware");
+    }
+
+    private static AntivirusScanner scanner(int porta, int timeoutMillis) {
+        return new AntivirusScanner(true, "sync", "localhost", porta, 5, timeoutMillis, 8, 20_000);
+    }
+
+    private static ByteArrayResource arquivo(String conteudo) {
+        return new ByteArrayResource(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
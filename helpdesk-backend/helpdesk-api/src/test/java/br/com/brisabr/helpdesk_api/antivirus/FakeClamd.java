@@ -0,0 +1,147 @@
+package br.com.brisabr.helpdesk_api.antivirus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * clamd falso para testes: entende {@code zIDSESSION}, {@code zINSTREAM} e {@code zEND}.
+ *
+ * Responde FOUND quando o conteúdo contém {@link #ASSINATURA}, OK nos demais
+ * casos, e pode atrasar cada resposta para simular um clamd lento.
+ */
+class FakeClamd implements Closeable {
+
+    static final String ASSINATURA = "EICAR-TESTE";
+
+    private final ServerSocket server;
+    private final Set<Socket> clientes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger conexoes = new AtomicInteger();
+    private final AtomicInteger scansEmAndamento = new AtomicInteger();
+    private final AtomicInteger picoScans = new AtomicInteger();
+    private volatile long atrasoMillis;
+
+    FakeClamd() throws IOException {
+        server = new ServerSocket(0);
+        Thread.ofVirtual().start(this::aceitar);
+    }
+
+    int porta() {
+        return server.getLocalPort();
+    }
+
+    void atraso(long millis) {
+        this.atrasoMillis = millis;
+    }
+
+    int conexoes() {
+        return conexoes.get();
+    }
+
+    int picoScansSimultaneos() {
+        return picoScans.get();
+    }
+
+    /**
+     * Fecha as sessões abertas, como o clamd faz ao atingir o IdleTimeout.
+     */
+    void encerrarSessoes() throws IOException {
+        for (Socket cliente : clientes) {
+            cliente.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        encerrarSessoes();
+    }
+
+    private void aceitar() {
+        while (!server.isClosed()) {
+            try {
+                Socket cliente = server.accept();
+                conexoes.incrementAndGet();
+                clientes.add(cliente);
+                Thread.ofVirtual().start(() -> atender(cliente));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void atender(Socket cliente) {
+        try (cliente) {
+            DataInputStream in = new DataInputStream(cliente.getInputStream());
+            OutputStream out = cliente.getOutputStream();
+            boolean sessao = false;
+            int comando = 0;
+            String linha;
+            while ((linha = lerComando(in)) != null) {
+                switch (linha) {
+                    case "zIDSESSION" -> sessao = true;
+                    case "zEND" -> {
+                        return;
+                    }
+                    case "zINSTREAM" -> {
+                        comando++;
+                        String resposta = scan(lerStream(in));
+                        out.write(((sessao ? comando + ": " : "") + resposta + "\0").getBytes(StandardCharsets.US_ASCII));
+                        out.flush();
+                        if (!sessao) {
+                            return;
+                        }
+                    }
+                    default -> {
+                        out.write("UNKNOWN COMMAND\0".getBytes(StandardCharsets.US_ASCII));
+                        return;
+                    }
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // conexão encerrada pelo cliente ou pelo teste
+        } finally {
+            clientes.remove(cliente);
+        }
+    }
+
+    private String scan(byte[] conteudo) throws InterruptedException {
+        picoScans.accumulateAndGet(scansEmAndamento.incrementAndGet(), Math::max);
+        try {
+            if (atrasoMillis > 0) {
+                Thread.sleep(atrasoMillis);
+            }
+            return new String(conteudo, StandardCharsets.ISO_8859_1).contains(ASSINATURA)
+                    ? "stream: Eicar-Test-Signature FOUND"
+                    : "stream: OK";
+        } finally {
+            scansEmAndamento.decrementAndGet();
+        }
+    }
+
+    private static String lerComando(DataInputStream in) throws IOException {
+        ByteArrayOutputStream comando = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) > 0) {
+            comando.write(b);
+        }
+        return b < 0 ? null : comando.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] lerStream(DataInputStream in) throws IOException {
+        ByteArrayOutputStream conteudo = new ByteArrayOutputStream();
+        int tamanho;
+        while ((tamanho = in.readInt()) > 0) {
+            conteudo.write(in.readNBytes(tamanho));
+        }
+        return conteudo.toByteArray();
+    }
+}
@@ -0,0 +1,136 @@
+package br.com.brisabr.helpdesk_api.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Gravação da auditoria em lotes, contra um H2 em memória.
+ */
+@DisplayName("AuditLogWriter - Gravação em lotes")
+class AuditLogWriterTest {
+
+    private EmbeddedDatabase database;
+    private SimpleMeterRegistry meterRegistry;
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(database).execute("CREATE TABLE audit_logs (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "user_id BIGINT, action VARCHAR(100) NOT NULL, details TEXT, ip_address VARCHAR(45), "
+                + "user_agent VARCHAR(500), timestamp TIMESTAMP NOT NULL, status VARCHAR(20))");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Grava eventos de várias threads em lotes")
+    void shouldWriteConcurrentEventsInBatches() {
+        writer = writer(database, 10_000, 100, 50);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 2_000; i++) {
+                long userId = i;
+                executor.submit(() -> writer.enqueue(evento(userId, "LOGIN")));
+            }
+        }
+
+        assertThat(writer.flush(10_000)).isTrue();
+        assertThat(linhas()).isEqualTo(2_000);
+        assertThat(meterRegistry.get("helpdesk.audit.events.written").counter().count()).isEqualTo(2_000);
+        assertThat(meterRegistry.get("helpdesk.audit.batch.size").summary().max()).isGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("Descarta e conta eventos quando o banco não acompanha")
+    void shouldDropWhenQueueIsFull() {
+        CountDownLatch liberarBanco = new CountDownLatch(1);
+        DataSource lento = new DelegatingDataSource(database) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                try {
+                    liberarBanco.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getConnection();
+            }
+        };
+        writer = writer(lento, 4, 10, 1);
+
+        int aceitos = 0;
+        for (int i = 0; i < 50; i++) {
+            if (writer.enqueue(evento(null, "LOGIN_FAILURE"))) {
+                aceitos++;
+            }
+        }
+        liberarBanco.countDown();
+
+        assertThat(aceitos).isLessThan(50);
+        assertThat(writer.flush(10_000)).isTrue();
+        assertThat(linhas()).isEqualTo(aceitos);
+        assertThat(meterRegistry.get("helpdesk.audit.events.dropped").counter().count()).isEqualTo(50 - aceitos);
+    }
+
+    @Test
+    @DisplayName("Grava a fila inteira no desligamento")
+    void shouldFlushOnShutdown() {
+        writer = writer(database, 1_000, 20, 50);
+        for (int i = 0; i < 500; i++) {
+            writer.enqueue(evento(1L, "LOGOUT"));
+        }
+
+        writer.shutdown();
+
+        assertThat(linhas()).isEqualTo(500);
+        assertThat(writer.enqueue(evento(1L, "LOGOUT"))).isFalse();
+    }
+
+    private AuditLogWriter writer(DataSource dataSource, int capacidade, int batchSize, long offerTimeoutMillis) {
+        AuditLogWriter writer = new AuditLogWriter(new JdbcTemplate(dataSource),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                meterRegistry, capacidade, batchSize, offerTimeoutMillis);
+        writer.start();
+        return writer;
+    }
+
+    private int linhas() {
+        Integer total = new JdbcTemplate(database).queryForObject("SELECT COUNT(*) FROM audit_logs", Integer.class);
+        return total == null ? 0 : total;
+    }
+
+    private static AuditEvent evento(Long userId, String action) {
+        return new AuditEvent(userId, action, "detalhe", "10.0.0.1", "JUnit", LocalDateTime.now(),
+                action.endsWith("FAILURE") ? "FAILURE" : "SUCCESS");
+    }
+}
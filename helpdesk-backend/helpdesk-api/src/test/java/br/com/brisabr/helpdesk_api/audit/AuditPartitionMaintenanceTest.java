@@ -0,0 +1,129 @@
+package br.com.brisabr.helpdesk_api.audit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Manutenção das partições de {@code audit_logs} num PostgreSQL real, com a
+ * tabela já convertida pela migração V6: criação, repetição e retenção.
+ *
+ * Sem Docker disponível o teste é ignorado.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "audit.partitions.enabled=true",
+        "audit.partitions.months-ahead=3",
+        "audit.retention.months=12"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("AuditPartitionService - Partições no PostgreSQL")
+class AuditPartitionMaintenanceTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private AuditPartitionService partitionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM audit_logs");
+    }
+
+    @Test
+    @DisplayName("Cria a partição do mês que falta e leva para ela as linhas que estavam na default")
+    void shouldCreateMissingPartitionWithRowsFromDefault() {
+        YearMonth alvo = YearMonth.now().plusMonths(3);
+        String particao = AuditPartitionService.nomeParticao(alvo);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + particao);
+        inserirLog(alvo.atDay(10).atTime(12, 0));
+        assertThat(contar("audit_logs_default")).isEqualTo(1);
+
+        partitionService.manterParticoes();
+
+        assertThat(particoes()).contains(particao);
+        assertThat(contar(particao)).isEqualTo(1);
+        assertThat(contar("audit_logs_default")).isZero();
+    }
+
+    @Test
+    @DisplayName("Rodar de novo não altera as partições nem as linhas")
+    void shouldBeIdempotent() {
+        partitionService.manterParticoes();
+        inserirLog(LocalDateTime.now());
+        List<String> antes = particoes();
+
+        partitionService.manterParticoes();
+        partitionService.manterParticoes();
+
+        assertThat(particoes()).isEqualTo(antes);
+        YearMonth atual = YearMonth.now();
+        assertThat(antes).contains(AuditPartitionService.nomeParticao(atual),
+                AuditPartitionService.nomeParticao(atual.plusMonths(3)));
+        assertThat(contar("audit_logs")).isEqualTo(1);
+        assertThat(contar(AuditPartitionService.nomeParticao(atual))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Remove as partições e as linhas da default que saíram da retenção")
+    void shouldDropExpiredPartitions() {
+        YearMonth atual = YearMonth.now();
+        String expirada = criarParticao(atual.minusMonths(13));
+        String limite = criarParticao(atual.minusMonths(12));
+        inserirLog(atual.minusMonths(13).atDay(5).atStartOfDay());
+        inserirLog(atual.minusMonths(12).atDay(5).atStartOfDay());
+        inserirLog(atual.minusMonths(20).atDay(5).atStartOfDay());
+
+        partitionService.manterParticoes();
+
+        assertThat(particoes()).doesNotContain(expirada).contains(limite);
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class, expirada)).isTrue();
+        assertThat(contar(limite)).isEqualTo(1);
+        assertThat(contar("audit_logs_default")).isZero();
+        assertThat(contar("audit_logs")).isEqualTo(1);
+    }
+
+    private String criarParticao(YearMonth mes) {
+        String nome = AuditPartitionService.nomeParticao(mes);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + nome + " PARTITION OF audit_logs FOR VALUES FROM ('" +
+                mes.atDay(1) + "') TO ('" + mes.plusMonths(1).atDay(1) + "')");
+        return nome;
+    }
+
+    private void inserirLog(LocalDateTime quando) {
+        jdbcTemplate.update("INSERT INTO audit_logs (action, details, timestamp, status) VALUES ('LOGIN', 'teste', ?, 'SUCCESS')",
+                quando);
+    }
+
+    private List<String> particoes() {
+        return jdbcTemplate.queryForList(
+                "SELECT CAST(c.relname AS text) FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass('audit_logs') ORDER BY 1", String.class);
+    }
+
+    private long contar(String tabela) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + tabela, Long.class);
+    }
+}
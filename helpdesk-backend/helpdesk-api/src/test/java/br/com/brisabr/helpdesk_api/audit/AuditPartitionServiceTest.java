@@ -0,0 +1,37 @@
+package br.com.brisabr.helpdesk_api.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cálculo das partições mensais de auditoria a criar e a remover.
+ */
+@DisplayName("AuditPartitionService - Partições mensais")
+class AuditPartitionServiceTest {
+
+    @Test
+    @DisplayName("Cria o mês atual e os próximos, atravessando a virada do ano")
+    void shouldPlanUpcomingMonths() {
+        List<YearMonth> meses = AuditPartitionService.mesesParaCriar(YearMonth.of(2026, 11), 3);
+
+        assertThat(meses).containsExactly(
+                YearMonth.of(2026, 11), YearMonth.of(2026, 12), YearMonth.of(2027, 1), YearMonth.of(2027, 2));
+        assertThat(AuditPartitionService.nomeParticao(YearMonth.of(2027, 1))).isEqualTo("audit_logs_p2027_01");
+    }
+
+    @Test
+    @DisplayName("Remove só partições mensais inteiramente anteriores ao corte")
+    void shouldExpireOnlyMonthlyPartitionsBeforeCutoff() {
+        List<String> particoes = List.of("audit_logs_p2025_11", "audit_logs_default", "audit_logs_p2025_09",
+                "audit_logs_p2025_10", "audit_logs_p2026_01", "audit_logs_backup");
+
+        List<String> expiradas = AuditPartitionService.particoesExpiradas(particoes, YearMonth.of(2025, 11));
+
+        assertThat(expiradas).containsExactly("audit_logs_p2025_09", "audit_logs_p2025_10");
+    }
+}
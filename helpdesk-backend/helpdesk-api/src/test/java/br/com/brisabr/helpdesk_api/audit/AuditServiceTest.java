@@ -0,0 +1,65 @@
+package br.com.brisabr.helpdesk_api.audit;
+
+import br.com.brisabr.helpdesk_api.ratelimit.ClientIpResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * IP gravado na auditoria: o mesmo do rate limiting, sem confiar em cabeçalhos
+ * mandados pelo cliente.
+ */
+@DisplayName("AuditService - IP do cliente")
+class AuditServiceTest {
+
+    private final AuditLogWriter writer = mock(AuditLogWriter.class);
+    private final AuditService service = new AuditService(writer, new ClientIpResolver(List.of("10.0.0.1")));
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("X-Forwarded-For de quem não é proxy confiável é ignorado")
+    void shouldIgnoreForwardedForFromUntrustedClient() {
+        requisicao("203.0.113.7", "198.51.100.1");
+
+        service.logAudit(null, "LOGIN", "Login", "FAILURE");
+
+        assertThat(registrado().ipAddress()).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    @DisplayName("Atrás do proxy confiável vale o endereço que ele acrescentou, não o primeiro da lista")
+    void shouldUseAddressAppendedByTrustedProxy() {
+        requisicao("10.0.0.1", "198.51.100.1, 203.0.113.7");
+
+        service.logAudit(null, "LOGIN", "Login", "FAILURE");
+
+        assertThat(registrado().ipAddress()).isEqualTo("203.0.113.7");
+    }
+
+    private static void requisicao(String remoto, String xForwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/api/auth/login");
+        request.setRemoteAddr(remoto);
+        request.addHeader("X-Forwarded-For", xForwardedFor);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private AuditEvent registrado() {
+        ArgumentCaptor<AuditEvent> evento = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(writer).enqueue(evento.capture());
+        return evento.getValue();
+    }
+}
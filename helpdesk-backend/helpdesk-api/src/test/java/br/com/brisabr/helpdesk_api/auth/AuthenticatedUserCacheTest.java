@@ -0,0 +1,72 @@
+package br.com.brisabr.helpdesk_api.auth;
+
+import br.com.brisabr.helpdesk_api.user.User;
+import br.com.brisabr.helpdesk_api.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache do usuário autenticado indexado pelo id do token.
+ */
+@DisplayName("AuthenticatedUserCache - Usuário do token")
+class AuthenticatedUserCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private AuthenticatedUserCache cache;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthenticatedUserCache(userRepository, new SimpleMeterRegistry(), 60, 100);
+        user = new User("Ana", "ana@empresa.com", "x", "user", null);
+        user.setId(7L);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    @DisplayName("Consulta o banco só no primeiro acesso de cada id")
+    void shouldLoadEachUserOnce() {
+        TokenService.Subject subject = new TokenService.Subject(7L, "ana@empresa.com");
+
+        assertThat(cache.get(subject)).isSameAs(user);
+        assertThat(cache.get(subject)).isSameAs(user);
+
+        verify(userRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    @DisplayName("Depois da troca de email, tokens com o email antigo deixam de valer")
+    void shouldRejectTokenOfPreviousEmail() {
+        assertThat(cache.get(new TokenService.Subject(7L, "ana@empresa.com"))).isSameAs(user);
+
+        User alterado = new User("Ana", "ana.souza@empresa.com", "x", "user", null);
+        alterado.setId(7L);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(alterado));
+        cache.invalidate(7L);
+
+        assertThat(cache.get(new TokenService.Subject(7L, "ana@empresa.com"))).isNull();
+        assertThat(cache.get(new TokenService.Subject(7L, "ana.souza@empresa.com"))).isSameAs(alterado);
+    }
+
+    @Test
+    @DisplayName("Token sem id, emitido antes da mudança, é resolvido pelo email sem cache")
+    void shouldResolveLegacyTokenByEmail() {
+        when(userRepository.findByEmail("ana@empresa.com")).thenReturn(user);
+
+        assertThat(cache.get(new TokenService.Subject(null, "ana@empresa.com"))).isSameAs(user);
+        assertThat(cache.get(null)).isNull();
+
+        verify(userRepository, never()).findById(7L);
+    }
+}
@@ -6,7 +6,6 @@ import com.auth0.jwt.algorithms.Algorithm;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -21,8 +20,7 @@ class TokenServiceTest {
 
     @BeforeEach
     void setUp() {
-        tokenService = new TokenService();
-        ReflectionTestUtils.setField(tokenService, "secret", testSecret);
+        tokenService = new TokenService(testSecret);
     }
 
     @Test
@@ -65,6 +63,7 @@ class TokenServiceTest {
 
         // Then
         var decodedToken = JWT.decode(token);
+        assertThat(decodedToken.getClaim("uid").asLong()).isEqualTo(user.getId());
         assertThat(decodedToken.getClaim("name").asString()).isEqualTo(user.getNome());
         assertThat(decodedToken.getClaim("role").asString()).isEqualTo(user.getPerfil());
     }
@@ -97,6 +96,17 @@ class TokenServiceTest {
         assertThat(email).isEqualTo(user.getEmail());
     }
 
+    @Test
+    @DisplayName("Deve identificar o usuário do token pelo id e pelo email")
+    void shouldValidateTokenSubject() {
+        User user = createTestUser();
+
+        TokenService.Subject subject = tokenService.validate(tokenService.generateToken(user));
+
+        assertThat(subject).isEqualTo(new TokenService.Subject(1L, "test@test.com"));
+        assertThat(tokenService.validate("invalid.token.here")).isNull();
+    }
+
     @Test
     @DisplayName("Deve retornar string vazia para token inválido")
     void shouldReturnEmptyStringForInvalidToken() {
@@ -0,0 +1,91 @@
+package br.com.brisabr.helpdesk_api.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("JdbcAdmissionLimiter")
+class JdbcAdmissionLimiterTest {
+
+    @Test
+    @DisplayName("Nunca deixa mais threads com conexão do que o número de licenças")
+    void shouldBoundConcurrentConnections() throws Exception {
+        int licencas = 3;
+        AtomicInteger abertas = new AtomicInteger();
+        AtomicInteger pico = new AtomicInteger();
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(inv -> {
+            pico.accumulateAndGet(abertas.incrementAndGet(), Math::max);
+            Connection connection = mock(Connection.class);
+            doAnswer(c -> abertas.decrementAndGet()).when(connection).close();
+            return connection;
+        });
+        JdbcAdmissionLimiter limiter = new JdbcAdmissionLimiter(target, licencas, 10_000);
+
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 500; i++) {
+                futures.add(executor.submit(() -> {
+                    try (Connection ignored = limiter.getConnection()) {
+                        Thread.sleep(1);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(pico.get()).isLessThanOrEqualTo(licencas);
+        assertThat(limiter.getAvailablePermits()).isEqualTo(licencas);
+    }
+
+    @Test
+    @DisplayName("Devolve a licença uma única vez mesmo com close() repetido")
+    void shouldReleaseOnlyOnceOnRepeatedClose() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+        JdbcAdmissionLimiter limiter = new JdbcAdmissionLimiter(target, 2, 100);
+
+        Connection connection = limiter.getConnection();
+        connection.close();
+        connection.close();
+
+        assertThat(limiter.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Esgota a espera com SQLTransientConnectionException e devolve a licença se o pool falhar")
+    void shouldTimeOutAndReleaseOnFailure() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection())
+                .thenAnswer(inv -> mock(Connection.class))
+                .thenThrow(new SQLException("pool indisponível"));
+        JdbcAdmissionLimiter limiter = new JdbcAdmissionLimiter(target, 1, 50);
+
+        Connection primeira = limiter.getConnection();
+        assertThatThrownBy(limiter::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        primeira.close();
+        assertThatThrownBy(limiter::getConnection).hasMessage("pool indisponível");
+        assertThat(limiter.getAvailablePermits()).isEqualTo(1);
+    }
+}
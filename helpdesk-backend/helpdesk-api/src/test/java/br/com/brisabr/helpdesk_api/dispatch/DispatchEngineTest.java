@@ -0,0 +1,87 @@
+package br.com.brisabr.helpdesk_api.dispatch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Motor de distribuição: ordem da fila, escolha pela estratégia, categorias
+ * por equipe e confirmação das decisões pelos eventos.
+ */
+@DisplayName("DispatchEngine - Distribuição automática de chamados")
+class DispatchEngineTest {
+
+    @Test
+    @DisplayName("Técnico liberado recebe o chamado mais prioritário e, no empate, o de SLA mais próximo")
+    void shouldServeQueueByPriorityThenSla() {
+        DispatchEngine engine = new DispatchEngine(DispatchStrategy.LEAST_LOADED, 1);
+        engine.registrarTecnico(1L, Set.of(), 1, Map.of());
+
+        engine.novoChamado(chamado(10L, "Rede", "Baixa", 100));
+        engine.novoChamado(chamado(11L, "Software", "Alta", 500));
+        engine.novoChamado(chamado(12L, "Rede", "Alta", 200));
+        assertThat(engine.naFila()).isEqualTo(3);
+
+        List<Atribuicao> atribuicoes = engine.finalizado(1L, 1L, "Rede");
+
+        assertThat(atribuicoes).extracting(a -> a.chamado().ticketId()).containsExactly(12L);
+        assertThat(engine.naFila()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Least-loaded escolhe o técnico com menos chamados e o evento de confirmação não soma de novo")
+    void shouldPickLeastLoadedAndNotDoubleCount() {
+        DispatchEngine engine = new DispatchEngine(DispatchStrategy.LEAST_LOADED, 5);
+        engine.registrarTecnico(1L, Set.of(), 3, Map.of());
+        engine.registrarTecnico(2L, Set.of(), 1, Map.of());
+
+        Atribuicao atribuicao = engine.novoChamado(chamado(20L, "Rede", "Média", 0)).orElseThrow();
+        engine.atribuido(20L, 2L);
+
+        assertThat(atribuicao.tecnicoId()).isEqualTo(2L);
+        assertThat(engine.cargas()).containsEntry(1L, 3).containsEntry(2L, 2);
+        assertThat(engine.pendentes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Especialista só recebe as categorias da equipe; chamado capturado por fora sai da fila")
+    void shouldRespectCategoriesAndExternalAssignments() {
+        DispatchEngine engine = new DispatchEngine(DispatchStrategy.SKILL_WEIGHTED, 1);
+        engine.registrarTecnico(1L, Set.of("Rede"), 0, Map.of("Rede", 50));
+
+        assertThat(engine.novoChamado(chamado(30L, "Software", "Crítica", 0))).isEmpty();
+        assertThat(engine.novoChamado(chamado(31L, "rede", "Baixa", 0))).hasValueSatisfying(a -> assertThat(a.tecnicoId()).isEqualTo(1L));
+
+        engine.novoChamado(chamado(32L, "Rede", "Alta", 0));
+        engine.novoChamado(chamado(33L, "Rede", "Alta", 10));
+        engine.atribuido(32L, 99L);
+        List<Atribuicao> depois = engine.finalizado(31L, 1L, "Rede");
+
+        assertThat(depois).extracting(a -> a.chamado().ticketId()).containsExactly(33L);
+        assertThat(engine.naFila()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Decisão cancelada devolve a capacidade e o técnico pega o próximo da fila")
+    void shouldReleaseTechnicianWhenAssignmentIsCancelled() {
+        DispatchEngine engine = new DispatchEngine(DispatchStrategy.ROUND_ROBIN, 1);
+        engine.registrarTecnico(1L, Set.of(), 0, Map.of());
+
+        Atribuicao perdida = engine.novoChamado(chamado(40L, "Rede", "Alta", 0)).orElseThrow();
+        engine.novoChamado(chamado(41L, "Rede", "Baixa", 0));
+        List<Atribuicao> seguintes = engine.cancelar(perdida);
+
+        assertThat(seguintes).extracting(a -> a.chamado().ticketId()).containsExactly(41L);
+        assertThat(engine.cancelar(perdida)).isEmpty();
+        assertThat(engine.cargas()).containsEntry(1L, 1);
+    }
+
+    private static ChamadoNaFila chamado(long id, String categoria, String prioridade, long prazo) {
+        return new ChamadoNaFila(id, categoria, ChamadoNaFila.pesoDe(prioridade), prazo, 0);
+    }
+}
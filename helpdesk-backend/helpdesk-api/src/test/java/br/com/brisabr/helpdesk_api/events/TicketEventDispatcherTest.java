@@ -0,0 +1,143 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Outbox de eventos contra o H2: o evento só existe se a transição fez commit,
+ * sobrevive à queda do processo no meio da entrega e cada assinante o recebe
+ * uma única vez.
+ */
+@SpringBootTest(properties = "events.outbox.dispatcher.enabled=false")
+@ActiveProfiles("test")
+@DisplayName("TicketEventDispatcher - Outbox de eventos de chamados")
+class TicketEventDispatcherTest {
+
+    @Autowired
+    private TicketEventOutbox outbox;
+
+    @Autowired
+    private OutboxEventoRepository eventoRepository;
+
+    @Autowired
+    private OutboxEntregaRepository entregaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void limparOutbox() {
+        // O contexto é compartilhado com outros testes que também gravam eventos
+        entregaRepository.deleteAllInBatch();
+        eventoRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Evento sobrevive à queda do dispatcher e só quem não recebeu recebe de novo")
+    void shouldRedeliverOnlyToPendingSubscribersAfterCrash() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Transição que sofreu rollback não deixa evento
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> {
+            outbox.registrar(new TicketClosedEvent(900L, 3L, 2L, "Técnico", "descartado"), 2L, null, null);
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+        transaction.executeWithoutResult(status ->
+                outbox.registrar(new TicketClosedEvent(901L, 3L, 2L, "Técnico", "ok"), 2L, null, null));
+
+        // Primeira execução: o histórico recebe, e o processo morre no push
+        Assinante historico = new Assinante("historico", envelope -> { });
+        Assinante pushQueMorre = new Assinante("push", envelope -> {
+            throw new QuedaDoProcesso();
+        });
+        assertThatThrownBy(() -> dispatcher(historico, pushQueMorre).processarLote())
+                .isInstanceOf(QuedaDoProcesso.class);
+        assertThat(historico.recebidos).hasSize(1);
+
+        // Depois do restart, outra instância retoma o evento
+        Assinante historicoReiniciado = new Assinante("historico", envelope -> { });
+        Assinante push = new Assinante("push", envelope -> { });
+        assertThat(dispatcher(historicoReiniciado, push).processarLote()).isEqualTo(1);
+
+        assertThat(historicoReiniciado.recebidos).isEmpty();
+        assertThat(push.recebidos).hasSize(1);
+        TicketEventEnvelope entregue = push.recebidos.get(0);
+        assertThat(entregue.chave()).isEqualTo(historico.recebidos.get(0).chave());
+        assertThat(entregue.evento()).isEqualTo(new TicketClosedEvent(901L, 3L, 2L, "Técnico", "ok"));
+        assertThat(eventoRepository.findById(entregue.id()).orElseThrow().getProcessadoEm()).isNotNull();
+        assertThat(entregaRepository.findAssinantesByEventoId(entregue.id()))
+                .containsExactlyInAnyOrder("historico", "push");
+        assertThat(eventoRepository.findAll()).noneMatch(evento -> evento.getTicketId() == 900L);
+    }
+
+    @Test
+    @DisplayName("Assinante com erro não bloqueia os outros e o evento volta com espera")
+    void shouldScheduleRetryWhenSubscriberFails() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outbox.registrar(new TicketAssignedEvent(902L, 3L, 2L, "Técnico", "Alta"), 2L, null, null));
+
+        Assinante auditoria = new Assinante("auditoria", envelope -> { });
+        Assinante comErro = new Assinante("historico", envelope -> {
+            throw new IllegalStateException("banco indisponível");
+        });
+        TicketEventDispatcher dispatcher = dispatcher(auditoria, comErro);
+        assertThat(dispatcher.processarLote()).isEqualTo(1);
+
+        OutboxEvento evento = eventoRepository.findById(auditoria.recebidos.get(0).id()).orElseThrow();
+        assertThat(evento.getProcessadoEm()).isNull();
+        assertThat(evento.getTentativas()).isEqualTo(1);
+        assertThat(evento.getUltimoErro()).contains("banco indisponível");
+        assertThat(evento.getProximaTentativa()).isAfter(evento.getCriadoEm());
+        // A espera ainda não venceu
+        assertThat(dispatcher.processarLote()).isZero();
+        assertThat(comErro.recebidos).hasSize(1);
+    }
+
+    private TicketEventDispatcher dispatcher(TicketEventSubscriber... assinantes) {
+        return new TicketEventDispatcher(eventoRepository, entregaRepository, outbox, List.of(assinantes),
+                transactionManager, new SimpleMeterRegistry(), 10, 3, 60_000, 72);
+    }
+
+    private static final class Assinante implements TicketEventSubscriber {
+
+        final List<TicketEventEnvelope> recebidos = new ArrayList<>();
+        private final String nome;
+        private final Consumer<TicketEventEnvelope> acao;
+
+        Assinante(String nome, Consumer<TicketEventEnvelope> acao) {
+            this.nome = nome;
+            this.acao = acao;
+        }
+
+        @Override
+        public String nome() {
+            return nome;
+        }
+
+        @Override
+        public void onEvent(TicketEventEnvelope envelope) {
+            recebidos.add(envelope);
+            acao.accept(envelope);
+        }
+    }
+
+    /**
+     * Simula o processo morrendo: não é tratada pelo dispatcher e desfaz a reserva do lote.
+     */
+    private static final class QuedaDoProcesso extends Error {
+        private static final long serialVersionUID = 1L;
+    }
+}
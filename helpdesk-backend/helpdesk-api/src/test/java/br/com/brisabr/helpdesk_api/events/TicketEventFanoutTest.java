@@ -0,0 +1,153 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Push entre réplicas contra o H2: cada réplica acompanha a outbox e publica
+ * todos os eventos, inclusive os de transações que fizeram commit fora de ordem.
+ */
+@SpringBootTest(properties = "events.outbox.dispatcher.enabled=false")
+@ActiveProfiles("test")
+@DisplayName("TicketEventFanout - Eventos da outbox para o stream de cada réplica")
+class TicketEventFanoutTest {
+
+    @Autowired
+    private TicketEventOutbox outbox;
+
+    @Autowired
+    private OutboxEventoRepository eventoRepository;
+
+    @Autowired
+    private OutboxEntregaRepository entregaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong relogio = new AtomicLong();
+
+    @BeforeEach
+    void limparOutbox() {
+        entregaRepository.deleteAllInBatch();
+        eventoRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Todas as réplicas publicam os eventos gravados por qualquer uma")
+    void shouldPublishEveryEventOnEveryReplica() {
+        TicketEventStream streamA = mock(TicketEventStream.class);
+        TicketEventStream streamB = mock(TicketEventStream.class);
+        TicketEventFanout replicaA = replica(streamA);
+        TicketEventFanout replicaB = replica(streamB);
+        replicaA.ler();
+        replicaB.ler();
+
+        registrar(new TicketClosedEvent(801L, 3L, 2L, "Técnico", "ok"));
+        registrar(new TicketAssignedEvent(802L, 3L, 2L, "Técnico", "Alta"));
+        replicaA.ler();
+        replicaB.ler();
+        replicaB.ler();
+
+        for (TicketEventStream stream : List.of(streamA, streamB)) {
+            ArgumentCaptor<NotificationEvent> publicados = ArgumentCaptor.forClass(NotificationEvent.class);
+            verify(stream, atLeast(0)).publicar(publicados.capture());
+            assertThat(publicados.getAllValues()).extracting(NotificationEvent::ticketId).containsExactly(801L, 802L);
+        }
+    }
+
+    @Test
+    @DisplayName("Evento com commit depois de um id maior é publicado quando aparece")
+    void shouldPublishEventCommittedOutOfOrder() throws Exception {
+        TicketEventStream stream = mock(TicketEventStream.class);
+        TicketEventFanout replica = replica(stream);
+        registrar(new TicketClosedEvent(900L, 3L, 2L, "Técnico", "anterior"));
+        replica.ler();
+
+        CountDownLatch gravado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Void> lenta = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    outbox.registrar(new TicketCommentedEvent(901L, 3L, 2L, 1L, "Ana"), 3L, null, null);
+                    eventoRepository.flush();
+                    gravado.countDown();
+                    aguardar(liberar);
+                }));
+        assertThat(gravado.await(10, TimeUnit.SECONDS)).isTrue();
+        registrar(new TicketClosedEvent(902L, 3L, 2L, "Técnico", "ok"));
+
+        replica.ler();
+        assertThat(replica.lacunasPendentes()).isEqualTo(1);
+
+        liberar.countDown();
+        lenta.get(10, TimeUnit.SECONDS);
+        replica.ler();
+
+        ArgumentCaptor<NotificationEvent> publicados = ArgumentCaptor.forClass(NotificationEvent.class);
+        verify(stream, atLeast(0)).publicar(publicados.capture());
+        assertThat(publicados.getAllValues()).extracting(NotificationEvent::ticketId).containsExactly(902L, 901L);
+        assertThat(replica.lacunasPendentes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Id de transação desfeita deixa de ser procurado depois da espera")
+    void shouldForgetRolledBackIdAfterTimeout() {
+        TicketEventFanout replica = replica(mock(TicketEventStream.class));
+        registrar(new TicketClosedEvent(900L, 3L, 2L, "Técnico", "anterior"));
+        replica.ler();
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                outbox.registrar(new TicketCommentedEvent(903L, 3L, 2L, 1L, "Ana"), 3L, null, null);
+                eventoRepository.flush();
+                throw new IllegalStateException("rollback");
+            });
+        } catch (IllegalStateException esperado) {
+            // transição desfeita
+        }
+        registrar(new TicketClosedEvent(904L, 3L, 2L, "Técnico", "ok"));
+        replica.ler();
+        assertThat(replica.lacunasPendentes()).isEqualTo(1);
+
+        relogio.addAndGet(Duration.ofSeconds(31).toNanos());
+        replica.ler();
+        assertThat(replica.lacunasPendentes()).isZero();
+    }
+
+    private TicketEventFanout replica(TicketEventStream stream) {
+        return new TicketEventFanout(eventoRepository, outbox, stream, new SimpleMeterRegistry(), 100,
+                Duration.ofSeconds(30), relogio::get);
+    }
+
+    private void registrar(NotificationEvent evento) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outbox.registrar(evento, 3L, null, null));
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
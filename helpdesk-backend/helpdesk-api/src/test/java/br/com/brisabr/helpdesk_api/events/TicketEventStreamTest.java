@@ -0,0 +1,127 @@
+package br.com.brisabr.helpdesk_api.events;
+
+import br.com.brisabr.helpdesk_api.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stream SSE: filtro por perfil e dono, buffer que descarta os mais antigos
+ * e retomada por Last-Event-ID.
+ */
+@DisplayName("TicketEventStream - Eventos de chamados via SSE")
+class TicketEventStreamTest {
+
+    private static final Pattern ID = Pattern.compile("id:(\\S+)");
+
+    // Envios só acontecem quando o teste manda executar as tarefas pendentes
+    private final List<Runnable> pendentes = new ArrayList<>();
+    private final TicketEventStream stream = new TicketEventStream(new ObjectMapper(), new SimpleMeterRegistry(),
+            pendentes::add, 60_000, 3, 100);
+
+    @Test
+    @DisplayName("Usuário comum só recebe eventos dos próprios chamados; técnico recebe todos")
+    void shouldFilterByRoleAndOwnership() {
+        EmitterGravado doUsuario = new EmitterGravado();
+        EmitterGravado doTecnico = new EmitterGravado();
+        stream.assinar(usuario(3L, "user"), null, doUsuario);
+        stream.assinar(usuario(2L, "technician"), null, doTecnico);
+
+        stream.publicar(new TicketAssignedEvent(10L, 3L, 2L, "Técnico", "Alta"));
+        stream.publicar(new TicketAssignedEvent(11L, 4L, 2L, "Técnico", "Baixa"));
+        executarPendentes();
+
+        assertThat(doUsuario.eventos).hasSize(1);
+        assertThat(doUsuario.eventos.get(0)).contains("event:ticket.assigned", "\"ticketId\":10",
+                "\"message\":\"Chamado atribuído para Técnico - Prioridade: Alta\"");
+        assertThat(doTecnico.eventos).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Conexão lenta perde os eventos mais antigos e recebe resync")
+    void shouldDropOldestWhenBufferIsFull() {
+        EmitterGravado lento = new EmitterGravado();
+        stream.assinar(usuario(1L, "admin"), null, lento);
+
+        for (long ticket = 1; ticket <= 5; ticket++) {
+            stream.publicar(new TicketClosedEvent(ticket, 3L, 2L, "Técnico", "ok"));
+        }
+        executarPendentes();
+
+        assertThat(lento.eventos).hasSize(4);
+        assertThat(lento.eventos.get(0)).contains("event:" + TicketEventStream.RESYNC);
+        assertThat(lento.eventos.subList(1, 4)).allSatisfy(evento -> assertThat(evento).contains("ticket.closed"));
+        assertThat(lento.eventos.get(1)).contains("\"ticketId\":3");
+        assertThat(lento.eventos.get(3)).contains("\"ticketId\":5");
+    }
+
+    @Test
+    @DisplayName("Reconexão com Last-Event-ID recebe só os eventos perdidos")
+    void shouldReplayMissedEventsFromLastEventId() {
+        EmitterGravado primeira = new EmitterGravado();
+        stream.assinar(usuario(2L, "technician"), null, primeira);
+        stream.publicar(new TicketCreatedEvent(1L, "CH-1", 3L, "Ana", "Rede", "Alta"));
+        executarPendentes();
+        String ultimoRecebido = idDe(primeira.eventos.get(0));
+
+        // Enquanto o técnico estava desconectado
+        stream.publicar(new TicketAssignedEvent(1L, 3L, 2L, "Técnico", "Alta"));
+        stream.publicar(new TicketCommentedEvent(1L, 3L, 2L, 99L, "Ana"));
+
+        EmitterGravado reconectada = new EmitterGravado();
+        stream.assinar(usuario(2L, "technician"), ultimoRecebido, reconectada);
+        EmitterGravado deOutraExecucao = new EmitterGravado();
+        stream.assinar(usuario(2L, "technician"), "abc-1", deOutraExecucao);
+        executarPendentes();
+
+        assertThat(reconectada.eventos).hasSize(2);
+        assertThat(reconectada.eventos.get(0)).contains("ticket.assigned");
+        assertThat(reconectada.eventos.get(1)).contains("ticket.commented");
+        assertThat(deOutraExecucao.eventos).hasSize(1);
+        assertThat(deOutraExecucao.eventos.get(0)).contains("event:" + TicketEventStream.RESYNC);
+    }
+
+    private void executarPendentes() {
+        while (!pendentes.isEmpty()) {
+            pendentes.remove(0).run();
+        }
+    }
+
+    private static String idDe(String evento) {
+        Matcher matcher = ID.matcher(evento);
+        assertThat(matcher.find()).isTrue();
+        return matcher.group(1);
+    }
+
+    private static User usuario(Long id, String perfil) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(perfil + id + "@empresa.com");
+        user.setPerfil(perfil);
+        return user;
+    }
+
+    /**
+     * Guarda o texto de cada evento enviado, sem servlet por trás.
+     */
+    private static final class EmitterGravado extends SseEmitter {
+
+        final List<String> eventos = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder texto = new StringBuilder();
+            builder.build().forEach(parte -> texto.append(parte.getData()));
+            eventos.add(texto.toString());
+        }
+    }
+}
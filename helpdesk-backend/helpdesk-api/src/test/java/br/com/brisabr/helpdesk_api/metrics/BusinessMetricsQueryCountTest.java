@@ -0,0 +1,79 @@
+package br.com.brisabr.helpdesk_api.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conta, num PostgreSQL real, os statements JDBC de um cálculo de métricas de
+ * negócio: o mesmo número para as janelas de 7 e 90 dias.
+ *
+ * Sem Docker disponível o teste é ignorado.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("BusinessMetricsService - Statements por cálculo no PostgreSQL")
+class BusinessMetricsQueryCountTest {
+
+    // Resumo, status, primeira resposta, técnicos, categorias, prioridades e tendência
+    private static final int STATEMENTS_POR_CALCULO = 7;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private BusinessMetricsService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void popular() {
+        jdbcTemplate.update("INSERT INTO usuarios (nome, email, senha, perfil, data_criacao) " +
+                "VALUES ('Técnico Métricas', 'tecnico.metricas@test.com', 'x', 'technician', now())");
+        long tecnico = jdbcTemplate.queryForObject("SELECT max(id) FROM usuarios", Long.class);
+        jdbcTemplate.update("INSERT INTO resumo_diario_chamados " +
+                "(dia, categoria, prioridade, id_tecnico, status, abertos, fechados, duracao_segundos, fechados_sla_violado) " +
+                "SELECT CAST(now() AS date) - g, 'Rede', 'Alta', ?, " +
+                "CASE WHEN g % 2 = 0 THEN 'Resolvido' ELSE 'Aberto' END, 3, 1, 7200, 0 " +
+                "FROM generate_series(0, 120) g", tecnico);
+    }
+
+    @Test
+    @DisplayName("Janelas de 7 e 90 dias devem custar os mesmos statements")
+    void shouldUseConstantStatementsRegardlessOfTrendWindow() {
+        BusinessMetricsDTO semana = service.calculateMetrics(7);
+        BusinessMetricsDTO trimestre = service.calculateMetrics(90);
+
+        assertThat(semana.trends().daily()).hasSize(8);
+        assertThat(trimestre.trends().daily()).hasSize(91);
+        assertThat(trimestre.productivity().topPerformers()).extracting(BusinessMetricsDTO.TechnicianPerformance::technicianName)
+                .containsExactly("Técnico Métricas");
+
+        DistributionSummary statements = meterRegistry.get("helpdesk.metrics.refresh.queries").summary();
+        assertThat(statements.count()).isEqualTo(2);
+        assertThat(statements.max()).isEqualTo(STATEMENTS_POR_CALCULO);
+        assertThat(statements.totalAmount()).isEqualTo(2.0 * STATEMENTS_POR_CALCULO);
+    }
+}
@@ -0,0 +1,119 @@
+package br.com.brisabr.helpdesk_api.metrics;
+
+import br.com.brisabr.helpdesk_api.dto.MetricasResumoDTO;
+import br.com.brisabr.helpdesk_api.rollup.ResumoDiarioChamadoRepository;
+import br.com.brisabr.helpdesk_api.ticket.TicketRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para BusinessMetricsService. Os statements de fato
+ * executados são contados no PostgreSQL pelo BusinessMetricsQueryCountTest.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BusinessMetricsService - Testes Unitários")
+class BusinessMetricsServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private ResumoDiarioChamadoRepository resumoRepository;
+
+    @Mock
+    private MetricasResumoDTO resumo;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BusinessMetricsService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new BusinessMetricsService(entityManager, ticketRepository, resumoRepository, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Deve buscar a tendência com uma consulta para janelas de 7 e 90 dias")
+    void shouldUseSingleTrendQueryRegardlessOfTrendWindow() {
+        stubRepository();
+
+        BusinessMetricsDTO semana = service.calculateMetrics(7);
+        BusinessMetricsDTO trimestre = service.calculateMetrics(90);
+
+        assertThat(semana.trends().daily()).hasSize(8);
+        assertThat(trimestre.trends().daily()).hasSize(91);
+        DistributionSummary queries = meterRegistry.get("helpdesk.metrics.refresh.queries").summary();
+        assertThat(queries.count()).isEqualTo(2);
+        verify(session, times(2)).addEventListeners(any());
+        verify(resumoRepository, times(2)).getTendenciaDiaria(any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve mapear contagens agrupadas pelo status exibido")
+    void shouldMapGroupedStatusCounts() {
+        stubRepository();
+        when(resumoRepository.countGroupedByStatus()).thenReturn(List.of(
+                new Object[]{"Aberto", 4L},
+                new Object[]{"Em Andamento", 2L},
+                new Object[]{"Resolvido", 9L}
+        ));
+
+        BusinessMetricsDTO metrics = service.calculateMetrics(7);
+
+        assertThat(metrics.tickets().totalOpen()).isEqualTo(4);
+        assertThat(metrics.tickets().totalInProgress()).isEqualTo(2);
+        assertThat(metrics.tickets().totalResolved()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar janela de tendência não suportada")
+    void shouldRejectUnsupportedTrendWindow() {
+        assertThatThrownBy(() -> service.calculateMetrics(15))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(entityManager, ticketRepository, resumoRepository);
+    }
+
+    private void stubRepository() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(resumo.getTotal()).thenReturn(10L);
+        when(resumo.getSlaViolado()).thenReturn(1L);
+        when(resumo.getFechadosSemana()).thenReturn(7L);
+        when(resumo.getTecnicosAtivos()).thenReturn(2L);
+        when(resumo.getAtribuidos()).thenReturn(6L);
+        when(resumoRepository.getMetricasResumo(anyList(), any(), any(), any(), any())).thenReturn(resumo);
+        when(resumoRepository.getTendenciaDiaria(any(), any())).thenAnswer(invocation -> {
+            LocalDate inicio = invocation.getArgument(0);
+            LocalDate fim = invocation.getArgument(1);
+            List<Object[]> rows = new ArrayList<>();
+            for (LocalDate dia = inicio; !dia.isAfter(fim); dia = dia.plusDays(1)) {
+                rows.add(new Object[]{Date.valueOf(dia), 1L, 1L, java.math.BigDecimal.TEN});
+            }
+            return rows;
+        });
+    }
+}
@@ -0,0 +1,152 @@
+package br.com.brisabr.helpdesk_api.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.AsyncProxyManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rate limiting compartilhado: duas "réplicas" (contextos Spring independentes)
+ * usando o mesmo banco H2.
+ */
+@DisplayName("JdbcBucketStore - Limites compartilhados entre réplicas")
+class JdbcBucketStoreTest {
+
+    private EmbeddedDatabase database;
+    private List<AnnotationConfigApplicationContext> replicas;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:db/migration/V7__tabela_rate_limit_buckets.sql")
+                .build();
+        replicas = List.of(replica(), replica());
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicas.forEach(AnnotationConfigApplicationContext::close);
+        database.shutdown();
+    }
+
+    @Test
+    @DisplayName("Tentativas de login contra uma conta são contadas para as duas réplicas juntas")
+    void shouldShareLoginAttemptsAcrossReplicas() {
+        RateLimiter primeira = replicas.get(0).getBean(RateLimiter.class);
+        RateLimiter segunda = replicas.get(1).getBean(RateLimiter.class);
+
+        // Cada tentativa de um IP diferente, alternando réplicas: nenhuma janela local chega a 5
+        for (int i = 0; i < 5; i++) {
+            RateLimiter replica = i % 2 == 0 ? primeira : segunda;
+            assertThat(replica.isAllowed(requisicao("203.0.113." + i), "vitima@empresa.com"))
+                    .as("tentativa %d", i + 1).isTrue();
+        }
+
+        RateLimiter.Decision bloqueada = primeira.check(requisicao("203.0.113.50"), "Vitima@Empresa.com");
+        assertThat(bloqueada.allowed()).isFalse();
+        assertThat(bloqueada.retryAfterSeconds()).isPositive();
+        assertThat(segunda.isAllowed(requisicao("203.0.113.51"), "vitima@empresa.com")).isFalse();
+
+        // Login bem-sucedido numa réplica libera a conta nas duas
+        primeira.resetAttempts("vitima@empresa.com");
+        assertThat(segunda.isAllowed(requisicao("203.0.113.52"), "vitima@empresa.com")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Limite do endpoint vale para o conjunto, com a maioria das requisições sem ir ao banco")
+    void shouldHoldEndpointLimitAcrossReplicasWithLocalLease() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new EndpointLimitado(), "listar");
+        int permitidas = 0;
+        for (int i = 0; i < 300; i++) {
+            RateLimitInterceptor replica = replicas.get(i % 2).getBean(RateLimitInterceptor.class);
+            if (replica.preHandle(requisicao("198.51.100.20"), new MockHttpServletResponse(), handler)) {
+                permitidas++;
+            }
+        }
+
+        // 100/min no total; cada réplica pode adiantar até 10 tokens (10% da capacidade) sem sincronizar
+        assertThat(permitidas).isBetween(100, 120);
+        Long escritas = new JdbcTemplate(database).queryForObject(
+                "SELECT version FROM rate_limit_buckets WHERE bucket_key = ?", Long.class,
+                "ip:198.51.100.20:/v1/api/limitado");
+        assertThat(escritas).isLessThan(30L);
+    }
+
+    @Test
+    @DisplayName("Modo assíncrono consome e remove os mesmos buckets do banco")
+    void shouldConsumeAndRemoveThroughAsyncMode() throws Exception {
+        BucketConfiguration config = BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder().capacity(5).refillIntervally(5, Duration.ofMinutes(1)).build())
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        try (JdbcBucketStore primeira = new JdbcBucketStore(jdbcTemplate, 0, Duration.ofSeconds(1));
+             JdbcBucketStore segunda = new JdbcBucketStore(jdbcTemplate, 0, Duration.ofSeconds(1))) {
+            List<CompletableFuture<Boolean>> tentativas = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                AsyncProxyManager<String> replica = (i % 2 == 0 ? primeira : segunda).async();
+                tentativas.add(replica.builder()
+                        .build("async:conta", () -> CompletableFuture.completedFuture(config))
+                        .tryConsume(1));
+            }
+            long permitidas = 0;
+            for (CompletableFuture<Boolean> tentativa : tentativas) {
+                if (tentativa.get(10, TimeUnit.SECONDS)) {
+                    permitidas++;
+                }
+            }
+            assertThat(permitidas).isEqualTo(5);
+
+            segunda.async().removeProxy("async:conta").get(10, TimeUnit.SECONDS);
+            assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM rate_limit_buckets WHERE bucket_key = ?",
+                    Long.class, "async:conta")).isZero();
+        }
+    }
+
+    private AnnotationConfigApplicationContext replica() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        TestPropertyValues.of("rate-limit.store=jdbc", "rate-limit.jdbc.lease-tokens=20",
+                "rate-limit.jdbc.lease-max-delay-ms=60000").applyTo(context);
+        context.registerBean(JdbcTemplate.class, () -> new JdbcTemplate(database));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.register(RateLimitConfig.class, ClientIpResolver.class, RateLimiter.class, RateLimitInterceptor.class);
+        context.refresh();
+        return context;
+    }
+
+    private static MockHttpServletRequest requisicao(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/api/limitado");
+        request.setRemoteAddr(ip);
+        return request;
+    }
+
+    static class EndpointLimitado {
+
+        @RateLimit(requestsPerMinute = 100)
+        public void listar() {
+        }
+    }
+}
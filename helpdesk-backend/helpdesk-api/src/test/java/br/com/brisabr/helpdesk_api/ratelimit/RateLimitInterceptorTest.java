@@ -0,0 +1,159 @@
+package br.com.brisabr.helpdesk_api.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Políticas de {@link RateLimit} resolvidas na subida: padrão da classe,
+ * limites por papel, cabeçalhos e métricas por rota.
+ */
+@DisplayName("RateLimitInterceptor - Políticas por endpoint")
+class RateLimitInterceptorTest {
+
+    private AnnotationConfigApplicationContext context;
+    private RateLimitInterceptor interceptor;
+    private MeterRegistry meterRegistry;
+    private Painel painel;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.registerBean(RequestMappingHandlerMapping.class);
+        context.register(RateLimitConfig.class, ClientIpResolver.class, RateLimitInterceptor.class, Painel.class);
+        context.refresh();
+        interceptor = context.getBean(RateLimitInterceptor.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+        painel = context.getBean(Painel.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Test
+    @DisplayName("Padrão da classe vale por rota, com limite maior para técnicos")
+    void shouldApplyClassDefaultWithRoleLimits() throws Exception {
+        HandlerMethod ver = new HandlerMethod(painel, "ver", Long.class);
+
+        autenticar("usuario@empresa.com", "ROLE_USER");
+        // /painel/1 e /painel/2 são a mesma rota: dividem o bucket
+        assertThat(interceptor.preHandle(requisicao("GET", "/v1/api/painel/1", "/v1/api/painel/{id}"), new MockHttpServletResponse(), ver)).isTrue();
+        assertThat(interceptor.preHandle(requisicao("GET", "/v1/api/painel/2", "/v1/api/painel/{id}"), new MockHttpServletResponse(), ver)).isTrue();
+        MockHttpServletResponse rejeitada = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(requisicao("GET", "/v1/api/painel/3", "/v1/api/painel/{id}"), rejeitada, ver)).isFalse();
+        assertThat(rejeitada.getStatus()).isEqualTo(429);
+        assertThat(rejeitada.getHeader("X-RateLimit-Limit")).isEqualTo("2");
+        assertThat(rejeitada.getHeader("X-RateLimit-Remaining")).isEqualTo("0");
+        assertThat(Long.parseLong(rejeitada.getHeader("X-RateLimit-Reset"))).isBetween(1L, 60L);
+        assertThat(rejeitada.getHeader("Retry-After")).isNotNull();
+
+        autenticar("tecnico@empresa.com", "ROLE_USER", "ROLE_TECHNICIAN");
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            assertThat(interceptor.preHandle(requisicao("GET", "/v1/api/painel/1", "/v1/api/painel/{id}"), response, ver)).isTrue();
+            assertThat(response.getHeader("X-RateLimit-Limit")).isEqualTo("5");
+        }
+        assertThat(interceptor.preHandle(requisicao("GET", "/v1/api/painel/1", "/v1/api/painel/{id}"), new MockHttpServletResponse(), ver)).isFalse();
+
+        assertThat(contagem("GET", "/v1/api/painel/{id}", "allowed")).isEqualTo(7);
+        assertThat(contagem("GET", "/v1/api/painel/{id}", "rejected")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Anotação do método substitui a da classe")
+    void shouldPreferMethodAnnotation() throws Exception {
+        HandlerMethod criar = new HandlerMethod(painel, "criar");
+        autenticar("tecnico@empresa.com", "ROLE_TECHNICIAN");
+
+        MockHttpServletResponse permitida = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(requisicao("POST", "/v1/api/painel", "/v1/api/painel"), permitida, criar)).isTrue();
+        assertThat(permitida.getHeader("X-RateLimit-Limit")).isEqualTo("1");
+        assertThat(interceptor.preHandle(requisicao("POST", "/v1/api/painel", "/v1/api/painel"), new MockHttpServletResponse(), criar)).isFalse();
+        assertThat(contagem("POST", "/v1/api/painel", "rejected")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Handler com várias rotas tem bucket e métricas por rota")
+    void shouldResolvePolicyPerMappedPattern() throws Exception {
+        HandlerMethod resumo = new HandlerMethod(painel, "resumo");
+        autenticar("usuario@empresa.com", "ROLE_USER");
+
+        assertThat(interceptor.preHandle(requisicao("GET", "/v1/api/painel/resumo", "/v1/api/painel/resumo"),
+                new MockHttpServletResponse(), resumo)).isTrue();
+        assertThat(interceptor.preHandle(requisicao("GET", "/v1/api/painel/resumo", "/v1/api/painel/resumo"),
+                new MockHttpServletResponse(), resumo)).isFalse();
+        // A outra rota do mesmo método não divide o bucket nem as tags com a primeira
+        assertThat(interceptor.preHandle(requisicao("GET", "/v1/api/resumo", "/v1/api/resumo"),
+                new MockHttpServletResponse(), resumo)).isTrue();
+
+        assertThat(contagem("GET", "/v1/api/painel/resumo", "allowed")).isEqualTo(1);
+        assertThat(contagem("GET", "/v1/api/painel/resumo", "rejected")).isEqualTo(1);
+        assertThat(contagem("GET", "/v1/api/resumo", "allowed")).isEqualTo(1);
+    }
+
+    private double contagem(String metodo, String rota, String resultado) {
+        return meterRegistry.get(RateLimitPolicy.METRICA)
+                .tags("method", metodo, "uri", rota, "outcome", resultado)
+                .counter().count();
+    }
+
+    private static void autenticar(String email, String... papeis) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                email, null, AuthorityUtils.createAuthorityList(papeis)));
+    }
+
+    /**
+     * Requisição como chega ao interceptor, com o padrão que casou gravado pelo mapeamento.
+     */
+    private static MockHttpServletRequest requisicao(String metodo, String uri, String padrao) {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, uri);
+        request.setRemoteAddr("198.51.100.30");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, padrao);
+        return request;
+    }
+
+    @RestController
+    @RateLimit(requestsPerMinute = 2, type = RateLimit.LimitType.PER_USER,
+            roles = @RateLimit.RoleLimit(role = "TECHNICIAN", requestsPerMinute = 5))
+    static class Painel {
+
+        @GetMapping("/v1/api/painel/{id}")
+        public String ver(@PathVariable Long id) {
+            return "ok";
+        }
+
+        @RateLimit(requestsPerMinute = 1)
+        @PostMapping("/v1/api/painel")
+        public String criar() {
+            return "ok";
+        }
+
+        @RateLimit(requestsPerMinute = 1)
+        @GetMapping({"/v1/api/painel/resumo", "/v1/api/resumo"})
+        public String resumo() {
+            return "ok";
+        }
+    }
+}
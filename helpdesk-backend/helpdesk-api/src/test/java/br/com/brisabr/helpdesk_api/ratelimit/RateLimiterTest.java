@@ -0,0 +1,112 @@
+package br.com.brisabr.helpdesk_api.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Limite de tentativas de login: janela deslizante por conta e por IP, backoff
+ * de reincidentes e IP do cliente atrás de proxies.
+ */
+@DisplayName("RateLimiter - Tentativas de login")
+class RateLimiterTest {
+
+    private static final long T0 = 1_800_000_000_000L;
+
+    private final RateLimiter rateLimiter = new RateLimiter(new LocalBucketStore(),
+            new ClientIpResolver(List.of()), 60, 5, 20, 3600);
+
+    @Test
+    @DisplayName("Janela desliza: cada tentativa sai da contagem 60 segundos depois")
+    void shouldSlideWindowPerSecond() {
+        // Tentativas em 0s, 10s, 20s, 30s e 40s
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.check("10.0.0.1", "ana@empresa.com", T0 + i * 10_000L).allowed()).isTrue();
+        }
+
+        RateLimiter.Decision bloqueada = rateLimiter.check("10.0.0.1", "ana@empresa.com", T0 + 45_000);
+        assertThat(bloqueada.allowed()).isFalse();
+        // A tentativa recusada não conta: basta a de 0s sair (em 60s)
+        assertThat(bloqueada.retryAfterSeconds()).isEqualTo(15);
+
+        assertThat(rateLimiter.check("10.0.0.1", "ana@empresa.com", T0 + 59_000).allowed()).isFalse();
+        assertThat(rateLimiter.check("10.0.0.1", "ana@empresa.com", T0 + 60_000).allowed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Limita a conta mesmo com as tentativas vindas de IPs diferentes")
+    void shouldLimitAccountAcrossIps() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.check("10.0.1." + i, " Bruno@Empresa.com ", T0).allowed()).isTrue();
+        }
+
+        assertThat(rateLimiter.check("10.0.1.99", "bruno@empresa.com", T0).allowed()).isFalse();
+        assertThat(rateLimiter.check("10.0.1.99", "outra@empresa.com", T0).allowed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Limita o IP que testa muitas contas")
+    void shouldLimitIpAcrossAccounts() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(rateLimiter.check("10.0.2.1", "conta" + i + "@empresa.com", T0).allowed()).isTrue();
+        }
+
+        assertThat(rateLimiter.check("10.0.2.1", "conta99@empresa.com", T0).allowed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Tentativa recusada pela conta não consome a janela do IP")
+    void shouldNotChargeIpForAttemptRejectedByAccount() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.check("10.0.4.1", "dani@empresa.com", T0).allowed()).isTrue();
+        }
+        assertThat(rateLimiter.check("10.0.4.1", "dani@empresa.com", T0).allowed()).isFalse();
+
+        // Restam 15 das 20 tentativas do IP
+        for (int i = 0; i < 15; i++) {
+            assertThat(rateLimiter.check("10.0.4.1", "conta" + i + "@empresa.com", T0).allowed()).isTrue();
+        }
+        assertThat(rateLimiter.check("10.0.4.1", "conta99@empresa.com", T0).allowed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Reincidentes esperam o dobro a cada novo bloqueio")
+    void shouldBackOffExponentially() {
+        long agora = T0;
+        long[] esperas = new long[4];
+        for (int rodada = 0; rodada < esperas.length; rodada++) {
+            for (int i = 0; i < 5; i++) {
+                rateLimiter.check("10.0.3." + i, "carla@empresa.com", agora);
+            }
+            RateLimiter.Decision bloqueada = rateLimiter.check("10.0.3.9", "carla@empresa.com", agora);
+            assertThat(bloqueada.allowed()).isFalse();
+            esperas[rodada] = bloqueada.retryAfterSeconds();
+
+            // Durante o bloqueio nada passa
+            assertThat(rateLimiter.check("10.0.3.9", "carla@empresa.com", agora + 1_000).allowed()).isFalse();
+            agora += (esperas[rodada] + 60) * 1000;
+        }
+
+        assertThat(esperas).containsExactly(60, 60, 120, 240);
+    }
+
+    @Test
+    @DisplayName("Só usa X-Forwarded-For vindo de proxy confiável")
+    void shouldTrustForwardedForOnlyFromTrustedProxies() {
+        ClientIpResolver resolver = new ClientIpResolver(List.of("10.9.0.1", "10.9.0.2"));
+
+        MockHttpServletRequest direto = new MockHttpServletRequest();
+        direto.setRemoteAddr("198.51.100.7");
+        direto.addHeader("X-Forwarded-For", "1.2.3.4");
+        assertThat(resolver.resolve(direto)).isEqualTo("198.51.100.7");
+
+        MockHttpServletRequest viaProxy = new MockHttpServletRequest();
+        viaProxy.setRemoteAddr("10.9.0.1");
+        viaProxy.addHeader("X-Forwarded-For", "1.2.3.4, 198.51.100.7, 10.9.0.2");
+        assertThat(resolver.resolve(viaProxy)).isEqualTo("198.51.100.7");
+    }
+}
@@ -0,0 +1,238 @@
+package br.com.brisabr.helpdesk_api.rollup;
+
+import br.com.brisabr.helpdesk_api.events.OutboxEntrega;
+import br.com.brisabr.helpdesk_api.events.OutboxEntregaRepository;
+import br.com.brisabr.helpdesk_api.events.TicketCreatedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketEventOutbox;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Resumo diário num PostgreSQL real: deltas das transições (upsert), reconstrução
+ * com troca de tabela e tendência diária (window function).
+ *
+ * Sem Docker disponível o teste é ignorado.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "events.outbox.dispatcher.enabled=false"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("TicketRollupService - Resumo diário no PostgreSQL")
+class TicketRollupServiceTest {
+
+    private static final LocalDateTime ABERTURA = LocalDateTime.of(2025, 3, 10, 9, 0);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private TicketRollupService rollupService;
+
+    @Autowired
+    private ResumoDiarioChamadoRepository resumoRepository;
+
+    @Autowired
+    private TicketEventOutbox outbox;
+
+    @Autowired
+    private OutboxEntregaRepository entregaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger numero = new AtomicInteger();
+    private long tecnico;
+
+    @BeforeEach
+    void limpar() {
+        jdbcTemplate.execute("TRUNCATE ticket_event_entregas, ticket_event_outbox, resumo_diario_chamados, " +
+                "chamados, usuarios CASCADE");
+        jdbcTemplate.update("INSERT INTO usuarios (nome, email, senha, perfil, data_criacao) " +
+                "VALUES ('Técnico Resumo', 'tecnico.resumo@test.com', 'x', 'technician', now())");
+        tecnico = jdbcTemplate.queryForObject("SELECT id FROM usuarios", Long.class);
+    }
+
+    @Test
+    @DisplayName("Cada transição subtrai a contribuição anterior e soma a nova")
+    void shouldApplyTransitionDeltas() {
+        ChamadoRollupRecord aberto = new ChamadoRollupRecord(ABERTURA, null, "Rede", "Alta", 0, "Aberto");
+        ChamadoRollupRecord emAndamento = new ChamadoRollupRecord(ABERTURA, null, "Rede", "Alta", tecnico, "Em Andamento");
+        ChamadoRollupRecord resolvido = new ChamadoRollupRecord(ABERTURA, ABERTURA.plusHours(80), "Rede", "Alta",
+                tecnico, "Resolvido");
+
+        emTransacao(() -> {
+            rollupService.registrarTransicao(null, aberto);
+            rollupService.registrarTransicao(aberto, emAndamento);
+            rollupService.registrarTransicao(emAndamento, resolvido);
+        });
+
+        assertThat(linhasNaoZeradas()).containsExactly(
+                tuple(LocalDate.of(2025, 3, 10), tecnico, "Resolvido", 1L, 0L, 0L, 0L),
+                tuple(LocalDate.of(2025, 3, 13), tecnico, "Resolvido", 0L, 1L, 80 * 3600L, 1L));
+        assertThat(soma("abertos")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Reconstrução substitui a tabela, mantém as constraints e marca os eventos pendentes")
+    void shouldRebuildIntoNewTable() {
+        jdbcTemplate.update("INSERT INTO resumo_diario_chamados (dia, categoria, prioridade, id_tecnico, status, " +
+                "abertos, fechados, duracao_segundos, fechados_sla_violado) VALUES (DATE '2000-01-01', 'X', 'X', 0, 'X', 99, 0, 0, 0)");
+        inserirChamado("Aberto", null);
+        inserirChamado("Resolvido", ABERTURA.plusHours(5));
+        inserirChamado("Resolvido", ABERTURA.plusHours(90));
+        long pendente = registrarEvento(inserirChamado("Aberto", null), "Aberto");
+
+        rollupService.reconstruir();
+
+        assertThat(soma("abertos")).isEqualTo(4);
+        assertThat(soma("fechados")).isEqualTo(2);
+        assertThat(soma("fechados_sla_violado")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM resumo_diario_chamados WHERE dia = DATE '2000-01-01'",
+                Long.class)).isZero();
+        assertThat(entregaRepository.findAssinantesByEventoId(pendente)).containsExactly(TicketRollupSubscriber.NOME);
+        assertThat(jdbcTemplate.queryForList("SELECT CAST(conname AS text) FROM pg_constraint " +
+                "WHERE conrelid = to_regclass('resumo_diario_chamados') ORDER BY 1", String.class))
+                .contains("resumo_diario_chamados_pkey", "uk_resumo_diario_chave");
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class,
+                TicketRollupService.TABELA_NOVA)).isTrue();
+
+        // O upsert encontra a chave única da tabela nova
+        emTransacao(() -> rollupService.registrarTransicao(null,
+                new ChamadoRollupRecord(ABERTURA, null, "Rede", "Alta", tecnico, "Aberto")));
+        assertThat(soma("abertos")).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Eventos aplicados durante a agregação são reaplicados na tabela nova, sem contar duas vezes")
+    void shouldReplayEventsDeliveredWhileRebuilding() {
+        inserirChamado("Resolvido", ABERTURA.plusHours(2));
+        long pendente = registrarEvento(inserirChamado("Aberto", null), "Aberto");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            rollupService.montarTabelaNova();
+            // Outra réplica entrega, na tabela antiga, um evento já agregado e um novo
+            aguardar(CompletableFuture.runAsync(() -> {
+                entregar(pendente, "Aberto");
+                entregar(registrarEvento(inserirChamado("Aberto", null), "Aberto"), "Aberto");
+            }));
+            assertThat(rollupService.trocarTabelas()).isEqualTo(1);
+        });
+
+        assertThat(soma("abertos")).isEqualTo(3);
+        assertThat(soma("fechados")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Tendência diária inclui dias sem movimento e calcula o backlog de cada dia")
+    void shouldComputeDailyTrendWithBacklog() {
+        inserirResumo(LocalDate.of(2025, 3, 1), 5, 0);
+        inserirResumo(LocalDate.of(2025, 3, 8), 2, 1);
+        inserirResumo(LocalDate.of(2025, 3, 9), 0, 3);
+        inserirResumo(LocalDate.of(2025, 3, 10), 1, 0);
+
+        List<Object[]> linhas = resumoRepository.getTendenciaDiaria(LocalDate.of(2025, 3, 7), LocalDate.of(2025, 3, 10));
+
+        assertThat(linhas).extracting(
+                        l -> ((Date) l[0]).toLocalDate(),
+                        l -> ((Number) l[1]).longValue(),
+                        l -> ((Number) l[2]).longValue(),
+                        l -> ((Number) l[3]).longValue())
+                .containsExactly(
+                        tuple(LocalDate.of(2025, 3, 7), 0L, 0L, 5L),
+                        tuple(LocalDate.of(2025, 3, 8), 2L, 1L, 6L),
+                        tuple(LocalDate.of(2025, 3, 9), 0L, 3L, 3L),
+                        tuple(LocalDate.of(2025, 3, 10), 1L, 0L, 4L));
+    }
+
+    private long inserirChamado(String status, LocalDateTime fechamento) {
+        return jdbcTemplate.queryForObject("INSERT INTO chamados (numero_chamado, descricao, categoria, prioridade, " +
+                "status, data_abertura, data_fechamento, foi_reaberto, versao, id_solicitante, id_tecnico_atribuido) " +
+                "VALUES (?, 'Chamado', 'Rede', 'Alta', ?, ?, ?, false, 0, ?, ?) RETURNING id", Long.class,
+                "2095-" + numero.incrementAndGet(), status, ABERTURA, fechamento, tecnico, tecnico);
+    }
+
+    /**
+     * Grava na outbox o evento de criação do chamado, com o estado que o resumo aplica.
+     */
+    private long registrarEvento(long chamado, String status) {
+        return new TransactionTemplate(transactionManager).execute(s -> {
+            outbox.registrar(new TicketCreatedEvent(chamado, "2095-" + chamado, tecnico, "Técnico", "Rede", "Alta"),
+                    tecnico, null, estado(status));
+            return jdbcTemplate.queryForObject("SELECT max(id) FROM ticket_event_outbox", Long.class);
+        });
+    }
+
+    /**
+     * O que o dispatcher faz para o assinante do resumo: delta e marca na mesma transação.
+     */
+    private void entregar(long evento, String status) {
+        emTransacao(() -> {
+            rollupService.registrarTransicao(null, estado(status));
+            entregaRepository.saveAndFlush(new OutboxEntrega(evento, TicketRollupSubscriber.NOME));
+        });
+    }
+
+    private ChamadoRollupRecord estado(String status) {
+        return new ChamadoRollupRecord(ABERTURA, null, "Rede", "Alta", tecnico, status);
+    }
+
+    private void inserirResumo(LocalDate dia, long abertos, long fechados) {
+        jdbcTemplate.update("INSERT INTO resumo_diario_chamados (dia, categoria, prioridade, id_tecnico, status, " +
+                "abertos, fechados, duracao_segundos, fechados_sla_violado) VALUES (?, 'Rede', 'Alta', ?, 'Resolvido', ?, ?, 0, 0)",
+                dia, tecnico, abertos, fechados);
+    }
+
+    private List<Tuple> linhasNaoZeradas() {
+        return jdbcTemplate.query("SELECT dia, id_tecnico, status, abertos, fechados, duracao_segundos, fechados_sla_violado " +
+                        "FROM resumo_diario_chamados WHERE abertos <> 0 OR fechados <> 0 ORDER BY dia",
+                (rs, i) -> tuple(rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getString(3), rs.getLong(4),
+                        rs.getLong(5), rs.getLong(6), rs.getLong(7)));
+    }
+
+    private long soma(String coluna) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(" + coluna + "), 0) FROM resumo_diario_chamados", Long.class);
+    }
+
+    private void emTransacao(Runnable acao) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> acao.run());
+    }
+
+    private static void aguardar(CompletableFuture<Void> tarefa) {
+        try {
+            tarefa.get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package br.com.brisabr.helpdesk_api.search;
+
+import br.com.brisabr.helpdesk_api.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Consulta da busca contra o H2: candidatos limitados, filtros, visibilidade e
+ * total. No H2 o documento é texto e o termo casa por substring
+ * ({@link TicketSearchFunctions}); os trechos destacados (SQL nativo do
+ * PostgreSQL) ficam de fora.
+ */
+@SpringBootTest(properties = "search.rank.max-candidates=3")
+@ActiveProfiles("test")
+@DisplayName("TicketSearchService - Consulta no H2")
+class TicketSearchQueryTest {
+
+    private static final LocalDateTime ABERTURA = LocalDateTime.of(2025, 3, 10, 9, 0);
+    private static final TicketSearchService.Filtros SEM_FILTROS =
+            new TicketSearchService.Filtros(null, null, null, null, null, null);
+
+    @Autowired
+    private TicketSearchService searchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private TicketSearchRepository searchRepository;
+
+    private final AtomicInteger numero = new AtomicInteger();
+    private User admin;
+    private User solicitante;
+
+    @BeforeEach
+    void popular() {
+        jdbcTemplate.update("DELETE FROM chamados_busca");
+        admin = usuario("admin");
+        solicitante = usuario("user");
+    }
+
+    @Test
+    @DisplayName("Ranqueia só os candidatos mais recentes e limita o total a eles")
+    void shouldRankOnlyMostRecentCandidates() {
+        long[] ids = new long[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = indexar(chamado(admin, "Rede", ABERTURA.plusDays(i)), "Impressora zebrafix sem papel");
+        }
+        indexar(chamado(admin, "Rede", ABERTURA.plusDays(9)), "Monitor piscando");
+
+        Page<TicketSearchHit> pagina = searchService.buscar("ZebraFix", SEM_FILTROS, PageRequest.of(0, 20), admin);
+
+        assertThat(pagina.getContent()).extracting(hit -> hit.chamado().id()).containsExactly(ids[4], ids[3], ids[2]);
+        assertThat(pagina.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Aplica filtros e a visibilidade do solicitante antes de escolher os candidatos")
+    void shouldFilterBeforeCapping() {
+        long doSolicitante = indexar(chamado(solicitante, "Hardware", ABERTURA), "zebrafix no notebook");
+        for (int i = 1; i <= 4; i++) {
+            indexar(chamado(admin, "Hardware", ABERTURA.plusDays(i)), "zebrafix no notebook");
+        }
+        long software = indexar(chamado(admin, "Software", ABERTURA), "zebrafix no driver");
+
+        assertThat(searchService.buscar("zebrafix", SEM_FILTROS, PageRequest.of(0, 20), solicitante).getContent())
+                .extracting(hit -> hit.chamado().id()).containsExactly(doSolicitante);
+        assertThat(searchService.buscar("zebrafix", new TicketSearchService.Filtros(null, null, null, null, "Software", null),
+                PageRequest.of(0, 20), admin).getContent())
+                .extracting(hit -> hit.chamado().id()).containsExactly(software);
+        assertThat(searchService.buscar("inexistente", SEM_FILTROS, PageRequest.of(0, 20), admin)).isEmpty();
+    }
+
+    private User usuario(String perfil) {
+        String email = perfil + ".busca." + numero.incrementAndGet() + "." + System.nanoTime() + "@test.com";
+        jdbcTemplate.update("INSERT INTO usuarios (nome, email, senha, perfil, data_criacao) VALUES (?, ?, 'x', ?, ?)",
+                "Usuário Busca", email, perfil, ABERTURA);
+        User user = new User();
+        user.setId(jdbcTemplate.queryForObject("SELECT id FROM usuarios WHERE email = ?", Long.class, email));
+        user.setEmail(email);
+        user.setPerfil(perfil);
+        return user;
+    }
+
+    private long chamado(User solicitante, String categoria, LocalDateTime abertura) {
+        String numeroChamado = "BUSCA-" + numero.incrementAndGet() + "-" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO chamados (numero_chamado, descricao, categoria, prioridade, status, " +
+                "data_abertura, foi_reaberto, versao, id_solicitante) VALUES (?, 'Chamado', ?, 'Média', 'Aberto', ?, false, 0, ?)",
+                numeroChamado, categoria, abertura, solicitante.getId());
+        return jdbcTemplate.queryForObject("SELECT id FROM chamados WHERE numero_chamado = ?", Long.class, numeroChamado);
+    }
+
+    private long indexar(long chamado, String documento) {
+        jdbcTemplate.update("INSERT INTO chamados_busca (id_chamado, documento, atualizado_em) VALUES (?, ?, ?)",
+                chamado, documento, ABERTURA);
+        return chamado;
+    }
+}
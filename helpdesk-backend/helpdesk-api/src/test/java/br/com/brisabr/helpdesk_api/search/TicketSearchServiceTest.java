@@ -0,0 +1,84 @@
+package br.com.brisabr.helpdesk_api.search;
+
+import br.com.brisabr.helpdesk_api.ticket.TicketRepository;
+import br.com.brisabr.helpdesk_api.user.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Testes unitários para TicketSearchService (validação, visibilidade e destaque).
+ * As consultas em si são cobertas pelo RepositoryQueryPlanTest, no PostgreSQL, e
+ * pelo TicketSearchQueryTest, no H2.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TicketSearchService - Testes Unitários")
+class TicketSearchServiceTest {
+
+    private static final TicketSearchService.Filtros SEM_FILTROS =
+            new TicketSearchService.Filtros(null, null, null, null, null, null);
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TicketSearchRepository searchRepository;
+
+    private TicketSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TicketSearchService(entityManager, ticketRepository, searchRepository, 1000);
+    }
+
+    @Test
+    @DisplayName("Deve recusar termo vazio ou longo demais")
+    void shouldRejectInvalidTerm() {
+        User admin = usuario("admin");
+
+        assertThatThrownBy(() -> service.buscar("   ", SEM_FILTROS, PageRequest.of(0, 20), admin))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.buscar("a".repeat(TicketSearchService.MAX_TERMO + 1), SEM_FILTROS,
+                PageRequest.of(0, 20), admin))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @DisplayName("Deve devolver página vazia para perfil sem acesso à listagem")
+    void shouldReturnEmptyPageForUnknownProfile() {
+        assertThat(service.buscar("impressora", SEM_FILTROS, PageRequest.of(0, 20), usuario("visitante")))
+                .isEmpty();
+        verifyNoInteractions(entityManager, searchRepository);
+    }
+
+    @Test
+    @DisplayName("Deve escapar o HTML do trecho e marcar só os termos encontrados")
+    void shouldEscapeHighlightedSnippet() {
+        String trecho = "<script>alert(1)</script> " + TicketSearchRepository.INICIO_DESTAQUE + "impressora"
+                + TicketSearchRepository.FIM_DESTAQUE + " & scanner";
+
+        assertThat(TicketSearchService.destacar(trecho))
+                .isEqualTo("&lt;script&gt;alert(1)&lt;/script&gt; <mark>impressora</mark> &amp; scanner");
+        assertThat(TicketSearchService.destacar(null)).isNull();
+    }
+
+    private static User usuario(String perfil) {
+        User user = new User();
+        user.setId(7L);
+        user.setPerfil(perfil);
+        return user;
+    }
+}
@@ -0,0 +1,106 @@
+package br.com.brisabr.helpdesk_api.service;
+
+import br.com.brisabr.helpdesk_api.HelpdeskApiApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exportação do relatório detalhado de 1M de chamados de um PostgreSQL real, com
+ * a consulta e o cursor de verdade, numa JVM com heap limitado.
+ *
+ * A aplicação inteira sobe na JVM filha, então o limite não pode ser os 16 MB do
+ * {@link ReportRowWriterTest}: {@value #HEAP} cabe o contexto Spring, mas não o
+ * resultado materializado (centenas de MB) nem as linhas que o driver buscaria
+ * de uma vez sem o fetch size e a transação da exportação.
+ *
+ * Sem Docker disponível o teste é ignorado.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("ReportService - Exportação em streaming do PostgreSQL com heap limitado")
+class ReportExportHeapCappedTest {
+
+    static final int CHAMADOS = 1_000_000;
+    private static final String HEAP = "-Xmx128m";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Test
+    @DisplayName("Deve exportar 1M de chamados do banco em CSV e NDJSON sem estourar o heap")
+    void shouldStreamMillionTicketsWithCappedHeap() throws Exception {
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+
+        for (ReportExportFormat formato : ReportExportFormat.values()) {
+            Process process = new ProcessBuilder(java.toString(), HEAP, "-XX:+ExitOnOutOfMemoryError",
+                    "-cp", System.getProperty("java.class.path"), HeapCappedReportExport.class.getName(),
+                    postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), formato.name())
+                    .redirectErrorStream(true)
+                    .start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+            assertThat(process.waitFor(5, TimeUnit.MINUTES)).isTrue();
+            assertThat(process.exitValue()).as(output).isZero();
+            long linhasEsperadas = formato == ReportExportFormat.CSV ? CHAMADOS + 1 : CHAMADOS;
+            assertThat(output.lines()).as(output)
+                    .contains("exportadas=" + CHAMADOS, "escritas=" + linhasEsperadas);
+        }
+    }
+
+    /**
+     * Executado na JVM filha: sobe a aplicação contra o container, popula os
+     * chamados na primeira execução (no próprio banco, sem passar pelo heap) e
+     * exporta pelo {@link ReportService}, descartando a saída.
+     */
+    static final class HeapCappedReportExport {
+
+        public static void main(String[] args) throws Exception {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(HelpdeskApiApplication.class)
+                    .profiles("test")
+                    .run("--spring.datasource.url=" + args[0],
+                            "--spring.datasource.username=" + args[1],
+                            "--spring.datasource.password=" + args[2],
+                            "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                            "--spring.jpa.hibernate.ddl-auto=update",
+                            "--events.outbox.dispatcher.enabled=false",
+                            "--server.port=0",
+                            "--logging.level.root=WARN")) {
+                popular(context.getBean(JdbcTemplate.class));
+
+                ReportRowWriterTest.CountingOutputStream out = new ReportRowWriterTest.CountingOutputStream();
+                long exportadas = context.getBean(ReportService.class).exportDetailedReport(
+                        null, null, null, null, null, null, null, null, null, "numero",
+                        ReportExportFormat.valueOf(args[3]), out);
+                System.out.println("exportadas=" + exportadas);
+                System.out.println("escritas=" + out.linhas);
+            }
+        }
+
+        private static void popular(JdbcTemplate jdbcTemplate) {
+            if (jdbcTemplate.queryForObject("SELECT count(*) FROM chamados", Long.class) > 0) {
+                return;
+            }
+            jdbcTemplate.update("INSERT INTO usuarios (nome, email, senha, perfil, data_criacao) " +
+                    "VALUES ('Solicitante Relatório', 'solicitante.relatorio@test.com', 'x', 'user', now())");
+            long usuario = jdbcTemplate.queryForObject("SELECT max(id) FROM usuarios", Long.class);
+            // Resolvidos: o índice de SLA não carrega nada na subida
+            jdbcTemplate.update("INSERT INTO chamados (numero_chamado, descricao, solucao, categoria, prioridade, " +
+                    "status, data_abertura, data_fechamento, sla_deadline, foi_reaberto, versao, id_solicitante) " +
+                    "SELECT '2025-' || g, 'Descrição do chamado ' || g, 'Solução aplicada ' || g, 'Hardware', 'Média', " +
+                    "'Resolvido', TIMESTAMP '2025-03-10 08:30', TIMESTAMP '2025-03-10 13:30', " +
+                    "TIMESTAMP '2025-03-11 08:30', false, 0, ? FROM generate_series(1, ?) g", usuario, CHAMADOS);
+        }
+    }
+}
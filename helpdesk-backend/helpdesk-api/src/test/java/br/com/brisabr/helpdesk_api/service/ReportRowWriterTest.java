@@ -0,0 +1,131 @@
+package br.com.brisabr.helpdesk_api.service;
+
+import br.com.brisabr.helpdesk_api.ticket.TicketListItemRecord;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes do ReportRowWriter (exportação em streaming do relatório detalhado).
+ */
+@DisplayName("ReportRowWriter - Testes Unitários")
+class ReportRowWriterTest {
+
+    static final int LINHAS_SINTETICAS = 1_000_000;
+    private static final LocalDateTime ABERTURA = LocalDateTime.of(2025, 3, 10, 8, 30);
+
+    @Test
+    @DisplayName("Deve escapar aspas, vírgulas, quebras de linha e fórmulas no CSV")
+    void shouldEscapeCsvCells() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportRowWriter writer = ReportRowWriter.of(ReportExportFormat.CSV, out)) {
+            writer.write(new TicketListItemRecord(1L, "2025-001", "Rede", "Alta", "Aberto",
+                    ABERTURA, null, ABERTURA.plusHours(8), false, "Ana, Silva", null,
+                    "Disse \"urgente\"\nsegunda linha", "=HYPERLINK(\"x\")"));
+        }
+
+        String[] linhas = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(linhas[0]).isEqualTo(String.join(",", ReportRowWriter.COLUNAS));
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains(
+                "1,2025-001,Rede,Alta,Aberto,2025-03-10T08:30,,2025-03-10T16:30,false,\"Ana, Silva\",,"
+                        + "\"Disse \"\"urgente\"\"\nsegunda linha\",\"'=HYPERLINK(\"\"x\"\")\"\r\n");
+    }
+
+    @Test
+    @DisplayName("Deve escrever um objeto JSON por linha no NDJSON")
+    void shouldWriteOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportRowWriter writer = ReportRowWriter.of(ReportExportFormat.NDJSON, out)) {
+            writer.write(HeapCappedExport.linha(1));
+            writer.write(HeapCappedExport.linha(2));
+        }
+
+        String[] linhas = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(linhas).hasSize(2);
+        assertThat(linhas[0]).startsWith("{\"id\":1,\"numeroChamado\":\"2025-1\"")
+                .contains("\"dataFechamento\":\"2025-03-10T13:30\"")
+                .endsWith("}");
+        assertThat(new JsonFactory().createParser(linhas[1]).nextToken()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Deve exportar 1M linhas com heap limitado a 16 MB")
+    void shouldExportMillionRowsWithSmallHeap() throws Exception {
+        String classpath = String.join(File.pathSeparator,
+                codeSource(ReportRowWriterTest.class),
+                codeSource(ReportRowWriter.class),
+                codeSource(JsonFactory.class));
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+
+        for (ReportExportFormat formato : ReportExportFormat.values()) {
+            Process process = new ProcessBuilder(java.toString(), "-Xmx16m",
+                    "-cp", classpath, HeapCappedExport.class.getName(), formato.name())
+                    .redirectErrorStream(true)
+                    .start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+
+            assertThat(process.waitFor(2, TimeUnit.MINUTES)).isTrue();
+            assertThat(process.exitValue()).as(output).isZero();
+            long linhasEsperadas = formato == ReportExportFormat.CSV ? LINHAS_SINTETICAS + 1 : LINHAS_SINTETICAS;
+            assertThat(output).isEqualTo(String.valueOf(linhasEsperadas));
+        }
+    }
+
+    private static String codeSource(Class<?> type) throws Exception {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    /**
+     * Executado em uma JVM separada com heap pequeno: gera as linhas sob demanda,
+     * descarta a saída e imprime a quantidade de linhas escritas.
+     * Não depende da classe de teste externa, que usa bibliotecas fora do classpath.
+     */
+    static final class HeapCappedExport {
+
+        private static final LocalDateTime ABERTURA = LocalDateTime.of(2025, 3, 10, 8, 30);
+
+        public static void main(String[] args) throws Exception {
+            CountingOutputStream out = new CountingOutputStream();
+            try (ReportRowWriter writer = ReportRowWriter.of(ReportExportFormat.valueOf(args[0]), out)) {
+                for (long id = 1; id <= LINHAS_SINTETICAS; id++) {
+                    writer.write(linha(id));
+                }
+            }
+            System.out.println(out.linhas);
+        }
+
+        static TicketListItemRecord linha(long id) {
+            return new TicketListItemRecord(id, "2025-" + id, "Hardware", "Média", "Resolvido",
+                    ABERTURA, ABERTURA.plusHours(5), ABERTURA.plusDays(1), false, "Solicitante " + id,
+                    "Técnico " + (id % 10), "Descrição do chamado " + id, "Solução aplicada " + id);
+        }
+    }
+
+    static final class CountingOutputStream extends OutputStream {
+        long linhas;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                linhas++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
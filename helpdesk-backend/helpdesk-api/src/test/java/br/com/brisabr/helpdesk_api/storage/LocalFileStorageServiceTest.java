@@ -4,8 +4,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
 import org.springframework.mock.web.MockMultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 
@@ -183,4 +185,35 @@ class LocalFileStorageServiceTest {
         assertThat(filePath).exists();
         assertThat(filePath.toString()).endsWith("test.txt");
     }
+
+    @Test
+    @DisplayName("Deve armazenar conteúdo de stream mantendo apenas o nome do arquivo")
+    void shouldStoreInputStreamUsingOnlyFilename() throws IOException {
+        // Given
+        byte[] content = "Stream Content".getBytes();
+
+        // When
+        String fileId = storageService.store(new ByteArrayInputStream(content), "C:\\Users\\fulano\\relatorio.pdf");
+
+        // Then
+        assertThat(fileId).matches("\\d{4}/\\d{2}/\\d{2}/[^/]*_relatorio\\.pdf");
+        assertThat(storageService.load(fileId)).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("Deve carregar arquivo como Resource para streaming")
+    void shouldLoadFileAsResource() throws IOException {
+        // Given
+        byte[] content = "Resource Content".getBytes();
+        String fileId = storageService.store(new ByteArrayInputStream(content), "test.txt");
+
+        // When
+        Resource resource = storageService.loadAsResource(fileId);
+
+        // Then
+        assertThat(resource.contentLength()).isEqualTo(content.length);
+        assertThat(resource.getContentAsByteArray()).isEqualTo(content);
+        assertThatThrownBy(() -> storageService.loadAsResource("non-existent.txt"))
+                .isInstanceOf(IOException.class);
+    }
 }
@@ -0,0 +1,120 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import br.com.brisabr.helpdesk_api.storage.ContentAddressedFileStorageService;
+import br.com.brisabr.helpdesk_api.storage.FileStorageService;
+import br.com.brisabr.helpdesk_api.user.User;
+import br.com.brisabr.helpdesk_api.user.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deduplicação de anexos por conteúdo e coleta dos arquivos órfãos, contra o H2.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Anexos - Deduplicação e coleta de órfãos")
+class AnexoConteudoGcServiceTest {
+
+    @TempDir
+    static Path storageDir;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.storage.location", storageDir::toString);
+    }
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private AnexoConteudoGcService gcService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("Grava uma vez o conteúdo repetido e remove só o arquivo sem anexos")
+    void shouldDeduplicateAndCollectOrphans() throws IOException {
+        assertThat(fileStorageService).isInstanceOf(ContentAddressedFileStorageService.class);
+
+        String erro = armazenar("error.png", "captura de tela repetida");
+        String mesmoErro = armazenar("error (1).png", "captura de tela repetida");
+        String orfao = armazenar("log.txt", "upload que sofreu rollback");
+        assertThat(mesmoErro).isEqualTo(erro);
+        assertThat(orfao).isNotEqualTo(erro);
+
+        criarChamadoComAnexos(erro, 2);
+        fileStorageService.release(orfao);
+        assertThat(fileStorageService.exists(orfao)).isTrue();
+
+        // Carência já vencida para tudo que foi gravado até agora
+        int removidos = gcService.coletar(Instant.now().plusSeconds(60));
+
+        assertThat(removidos).isPositive();
+        assertThat(fileStorageService.exists(orfao)).isFalse();
+        assertThat(fileStorageService.exists(erro)).isTrue();
+
+        gcService.atualizarEstatisticas();
+        long tamanho = "captura de tela repetida".getBytes(StandardCharsets.UTF_8).length;
+        assertThat(gcService.getRatio()).isEqualTo(2.0);
+        assertThat(gcService.getBytesSaved()).isEqualTo(tamanho);
+    }
+
+    @Test
+    @DisplayName("Só remove o arquivo sem anexos depois do período de carência")
+    void shouldKeepRecentlyReusedContent() throws IOException {
+        Instant antesDoReuso = Instant.now().plusSeconds(60);
+        String chave = armazenar("a.txt", "conteúdo sem anexo ainda");
+
+        assertThat(gcService.coletar(Instant.now().minusSeconds(60))).isZero();
+        assertThat(fileStorageService.exists(chave)).isTrue();
+        gcService.coletar(antesDoReuso);
+        assertThat(fileStorageService.exists(chave)).isFalse();
+    }
+
+    private String armazenar(String nome, String conteudo) throws IOException {
+        return fileStorageService.store(new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8)), nome);
+    }
+
+    private void criarChamadoComAnexos(String chave, int quantidade) {
+        User solicitante = userRepository.save(new User("Solicitante Anexo", "anexo.gc@test.com", "x", "user", null));
+        Ticket ticket = new Ticket();
+        ticket.setNumeroChamado("2097-1");
+        ticket.setDescricao("Erro ao abrir o sistema");
+        ticket.setCategoria("Sistemas");
+        ticket.setPrioridade("Média");
+        ticket.setStatus("Aberto");
+        ticket.setDataAbertura(LocalDateTime.now());
+        ticket.setSolicitante(solicitante);
+        for (int i = 0; i < quantidade; i++) {
+            AnexoChamado anexo = new AnexoChamado();
+            anexo.setNomeArquivo("error.png");
+            anexo.setTipoArquivo("image/png");
+            anexo.setChaveArmazenamento(chave);
+            anexo.setTamanho((long) "captura de tela repetida".getBytes(StandardCharsets.UTF_8).length);
+            anexo.setTicket(ticket);
+            ticket.getAnexos().add(anexo);
+        }
+        ticketRepository.saveAndFlush(ticket);
+    }
+}
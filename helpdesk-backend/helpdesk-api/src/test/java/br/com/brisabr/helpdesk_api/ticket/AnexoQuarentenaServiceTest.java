@@ -0,0 +1,206 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import br.com.brisabr.helpdesk_api.antivirus.AntivirusScanner;
+import br.com.brisabr.helpdesk_api.antivirus.ScanResult;
+import br.com.brisabr.helpdesk_api.storage.FileStorageService;
+import br.com.brisabr.helpdesk_api.user.User;
+import br.com.brisabr.helpdesk_api.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Quarentena de anexos contra o H2, com o storage deduplicado em disco e o clamd
+ * substituído por um mock: o mesmo conteúdo enviado de novo enquanto a
+ * quarentena o condena, e depois dela.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("AnexoQuarentenaService - Conteúdo infectado compartilhado")
+class AnexoQuarentenaServiceTest {
+
+    @TempDir
+    static Path storageDir;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.storage.location", storageDir::toString);
+    }
+
+    @MockBean
+    private AntivirusScanner antivirusScanner;
+
+    @Autowired
+    private AnexoQuarentenaService quarentenaService;
+
+    @Autowired
+    private AnexoConteudoGcService gcService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private AnexoChamadoRepository anexoChamadoRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger numero = new AtomicInteger();
+    private User solicitante;
+    // Conteúdo diferente a cada teste: o banco e o storage são compartilhados
+    private String conteudo;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(antivirusScanner.isQuarantineMode()).thenReturn(true);
+        when(antivirusScanner.scanAll(anyList())).thenAnswer(inv ->
+                Collections.nCopies(inv.<List<?>>getArgument(0).size(), ScanResult.ameaca("Eicar-Test-Signature")));
+        conteudo = "planilha com macro maliciosa " + System.nanoTime();
+        solicitante = userRepository.save(new User("Solicitante Quarentena",
+                "quarentena." + System.nanoTime() + "@test.com", "x", "user", null));
+    }
+
+    @Test
+    @DisplayName("Upload commitado depois da remoção do arquivo infectado herda o veredito em vez de ficar pendente")
+    void shouldNotLeaveUploadPendingWhenQuarantineRemovesSharedContent() throws Exception {
+        AnexoChamado primeiro = anexoPendente();
+        CountDownLatch escaneando = new CountDownLatch(1);
+        CountDownLatch uploadGravado = new CountDownLatch(1);
+        when(antivirusScanner.scanAll(anyList())).thenAnswer(inv -> {
+            escaneando.countDown();
+            assertThat(uploadGravado.await(30, TimeUnit.SECONDS)).isTrue();
+            return Collections.nCopies(inv.<List<?>>getArgument(0).size(), ScanResult.ameaca("Eicar-Test-Signature"));
+        });
+
+        CompletableFuture<Void> quarentena = CompletableFuture.runAsync(
+                () -> quarentenaService.verificar(List.of(primeiro.getId())));
+        assertThat(escaneando.await(30, TimeUnit.SECONDS)).isTrue();
+
+        // O upload reaproveita o arquivo antes do veredito e só commita depois que ele foi removido
+        Ticket chamado = new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                Ticket criado = ticketService.createTicket(dto(), solicitante, List.of(
+                        new MockMultipartFile("arquivos", "copia.txt", "text/plain", conteudo.getBytes(StandardCharsets.UTF_8))));
+                assertThat(criado.getAnexos()).extracting(AnexoChamado::getVerificacao)
+                        .containsExactly(VerificacaoAntivirus.PENDENTE);
+                uploadGravado.countDown();
+                quarentena.get(30, TimeUnit.SECONDS);
+                return criado;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        String chave = primeiro.getChaveArmazenamento();
+        assertThat(fileStorageService.exists(chave)).isFalse();
+
+        Long segundo = chamado.getAnexos().get(0).getId();
+        assertThat(aguardarVerificacao(segundo)).isEqualTo(VerificacaoAntivirus.INFECTADO);
+        assertThat(anexoChamadoRepository.findById(primeiro.getId()).orElseThrow().getVerificacao())
+                .isEqualTo(VerificacaoAntivirus.INFECTADO);
+    }
+
+    @Test
+    @DisplayName("Upload depois do veredito já entra infectado e a coleta remove o arquivo regravado")
+    void shouldMarkUploadOfCondemnedContentAsInfected() throws Exception {
+        AnexoChamado primeiro = anexoPendente();
+        quarentenaService.verificar(List.of(primeiro.getId()));
+        assertThat(fileStorageService.exists(primeiro.getChaveArmazenamento())).isFalse();
+
+        Ticket chamado = ticketService.createTicket(dto(), solicitante, List.of(
+                new MockMultipartFile("arquivos", "copia.txt", "text/plain", conteudo.getBytes(StandardCharsets.UTF_8))));
+
+        AnexoChamado segundo = chamado.getAnexos().get(0);
+        assertThat(segundo.getChaveArmazenamento()).isEqualTo(primeiro.getChaveArmazenamento());
+        assertThat(segundo.getVerificacao()).isEqualTo(VerificacaoAntivirus.INFECTADO);
+        verify(antivirusScanner, times(1)).scanAll(anyList());
+
+        // Só anexos infectados apontam para o arquivo regravado pelo upload
+        assertThat(fileStorageService.exists(segundo.getChaveArmazenamento())).isTrue();
+        gcService.coletar(Instant.now().plusSeconds(60));
+        assertThat(fileStorageService.exists(segundo.getChaveArmazenamento())).isFalse();
+    }
+
+    /**
+     * Chamado já commitado com um anexo em quarentena, como o upload o deixa.
+     */
+    private AnexoChamado anexoPendente() throws IOException {
+        String chave = fileStorageService.store(
+                new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8)), "original.txt");
+        Ticket ticket = new Ticket();
+        ticket.setNumeroChamado("2096-" + numero.incrementAndGet() + "-" + System.nanoTime());
+        ticket.setDescricao("Planilha enviada pelo fornecedor");
+        ticket.setCategoria("Sistemas");
+        ticket.setPrioridade("Média");
+        ticket.setStatus("Aberto");
+        ticket.setDataAbertura(LocalDateTime.now());
+        ticket.setSolicitante(solicitante);
+        AnexoChamado anexo = new AnexoChamado();
+        anexo.setNomeArquivo("original.txt");
+        anexo.setTipoArquivo("text/plain");
+        anexo.setChaveArmazenamento(chave);
+        anexo.setTamanho((long) conteudo.getBytes(StandardCharsets.UTF_8).length);
+        anexo.setVerificacao(VerificacaoAntivirus.PENDENTE);
+        anexo.setTicket(ticket);
+        ticket.getAnexos().add(anexo);
+        return ticketRepository.saveAndFlush(ticket).getAnexos().get(0);
+    }
+
+    private static TicketCreateDTO dto() {
+        TicketCreateDTO dto = new TicketCreateDTO();
+        dto.setDescription("Planilha reenviada pelo fornecedor");
+        dto.setCategory("Sistemas");
+        dto.setPriority("MEDIA");
+        return dto;
+    }
+
+    /**
+     * O scan depois do commit roda em outra thread ({@code @Async}).
+     */
+    private VerificacaoAntivirus aguardarVerificacao(Long anexoId) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        VerificacaoAntivirus verificacao;
+        while ((verificacao = anexoChamadoRepository.findById(anexoId).orElseThrow().getVerificacao())
+                == VerificacaoAntivirus.PENDENTE && System.nanoTime() < limite) {
+            Thread.sleep(50);
+        }
+        return verificacao;
+    }
+}
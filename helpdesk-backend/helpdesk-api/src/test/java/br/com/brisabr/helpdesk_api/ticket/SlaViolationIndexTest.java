@@ -0,0 +1,105 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Consulta de SLA violado e preenchimento dos prazos ausentes contra o H2.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("SlaViolationIndex - Consulta na coluna sla_deadline")
+class SlaViolationIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 10, 12, 0);
+
+    @Autowired
+    private SlaViolationIndex index;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger numero = new AtomicInteger();
+    // O banco é compartilhado com outros testes: as consultas são conferidas só nos chamados deste
+    private final Set<Long> criados = new HashSet<>();
+    private long solicitante;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO usuarios (nome, email, senha, perfil, data_criacao) VALUES (?, ?, 'x', 'user', ?)",
+                "Solicitante SLA", "sla." + System.nanoTime() + "@test.com", NOW);
+        solicitante = jdbcTemplate.queryForObject("SELECT max(id) FROM usuarios", Long.class);
+    }
+
+    @Test
+    @DisplayName("Deve retornar apenas chamados ativos com prazo vencido, em ordem de prazo e id")
+    void shouldReturnOnlyActiveViolatedTicketsOrderedByDeadline() {
+        long aberto = chamado("Aberto", "Alta", NOW.minusHours(1));
+        long emAndamento = chamado("Em Andamento", "Alta", NOW.minusHours(5));
+        long mesmoPrazo = chamado("Aberto", "Alta", NOW.minusHours(1));
+        chamado("Aberto", "Alta", NOW.plusHours(1));
+        chamado("Aberto", "Alta", NOW);
+        chamado("Resolvido", "Alta", NOW.minusDays(3));
+
+        assertThat(violados()).containsExactly(emAndamento, aberto, mesmoPrazo);
+    }
+
+    @Test
+    @DisplayName("Deve preencher num único UPDATE os prazos ausentes dos chamados ativos")
+    void shouldBackfillMissingDeadlines() {
+        LocalDateTime abertura = NOW.minusDays(3);
+        long alta = chamado("Aberto", "Alta", abertura, null);
+        long baixa = chamado("Em Andamento", "Baixa", abertura, null);
+        long critica = chamado("Aberto", "Crítica", abertura, null);
+        long media = chamado("Aberto", "Média", abertura, null);
+        long preenchido = chamado("Aberto", "Alta", abertura, abertura.plusHours(30));
+        long fechado = chamado("Resolvido", "Alta", abertura, null);
+
+        index.backfillMissingDeadlines();
+
+        assertThat(prazo(alta)).isEqualTo(abertura.plusHours(8));
+        assertThat(prazo(baixa)).isEqualTo(abertura.plusDays(2));
+        assertThat(prazo(critica)).isEqualTo(abertura.plusHours(2));
+        assertThat(prazo(media)).isEqualTo(abertura.plusHours(24));
+        assertThat(prazo(preenchido)).isEqualTo(abertura.plusHours(30));
+        assertThat(prazo(fechado)).isNull();
+        assertThat(violados()).containsExactly(critica, alta, media, preenchido, baixa);
+    }
+
+    private long chamado(String status, String prioridade, LocalDateTime prazo) {
+        return chamado(status, prioridade, prazo.minusHours(8), prazo);
+    }
+
+    private long chamado(String status, String prioridade, LocalDateTime abertura, LocalDateTime prazo) {
+        String numeroChamado = "SLA-" + numero.incrementAndGet() + "-" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO chamados (numero_chamado, descricao, categoria, prioridade, status, " +
+                "data_abertura, sla_deadline, foi_reaberto, versao, id_solicitante) VALUES (?, 'Chamado', 'Rede', ?, ?, ?, ?, false, 0, ?)",
+                numeroChamado, prioridade, status, abertura, prazo, solicitante);
+        long id = jdbcTemplate.queryForObject("SELECT id FROM chamados WHERE numero_chamado = ?", Long.class, numeroChamado);
+        criados.add(id);
+        return id;
+    }
+
+    private List<Long> violados() {
+        return index.findViolated(NOW).stream().map(TicketListItemRecord::id).filter(criados::contains).toList();
+    }
+
+    private LocalDateTime prazo(long chamado) {
+        return jdbcTemplate.queryForObject("SELECT sla_deadline FROM chamados WHERE id = ?", LocalDateTime.class, chamado);
+    }
+}
@@ -0,0 +1,145 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import br.com.brisabr.helpdesk_api.exception.InvalidTicketStateException;
+import br.com.brisabr.helpdesk_api.user.User;
+import br.com.brisabr.helpdesk_api.user.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Captura concorrente de chamados contra o H2: 64 técnicos disputam os mesmos
+ * 1.000 chamados, cada um numa ordem diferente. Também cobre a volta para a
+ * fila de um chamado reaberto.
+ */
+@SpringBootTest(properties = "events.outbox.dispatcher.enabled=false")
+@ActiveProfiles("test")
+@DisplayName("Atribuição de chamados - Teste de Concorrência")
+class TicketAssignmentConcurrencyTest {
+
+    private static final int TECNICOS = 64;
+    private static final int CHAMADOS = 1_000;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("Chamado reaberto volta para a fila e pode ser capturado por outro técnico")
+    void shouldCaptureReopenedTicket() {
+        User solicitante = userRepository.save(new User("Solicitante Reabertura", "solicitante.reabertura@test.com", "x", "user", null));
+        User primeiro = userRepository.save(new User("Técnico Original", "original.reabertura@test.com", "x", "technician", null));
+        User segundo = userRepository.save(new User("Técnico Novo", "novo.reabertura@test.com", "x", "technician", null));
+        Ticket ticket = new Ticket();
+        ticket.setNumeroChamado("2097-R1");
+        ticket.setDescricao("Chamado reaberto");
+        ticket.setCategoria("Rede");
+        ticket.setPrioridade("Alta");
+        ticket.setStatus("Aberto");
+        ticket.setDataAbertura(LocalDateTime.now());
+        ticket.setSolicitante(solicitante);
+        Long id = ticketRepository.save(ticket).getId();
+
+        ticketService.assignTicketToSelf(id, primeiro);
+        CloseTicketDTO fechamento = new CloseTicketDTO();
+        fechamento.setSolucao("Cabo trocado");
+        ticketService.closeTicket(id, fechamento, primeiro);
+        TicketReopenDTO reabertura = new TicketReopenDTO();
+        reabertura.setMotivo("Voltou a cair");
+        TicketResponseDTO reaberto = ticketService.reopenTicket(id, reabertura, solicitante);
+
+        assertThat(reaberto.getStatus()).isEqualTo("Aberto");
+        assertThat(ticketRepository.findById(id).orElseThrow().getAtribuido()).isNull();
+
+        ticketService.assignTicketToSelf(id, segundo);
+
+        Ticket capturado = ticketRepository.findById(id).orElseThrow();
+        assertThat(capturado.getStatus()).isEqualTo("Em Andamento");
+        assertThat(capturado.getAtribuido().getId()).isEqualTo(segundo.getId());
+    }
+
+    @Test
+    @DisplayName("Cada chamado é atribuído exatamente uma vez e os perdedores recebem conflito")
+    void shouldAssignEachTicketExactlyOnce() throws Exception {
+        User solicitante = userRepository.save(new User("Solicitante Disputa", "solicitante.disputa@test.com", "x", "user", null));
+        List<User> tecnicos = new ArrayList<>();
+        for (int i = 0; i < TECNICOS; i++) {
+            tecnicos.add(userRepository.save(new User("Técnico " + i, "tecnico" + i + ".disputa@test.com", "x", "technician", null)));
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= CHAMADOS; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setNumeroChamado("2097-" + i);
+            ticket.setDescricao("Chamado disputado " + i);
+            ticket.setCategoria("Rede");
+            ticket.setPrioridade("Alta");
+            ticket.setStatus("Aberto");
+            ticket.setDataAbertura(LocalDateTime.now());
+            ticket.setSolicitante(solicitante);
+            ids.add(ticketRepository.save(ticket).getId());
+        }
+
+        Map<Long, Long> vencedores = new ConcurrentHashMap<>();
+        AtomicInteger conflitos = new AtomicInteger();
+        AtomicInteger atribuicoesDuplicadas = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(TECNICOS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < TECNICOS; t++) {
+            User tecnico = tecnicos.get(t);
+            List<Long> ordem = new ArrayList<>(ids);
+            Collections.shuffle(ordem, new Random(t));
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (Long id : ordem) {
+                    try {
+                        ticketService.assignTicketToSelf(id, tecnico);
+                        if (vencedores.putIfAbsent(id, tecnico.getId()) != null) {
+                            atribuicoesDuplicadas.incrementAndGet();
+                        }
+                    } catch (InvalidTicketStateException e) {
+                        conflitos.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertThat(atribuicoesDuplicadas).hasValue(0);
+        assertThat(vencedores).hasSize(CHAMADOS);
+        assertThat(conflitos).hasValue(CHAMADOS * (TECNICOS - 1));
+        for (Ticket ticket : ticketRepository.findAllById(ids)) {
+            assertThat(ticket.getStatus()).isEqualTo("Em Andamento");
+            assertThat(ticket.getAtribuido().getId()).isEqualTo(vencedores.get(ticket.getId()));
+            assertThat(ticket.getVersao()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import br.com.brisabr.helpdesk_api.service.ReportService;
+import br.com.brisabr.helpdesk_api.user.User;
+import br.com.brisabr.helpdesk_api.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica, contra o H2, que as listagens na visão resumida executam um número
+ * constante de statements JDBC, independente do tamanho da página.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@DisplayName("Listagens de chamados - Statements por página")
+class TicketListQueryCountTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private HistoricoChamadoRepository historicoChamadoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = userRepository.save(new User("Admin Lista", "admin.lista@test.com", "x", "admin", null));
+        User tecnico = userRepository.save(new User("Técnico Lista", "tecnico.lista@test.com", "x", "technician", null));
+
+        LocalDateTime abertura = LocalDateTime.of(2025, 3, 10, 8, 0);
+        for (int i = 1; i <= 20; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setNumeroChamado("2098-" + i);
+            ticket.setDescricao("Chamado " + i);
+            ticket.setCategoria("Rede");
+            ticket.setPrioridade("Alta");
+            ticket.setStatus("Em Andamento");
+            ticket.setDataAbertura(abertura.plusHours(i));
+            ticket.setSolicitante(admin);
+            ticket.setAtribuido(tecnico);
+            ticketRepository.save(ticket);
+
+            HistoricoChamado historico = new HistoricoChamado();
+            historico.setTicket(ticket);
+            historico.setAutor(tecnico);
+            historico.setComentario("Em atendimento");
+            historico.setDataOcorrencia(abertura.plusHours(i + 1));
+            historicoChamadoRepository.save(historico);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    @DisplayName("Página de 5 e de 20 chamados devem custar os mesmos statements")
+    void shouldUseConstantStatementsPerPage() {
+        long pequena = statementsFor(() -> {
+            Page<TicketListItemRecord> page = ticketService.getAllTicketsPaginated(
+                    PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "dataAbertura")), admin);
+            assertThat(page.getContent()).hasSize(5);
+            assertThat(page.getContent().get(0).nomeTecnicoAtribuido()).isEqualTo("Técnico Lista");
+        });
+        long grande = statementsFor(() -> {
+            Page<TicketListItemRecord> page = ticketService.getAllTicketsPaginated(
+                    PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "dataAbertura")), admin);
+            assertThat(page.getContent()).hasSize(20);
+        });
+
+        // Página + count
+        assertThat(pequena).isEqualTo(2);
+        assertThat(grande).isEqualTo(pequena);
+    }
+
+    @Test
+    @DisplayName("Relatório detalhado deve ser uma única consulta")
+    void shouldLoadDetailedReportWithSingleStatement() {
+        long statements = statementsFor(() -> {
+            List<TicketListItemRecord> linhas = reportService.getDetailedReport(
+                    null, null, "abertura", "Em Andamento", null, null, null, admin.getId(), null, "numero");
+            assertThat(linhas).hasSize(20);
+        });
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    private long statementsFor(Runnable action) {
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,87 @@
+package br.com.brisabr.helpdesk_api.ticket;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de concorrência do TicketNumberAllocator contra o banco H2.
+ *
+ * Simula duas instâncias da aplicação (dois alocadores compartilhando a mesma
+ * tabela de sequência) com centenas de criadores em paralelo.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("TicketNumberAllocator - Teste de Concorrência")
+class TicketNumberAllocatorConcurrencyTest {
+
+    private static final int YEAR = 2099;
+    private static final int CREATORS = 200;
+    private static final int NUMBERS_PER_CREATOR = 5;
+
+    @Autowired
+    private SequenciaChamadoRepository sequenciaChamadoRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Não deve gerar números duplicados nem lacunas além dos blocos reservados")
+    void shouldNotDuplicateNorLeaveGapsBeyondReservedBlocks() throws Exception {
+        int blockSizeA = 100;
+        int blockSizeB = 7;
+        TicketNumberAllocator instanciaA = new TicketNumberAllocator(
+                sequenciaChamadoRepository, ticketRepository, transactionManager, blockSizeA);
+        TicketNumberAllocator instanciaB = new TicketNumberAllocator(
+                sequenciaChamadoRepository, ticketRepository, transactionManager, blockSizeB);
+
+        Set<Long> numeros = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CREATORS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CREATORS; i++) {
+            TicketNumberAllocator allocator = (i % 2 == 0) ? instanciaA : instanciaB;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < NUMBERS_PER_CREATOR; j++) {
+                    assertThat(numeros.add(allocator.nextValue(YEAR))).isTrue();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int total = CREATORS * NUMBERS_PER_CREATOR;
+        assertThat(numeros).hasSize(total);
+
+        // As únicas lacunas permitidas são as sobras do bloco corrente de cada instância
+        long max = new TreeSet<>(numeros).last();
+        long lacunas = max - total;
+        assertThat(lacunas).isLessThanOrEqualTo((blockSizeA - 1) + (blockSizeB - 1));
+        assertThat(sequenciaChamadoRepository.findById(YEAR))
+                .hasValueSatisfying(seq -> assertThat(seq.getUltimoReservado()).isGreaterThanOrEqualTo(max));
+    }
+}
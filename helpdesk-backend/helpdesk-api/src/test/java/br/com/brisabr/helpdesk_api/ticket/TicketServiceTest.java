@@ -1,9 +1,15 @@
 package br.com.brisabr.helpdesk_api.ticket;
 
+import br.com.brisabr.helpdesk_api.dto.CursorPageDTO;
+import br.com.brisabr.helpdesk_api.events.TicketAssignedEvent;
+import br.com.brisabr.helpdesk_api.events.TicketEventOutbox;
+import br.com.brisabr.helpdesk_api.events.TicketReopenedEvent;
 import br.com.brisabr.helpdesk_api.exception.AttachmentNotFoundException;
 import br.com.brisabr.helpdesk_api.exception.InvalidTicketStateException;
 import br.com.brisabr.helpdesk_api.exception.TicketNotFoundException;
 import br.com.brisabr.helpdesk_api.exception.UnauthorizedOperationException;
+import br.com.brisabr.helpdesk_api.service.ReportService;
+import br.com.brisabr.helpdesk_api.storage.FileStorageService;
 import br.com.brisabr.helpdesk_api.user.User;
 import br.com.brisabr.helpdesk_api.user.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,12 +19,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 /**
@@ -42,6 +52,21 @@ class TicketServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SlaViolationIndex slaViolationIndex;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private TicketNumberAllocator ticketNumberAllocator;
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private TicketEventOutbox ticketEventOutbox;
+
     @InjectMocks
     private TicketService ticketService;
 
@@ -116,9 +141,13 @@ class TicketServiceTest {
     @Test
     @DisplayName("Deve atribuir ticket para si mesmo com sucesso")
     void shouldAssignTicketToSelf() {
-        // Given
+        // Given: o UPDATE condicional encontra o chamado na fila
+        when(ticketRepository.atribuirSeNaFila(1L, 2L, "Aberto", "Em Andamento")).thenAnswer(invocation -> {
+            openTicket.setAtribuido(technicianUser);
+            openTicket.setStatus("Em Andamento");
+            return 1;
+        });
         when(ticketRepository.findById(1L)).thenReturn(Optional.of(openTicket));
-        when(ticketRepository.save(any(Ticket.class))).thenReturn(openTicket);
 
         // When
         TicketResponseDTO result = ticketService.assignTicketToSelf(1L, technicianUser);
@@ -128,8 +157,10 @@ class TicketServiceTest {
         assertThat(openTicket.getAtribuido()).isEqualTo(technicianUser);
         assertThat(openTicket.getStatus()).isEqualTo("Em Andamento");
         verify(ticketRepository).findById(1L);
-        verify(ticketRepository).save(openTicket);
-        verify(historicoChamadoRepository).save(any(HistoricoChamado.class));
+        verify(ticketRepository, never()).save(any());
+        // Histórico, resumo e push ficam com os assinantes da outbox
+        verify(historicoChamadoRepository, never()).save(any());
+        verify(ticketEventOutbox).registrar(any(TicketAssignedEvent.class), eq(2L), any(), any());
     }
 
     @Test
@@ -137,6 +168,7 @@ class TicketServiceTest {
     void shouldThrowInvalidTicketStateExceptionWhenAssignNonOpenTicket() {
         // Given
         resolvedTicket.setStatus("Resolvido");
+        when(ticketRepository.atribuirSeNaFila(2L, 2L, "Aberto", "Em Andamento")).thenReturn(0);
         when(ticketRepository.findById(2L)).thenReturn(Optional.of(resolvedTicket));
 
         // When & Then
@@ -154,6 +186,7 @@ class TicketServiceTest {
         // Given
         TicketReopenDTO reopenData = new TicketReopenDTO();
         reopenData.setMotivo("Problema não foi resolvido");
+        resolvedTicket.setAtribuido(technicianUser);
 
         when(ticketRepository.findById(2L)).thenReturn(Optional.of(resolvedTicket));
         when(ticketRepository.save(any(Ticket.class))).thenReturn(resolvedTicket);
@@ -165,9 +198,10 @@ class TicketServiceTest {
         assertThat(result).isNotNull();
         assertThat(resolvedTicket.getStatus()).isEqualTo("Aberto");
         assertThat(resolvedTicket.isFoiReaberto()).isTrue();
+        assertThat(resolvedTicket.getAtribuido()).isNull();
         verify(ticketRepository).findById(2L);
         verify(ticketRepository).save(resolvedTicket);
-        verify(historicoChamadoRepository).save(any(HistoricoChamado.class));
+        verify(ticketEventOutbox).registrar(any(TicketReopenedEvent.class), eq(3L), any(), any());
     }
 
     @Test
@@ -330,4 +364,52 @@ class TicketServiceTest {
         verify(ticketRepository).findById(1L);
         verify(ticketRepository, never()).save(any());
     }
+
+    @Test
+    @DisplayName("Deve paginar por cursor apenas os chamados do próprio usuário")
+    void shouldPageByCursorOnlyOwnTicketsForUser() {
+        // Given
+        LocalDateTime abertura = LocalDateTime.of(2025, 3, 10, 8, 30);
+        TicketCursor cursor = new TicketCursor(abertura, 50L);
+        TicketListItemRecord primeiro = listItem(1L, abertura);
+        TicketListItemRecord segundo = listItem(2L, abertura.minusDays(1));
+        when(ticketRepository.findKeysetPageAfterBySolicitante(3L, abertura, 50L, Limit.of(2)))
+                .thenReturn(List.of(primeiro, segundo));
+
+        // When
+        CursorPageDTO<TicketListItemRecord> page = ticketService.getTicketsByCursor(cursor.encode(), 1, normalUser);
+
+        // Then
+        assertThat(page.content()).extracting(TicketListItemRecord::id).containsExactly(1L);
+        assertThat(TicketCursor.decode(page.nextCursor())).isEqualTo(new TicketCursor(abertura, 1L));
+        verify(ticketRepository, never()).findKeysetPageAfter(any(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Deve retornar cursor nulo na última página")
+    void shouldReturnNullCursorOnLastPage() {
+        // Given
+        when(ticketRepository.findFirstKeysetPage(Limit.of(21)))
+                .thenReturn(List.of(listItem(1L, LocalDateTime.of(2025, 3, 10, 8, 30))));
+
+        // When
+        CursorPageDTO<TicketListItemRecord> page = ticketService.getTicketsByCursor(null, 20, adminUser);
+
+        // Then
+        assertThat(page.content()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar cursor malformado")
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> ticketService.getTicketsByCursor("nao-e-um-cursor", 20, adminUser))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(ticketRepository);
+    }
+
+    private TicketListItemRecord listItem(Long id, LocalDateTime abertura) {
+        return new TicketListItemRecord(id, "2025-00" + id, "Rede", "Alta", "Aberto", abertura, null, null,
+                false, "Usuário", null, "Descrição", null);
+    }
 }
@@ -0,0 +1,151 @@
+package br.com.brisabr.helpdesk_api.util;
+
+import br.com.brisabr.helpdesk_api.antivirus.AntivirusScanner;
+import br.com.brisabr.helpdesk_api.storage.ContentAddressedFileStorageService;
+import br.com.brisabr.helpdesk_api.storage.LocalFileStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Validação e gravação dos anexos numa única leitura do multipart.
+ */
+@DisplayName("FileValidator - Leitura única do upload")
+class FileValidatorTest {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A};
+
+    @TempDir
+    Path diretorio;
+
+    private FileValidator validator;
+    private LocalFileStorageService storage;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AntivirusScanner desligado = new AntivirusScanner(false, "sync", "localhost", 3310, 5, 30_000, 65_536, 20_000);
+        validator = new FileValidator(desligado, meterRegistry);
+        ReflectionTestUtils.setField(validator, "maxFileSize", 64L * 1024);
+        ReflectionTestUtils.setField(validator, "maxFiles", 5);
+        storage = new LocalFileStorageService(diretorio.toString());
+    }
+
+    @Test
+    @DisplayName("Lê cada anexo uma vez e grava o mesmo conteúdo cujo hash foi calculado")
+    void shouldReadEachUploadOnce() throws Exception {
+        byte[] conteudo = png(40_000);
+        ContadorLeituras anexo = new ContadorLeituras(
+                new MockMultipartFile("arquivos", "tela.png", "image/png", conteudo));
+
+        List<ArquivoValidado> validados = validator.validateAndStore(List.of(anexo), storage);
+
+        assertThat(anexo.aberturas.get()).isEqualTo(1);
+        ArquivoValidado validado = validados.get(0);
+        assertThat(validado.tamanho()).isEqualTo(conteudo.length);
+        assertThat(validado.sha256()).isEqualTo(
+                HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo)));
+        assertThat(storage.load(validado.chaveArmazenamento())).isEqualTo(conteudo);
+        assertThat(meterRegistry.get("helpdesk.upload.bytes.read").summary().totalAmount())
+                .isEqualTo(conteudo.length);
+    }
+
+    @Test
+    @DisplayName("Storage deduplicado usa como chave o hash calculado na validação")
+    void shouldKeyDeduplicatedContentByValidationHash() throws Exception {
+        byte[] conteudo = png(40_000);
+        ContentAddressedFileStorageService deduplicado = new ContentAddressedFileStorageService(storage);
+
+        List<ArquivoValidado> validados = validator.validateAndStore(List.of(
+                new MockMultipartFile("arquivos", "tela.png", "image/png", conteudo),
+                new MockMultipartFile("arquivos", "copia.png", "image/png", conteudo)), deduplicado);
+
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+        assertThat(validados).extracting(ArquivoValidado::sha256).containsOnly(hash);
+        assertThat(validados).extracting(ArquivoValidado::chaveArmazenamento)
+                .containsOnly(ContentAddressedFileStorageService.KEY_PREFIX + hash.substring(0, 2) + "/" + hash);
+        assertThat(deduplicado.load(validados.get(0).chaveArmazenamento())).isEqualTo(conteudo);
+    }
+
+    @Test
+    @DisplayName("Rejeita conteúdo que não corresponde ao tipo declarado e não deixa nada no storage")
+    void shouldRejectMismatchedSignatureWithoutLeftovers() throws IOException {
+        MultipartFile valido = new MockMultipartFile("arquivos", "a.png", "image/png", png(1_000));
+        MultipartFile falso = new MockMultipartFile("arquivos", "b.pdf", "application/pdf", png(1_000));
+
+        assertThatThrownBy(() -> validator.validateAndStore(List.of(valido, falso), storage))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("não corresponde");
+
+        assertThat(arquivosGravados()).isZero();
+    }
+
+    @Test
+    @DisplayName("Barra o arquivo maior que o limite durante a leitura, mesmo com tamanho declarado menor")
+    void shouldEnforceSizeWhileReading() throws IOException {
+        MultipartFile grande = new MockMultipartFile("arquivos", "grande.png", "image/png", png(100_000)) {
+            @Override
+            public long getSize() {
+                return 1_000;
+            }
+        };
+
+        assertThatThrownBy(() -> validator.validateAndStore(List.of(grande), storage))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("muito grande");
+
+        assertThat(arquivosGravados()).isZero();
+    }
+
+    private long arquivosGravados() throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            return arquivos.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static byte[] png(int tamanho) {
+        byte[] conteudo = new byte[tamanho];
+        System.arraycopy(PNG_HEADER, 0, conteudo, 0, PNG_HEADER.length);
+        for (int i = PNG_HEADER.length; i < tamanho; i++) {
+            conteudo[i] = (byte) i;
+        }
+        return conteudo;
+    }
+
+    /**
+     * Conta quantas vezes o conteúdo do multipart é aberto.
+     */
+    private static final class ContadorLeituras extends MockMultipartFile {
+
+        private final AtomicInteger aberturas = new AtomicInteger();
+
+        private ContadorLeituras(MockMultipartFile original) throws IOException {
+            super(original.getName(), original.getOriginalFilename(), original.getContentType(), original.getBytes());
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            aberturas.incrementAndGet();
+            return super.getInputStream();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+import http from 'k6/http';
+import { check } from 'k6';
+
+// Measures throughput and JDBC statements per request on the ticket list,
+// the endpoint the SPA polls. Run once before and once after the
+// authenticated-user cache change and compare the two summaries.
+//
+// Requires the API running with HIBERNATE_STATISTICS=true so that
+// /actuator/hibernate reports queries.prepareStatementCount.
+
+const ITERATIONS = parseInt(__ENV.ITERATIONS || '20000');
+
+export const options = {
+  scenarios: {
+    ticket_list_polling: {
+      executor: 'shared-iterations',
+      vus: parseInt(__ENV.VUS || '50'),
+      iterations: ITERATIONS,
+      maxDuration: '5m',
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const API_VERSION = '/v1';
+
+const testUser = {
+  email: __ENV.EMAIL || 'loadtest@helpdesk.com',
+  password: __ENV.PASSWORD || 'LoadTest123!',
+};
+
+function preparedStatements() {
+  const res = http.get(`${BASE_URL}/actuator/hibernate`);
+  if (res.status !== 200) {
+    return null;
+  }
+  return JSON.parse(res.body).queries.prepareStatementCount;
+}
+
+export function setup() {
+  const loginRes = http.post(
+    `${BASE_URL}${API_VERSION}/api/auth/login`,
+    JSON.stringify(testUser),
+    { headers: { 'Content-Type': 'application/json' } }
+  );
+  if (loginRes.status !== 200) {
+    console.error('Setup failed: Unable to login');
+    return { token: null };
+  }
+  return {
+    token: JSON.parse(loginRes.body).token,
+    statementsBefore: preparedStatements(),
+  };
+}
+
+export default function (data) {
+  const res = http.get(`${BASE_URL}${API_VERSION}/api/tickets?page=0&size=20`, {
+    headers: { Authorization: `Bearer ${data.token}` },
+  });
+  check(res, { 'list tickets status 200': (r) => r.status === 200 });
+}
+
+export function teardown(data) {
+  const statementsAfter = preparedStatements();
+  if (data.statementsBefore === null || statementsAfter === null) {
+    console.warn('Hibernate statistics unavailable; set HIBERNATE_STATISTICS=true');
+    return;
+  }
+  const perRequest = (statementsAfter - data.statementsBefore) / ITERATIONS;
+  console.log(`JDBC statements per /api/tickets request: ${perRequest.toFixed(2)}`);
+}
@@ -0,0 +1,107 @@
+import http from 'k6/http';
+import { check } from 'k6';
+import encoding from 'k6/encoding';
+import { Trend } from 'k6/metrics';
+
+// Compares offset paging (GET /api/tickets?page=N) with cursor paging
+// (GET /api/tickets/cursor) at pages 1, 100 and 10,000.
+//
+// Page 10,000 needs at least 10,000 * SIZE tickets in the database
+// (200,000 with the default SIZE=20). Setup walks the offset endpoint once
+// to find the key of the row preceding each target page and builds the
+// cursor from it; during the test the cursor endpoint only ever jumps
+// directly to the target page, as a client following nextCursor would.
+
+const SIZE = parseInt(__ENV.SIZE || '20');
+const PAGES = [1, 100, 10000];
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const API_VERSION = '/v1';
+
+const testUser = {
+  email: __ENV.EMAIL || 'admin@helpdesk.com',
+  password: __ENV.PASSWORD || 'Admin123!',
+};
+
+const trends = {};
+for (const page of PAGES) {
+  trends[`offset_${page}`] = new Trend(`offset_page_${page}`, true);
+  trends[`cursor_${page}`] = new Trend(`cursor_page_${page}`, true);
+}
+
+export const options = {
+  scenarios: {
+    pagination_depth: {
+      executor: 'per-vu-iterations',
+      vus: parseInt(__ENV.VUS || '5'),
+      iterations: parseInt(__ENV.ITERATIONS || '50'),
+      maxDuration: '10m',
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+// Same format as TicketCursor.encode(): base64url("dataAbertura|id") without padding
+function cursorFor(ticket) {
+  return encoding.b64encode(`${ticket.dataAbertura}|${ticket.id}`, 'rawurl');
+}
+
+export function setup() {
+  const loginRes = http.post(
+    `${BASE_URL}${API_VERSION}/api/auth/login`,
+    JSON.stringify(testUser),
+    { headers: { 'Content-Type': 'application/json' } }
+  );
+  if (loginRes.status !== 200) {
+    console.error('Setup failed: Unable to login');
+    return { token: null, cursors: {} };
+  }
+  const token = JSON.parse(loginRes.body).token;
+  const headers = { Authorization: `Bearer ${token}` };
+
+  const cursors = {};
+  for (const page of PAGES) {
+    if (page === 1) {
+      cursors[page] = '';
+      continue;
+    }
+    const res = http.get(
+      `${BASE_URL}${API_VERSION}/api/tickets?page=${page - 2}&size=${SIZE}&sort=dataAbertura,desc&sort=id,desc`,
+      { headers }
+    );
+    const content = JSON.parse(res.body).content || [];
+    if (content.length < SIZE) {
+      console.warn(`Not enough tickets for page ${page}; it will be skipped`);
+      continue;
+    }
+    cursors[page] = cursorFor(content[content.length - 1]);
+  }
+  return { token, cursors };
+}
+
+export default function (data) {
+  const headers = { Authorization: `Bearer ${data.token}` };
+
+  for (const page of PAGES) {
+    if (data.cursors[page] === undefined) {
+      continue;
+    }
+
+    const offsetRes = http.get(
+      `${BASE_URL}${API_VERSION}/api/tickets?page=${page - 1}&size=${SIZE}&sort=dataAbertura,desc&sort=id,desc`,
+      { headers, tags: { name: `offset_page_${page}` } }
+    );
+    check(offsetRes, { 'offset page status 200': (r) => r.status === 200 });
+    trends[`offset_${page}`].add(offsetRes.timings.duration);
+
+    const cursorParam = data.cursors[page] ? `&cursor=${data.cursors[page]}` : '';
+    const cursorRes = http.get(
+      `${BASE_URL}${API_VERSION}/api/tickets/cursor?size=${SIZE}${cursorParam}`,
+      { headers, tags: { name: `cursor_page_${page}` } }
+    );
+    check(cursorRes, { 'cursor page status 200': (r) => r.status === 200 });
+    trends[`cursor_${page}`].add(cursorRes.timings.duration);
+  }
+}
@@ -0,0 +1,87 @@
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import { Trend } from 'k6/metrics';
+
+// Full-text search latency (GET /api/tickets/search) with a mix of single
+// words, multi-word and phrase queries, with and without filters.
+//
+// Meant to run against the dataset from helpdesk-api/scripts/GERAR_MASSA_BUSCA.sql
+// (1M tickets by default); the terms below come from that script's vocabulary.
+//
+// All VUs share one login, so the default pace (4 VUs, one request every
+// ~0.5 s each) stays under the 600 requests/minute the endpoint allows an
+// admin; raising VUS turns the excess into 429s instead of measuring search.
+
+const SIZE = parseInt(__ENV.SIZE || '20');
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const API_VERSION = '/v1';
+
+const testUser = {
+  email: __ENV.EMAIL || 'admin@helpdesk.com',
+  password: __ENV.PASSWORD || 'Admin123!',
+};
+
+const QUERIES = [
+  { name: 'word', q: 'impressora' },
+  { name: 'word', q: 'roteador' },
+  { name: 'stemmed', q: 'impressoras travando' },
+  { name: 'words', q: 'notebook lento financeiro' },
+  { name: 'phrase', q: '"tela azul"' },
+  { name: 'exclude', q: 'vpn -garantia' },
+  { name: 'number', q: 'patrimônio 142857' },
+  { name: 'filtered', q: 'driver', filters: '&status=Resolvido&categoria=Software' },
+  { name: 'filtered', q: 'sem conexão', filters: '&dataInicial=2025-01-01&dataFinal=2025-06-30' },
+];
+
+const searchDuration = new Trend('search_duration', true);
+const searchTotals = new Trend('search_total_elements');
+
+export const options = {
+  scenarios: {
+    search: {
+      executor: 'constant-vus',
+      vus: parseInt(__ENV.VUS || '4'),
+      duration: __ENV.DURATION || '2m',
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+    search_duration: ['p(95)<50'],
+  },
+};
+
+export function setup() {
+  const loginRes = http.post(
+    `${BASE_URL}${API_VERSION}/api/auth/login`,
+    JSON.stringify(testUser),
+    { headers: { 'Content-Type': 'application/json' } }
+  );
+  if (loginRes.status !== 200) {
+    console.error('Setup failed: Unable to login');
+    return { token: null };
+  }
+  return { token: JSON.parse(loginRes.body).token };
+}
+
+export default function (data) {
+  const headers = { Authorization: `Bearer ${data.token}` };
+  const query = QUERIES[Math.floor(Math.random() * QUERIES.length)];
+  // Mostly the first page, as users rarely go further
+  const page = Math.random() < 0.8 ? 0 : 1 + Math.floor(Math.random() * 5);
+
+  const res = http.get(
+    `${BASE_URL}${API_VERSION}/api/tickets/search?q=${encodeURIComponent(query.q)}` +
+      `${query.filters || ''}&page=${page}&size=${SIZE}`,
+    { headers, tags: { name: `search_${query.name}` } }
+  );
+  check(res, {
+    'search status 200': (r) => r.status === 200,
+    'search has results': (r) => r.status === 200 && JSON.parse(r.body).content.length > 0,
+  });
+  if (res.status === 200) {
+    searchDuration.add(res.timings.duration, { query: query.name });
+    searchTotals.add(JSON.parse(res.body).totalElements);
+  }
+  sleep(0.5);
+}
@@ -0,0 +1,105 @@
+import http from 'k6/http';
+import { check } from 'k6';
+
+// Compares platform threads with virtual threads on the same API build.
+// Run it twice against the same database, restarting the API in between:
+//
+//   VIRTUAL_THREADS_ENABLED=false  ->  k6 run -e MODE=platform virtual-threads-test.js
+//   VIRTUAL_THREADS_ENABLED=true   ->  k6 run -e MODE=virtual  virtual-threads-test.js
+//
+// Each run writes results/virtual-threads-<MODE>.json; compare the http_reqs
+// rate (throughput) and http_req_duration p(99) of the two files. The request
+// mix is JDBC-bound (ticket list, cursor page, dashboard), so with VUS well
+// above Tomcat's 200 platform threads and Hikari's 20 connections the
+// difference shows where requests queue: on the thread pool or on the
+// JDBC admission limiter (jdbc.admission.waiting in /actuator/metrics).
+
+const MODE = __ENV.MODE || 'platform';
+const VUS = parseInt(__ENV.VUS || '400');
+const DURATION = __ENV.DURATION || '2m';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const API_VERSION = '/v1';
+
+const testUser = {
+  email: __ENV.EMAIL || 'admin@helpdesk.com',
+  password: __ENV.PASSWORD || 'Admin123!',
+};
+
+export const options = {
+  scenarios: {
+    saturation: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '20s', target: VUS },
+        { duration: DURATION, target: VUS },
+        { duration: '10s', target: 0 },
+      ],
+      gracefulRampDown: '10s',
+    },
+  },
+  summaryTrendStats: ['avg', 'med', 'p(90)', 'p(95)', 'p(99)', 'max'],
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+export function setup() {
+  const loginRes = http.post(
+    `${BASE_URL}${API_VERSION}/api/auth/login`,
+    JSON.stringify(testUser),
+    { headers: { 'Content-Type': 'application/json' } }
+  );
+  if (loginRes.status !== 200) {
+    console.error('Setup failed: Unable to login');
+    return { token: null };
+  }
+  return { token: JSON.parse(loginRes.body).token };
+}
+
+export default function (data) {
+  const headers = { Authorization: `Bearer ${data.token}` };
+
+  const listRes = http.get(`${BASE_URL}${API_VERSION}/api/tickets?page=0&size=20`, {
+    headers,
+    tags: { name: 'list_tickets' },
+  });
+  check(listRes, { 'list tickets status 200': (r) => r.status === 200 });
+
+  const cursorRes = http.get(`${BASE_URL}${API_VERSION}/api/tickets/cursor?size=20`, {
+    headers,
+    tags: { name: 'cursor_tickets' },
+  });
+  check(cursorRes, { 'cursor tickets status 200': (r) => r.status === 200 });
+
+  const dashboardRes = http.get(`${BASE_URL}${API_VERSION}/api/dashboard/stats`, {
+    headers,
+    tags: { name: 'dashboard_stats' },
+  });
+  check(dashboardRes, { 'dashboard status 200': (r) => r.status === 200 });
+}
+
+export function handleSummary(data) {
+  const reqs = data.metrics.http_reqs.values;
+  const duration = data.metrics.http_req_duration.values;
+  const line =
+    `[${MODE}] VUs=${VUS} throughput=${reqs.rate.toFixed(1)} req/s ` +
+    `p95=${duration['p(95)'].toFixed(1)}ms p99=${duration['p(99)'].toFixed(1)}ms ` +
+    `failed=${(data.metrics.http_req_failed.values.rate * 100).toFixed(2)}%\n`;
+  return {
+    stdout: line,
+    [`results/virtual-threads-${MODE}.json`]: JSON.stringify(
+      {
+        mode: MODE,
+        vus: VUS,
+        throughput: reqs.rate,
+        p95: duration['p(95)'],
+        p99: duration['p(99)'],
+        failedRate: data.metrics.http_req_failed.values.rate,
+      },
+      null,
+      2
+    ),
+  };
+}
@@ -67,12 +67,35 @@ CREATE TABLE public.chamados (
     FOREIGN KEY (id_prioridade) REFERENCES public.prioridades(id)
 );
 
+-- Sequência de numeração dos chamados por ano (reservada em blocos pela aplicação)
+CREATE TABLE public.sequencias_chamados (
+    ano INTEGER PRIMARY KEY,
+    ultimo_reservado BIGINT NOT NULL
+);
+
+-- Resumo diário de chamados (mantido pela aplicação; base dos relatórios e métricas)
+CREATE TABLE public.resumo_diario_chamados (
+    id BIGSERIAL PRIMARY KEY,
+    dia DATE NOT NULL,
+    categoria VARCHAR(255) NOT NULL,
+    prioridade VARCHAR(255) NOT NULL,
+    id_tecnico BIGINT NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    abertos BIGINT NOT NULL,
+    fechados BIGINT NOT NULL,
+    duracao_segundos BIGINT NOT NULL,
+    fechados_sla_violado BIGINT NOT NULL,
+    CONSTRAINT uk_resumo_diario_chave UNIQUE (dia, categoria, prioridade, id_tecnico, status)
+);
+
 -- Tabela para Anexos
 CREATE TABLE public.anexos_chamados (
     id SERIAL PRIMARY KEY,
     nome_arquivo VARCHAR(255) NOT NULL,
     tipo_arquivo VARCHAR(100) NOT NULL,
-    dados TEXT NOT NULL,
+    dados TEXT,
+    chave_armazenamento VARCHAR(512),
+    tamanho BIGINT,
     id_chamado INTEGER NOT NULL,
     data_upload TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (id_chamado) REFERENCES public.chamados(id) ON DELETE CASCADE